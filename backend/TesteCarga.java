@@ -0,0 +1,290 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Teste de carga para comparar o backend com threads do Tomcat e com threads
+ * virtuais (perfil "virtual")
+ *
+ * Mede vazão e latência (p50, p99, máximo) de um cenário por execução:
+ * - obras: GET /api/obras
+ * - emprestimos: POST /api/emprestimos/realizar seguido da devolução (só o
+ *   empréstimo é medido); cada cliente usa um exemplar disponível diferente
+ *
+ * Execute com o backend no ar (Java 21+), informando um usuário para o login
+ * (todas as requisições levam o token de acesso, renovado antes de vencer):
+ *   BIBLIOTECA_EMAIL=... BIBLIOTECA_SENHA=... \
+ *   java TesteCarga.java obras [clientes=64] [segundos=30] [url=http://localhost:8080/api]
+ *
+ * Para comparar, rode o mesmo cenário com o backend iniciado normalmente e com
+ * --spring.profiles.active=virtual. Com -Djdk.tracePinnedThreads=short no
+ * backend, as threads virtuais presas a uma thread do sistema aparecem no log.
+ */
+public class TesteCarga {
+
+    private static final Duration AQUECIMENTO = Duration.ofSeconds(10);
+    private static final Pattern OBJETO = Pattern.compile("\\{[^{}]*\\}");
+    private static final Pattern ID_EXEMPLAR = Pattern.compile("\"idExemplar\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern ID_USUARIO = Pattern.compile("\"idUsuario\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern ID_EMPRESTIMO = Pattern.compile("\"idEmprestimo\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern TOKEN_ACESSO = Pattern.compile("\"tokenAcesso\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern EXPIRA_EM = Pattern.compile("\"expiraEmSegundos\"\\s*:\\s*(\\d+)");
+    // Renova o token um pouco antes de vencer
+    private static final Duration MARGEM_TOKEN = Duration.ofSeconds(30);
+
+    private static final HttpClient CLIENTE = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+
+    private static String url;
+    private static String email;
+    private static String senha;
+    private static volatile String token;
+    private static volatile long tokenExpiraEm;
+
+    public static void main(String[] args) throws Exception {
+        String cenario = args.length > 0 ? args[0] : "obras";
+        int clientes = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int segundos = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        url = args.length > 3 ? args[3] : "http://localhost:8080/api";
+        email = System.getenv("BIBLIOTECA_EMAIL");
+        senha = System.getenv("BIBLIOTECA_SENHA");
+        if (email == null || senha == null) {
+            throw new IllegalStateException("Informe BIBLIOTECA_EMAIL e BIBLIOTECA_SENHA para o login");
+        }
+        entrar();
+
+        List<Operacao> operacoes = switch (cenario) {
+            case "obras" -> listarObras(clientes);
+            case "emprestimos" -> realizarEmprestimos(clientes);
+            default -> throw new IllegalArgumentException("Cenário inválido: " + cenario);
+        };
+
+        System.out.println("=== TESTE DE CARGA: " + cenario + " ===");
+        System.out.println("Clientes: " + operacoes.size() + " | Duração: " + segundos + "s | URL: " + url);
+
+        System.out.println("Aquecendo por " + AQUECIMENTO.toSeconds() + "s...");
+        executar(operacoes, AQUECIMENTO);
+        Resultado resultado = executar(operacoes, Duration.ofSeconds(segundos));
+
+        long[] latencias = resultado.latencias();
+        Arrays.sort(latencias);
+        double vazao = latencias.length / (double) segundos;
+        System.out.printf("Requisições: %d (erros: %d)%n", latencias.length, resultado.erros());
+        System.out.printf("Vazão: %.1f req/s%n", vazao);
+        System.out.printf("Latência: p50 %.1f ms | p99 %.1f ms | máx %.1f ms%n",
+            percentil(latencias, 50), percentil(latencias, 99), percentil(latencias, 100));
+        // Linha única para comparar execuções (cenario;clientes;req/s;p50;p99;max;erros)
+        System.out.printf("RESUMO;%s;%d;%.1f;%.1f;%.1f;%.1f;%d%n", cenario, operacoes.size(), vazao,
+            percentil(latencias, 50), percentil(latencias, 99), percentil(latencias, 100), resultado.erros());
+    }
+
+    private static List<Operacao> listarObras(int clientes) {
+        List<Operacao> operacoes = new ArrayList<>();
+        for (int i = 0; i < clientes; i++) {
+            operacoes.add(() -> enviar(autenticada("/obras").GET().build()) / 100 == 2);
+        }
+        return operacoes;
+    }
+
+    private static List<Operacao> realizarEmprestimos(int clientes) throws Exception {
+        List<String> exemplares = new ArrayList<>();
+        Matcher objetos = OBJETO.matcher(buscar("/exemplares"));
+        while (objetos.find()) {
+            String objeto = objetos.group();
+            Matcher id = ID_EXEMPLAR.matcher(objeto);
+            if (objeto.replace(" ", "").contains("\"disponivel\":true") && id.find()) {
+                exemplares.add(id.group(1));
+            }
+        }
+        List<String> usuarios = new ArrayList<>();
+        Matcher ids = ID_USUARIO.matcher(buscar("/usuarios/ativos"));
+        while (ids.find()) {
+            usuarios.add(ids.group(1));
+        }
+        if (exemplares.isEmpty() || usuarios.isEmpty()) {
+            throw new IllegalStateException("É preciso ter exemplares disponíveis e usuários ativos");
+        }
+        if (exemplares.size() < clientes) {
+            System.out.println("Só há " + exemplares.size() + " exemplares disponíveis; usando um cliente por exemplar");
+        }
+
+        List<Operacao> operacoes = new ArrayList<>();
+        for (int i = 0; i < Math.min(clientes, exemplares.size()); i++) {
+            String corpo = "{\"idExemplar\":\"" + exemplares.get(i) + "\",\"idUsuario\":\""
+                + usuarios.get(i % usuarios.size()) + "\",\"diasEmprestimo\":\"14\"}";
+            operacoes.add(new Operacao() {
+                private String pendente;
+
+                @Override
+                public boolean executar() throws Exception {
+                    HttpRequest emprestimo = autenticada("/emprestimos/realizar")
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(corpo))
+                        .build();
+                    HttpResponse<String> resposta = CLIENTE.send(emprestimo, HttpResponse.BodyHandlers.ofString());
+                    Matcher id = ID_EMPRESTIMO.matcher(resposta.body());
+                    if (resposta.statusCode() != 200 || !id.find()) {
+                        return false;
+                    }
+                    pendente = id.group(1);
+                    return true;
+                }
+
+                @Override
+                public void depois() throws Exception {
+                    // Devolve para o exemplar voltar a ficar disponível (fora da medição)
+                    if (pendente != null) {
+                        enviar(autenticada("/emprestimos/" + pendente + "/devolver")
+                            .POST(HttpRequest.BodyPublishers.noBody())
+                            .build());
+                        pendente = null;
+                    }
+                }
+            });
+        }
+        return operacoes;
+    }
+
+    /**
+     * Cada cliente repete a operação sem pausa até o fim do período
+     */
+    private static Resultado executar(List<Operacao> operacoes, Duration duracao) throws Exception {
+        long fim = System.nanoTime() + duracao.toNanos();
+        AtomicLong erros = new AtomicLong();
+        List<Future<long[]>> clientes = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Operacao operacao : operacoes) {
+                clientes.add(executor.submit(() -> {
+                    long[] latencias = new long[1024];
+                    int total = 0;
+                    while (System.nanoTime() < fim) {
+                        long inicio = System.nanoTime();
+                        boolean sucesso;
+                        try {
+                            sucesso = operacao.executar();
+                        } catch (Exception e) {
+                            sucesso = false;
+                        }
+                        long latencia = System.nanoTime() - inicio;
+                        if (!sucesso) {
+                            erros.incrementAndGet();
+                        }
+                        if (total == latencias.length) {
+                            latencias = Arrays.copyOf(latencias, total * 2);
+                        }
+                        latencias[total++] = latencia;
+                        try {
+                            operacao.depois();
+                        } catch (Exception e) {
+                            erros.incrementAndGet();
+                        }
+                    }
+                    return Arrays.copyOf(latencias, total);
+                }));
+            }
+        }
+
+        List<long[]> porCliente = new ArrayList<>();
+        int total = 0;
+        for (Future<long[]> cliente : clientes) {
+            long[] latencias = cliente.get();
+            porCliente.add(latencias);
+            total += latencias.length;
+        }
+        long[] todas = new long[total];
+        int posicao = 0;
+        for (long[] latencias : porCliente) {
+            System.arraycopy(latencias, 0, todas, posicao, latencias.length);
+            posicao += latencias.length;
+        }
+        return new Resultado(todas, erros.get());
+    }
+
+    private static int enviar(HttpRequest requisicao) throws Exception {
+        return CLIENTE.send(requisicao, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static String buscar(String caminho) throws Exception {
+        HttpResponse<String> resposta = CLIENTE.send(autenticada(caminho).GET().build(),
+            HttpResponse.BodyHandlers.ofString());
+        if (resposta.statusCode() != 200) {
+            throw new IllegalStateException("GET " + caminho + " respondeu " + resposta.statusCode());
+        }
+        return resposta.body();
+    }
+
+    /**
+     * Requisição para o caminho com o token de acesso, renovado pelo login
+     * quando está perto de vencer
+     */
+    private static HttpRequest.Builder autenticada(String caminho) throws Exception {
+        if (System.nanoTime() - tokenExpiraEm >= 0) {
+            entrar();
+        }
+        return HttpRequest.newBuilder(URI.create(url + caminho))
+            .header("Authorization", "Bearer " + token);
+    }
+
+    private static synchronized void entrar() throws Exception {
+        if (token != null && System.nanoTime() - tokenExpiraEm < 0) {
+            return;
+        }
+        String corpo = "{\"email\":\"" + json(email) + "\",\"senha\":\"" + json(senha) + "\"}";
+        HttpResponse<String> resposta = CLIENTE.send(HttpRequest.newBuilder(URI.create(url + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(corpo))
+                .build(),
+            HttpResponse.BodyHandlers.ofString());
+        Matcher acesso = TOKEN_ACESSO.matcher(resposta.body());
+        Matcher expira = EXPIRA_EM.matcher(resposta.body());
+        if (resposta.statusCode() != 200 || !acesso.find() || !expira.find()) {
+            throw new IllegalStateException("Login falhou (" + resposta.statusCode() + "): " + resposta.body());
+        }
+        Duration validade = Duration.ofSeconds(Long.parseLong(expira.group(1))).minus(MARGEM_TOKEN);
+        token = acesso.group(1);
+        tokenExpiraEm = System.nanoTime() + Math.max(0, validade.toNanos());
+    }
+
+    private static String json(String texto) {
+        return texto.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    /**
+     * Percentil em milissegundos de latências já ordenadas (nanossegundos)
+     */
+    private static double percentil(long[] ordenadas, double percentil) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int indice = (int) Math.ceil(percentil / 100 * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, Math.min(indice, ordenadas.length - 1))] / 1_000_000.0;
+    }
+
+    private interface Operacao {
+        /**
+         * Operação medida; devolve false em caso de erro
+         */
+        boolean executar() throws Exception;
+
+        /**
+         * Trabalho após a medição (ex.: desfazer o que a operação fez)
+         */
+        default void depois() throws Exception {
+        }
+    }
+
+    private record Resultado(long[] latencias, long erros) {
+    }
+}
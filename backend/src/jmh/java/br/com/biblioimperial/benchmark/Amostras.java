@@ -0,0 +1,125 @@
+package br.com.biblioimperial.benchmark;
+
+import br.com.biblioimperial.model.mysql.Autor;
+import br.com.biblioimperial.model.mysql.Categoria;
+import br.com.biblioimperial.model.mysql.Emprestimo;
+import br.com.biblioimperial.model.mysql.Exemplar;
+import br.com.biblioimperial.model.mysql.GrupoUsuario;
+import br.com.biblioimperial.model.mysql.Obra;
+import br.com.biblioimperial.model.mysql.Usuario;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dados em memória para os benchmarks, com o mesmo formato dos grafos que
+ * os repositórios carregam (empréstimo -> exemplar -> obra, usuário -> grupo)
+ *
+ * Os dados são sempre os mesmos para a mesma quantidade, então execuções
+ * diferentes medem o mesmo trabalho.
+ */
+public final class Amostras {
+
+    public static final int TOTAL_CATEGORIAS = 20;
+    public static final int TOTAL_AUTORES = 200;
+    public static final int AUTORES_POR_OBRA = 2;
+
+    private static final LocalDateTime REFERENCIA = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+    private Amostras() {
+    }
+
+    public static List<Categoria> categorias() {
+        List<Categoria> categorias = new ArrayList<>(TOTAL_CATEGORIAS);
+        for (int i = 0; i < TOTAL_CATEGORIAS; i++) {
+            categorias.add(new Categoria(String.format("CAT-%05d", i), "Categoria " + i,
+                "Descrição da categoria " + i, i % 5, REFERENCIA));
+        }
+        return categorias;
+    }
+
+    public static List<Autor> autores() {
+        List<Autor> autores = new ArrayList<>(TOTAL_AUTORES);
+        for (int i = 0; i < TOTAL_AUTORES; i++) {
+            autores.add(new Autor(String.format("AUT-%05d", i), "Autor " + i, "Biografia do autor " + i,
+                LocalDate.of(1900 + i % 100, 1 + i % 12, 1 + i % 28), null, "Terra", REFERENCIA));
+        }
+        return autores;
+    }
+
+    public static List<Obra> obras(int quantidade) {
+        List<Categoria> categorias = categorias();
+        List<Autor> autores = autores();
+        List<Obra> obras = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            Obra obra = new Obra();
+            obra.setIdObra(String.format("OBR-%06d", i));
+            obra.setTitulo("Crônicas da Cruzada Vol. " + i);
+            obra.setSubtitulo(i % 3 == 0 ? "Edição comentada" : null);
+            obra.setCategoria(categorias.get(i % TOTAL_CATEGORIAS));
+            obra.setIsbn(String.format("978%010d", i));
+            obra.setAnoPublicacao(1980 + i % 45);
+            obra.setEditora("Black Library");
+            obra.setNumPaginas(200 + i % 600);
+            obra.setSinopse("Relato das campanhas do setor " + i + " durante a Grande Cruzada.");
+            obra.setLocalizacaoFisica("Estante " + (i % 50) + ", prateleira " + (i % 7));
+            obra.setDataCadastro(REFERENCIA);
+            obra.setDataAtualizacao(REFERENCIA);
+            for (int a = 0; a < AUTORES_POR_OBRA; a++) {
+                obra.getAutores().add(autores.get((i + a * 37) % TOTAL_AUTORES));
+            }
+            obras.add(obra);
+        }
+        return obras;
+    }
+
+    public static List<Usuario> usuarios(int quantidade) {
+        List<GrupoUsuario> grupos = new ArrayList<>();
+        for (int nivel = 1; nivel <= 5; nivel++) {
+            grupos.add(new GrupoUsuario(String.format("GRP-%05d", nivel), "Grupo " + nivel,
+                "Grupo de nível " + nivel, nivel, REFERENCIA, true));
+        }
+        List<Usuario> usuarios = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            usuarios.add(new Usuario(String.format("USR-%06d", i), "Usuário " + i, "usuario" + i + "@biblioimp.org",
+                "$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy", grupos.get(i % grupos.size()),
+                REFERENCIA, REFERENCIA.plusDays(i % 30), true, 0));
+        }
+        return usuarios;
+    }
+
+    /**
+     * Empréstimos com exemplar, obra e usuário carregados; um em cada cinco
+     * está atrasado, para passar também pelo cálculo dos dias de atraso
+     */
+    public static List<Emprestimo> emprestimos(int quantidade) {
+        List<Obra> obras = obras(Math.max(1, quantidade / 4));
+        List<Usuario> usuarios = usuarios(Math.max(1, quantidade / 10));
+        List<Emprestimo> emprestimos = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            Exemplar exemplar = new Exemplar();
+            exemplar.setIdExemplar(String.format("EXE-%06d", i));
+            exemplar.setObra(obras.get(i % obras.size()));
+            exemplar.setCodigoBarras(String.format("BC%010d", i));
+            exemplar.setDisponivel(false);
+            exemplar.setDataAquisicao(REFERENCIA.toLocalDate());
+            exemplar.setValorAquisicao(new BigDecimal("89.90"));
+            exemplar.setDataCadastro(REFERENCIA);
+
+            Emprestimo emprestimo = new Emprestimo();
+            emprestimo.setIdEmprestimo(String.format("EMP-%06d", i));
+            emprestimo.setExemplar(exemplar);
+            emprestimo.setUsuario(usuarios.get(i % usuarios.size()));
+            emprestimo.setDataEmprestimo(REFERENCIA.plusHours(i));
+            emprestimo.setDataPrevistaDevolucao(REFERENCIA.toLocalDate().plusDays(14));
+            emprestimo.setStatusEmprestimo(i % 5 == 0
+                ? Emprestimo.StatusEmprestimo.ATRASADO
+                : Emprestimo.StatusEmprestimo.ATIVO);
+            emprestimos.add(emprestimo);
+        }
+        return emprestimos;
+    }
+}
@@ -0,0 +1,59 @@
+package br.com.biblioimperial.benchmark;
+
+import br.com.biblioimperial.security.CustomUserDetailsService;
+import br.com.biblioimperial.security.JwtService;
+import br.com.biblioimperial.security.UsuarioAutenticado;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de autenticar uma requisição: a verificação BCrypt (feita só no
+ * login, com o mesmo encoder do SecurityConfig) e a verificação do token
+ * JWT feita pelo filtro em todas as requisições
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AutenticacaoBenchmark {
+
+    private static final String SENHA = "senha123";
+
+    private BCryptPasswordEncoder passwordEncoder;
+    private String senhaHash;
+    private JwtService jwtService;
+    private String tokenAcesso;
+
+    @Setup
+    public void preparar() {
+        passwordEncoder = new BCryptPasswordEncoder();
+        senhaHash = passwordEncoder.encode(SENHA);
+        jwtService = new JwtService("segredo-dos-benchmarks-com-32-bytes-ou-mais", 15, 168);
+        tokenAcesso = jwtService.gerarTokenAcesso(new CustomUserDetailsService.Credenciais(
+            "USR-000001", "usuario1@biblioimp.org", "Usuário 1", senhaHash, true, "Escribas Imperiais", 3));
+    }
+
+    @Benchmark
+    public boolean verificarSenhaBcrypt() {
+        return passwordEncoder.matches(SENHA, senhaHash);
+    }
+
+    @Benchmark
+    public Optional<UsuarioAutenticado> verificarTokenJwt() {
+        return jwtService.validarTokenAcesso(tokenAcesso);
+    }
+}
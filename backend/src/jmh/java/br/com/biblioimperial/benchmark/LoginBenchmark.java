@@ -0,0 +1,124 @@
+package br.com.biblioimperial.benchmark;
+
+import br.com.biblioimperial.controller.AuthController;
+import br.com.biblioimperial.model.mysql.GrupoUsuario;
+import br.com.biblioimperial.model.mysql.Usuario;
+import br.com.biblioimperial.repository.mysql.UsuarioRepository;
+import br.com.biblioimperial.security.CustomUserDetailsService;
+import br.com.biblioimperial.security.JwtService;
+import br.com.biblioimperial.service.UsuarioService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vazão de POST /api/auth/login (AuthController.login) com todas as
+ * threads da máquina: busca das credenciais, uma verificação BCrypt com o
+ * encoder do SecurityConfig e a emissão dos tokens de acesso e de renovação
+ *
+ * O banco fica de fora: o UsuarioRepository responde de um mapa em memória,
+ * e depois do aquecimento as credenciais saem do cache por e-mail, como em
+ * produção. O login com senha errada mostra que o custo está no BCrypt; o
+ * com e-mail desconhecido, que ele é recusado sem chegar à verificação.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class LoginBenchmark {
+
+    private static final int USUARIOS = 1_000;
+    private static final String SENHA = "senha123";
+
+    private AuthController authController;
+
+    @Setup
+    public void preparar() {
+        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+        // Um hash para todos: o custo da verificação é o mesmo, e gerar mil levaria minutos
+        String senhaHash = passwordEncoder.encode(SENHA);
+        GrupoUsuario grupo = new GrupoUsuario();
+        grupo.setIdGrupo("GRP-01");
+        grupo.setNomeGrupo("Escribas Imperiais");
+        grupo.setNivelAcesso(3);
+
+        Map<String, Usuario> usuarios = new HashMap<>();
+        for (int i = 0; i < USUARIOS; i++) {
+            Usuario usuario = new Usuario();
+            usuario.setIdUsuario(String.format("USR-%06d", i));
+            usuario.setNomeCompleto("Usuário " + i);
+            usuario.setEmail(email(i));
+            usuario.setSenhaHash(senhaHash);
+            usuario.setAtivo(true);
+            usuario.setGrupo(grupo);
+            usuarios.put(usuario.getEmail(), usuario);
+        }
+
+        CustomUserDetailsService userDetailsService = new CustomUserDetailsService(
+            repositorioEmMemoria(usuarios), 300_000, 10_000);
+        // Login só confere a senha: o repositório e os eventos do UsuarioService não são usados
+        UsuarioService usuarioService = new UsuarioService(null, passwordEncoder, null);
+        JwtService jwtService = new JwtService("segredo-dos-benchmarks-com-32-bytes-ou-mais", 15, 168);
+        authController = new AuthController(usuarioService, userDetailsService, jwtService);
+    }
+
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> login() {
+        return entrar(emailAleatorio(), SENHA);
+    }
+
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> loginSenhaErrada() {
+        return entrar(emailAleatorio(), "senha-errada");
+    }
+
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> loginEmailDesconhecido() {
+        return entrar("ninguem@biblioimp.org", SENHA);
+    }
+
+    private ResponseEntity<Map<String, Object>> entrar(String email, String senha) {
+        return authController.login(Map.of("email", email, "senha", senha));
+    }
+
+    private static String emailAleatorio() {
+        return email(ThreadLocalRandom.current().nextInt(USUARIOS));
+    }
+
+    private static String email(int i) {
+        return "usuario" + i + "@biblioimp.org";
+    }
+
+    /**
+     * UsuarioRepository que só atende findByEmail, a única consulta do login
+     */
+    private static UsuarioRepository repositorioEmMemoria(Map<String, Usuario> usuarios) {
+        return (UsuarioRepository) Proxy.newProxyInstance(UsuarioRepository.class.getClassLoader(),
+            new Class<?>[]{UsuarioRepository.class}, (proxy, metodo, argumentos) -> {
+                if (metodo.getName().equals("findByEmail")) {
+                    return Optional.ofNullable(usuarios.get((String) argumentos[0]));
+                }
+                throw new UnsupportedOperationException(metodo.getName());
+            });
+    }
+}
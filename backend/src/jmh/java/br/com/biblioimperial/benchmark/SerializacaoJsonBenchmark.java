@@ -0,0 +1,73 @@
+package br.com.biblioimperial.benchmark;
+
+import br.com.biblioimperial.dto.EmprestimoDTO;
+import br.com.biblioimperial.model.mysql.Obra;
+import br.com.biblioimperial.model.mysql.Usuario;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização JSON das respostas da API: obras com categoria e autores e
+ * usuários com grupo (entidades, como nas buscas e listagens) e empréstimos
+ * já convertidos em DTO. O ObjectMapper segue a configuração do Spring Boot
+ * (datas ISO-8601, não timestamps)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializacaoJsonBenchmark {
+
+    @Param({"100", "1000"})
+    public int quantidade;
+
+    private ObjectMapper objectMapper;
+    private List<Obra> obras;
+    private List<Usuario> usuarios;
+    private List<EmprestimoDTO> emprestimos;
+
+    @Setup
+    public void preparar() {
+        objectMapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+        obras = Amostras.obras(quantidade);
+        usuarios = Amostras.usuarios(quantidade);
+        emprestimos = Amostras.emprestimos(quantidade).stream().map(EmprestimoDTO::fromEntity).toList();
+    }
+
+    @Benchmark
+    public byte[] serializarObras() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(obras);
+    }
+
+    @Benchmark
+    public byte[] serializarUsuarios() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(usuarios);
+    }
+
+    @Benchmark
+    public byte[] serializarEmprestimos() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(emprestimos);
+    }
+}
@@ -0,0 +1,46 @@
+package br.com.biblioimperial.dto;
+
+import br.com.biblioimperial.benchmark.Amostras;
+import br.com.biblioimperial.model.mysql.Emprestimo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversão das listas de empréstimos (EmprestimoDTO.fromEntity), usada
+ * pelas listagens e exportações de empréstimos
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmprestimoDTOBenchmark {
+
+    @Param({"100", "1000"})
+    public int quantidade;
+
+    private List<Emprestimo> emprestimos;
+
+    @Setup
+    public void preparar() {
+        emprestimos = Amostras.emprestimos(quantidade);
+    }
+
+    @Benchmark
+    public List<EmprestimoDTO> converterLista() {
+        return emprestimos.stream().map(EmprestimoDTO::fromEntity).toList();
+    }
+}
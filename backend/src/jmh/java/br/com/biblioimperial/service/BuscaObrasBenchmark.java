@@ -0,0 +1,207 @@
+package br.com.biblioimperial.service;
+
+import br.com.biblioimperial.model.mysql.Autor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latência de GET /api/obras/buscar (BuscaObrasService) sobre o índice
+ * invertido com 1 milhão de obras; o modo SampleTime registra cada busca,
+ * então o resultado traz os percentis (p0.99 é a meta de 10 ms)
+ *
+ * As obras usam um vocabulário sintético com frequências de Zipf, como um
+ * catálogo real: poucas palavras muito comuns e uma cauda longa de raras.
+ * As posições mais comuns são as palavras vazias do português, que a
+ * análise descarta como faria com os textos reais.
+ * As consultas seguem a mesma distribuição, e cada tipo exercita um caminho
+ * do índice: termo exato, duas palavras, prefixo em digitação, erro de
+ * digitação e ISBN. A montagem do índice leva alguns segundos e usa ~2 GB.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class BuscaObrasBenchmark {
+
+    private static final int TAMANHO_VOCABULARIO = 20_000;
+    private static final int TOTAL_AUTORES = 5_000;
+    private static final int PALAVRAS_TITULO = 4;
+    private static final int PALAVRAS_SINOPSE = 12;
+    private static final int TOTAL_CONSULTAS = 1024;
+    private static final int LIMITE = 20;
+    private static final String[] PALAVRAS_VAZIAS = {
+        "de", "a", "o", "que", "e", "do", "da", "em", "um", "para", "com", "uma", "os", "no", "se", "na",
+        "por", "as", "dos", "ao", "das", "ou", "nos", "nas"
+    };
+    private static final String[] SILABAS = {
+        "ba", "be", "bi", "bo", "ca", "ce", "co", "cu", "da", "de", "di", "do", "fa", "fe", "fi", "ga",
+        "go", "la", "le", "li", "lo", "lu", "ma", "me", "mi", "mo", "na", "ne", "no", "pa", "pe", "pi",
+        "po", "ra", "re", "ri", "ro", "ru", "ta", "te", "ti", "to", "va", "ve", "vi", "vo", "za", "zo"
+    };
+
+    @Param({"1000000"})
+    public int obras;
+
+    @Param({"palavra", "duasPalavras", "prefixo", "aproximada", "isbn"})
+    public String tipo;
+
+    private IndiceInvertido indice;
+    private String[] consultas;
+    private int proxima;
+
+    @Setup
+    public void preparar() {
+        Random aleatorio = new Random(42);
+        String[] vocabulario = vocabulario(aleatorio);
+        double[] acumulada = zipf(vocabulario.length);
+
+        List<Autor> autores = new ArrayList<>(TOTAL_AUTORES);
+        LocalDateTime referencia = LocalDateTime.of(2024, 3, 1, 10, 0);
+        for (int i = 0; i < TOTAL_AUTORES; i++) {
+            String nome = maiuscula(vocabulario[aleatorio.nextInt(vocabulario.length)]) + " "
+                + maiuscula(vocabulario[aleatorio.nextInt(vocabulario.length)]);
+            autores.add(new Autor(String.format("AUT-%05d", i), nome, null, null, null, null, referencia));
+        }
+
+        indice = new IndiceInvertido();
+        for (int i = 0; i < obras; i++) {
+            String titulo = frase(vocabulario, acumulada, aleatorio, PALAVRAS_TITULO);
+            String subtitulo = i % 3 == 0 ? frase(vocabulario, acumulada, aleatorio, 2) : null;
+            String sinopse = frase(vocabulario, acumulada, aleatorio, PALAVRAS_SINOPSE);
+            List<Autor> autoresDaObra = List.of(autores.get(aleatorio.nextInt(TOTAL_AUTORES)),
+                autores.get(aleatorio.nextInt(TOTAL_AUTORES)));
+            indice.adicionar(String.format("OBR-%07d", i),
+                BuscaObrasService.frequencias(titulo, subtitulo, sinopse, isbn(i), autoresDaObra));
+        }
+
+        Set<String> existentes = Set.of(vocabulario);
+        consultas = new String[TOTAL_CONSULTAS];
+        for (int i = 0; i < TOTAL_CONSULTAS; i++) {
+            String palavra = vocabulario[sortear(acumulada, aleatorio)];
+            consultas[i] = switch (tipo) {
+                case "palavra" -> palavra + " ";
+                case "duasPalavras" -> palavra + " " + vocabulario[sortear(acumulada, aleatorio)] + " ";
+                case "prefixo" -> palavra.substring(0, Math.min(palavra.length(), 3 + aleatorio.nextInt(2)));
+                case "aproximada" -> comErro(palavraTolerante(vocabulario, acumulada, aleatorio), existentes,
+                    aleatorio) + " ";
+                case "isbn" -> isbn(aleatorio.nextInt(obras));
+                default -> throw new IllegalArgumentException("Tipo de consulta desconhecido: " + tipo);
+            };
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void reiniciarConsultas() {
+        proxima = 0;
+    }
+
+    @Benchmark
+    public List<IndiceInvertido.Resultado> buscar() {
+        String consulta = consultas[proxima];
+        proxima = (proxima + 1) % TOTAL_CONSULTAS;
+        return indice.buscar(consulta, LIMITE);
+    }
+
+    private static String[] vocabulario(Random aleatorio) {
+        Set<String> palavras = new LinkedHashSet<>(List.of(PALAVRAS_VAZIAS));
+        while (palavras.size() < TAMANHO_VOCABULARIO) {
+            StringBuilder palavra = new StringBuilder();
+            int silabas = 2 + aleatorio.nextInt(3);
+            for (int s = 0; s < silabas; s++) {
+                palavra.append(SILABAS[aleatorio.nextInt(SILABAS.length)]);
+            }
+            palavras.add(palavra.toString());
+        }
+        return palavras.toArray(String[]::new);
+    }
+
+    /**
+     * Distribuição acumulada de Zipf (s = 1): a palavra de posição k aparece
+     * com frequência proporcional a 1/k
+     */
+    private static double[] zipf(int tamanho) {
+        double[] acumulada = new double[tamanho];
+        double soma = 0;
+        for (int k = 0; k < tamanho; k++) {
+            soma += 1.0 / (k + 1);
+            acumulada[k] = soma;
+        }
+        for (int k = 0; k < tamanho; k++) {
+            acumulada[k] /= soma;
+        }
+        return acumulada;
+    }
+
+    private static int sortear(double[] acumulada, Random aleatorio) {
+        int posicao = Arrays.binarySearch(acumulada, aleatorio.nextDouble());
+        return Math.min(posicao >= 0 ? posicao : -posicao - 1, acumulada.length - 1);
+    }
+
+    private static String frase(String[] vocabulario, double[] acumulada, Random aleatorio, int palavras) {
+        StringBuilder frase = new StringBuilder();
+        for (int p = 0; p < palavras; p++) {
+            if (p > 0) {
+                frase.append(' ');
+            }
+            frase.append(vocabulario[sortear(acumulada, aleatorio)]);
+        }
+        return frase.toString();
+    }
+
+    /**
+     * Uma palavra longa o bastante para a busca tolerar erros de digitação
+     */
+    private static String palavraTolerante(String[] vocabulario, double[] acumulada, Random aleatorio) {
+        while (true) {
+            String palavra = vocabulario[sortear(acumulada, aleatorio)];
+            if (palavra.length() >= 4) {
+                return palavra;
+            }
+        }
+    }
+
+    /**
+     * A palavra com uma letra trocada, garantindo que o resultado não exista
+     * no vocabulário (senão a busca seria exata)
+     */
+    private static String comErro(String palavra, Set<String> existentes, Random aleatorio) {
+        while (true) {
+            char[] letras = palavra.toCharArray();
+            int posicao = 1 + aleatorio.nextInt(letras.length - 1);
+            letras[posicao] = (char) ('a' + aleatorio.nextInt(26));
+            String errada = new String(letras);
+            if (!existentes.contains(errada)) {
+                return errada;
+            }
+        }
+    }
+
+    private static String isbn(int i) {
+        return String.format("978%010d", i);
+    }
+
+    private static String maiuscula(String palavra) {
+        return Character.toUpperCase(palavra.charAt(0)) + palavra.substring(1);
+    }
+}
@@ -0,0 +1,64 @@
+package br.com.biblioimperial.service;
+
+import br.com.biblioimperial.benchmark.Amostras;
+import br.com.biblioimperial.dto.ObraDTO;
+import br.com.biblioimperial.model.mysql.Autor;
+import br.com.biblioimperial.model.mysql.Obra;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Montagem do catálogo de GET /api/obras (ObraController.listarTodas) sem
+ * o banco: a projeção em ObraDTO de cada linha e a junção dos autores em
+ * lote feita pelo ObraService
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CatalogoObrasBenchmark {
+
+    @Param({"1000", "10000"})
+    public int quantidade;
+
+    private List<Obra> obras;
+    private List<Object[]> autoresPorObra;
+
+    @Setup
+    public void preparar() {
+        obras = Amostras.obras(quantidade);
+        autoresPorObra = new ArrayList<>(quantidade * Amostras.AUTORES_POR_OBRA);
+        for (Obra obra : obras) {
+            for (Autor autor : obra.getAutores()) {
+                autoresPorObra.add(new Object[] {obra.getIdObra(), autor});
+            }
+        }
+    }
+
+    @Benchmark
+    public List<ObraDTO> montarCatalogo() {
+        List<ObraDTO> catalogo = new ArrayList<>(obras.size());
+        for (Obra obra : obras) {
+            catalogo.add(new ObraDTO(obra.getIdObra(), obra.getTitulo(), obra.getSubtitulo(), obra.getIsbn(),
+                obra.getAnoPublicacao(), obra.getEditora(), obra.getIdioma(), obra.getNumPaginas(),
+                obra.getSinopse(), obra.getLocalizacaoFisica(), obra.getCategoria(), 3L));
+        }
+        ObraService.anexarAutores(catalogo, autoresPorObra);
+        return catalogo;
+    }
+}
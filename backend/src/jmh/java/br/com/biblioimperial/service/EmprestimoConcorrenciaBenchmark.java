@@ -0,0 +1,188 @@
+package br.com.biblioimperial.service;
+
+import br.com.biblioimperial.model.mysql.Categoria;
+import br.com.biblioimperial.model.mysql.Emprestimo;
+import br.com.biblioimperial.model.mysql.Exemplar;
+import br.com.biblioimperial.model.mysql.GrupoUsuario;
+import br.com.biblioimperial.model.mysql.Obra;
+import br.com.biblioimperial.model.mysql.Usuario;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vazão de EmprestimoService.realizarEmprestimo com poucos exemplares
+ * disputados: pedidos um a um e de oito threads ao mesmo tempo. Cada
+ * operação sorteia o exemplar e o usuário; quando o empréstimo sai, ele é
+ * devolvido em seguida, então a disputa fica constante durante a medição.
+ * A operação recusada (ExemplarIndisponivelException) também conta, porque
+ * é a resposta que o balcão recebe.
+ *
+ * Roda sobre o H2 em memória no modo MySQL, com o mesmo contexto JPA dos
+ * testes, então mede o custo do UPDATE condicional, das retentativas e da
+ * fila pelas linhas disputadas, e não o do MySQL. Compare as duas medições
+ * da mesma execução: a de oito threads não deve ficar muito abaixo da de
+ * uma. O aquecimento é longo porque o caminho do Hibernate leva dezenas de
+ * segundos para ser compilado.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 10)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmprestimoConcorrenciaBenchmark {
+
+    private static final int USUARIOS = 100;
+    private static final int EXEMPLARES_POR_OBRA = 10;
+
+    @Param({"20"})
+    public int exemplares;
+
+    private ConfigurableApplicationContext contexto;
+    private EmprestimoService emprestimoService;
+
+    @Setup
+    public void preparar() {
+        contexto = new SpringApplicationBuilder(Contexto.class)
+            .web(WebApplicationType.NONE)
+            .logStartupInfo(false)
+            .run("--spring.datasource.url=jdbc:h2:mem:benchmark-emprestimos;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+                    + "DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.hikari.maximum-pool-size=20",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.generate_statistics=false",
+                // application.properties registra cada comando SQL, o que dominaria a medição
+                "--logging.level.root=WARN",
+                "--logging.level.br.com.biblioimperial=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN");
+        emprestimoService = contexto.getBean(EmprestimoService.class);
+        cadastrar(contexto.getBean(TransactionTemplate.class), contexto.getBean(EntityManager.class));
+    }
+
+    @TearDown
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean umPedidoPorVez() {
+        return emprestarEDevolver();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean pedidosDisputados() {
+        return emprestarEDevolver();
+    }
+
+    private boolean emprestarEDevolver() {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        try {
+            Emprestimo emprestimo = emprestimoService.realizarEmprestimo(
+                idExemplar(aleatorio.nextInt(exemplares)), idUsuario(aleatorio.nextInt(USUARIOS)), 14);
+            emprestimoService.realizarDevolucao(emprestimo.getIdEmprestimo());
+            return true;
+        } catch (ExemplarIndisponivelException e) {
+            return false;
+        }
+    }
+
+    private void cadastrar(TransactionTemplate transactionTemplate, EntityManager entityManager) {
+        transactionTemplate.executeWithoutResult(status -> {
+            GrupoUsuario grupo = new GrupoUsuario();
+            grupo.setIdGrupo("GRP-1");
+            grupo.setNomeGrupo("Leitores");
+            grupo.setNivelAcesso(1);
+            entityManager.persist(grupo);
+            for (int i = 0; i < USUARIOS; i++) {
+                Usuario usuario = new Usuario();
+                usuario.setIdUsuario(idUsuario(i));
+                usuario.setNomeCompleto("Usuário " + i);
+                usuario.setEmail(idUsuario(i).toLowerCase() + "@biblioimp.org");
+                usuario.setSenhaHash("$2a$10$hash-do-benchmark");
+                usuario.setGrupo(grupo);
+                entityManager.persist(usuario);
+            }
+
+            Categoria categoria = new Categoria();
+            categoria.setIdCategoria("CAT-1");
+            categoria.setNomeCategoria("Categoria");
+            entityManager.persist(categoria);
+            Obra obra = null;
+            for (int i = 0; i < exemplares; i++) {
+                if (i % EXEMPLARES_POR_OBRA == 0) {
+                    obra = new Obra();
+                    obra.setIdObra(String.format("OBR-%05d", i / EXEMPLARES_POR_OBRA));
+                    obra.setTitulo("Obra " + i);
+                    obra.setCategoria(categoria);
+                    obra.setAutores(new HashSet<>());
+                    entityManager.persist(obra);
+                }
+                Exemplar exemplar = new Exemplar();
+                exemplar.setIdExemplar(idExemplar(i));
+                exemplar.setObra(obra);
+                exemplar.setCodigoBarras("CB-" + idExemplar(i));
+                entityManager.persist(exemplar);
+            }
+        });
+    }
+
+    private static String idExemplar(int i) {
+        return String.format("EXE-%05d", i);
+    }
+
+    private static String idUsuario(int i) {
+        return String.format("USR-%05d", i);
+    }
+
+    /**
+     * Só o JPA do MySQL e o EmprestimoService, como nos testes: sem MongoDB,
+     * servidor web nem segurança
+     */
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = {MongoAutoConfiguration.class, MongoDataAutoConfiguration.class,
+        MongoRepositoriesAutoConfiguration.class, SecurityAutoConfiguration.class,
+        UserDetailsServiceAutoConfiguration.class})
+    @EntityScan("br.com.biblioimperial.model.mysql")
+    @EnableJpaRepositories("br.com.biblioimperial.repository.mysql")
+    @Import(EmprestimoService.class)
+    static class Contexto {
+    }
+}
@@ -0,0 +1,211 @@
+package br.com.biblioimperial.service;
+
+import br.com.biblioimperial.config.HistoricoConsultaMongoConfig;
+import br.com.biblioimperial.dto.HistoricoConsultaDTO;
+import br.com.biblioimperial.dto.PaginaDTO;
+import br.com.biblioimperial.model.mongodb.HistoricoConsulta;
+import br.com.biblioimperial.repository.mongodb.HistoricoConsultaRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo das consultas de historico_consultas com 50 milhões de documentos,
+ * nas duas disposições de HistoricoConsultaMongoConfig: série temporal e
+ * coleção comum com índice TTL
+ *
+ * Precisa de um MongoDB 6+ em BENCHMARK_MONGO_URI (padrão localhost:27017);
+ * usa os bancos biblioteca_benchmark_serie e biblioteca_benchmark_comum. A
+ * carga inicial (um ano de consultas de 100 mil usuários, em ordem de data)
+ * leva vários minutos e só é refeita quando a quantidade muda: a coleção
+ * carga_benchmark guarda quantos documentos a última carga completa gravou.
+ * Cada chamada sorteia o usuário, o tipo ou o período, então o resultado
+ * reflete leituras do disco e não só do cache do servidor. Por isso fica
+ * fora do filtro padrão do perfil jmh: rodar com
+ * -Djmh.filtro=HistoricoConsultaBenchmark.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HistoricoConsultaBenchmark {
+
+    private static final String URI_PADRAO = "mongodb://localhost:27017";
+    private static final String COLECAO = "historico_consultas";
+    private static final String COLECAO_CARGA = "carga_benchmark";
+    private static final int USUARIOS = 100_000;
+    private static final int DIAS = 365;
+    private static final int TAMANHO_LOTE = 10_000;
+    private static final int RESULTADOS_POR_CONSULTA = 10;
+    private static final int LIMITE_PAGINA = 20;
+    private static final int LIMITE_PAGINA_PERIODO = 100;
+    // Retenção maior que o período carregado, para o TTL não apagar a carga durante a medição
+    private static final long RETENCAO_DIAS = 3650;
+    private static final String[] TIPOS = {"OBRA", "OBRA", "OBRA", "OBRA", "OBRA", "OBRA", "OBRA",
+        "AUTOR", "AUTOR", "CATEGORIA"};
+
+    @Param({"50000000"})
+    public long documentos;
+
+    @Param({"true", "false"})
+    public boolean serieTemporal;
+
+    private MongoClient cliente;
+    private HistoricoConsultaService historicoService;
+    private LocalDate primeiroDia;
+
+    @Setup
+    public void preparar() {
+        String uri = System.getenv().getOrDefault("BENCHMARK_MONGO_URI", URI_PADRAO);
+        cliente = MongoClients.create(uri);
+        MongoTemplate mongoTemplate = new MongoTemplate(cliente,
+            serieTemporal ? "biblioteca_benchmark_serie" : "biblioteca_benchmark_comum");
+        primeiroDia = LocalDate.now().minusDays(DIAS);
+
+        if (documentosCarregados(mongoTemplate) != documentos) {
+            mongoTemplate.dropCollection(COLECAO);
+            mongoTemplate.dropCollection(COLECAO_CARGA);
+            new HistoricoConsultaMongoConfig(mongoTemplate, serieTemporal, RETENCAO_DIAS).prepararColecao();
+            carregar(mongoTemplate);
+        } else {
+            // Garante os índices atuais numa carga feita por uma versão anterior
+            new HistoricoConsultaMongoConfig(mongoTemplate, serieTemporal, RETENCAO_DIAS).prepararColecao();
+        }
+
+        HistoricoConsultaRepository repositorio = new MongoRepositoryFactory(mongoTemplate)
+            .getRepository(HistoricoConsultaRepository.class);
+        // A ingestão só é usada na gravação, que não é medida aqui
+        historicoService = new HistoricoConsultaService(repositorio, null, mongoTemplate, new ObjectMapper());
+    }
+
+    @TearDown
+    public void encerrar() {
+        cliente.close();
+    }
+
+    @Benchmark
+    public PaginaDTO<HistoricoConsultaDTO> historicoDoUsuario() {
+        return historicoService.buscarHistoricoPorUsuario(usuarioAleatorio(), null, LIMITE_PAGINA, false);
+    }
+
+    @Benchmark
+    public long contarConsultasDoUsuario() {
+        return historicoService.contarConsultasUsuario(usuarioAleatorio());
+    }
+
+    @Benchmark
+    public PaginaDTO<HistoricoConsultaDTO> consultasPorTipo() {
+        String tipo = TIPOS[ThreadLocalRandom.current().nextInt(TIPOS.length)];
+        return historicoService.buscarPorTipoConsulta(tipo, null, LIMITE_PAGINA, false);
+    }
+
+    @Benchmark
+    public PaginaDTO<HistoricoConsultaDTO> consultasDeUmDia() {
+        LocalDateTime inicio = diaAleatorio(1).atStartOfDay();
+        return historicoService.buscarConsultasPorPeriodo(inicio, inicio.plusDays(1).minusNanos(1), null,
+            LIMITE_PAGINA_PERIODO, false);
+    }
+
+    @Benchmark
+    public PaginaDTO<HistoricoConsultaDTO> consultasDeUmMes() {
+        LocalDateTime inicio = diaAleatorio(30).atStartOfDay();
+        return historicoService.buscarConsultasPorPeriodo(inicio, inicio.plusDays(30).minusNanos(1), null,
+            LIMITE_PAGINA_PERIODO, false);
+    }
+
+    private static String usuarioAleatorio() {
+        return idUsuario(ThreadLocalRandom.current().nextInt(USUARIOS));
+    }
+
+    private LocalDate diaAleatorio(int dias) {
+        return primeiroDia.plusDays(ThreadLocalRandom.current().nextInt(DIAS - dias + 1));
+    }
+
+    private long documentosCarregados(MongoTemplate mongoTemplate) {
+        Document carga = mongoTemplate.getCollection(COLECAO_CARGA).find().first();
+        return carga != null ? carga.get("documentos", Number.class).longValue() : -1;
+    }
+
+    /**
+     * Grava os documentos em ordem de data, como a ingestão faria ao longo
+     * do ano, com os mesmos campos que o mapeamento de HistoricoConsulta grava
+     */
+    private void carregar(MongoTemplate mongoTemplate) {
+        MongoCollection<Document> colecao = mongoTemplate.getCollection(
+            mongoTemplate.getCollectionName(HistoricoConsulta.class));
+        Random aleatorio = new Random(42);
+        long inicio = primeiroDia.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        double intervaloMs = DIAS * 86_400_000.0 / documentos;
+        InsertManyOptions opcoes = new InsertManyOptions().ordered(false);
+        long carregadosEm = System.nanoTime();
+
+        List<Document> lote = new ArrayList<>(TAMANHO_LOTE);
+        for (long i = 0; i < documentos; i++) {
+            int usuario = aleatorio.nextInt(USUARIOS);
+            List<String> resultados = new ArrayList<>(RESULTADOS_POR_CONSULTA);
+            for (int r = 0; r < RESULTADOS_POR_CONSULTA; r++) {
+                resultados.add(String.format("OBR-%06d", aleatorio.nextInt(100_000)));
+            }
+            lote.add(new Document("_id", new ObjectId())
+                .append("idUsuario", idUsuario(usuario))
+                .append("nomeUsuario", "Usuário " + usuario)
+                .append("emailUsuario", "usuario" + usuario + "@biblioimp.org")
+                .append("tipoConsulta", TIPOS[aleatorio.nextInt(TIPOS.length)])
+                .append("termoBusca", "termo " + aleatorio.nextInt(5_000))
+                .append("resultadosIds", resultados)
+                .append("quantidadeResultados", RESULTADOS_POR_CONSULTA)
+                .append("dataHoraConsulta", new Date(inicio + (long) (i * intervaloMs)))
+                .append("ipOrigem", "10.0." + aleatorio.nextInt(256) + "." + aleatorio.nextInt(256))
+                .append("userAgent", "Mozilla/5.0 (X11; Linux x86_64) Firefox/128.0")
+                .append("tempoResposta", (long) aleatorio.nextInt(200))
+                .append("filtrosAplicados", null)
+                .append("_class", HistoricoConsulta.class.getName()));
+            if (lote.size() == TAMANHO_LOTE) {
+                colecao.insertMany(lote, opcoes);
+                lote.clear();
+                if ((i + 1) % 1_000_000 == 0) {
+                    System.out.printf("%d documentos carregados em %d s%n", i + 1,
+                        TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - carregadosEm));
+                }
+            }
+        }
+        if (!lote.isEmpty()) {
+            colecao.insertMany(lote, opcoes);
+        }
+        mongoTemplate.getCollection(COLECAO_CARGA).insertOne(new Document("documentos", documentos));
+    }
+
+    private static String idUsuario(int i) {
+        return String.format("USR-%06d", i);
+    }
+}
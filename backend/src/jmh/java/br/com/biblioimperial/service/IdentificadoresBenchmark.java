@@ -0,0 +1,47 @@
+package br.com.biblioimperial.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Geração dos ids de empréstimo e de usuário (UUID aleatório sobre o
+ * SecureRandom); as variantes com 4 threads mostram a disputa entre
+ * requisições simultâneas
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdentificadoresBenchmark {
+
+    @Benchmark
+    public String gerarIdEmprestimo() {
+        return EmprestimoService.gerarIdEmprestimo();
+    }
+
+    @Benchmark
+    public String gerarIdUsuario() {
+        return UsuarioService.gerarIdUsuario();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String gerarIdEmprestimoConcorrente() {
+        return EmprestimoService.gerarIdEmprestimo();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String gerarIdUsuarioConcorrente() {
+        return UsuarioService.gerarIdUsuario();
+    }
+}
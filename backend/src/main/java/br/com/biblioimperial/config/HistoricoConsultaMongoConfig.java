@@ -0,0 +1,163 @@
+package br.com.biblioimperial.config;
+
+import br.com.biblioimperial.model.mongodb.HistoricoConsulta;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Cria a coleção historico_consultas, seus índices e a retenção (TTL)
+ *
+ * Com biblioteca.historico.serie-temporal=true a coleção é criada como série
+ * temporal (MongoDB 6+): o servidor agrupa as consultas em buckets por usuário
+ * e por período, uma busca por intervalo de datas só lê os buckets desse
+ * intervalo e a retenção descarta buckets inteiros. Uma coleção comum que já
+ * exista não é convertida (ver database/HISTORICO_CONSULTAS_SERIE_TEMPORAL.js);
+ * nela a retenção fica em um índice TTL sobre dataHoraConsulta.
+ * A vantagem da série temporal vem da documentação do MongoDB e não foi
+ * medida com os dados deste projeto; o HistoricoConsultaBenchmark (perfil
+ * jmh) compara as duas disposições.
+ *
+ * Os índices são criados aqui, e não por anotação na entidade, porque a
+ * criação automática de índices criaria a coleção como comum antes disso.
+ */
+@Slf4j
+@Configuration
+public class HistoricoConsultaMongoConfig {
+
+    private static final String CAMPO_DATA = "dataHoraConsulta";
+    private static final String INDICE_TTL = "ttl_data_consulta";
+    // Índices anteriores, sem o _id no fim, substituídos pelos de paginação por cursor
+    private static final List<String> INDICES_SUBSTITUIDOS = List.of("idx_usuario_data", "idx_tipo_data");
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean serieTemporal;
+    private final Duration retencao;
+
+    public HistoricoConsultaMongoConfig(
+            MongoTemplate mongoTemplate,
+            @Value("${biblioteca.historico.serie-temporal:true}") boolean serieTemporal,
+            @Value("${biblioteca.historico.retencao-dias:365}") long retencaoDias) {
+        this.mongoTemplate = mongoTemplate;
+        this.serieTemporal = serieTemporal;
+        this.retencao = Duration.ofDays(retencaoDias);
+    }
+
+    @PostConstruct
+    public void prepararColecao() {
+        String colecao = mongoTemplate.getCollectionName(HistoricoConsulta.class);
+        Document info = descreverColecao(colecao);
+        if (info == null) {
+            criarColecao(colecao);
+            info = descreverColecao(colecao);
+        }
+
+        if (info != null && "timeseries".equals(info.getString("type"))) {
+            ajustarRetencaoSerieTemporal(colecao, info);
+        } else {
+            if (serieTemporal) {
+                log.info("{} já existe como coleção comum; a retenção usa índice TTL", colecao);
+            }
+            ajustarIndiceTtl(colecao);
+        }
+
+        // O _id no fim desempata a ordenação da paginação por cursor (data, id)
+        IndexOperations indices = mongoTemplate.indexOps(colecao);
+        indices.ensureIndex(new Index()
+            .on("idUsuario", Sort.Direction.ASC)
+            .on(CAMPO_DATA, Sort.Direction.DESC)
+            .on("_id", Sort.Direction.DESC)
+            .named("idx_usuario_data_id"));
+        indices.ensureIndex(new Index()
+            .on("tipoConsulta", Sort.Direction.ASC)
+            .on(CAMPO_DATA, Sort.Direction.DESC)
+            .on("_id", Sort.Direction.DESC)
+            .named("idx_tipo_data_id"));
+        indices.ensureIndex(new Index()
+            .on(CAMPO_DATA, Sort.Direction.ASC)
+            .on("_id", Sort.Direction.ASC)
+            .named("idx_data_id"));
+        removerIndicesSubstituidos(indices);
+    }
+
+    /**
+     * Remove os índices que os novos já cobrem, para que as gravações não
+     * continuem pagando a manutenção deles
+     */
+    private void removerIndicesSubstituidos(IndexOperations indices) {
+        indices.getIndexInfo().stream()
+            .map(IndexInfo::getName)
+            .filter(INDICES_SUBSTITUIDOS::contains)
+            .forEach(nome -> {
+                indices.dropIndex(nome);
+                log.info("Índice {} removido de historico_consultas", nome);
+            });
+    }
+
+    private void criarColecao(String colecao) {
+        if (serieTemporal) {
+            // idUsuario como metaField: as consultas de cada usuário ficam nos mesmos buckets.
+            // A retenção (expireAfterSeconds) é aplicada logo depois, pelo collMod
+            // de ajustarRetencaoSerieTemporal
+            mongoTemplate.createCollection(colecao, CollectionOptions.empty()
+                .timeSeries(CollectionOptions.TimeSeriesOptions.timeSeries(CAMPO_DATA)
+                    .metaField("idUsuario")
+                    .granularity(Granularity.HOURS)));
+            log.info("Coleção {} criada como série temporal", colecao);
+        } else {
+            mongoTemplate.createCollection(colecao);
+        }
+    }
+
+    /**
+     * Descrição da coleção em listCollections (tipo e opções), ou null se não existir
+     */
+    private Document descreverColecao(String colecao) {
+        return mongoTemplate.getDb().listCollections()
+            .filter(new Document("name", colecao))
+            .first();
+    }
+
+    private void ajustarRetencaoSerieTemporal(String colecao, Document info) {
+        Document opcoes = info.get("options", Document.class);
+        Number atual = opcoes != null ? opcoes.get("expireAfterSeconds", Number.class) : null;
+        if (atual == null || atual.longValue() != retencao.toSeconds()) {
+            mongoTemplate.executeCommand(new Document("collMod", colecao)
+                .append("expireAfterSeconds", retencao.toSeconds()));
+        }
+    }
+
+    /**
+     * Cria o índice TTL ou, se a retenção configurada mudou, altera o prazo
+     * do índice existente (collMod) em vez de recriá-lo
+     */
+    private void ajustarIndiceTtl(String colecao) {
+        IndexOperations indices = mongoTemplate.indexOps(colecao);
+        Optional<IndexInfo> existente = indices.getIndexInfo().stream()
+            .filter(indice -> INDICE_TTL.equals(indice.getName()))
+            .findFirst();
+        if (existente.isEmpty()) {
+            indices.ensureIndex(new Index()
+                .on(CAMPO_DATA, Sort.Direction.ASC)
+                .expire(retencao)
+                .named(INDICE_TTL));
+        } else if (!existente.get().getExpireAfter().map(retencao::equals).orElse(false)) {
+            mongoTemplate.executeCommand(new Document("collMod", colecao)
+                .append("index", new Document("name", INDICE_TTL)
+                    .append("expireAfterSeconds", retencao.toSeconds())));
+        }
+    }
+}
@@ -1,20 +1,25 @@
 package br.com.biblioimperial.config;
 
+import br.com.biblioimperial.security.JwtAuthenticationFilter;
+import br.com.biblioimperial.security.JwtService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 /**
  * Configuração de Segurança do Spring Security
  * 
- * Implementa autenticação básica e controle de acesso aos endpoints da API.
- * Para um projeto acadêmico de 4º semestre, mantemos a configuração simples
- * mas funcional, sem complexidade excessiva.
+ * Implementa a autenticação por token JWT e o controle de acesso aos
+ * endpoints da API. O login (/api/auth/login) confere a senha uma vez e
+ * emite os tokens; as demais requisições só têm a assinatura conferida.
  *
  */
 @Configuration
@@ -22,7 +27,7 @@ import org.springframework.security.web.SecurityFilterChain;
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, JwtService jwtService) throws Exception {
         http
             // Habilita CORS
             .cors(cors -> {})
@@ -56,8 +61,13 @@ public class SecurityConfig {
                 session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
             )
             
-            // Habilita HTTP Basic Authentication (simples para projeto acadêmico)
-            .httpBasic(basic -> {});
+            // Autenticação pelo header "Authorization: Bearer <token>"
+            .addFilterBefore(new JwtAuthenticationFilter(jwtService), UsernamePasswordAuthenticationFilter.class)
+
+            // Sem token válido em endpoint protegido: 401, sem desafio Basic
+            .exceptionHandling(excecoes ->
+                excecoes.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))
+            );
 
         return http.build();
     }
@@ -0,0 +1,108 @@
+package br.com.biblioimperial.controller;
+
+import br.com.biblioimperial.service.AnaliseConsultasService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Controller REST para as análises das buscas do catálogo
+ * Lê apenas os resumos por hora e por dia, nunca o histórico bruto
+ *
+ */
+@RestController
+@RequestMapping("/api/historico-consultas/analises")
+@RequiredArgsConstructor
+@Tag(name = "Análises de Consultas", description = "Endpoints para análises das buscas (MongoDB)")
+@CrossOrigin(origins = "*")
+public class AnaliseConsultasController {
+
+    private final AnaliseConsultasService analiseService;
+
+    @GetMapping("/termos")
+    @Operation(summary = "Termos mais buscados no período")
+    public ResponseEntity<?> termosMaisBuscados(
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim,
+        @RequestParam(defaultValue = "OBRA") String tipo,
+        @RequestParam(required = false) Integer limite
+    ) {
+        try {
+            return ResponseEntity.ok(analiseService.buscarTermosMaisBuscados(inicio, fim, tipo, false, limite));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/sem-resultado")
+    @Operation(summary = "Termos das buscas sem resultado no período")
+    public ResponseEntity<?> termosSemResultado(
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim,
+        @RequestParam(defaultValue = "OBRA") String tipo,
+        @RequestParam(required = false) Integer limite
+    ) {
+        try {
+            return ResponseEntity.ok(analiseService.buscarTermosMaisBuscados(inicio, fim, tipo, true, limite));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/latencia")
+    @Operation(summary = "Tempo de resposta (média e percentis) por tipo de consulta no período")
+    public ResponseEntity<?> latencia(
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim
+    ) {
+        try {
+            return ResponseEntity.ok(analiseService.buscarLatenciaPorTipo(inicio, fim));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/por-hora")
+    @Operation(summary = "Consultas por hora no período")
+    public ResponseEntity<?> porHora(
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim,
+        @RequestParam(required = false) String tipo
+    ) {
+        try {
+            return ResponseEntity.ok(analiseService.buscarConsultasPorHora(inicio, fim, tipo));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/reconstruir")
+    @Operation(summary = "Refazer em segundo plano os resumos de dias encerrados a partir do histórico")
+    public ResponseEntity<?> reconstruir(
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim
+    ) {
+        try {
+            analiseService.iniciarReconstrucao(inicio, fim);
+            return ResponseEntity.accepted().body(Map.of("mensagem", "Reconstrução iniciada"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/reconstruir")
+    @Operation(summary = "Informar se há uma reconstrução de resumos em andamento")
+    public ResponseEntity<Map<String, Boolean>> situacaoReconstrucao() {
+        return ResponseEntity.ok(Map.of("emAndamento", analiseService.isReconstruindo()));
+    }
+}
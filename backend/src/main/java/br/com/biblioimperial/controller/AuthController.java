@@ -1,6 +1,7 @@
 package br.com.biblioimperial.controller;
 
-import br.com.biblioimperial.model.mysql.Usuario;
+import br.com.biblioimperial.security.CustomUserDetailsService;
+import br.com.biblioimperial.security.JwtService;
 import br.com.biblioimperial.service.UsuarioService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -23,6 +24,8 @@ import java.util.Map;
 public class AuthController {
 
     private final UsuarioService usuarioService;
+    private final CustomUserDetailsService userDetailsService;
+    private final JwtService jwtService;
 
     @PostMapping("/login")
     @Operation(summary = "Realizar login no sistema")
@@ -30,45 +33,56 @@ public class AuthController {
         String email = credentials.get("email");
         String senha = credentials.get("senha");
 
-        Usuario usuario = usuarioService.buscarPorEmail(email)
+        CustomUserDetailsService.Credenciais usuario = userDetailsService.buscarCredenciais(email)
             .orElse(null);
 
-        // DEBUG: Log para diagnóstico
-        System.out.println("=== DEBUG LOGIN ===");
-        System.out.println("Email recebido: " + email);
-        System.out.println("Senha recebida: " + senha);
-        System.out.println("Usuário encontrado: " + (usuario != null ? usuario.getNomeCompleto() : "NULL"));
-        if (usuario != null) {
-            System.out.println("Hash do banco: " + usuario.getSenhaHash());
-            System.out.println("Usuário ativo: " + usuario.getAtivo());
-            boolean senhaValida = usuarioService.validarSenha(senha, usuario.getSenhaHash());
-            System.out.println("Senha válida: " + senhaValida);
-        }
-        System.out.println("==================");
-
         if (usuario == null) {
             return ResponseEntity.status(401).body(Map.of("mensagem", "Credenciais inválidas"));
         }
 
-        if (!usuario.getAtivo()) {
+        if (!usuario.ativo()) {
             return ResponseEntity.status(403).body(Map.of("mensagem", "Usuário inativo"));
         }
 
-        if (!usuarioService.validarSenha(senha, usuario.getSenhaHash())) {
+        // Única verificação BCrypt do login
+        if (senha == null || !usuarioService.validarSenha(senha, usuario.senhaHash())) {
             return ResponseEntity.status(401).body(Map.of("mensagem", "Credenciais inválidas"));
         }
 
-        // Retorna informações do usuário autenticado
+        // Retorna informações do usuário autenticado e os tokens da sessão
         Map<String, Object> response = new HashMap<>();
         response.put("mensagem", "Login realizado com sucesso");
         response.put("usuario", Map.of(
-            "id", usuario.getIdUsuario(),
-            "nome", usuario.getNomeCompleto(),
-            "email", usuario.getEmail(),
-            "grupo", usuario.getGrupo().getNomeGrupo(),
-            "nivelAcesso", usuario.getGrupo().getNivelAcesso()
+            "id", usuario.idUsuario(),
+            "nome", usuario.nomeCompleto(),
+            "email", usuario.email(),
+            "grupo", usuario.nomeGrupo(),
+            "nivelAcesso", usuario.nivelAcesso()
         ));
+        response.putAll(emitirTokens(usuario));
+
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/renovar")
+    @Operation(summary = "Trocar o token de renovação por novos tokens de acesso e de renovação")
+    public ResponseEntity<Map<String, Object>> renovar(@RequestBody Map<String, String> request) {
+        String tokenRenovacao = request.get("tokenRenovacao");
+
+        // Confere o usuário atual: inativado ou com a senha trocada não renova
+        CustomUserDetailsService.Credenciais usuario = jwtService.lerAssuntoRenovacao(tokenRenovacao)
+            .flatMap(userDetailsService::buscarCredenciais)
+            .filter(CustomUserDetailsService.Credenciais::ativo)
+            .filter(credenciais -> jwtService.validarTokenRenovacao(tokenRenovacao, credenciais).isPresent())
+            .orElse(null);
+
+        if (usuario == null) {
+            return ResponseEntity.status(401).body(Map.of("mensagem", "Token de renovação inválido"));
+        }
 
+        Map<String, Object> response = new HashMap<>();
+        response.put("mensagem", "Tokens renovados");
+        response.putAll(emitirTokens(usuario));
         return ResponseEntity.ok(response);
     }
 
@@ -90,4 +104,13 @@ public class AuthController {
             "sql", "UPDATE usuarios SET senha_hash = '" + hash + "' WHERE email = 'samuel.resende@biblioimp.org';"
         ));
     }
+
+    private Map<String, Object> emitirTokens(CustomUserDetailsService.Credenciais usuario) {
+        return Map.of(
+            "tokenAcesso", jwtService.gerarTokenAcesso(usuario),
+            "tokenRenovacao", jwtService.gerarTokenRenovacao(usuario),
+            "tipoToken", "Bearer",
+            "expiraEmSegundos", jwtService.getValidadeAcessoSegundos()
+        );
+    }
 }
@@ -4,6 +4,7 @@ import br.com.biblioimperial.dto.AutorDTO;
 import br.com.biblioimperial.model.mysql.Autor;
 import br.com.biblioimperial.repository.mysql.AutorRepository;
 import br.com.biblioimperial.repository.mysql.ObraRepository;
+import br.com.biblioimperial.service.CacheReferenciaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -27,6 +28,7 @@ public class AutorController {
 
     private final AutorRepository autorRepository;
     private final ObraRepository obraRepository;
+    private final CacheReferenciaService cacheService;
 
     @GetMapping
     @Operation(summary = "Listar todos os autores")
@@ -57,6 +59,7 @@ public class AutorController {
             autor.setIdAutor(novoId);
         }
         Autor autorSalvo = autorRepository.save(autor);
+        cacheService.invalidar(Autor.class);
         return ResponseEntity.status(HttpStatus.CREATED).body(autorSalvo);
     }
 
@@ -67,7 +70,9 @@ public class AutorController {
             return ResponseEntity.notFound().build();
         }
         autor.setIdAutor(id);
-        return ResponseEntity.ok(autorRepository.save(autor));
+        Autor autorSalvo = autorRepository.save(autor);
+        cacheService.invalidar(Autor.class);
+        return ResponseEntity.ok(autorSalvo);
     }
 
     @DeleteMapping("/{id}")
@@ -77,6 +82,7 @@ public class AutorController {
             return ResponseEntity.notFound().build();
         }
         autorRepository.deleteById(id);
+        cacheService.invalidar(Autor.class);
         return ResponseEntity.noContent().build();
     }
 
@@ -0,0 +1,43 @@
+package br.com.biblioimperial.controller;
+
+import br.com.biblioimperial.dto.MetricasCacheDTO;
+import br.com.biblioimperial.service.CacheReferenciaService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controller REST para o cache de segundo nível das tabelas de referência
+ *
+ */
+@RestController
+@RequestMapping("/api/cache")
+@RequiredArgsConstructor
+@Tag(name = "Cache", description = "Endpoints para métricas e invalidação do cache de referência")
+@CrossOrigin(origins = "*")
+public class CacheController {
+
+    private final CacheReferenciaService cacheService;
+
+    @GetMapping("/metricas")
+    @Operation(summary = "Acertos e falhas por região e comandos SQL enviados desde o início da contagem")
+    public ResponseEntity<MetricasCacheDTO> metricas() {
+        return ResponseEntity.ok(cacheService.obterMetricas());
+    }
+
+    @PostMapping("/metricas/zerar")
+    @Operation(summary = "Zerar as métricas (para medir um conjunto de requisições)")
+    public ResponseEntity<Void> zerarMetricas() {
+        cacheService.zerarMetricas();
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/invalidar")
+    @Operation(summary = "Descartar categorias, autores e grupos em cache (após alterações direto no banco)")
+    public ResponseEntity<Void> invalidar() {
+        cacheService.invalidarTudo();
+        return ResponseEntity.noContent().build();
+    }
+}
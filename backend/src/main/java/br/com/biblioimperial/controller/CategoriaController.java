@@ -4,6 +4,7 @@ import br.com.biblioimperial.dto.CategoriaDTO;
 import br.com.biblioimperial.model.mysql.Categoria;
 import br.com.biblioimperial.repository.mysql.CategoriaRepository;
 import br.com.biblioimperial.repository.mysql.ObraRepository;
+import br.com.biblioimperial.service.CacheReferenciaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -27,6 +28,7 @@ public class CategoriaController {
 
     private final CategoriaRepository categoriaRepository;
     private final ObraRepository obraRepository;
+    private final CacheReferenciaService cacheService;
 
     @GetMapping
     @Operation(summary = "Listar todas as categorias")
@@ -63,6 +65,7 @@ public class CategoriaController {
             categoria.setIdCategoria(novoId);
         }
         Categoria categoriaSalva = categoriaRepository.save(categoria);
+        cacheService.invalidar(Categoria.class);
         return ResponseEntity.status(HttpStatus.CREATED).body(categoriaSalva);
     }
 
@@ -73,7 +76,9 @@ public class CategoriaController {
             return ResponseEntity.notFound().build();
         }
         categoria.setIdCategoria(id);
-        return ResponseEntity.ok(categoriaRepository.save(categoria));
+        Categoria categoriaSalva = categoriaRepository.save(categoria);
+        cacheService.invalidar(Categoria.class);
+        return ResponseEntity.ok(categoriaSalva);
     }
 
     @DeleteMapping("/{id}")
@@ -83,6 +88,7 @@ public class CategoriaController {
             return ResponseEntity.notFound().build();
         }
         categoriaRepository.deleteById(id);
+        cacheService.invalidar(Categoria.class);
         return ResponseEntity.noContent().build();
     }
 
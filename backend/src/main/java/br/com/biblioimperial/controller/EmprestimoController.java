@@ -1,22 +1,27 @@
 package br.com.biblioimperial.controller;
 
 import br.com.biblioimperial.dto.EmprestimoDTO;
+import br.com.biblioimperial.dto.PaginaDTO;
+import br.com.biblioimperial.dto.ResultadoLoteDTO;
 import br.com.biblioimperial.model.mysql.Emprestimo;
-import br.com.biblioimperial.model.mysql.Exemplar;
-import br.com.biblioimperial.model.mysql.Usuario;
 import br.com.biblioimperial.repository.mysql.EmprestimoRepository;
-import br.com.biblioimperial.repository.mysql.ExemplarRepository;
-import br.com.biblioimperial.repository.mysql.UsuarioRepository;
+import br.com.biblioimperial.service.ContadorCacheService;
+import br.com.biblioimperial.service.EmprestimoService;
+import br.com.biblioimperial.service.ExemplarIndisponivelException;
+import br.com.biblioimperial.service.ExportacaoNdjsonService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 
@@ -29,10 +34,13 @@ public class EmprestimoController {
     private EmprestimoRepository emprestimoRepository;
     
     @Autowired
-    private ExemplarRepository exemplarRepository;
-    
+    private EmprestimoService emprestimoService;
+
     @Autowired
-    private UsuarioRepository usuarioRepository;
+    private ExportacaoNdjsonService exportacaoService;
+
+    @Autowired
+    private ContadorCacheService contadorCache;
 
     /**
      * Lista todos os empréstimos
@@ -46,6 +54,31 @@ public class EmprestimoController {
         return ResponseEntity.ok(emprestimos);
     }
 
+    /**
+     * Lista empréstimos paginados por cursor, em ordem de data do empréstimo
+     */
+    @GetMapping("/pagina")
+    public ResponseEntity<?> listarPagina(
+            @RequestParam(required = false) String apos,
+            @RequestParam(required = false) Integer limite) {
+        int tamanho = PaginaDTO.limitar(limite);
+        try {
+            return ResponseEntity.ok(PaginaDTO.of(buscarPagina(apos, tamanho), tamanho, this::cursorDe));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Exporta todos os empréstimos em NDJSON
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportar() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(exportacaoService.exportar(this::buscarPagina, this::cursorDe));
+    }
+
     /**
      * Busca empréstimos de um usuário específico
      */
@@ -72,12 +105,12 @@ public class EmprestimoController {
     }
 
     /**
-     * Busca empréstimos atrasados
+     * Busca empréstimos atrasados (status mantido pela varredura de atrasos)
      */
     @GetMapping("/atrasados")
     public ResponseEntity<List<EmprestimoDTO>> listarAtrasados() {
         List<EmprestimoDTO> emprestimos = emprestimoRepository
-                .findEmprestimosAtrasados(LocalDate.now())
+                .findByStatusEmprestimo(Emprestimo.StatusEmprestimo.ATRASADO)
                 .stream()
                 .map(EmprestimoDTO::fromEntity)
                 .collect(Collectors.toList());
@@ -89,9 +122,8 @@ public class EmprestimoController {
      */
     @GetMapping("/count/ativos")
     public ResponseEntity<Map<String, Long>> contarAtivos() {
-        long count = emprestimoRepository
-                .findByStatusEmprestimo(Emprestimo.StatusEmprestimo.ATIVO)
-                .size();
+        long count = contadorCache.obter("emprestimos.ativos", () -> emprestimoRepository
+                .countByStatusEmprestimo(Emprestimo.StatusEmprestimo.ATIVO));
         return ResponseEntity.ok(Map.of("count", count));
     }
 
@@ -100,18 +132,37 @@ public class EmprestimoController {
      */
     @GetMapping("/count/atrasados")
     public ResponseEntity<Map<String, Long>> contarAtrasados() {
-        long count = emprestimoRepository
-                .findEmprestimosAtrasados(LocalDate.now())
-                .size();
+        long count = contadorCache.obter("emprestimos.atrasados", () -> emprestimoRepository
+                .countByStatusEmprestimo(Emprestimo.StatusEmprestimo.ATRASADO));
         return ResponseEntity.ok(Map.of("count", count));
     }
 
+    /**
+     * Conta empréstimos agrupados por status
+     */
+    @GetMapping("/count/por-status")
+    public ResponseEntity<Map<String, Long>> contarPorStatus() {
+        Map<String, Long> contagem = contadorCache.obter("emprestimos.por-status", () -> {
+            Map<String, Long> porStatus = new LinkedHashMap<>();
+            for (Emprestimo.StatusEmprestimo status : Emprestimo.StatusEmprestimo.values()) {
+                porStatus.put(status.name(), 0L);
+            }
+            for (Object[] linha : emprestimoRepository.contarPorStatus()) {
+                if (linha[0] != null) {
+                    porStatus.put(((Emprestimo.StatusEmprestimo) linha[0]).name(), (Long) linha[1]);
+                }
+            }
+            return porStatus;
+        });
+        return ResponseEntity.ok(contagem);
+    }
+
     /**
      * Busca um empréstimo por ID
      */
     @GetMapping("/{id}")
     public ResponseEntity<EmprestimoDTO> buscarPorId(@PathVariable String id) {
-        return emprestimoRepository.findById(id)
+        return emprestimoRepository.findByIdEmprestimo(id)
                 .map(EmprestimoDTO::fromEntity)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
@@ -133,39 +184,49 @@ public class EmprestimoController {
         try {
             String idExemplar = request.get("idExemplar");
             String idUsuario = request.get("idUsuario");
+            String dias = request.get("diasEmprestimo");
+            int diasEmprestimo = dias != null && !dias.isBlank() ? Integer.parseInt(dias) : 14;
             
-            // Validar exemplar
-            Exemplar exemplar = exemplarRepository.findById(idExemplar)
-                    .orElseThrow(() -> new RuntimeException("Exemplar não encontrado"));
-            
-            if (!exemplar.getDisponivel()) {
-                return ResponseEntity.badRequest()
-                        .body(Map.of("error", "Exemplar não está disponível"));
-            }
-            
-            // Validar usuário
-            Usuario usuario = usuarioRepository.findById(idUsuario)
-                    .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
-            
-            // Criar empréstimo
-            Emprestimo emprestimo = new Emprestimo();
-            emprestimo.setIdEmprestimo("EMP-" + UUID.randomUUID().toString().substring(0, 8));
-            emprestimo.setExemplar(exemplar);
-            emprestimo.setUsuario(usuario);
-            emprestimo.setDataEmprestimo(LocalDateTime.now());
-            emprestimo.setDataPrevistaDevolucao(LocalDate.now().plusDays(14)); // 14 dias
-            emprestimo.setStatusEmprestimo(Emprestimo.StatusEmprestimo.ATIVO);
-            emprestimo.setRenovacoes(0);
-            
-            // Marcar exemplar como indisponível
-            exemplar.setDisponivel(false);
-            exemplarRepository.save(exemplar);
-            
-            // Salvar empréstimo
-            Emprestimo novoEmprestimo = emprestimoRepository.save(emprestimo);
+            Emprestimo novoEmprestimo = emprestimoService.realizarEmprestimo(idExemplar, idUsuario, diasEmprestimo);
             
             return ResponseEntity.ok(EmprestimoDTO.fromEntity(novoEmprestimo));
             
+        } catch (ExemplarIndisponivelException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Exemplar não está disponível"));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Realiza empréstimos de vários exemplares (por código de barras) para um usuário
+     */
+    @PostMapping("/lote")
+    public ResponseEntity<?> realizarEmprestimosEmLote(@RequestBody LoteRequest request) {
+        try {
+            int diasEmprestimo = request.getDiasEmprestimo() != null ? request.getDiasEmprestimo() : 14;
+            ResultadoLoteDTO resultado = emprestimoService.realizarEmprestimosEmLote(
+                    request.getIdUsuario(), request.getCodigosBarras(), diasEmprestimo);
+            return ResponseEntity.ok(resultado);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Devolve vários exemplares de uma vez, por código de barras
+     */
+    @PostMapping("/lote/devolver")
+    public ResponseEntity<?> devolverEmLote(@RequestBody LoteRequest request) {
+        try {
+            return ResponseEntity.ok(emprestimoService.realizarDevolucoesEmLote(request.getCodigosBarras()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", e.getMessage()));
@@ -178,28 +239,13 @@ public class EmprestimoController {
     @RequestMapping(value = "/{id}/devolver", method = {RequestMethod.POST, RequestMethod.PUT})
     public ResponseEntity<?> devolver(@PathVariable String id) {
         try {
-            Emprestimo emprestimo = emprestimoRepository.findById(id)
-                    .orElseThrow(() -> new RuntimeException("Empréstimo não encontrado"));
-            
-            if (emprestimo.getStatusEmprestimo() != Emprestimo.StatusEmprestimo.ATIVO) {
-                return ResponseEntity.badRequest()
-                        .body(Map.of("error", "Empréstimo não está ativo"));
-            }
-            
-            // Atualizar empréstimo
-            emprestimo.setDataDevolucao(LocalDateTime.now());
-            emprestimo.setStatusEmprestimo(Emprestimo.StatusEmprestimo.DEVOLVIDO);
-            
-            // Marcar exemplar como disponível
-            Exemplar exemplar = emprestimo.getExemplar();
-            exemplar.setDisponivel(true);
-            exemplarRepository.save(exemplar);
-            
-            // Salvar empréstimo
-            Emprestimo emprestimoAtualizado = emprestimoRepository.save(emprestimo);
-            
+            // A devolução também fecha a multa de atraso acumulada pela varredura
+            Emprestimo emprestimoAtualizado = emprestimoService.realizarDevolucao(id);
             return ResponseEntity.ok(EmprestimoDTO.fromEntity(emprestimoAtualizado));
             
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", e.getMessage()));
@@ -212,7 +258,7 @@ public class EmprestimoController {
     @PostMapping("/{id}/renovar")
     public ResponseEntity<?> renovar(@PathVariable String id) {
         try {
-            Emprestimo emprestimo = emprestimoRepository.findById(id)
+            Emprestimo emprestimo = emprestimoRepository.findByIdEmprestimo(id)
                     .orElseThrow(() -> new RuntimeException("Empréstimo não encontrado"));
             
             if (emprestimo.getStatusEmprestimo() != Emprestimo.StatusEmprestimo.ATIVO) {
@@ -240,4 +286,42 @@ public class EmprestimoController {
                     .body(Map.of("error", e.getMessage()));
         }
     }
+
+    /**
+     * O cursor de empréstimos é "dataEmprestimo~idEmprestimo", a chave da ordenação
+     */
+    private List<EmprestimoDTO> buscarPagina(String apos, int limite) {
+        List<Emprestimo> pagina;
+        if (apos == null || apos.isBlank()) {
+            pagina = emprestimoRepository.findAllByOrderByDataEmprestimoAscIdEmprestimoAsc(Limit.of(limite));
+        } else {
+            int separador = apos.indexOf('~');
+            if (separador < 0) {
+                throw new IllegalArgumentException("Cursor inválido: " + apos);
+            }
+            LocalDateTime data;
+            try {
+                data = LocalDateTime.parse(apos.substring(0, separador));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Cursor inválido: " + apos);
+            }
+            String id = apos.substring(separador + 1);
+            pagina = emprestimoRepository.findPaginaApos(data, id, Limit.of(limite));
+        }
+        return pagina.stream()
+                .map(EmprestimoDTO::fromEntity)
+                .collect(Collectors.toList());
+    }
+
+    private String cursorDe(EmprestimoDTO emprestimo) {
+        return emprestimo.getDataEmprestimo() + "~" + emprestimo.getIdEmprestimo();
+    }
+
+    // DTO para operações em lote
+    @lombok.Data
+    public static class LoteRequest {
+        private String idUsuario;
+        private List<String> codigosBarras;
+        private Integer diasEmprestimo;
+    }
 }
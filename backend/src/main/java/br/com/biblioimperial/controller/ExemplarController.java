@@ -1,11 +1,16 @@
 package br.com.biblioimperial.controller;
 
 import br.com.biblioimperial.dto.ExemplarDTO;
+import br.com.biblioimperial.dto.PaginaDTO;
 import br.com.biblioimperial.model.mysql.Exemplar;
 import br.com.biblioimperial.repository.mysql.ExemplarRepository;
+import br.com.biblioimperial.service.ExportacaoNdjsonService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -19,6 +24,9 @@ public class ExemplarController {
     @Autowired
     private ExemplarRepository exemplarRepository;
 
+    @Autowired
+    private ExportacaoNdjsonService exportacaoService;
+
     /**
      * Lista todos os exemplares
      */
@@ -31,6 +39,27 @@ public class ExemplarController {
         return ResponseEntity.ok(exemplares);
     }
 
+    /**
+     * Lista exemplares paginados por cursor (id do último exemplar recebido)
+     */
+    @GetMapping("/pagina")
+    public ResponseEntity<PaginaDTO<ExemplarDTO>> listarPagina(
+            @RequestParam(required = false) String apos,
+            @RequestParam(required = false) Integer limite) {
+        int tamanho = PaginaDTO.limitar(limite);
+        return ResponseEntity.ok(PaginaDTO.of(buscarPagina(apos, tamanho), tamanho, ExemplarDTO::getIdExemplar));
+    }
+
+    /**
+     * Exporta todos os exemplares em NDJSON
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportar() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(exportacaoService.exportar(this::buscarPagina, ExemplarDTO::getIdExemplar));
+    }
+
     /**
      * Busca exemplares de uma obra específica
      */
@@ -61,7 +90,7 @@ public class ExemplarController {
      */
     @GetMapping("/{id}")
     public ResponseEntity<ExemplarDTO> buscarPorId(@PathVariable String id) {
-        return exemplarRepository.findById(id)
+        return exemplarRepository.findByIdExemplar(id)
                 .map(ExemplarDTO::fromEntity)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
@@ -81,10 +110,14 @@ public class ExemplarController {
      */
     @PutMapping("/{id}")
     public ResponseEntity<ExemplarDTO> atualizar(@PathVariable String id, @RequestBody Exemplar exemplar) {
-        if (!exemplarRepository.existsById(id)) {
+        Exemplar existente = exemplarRepository.findById(id).orElse(null);
+        if (existente == null) {
             return ResponseEntity.notFound().build();
         }
         exemplar.setIdExemplar(id);
+        if (exemplar.getVersao() == null) {
+            exemplar.setVersao(existente.getVersao());
+        }
         Exemplar exemplarAtualizado = exemplarRepository.save(exemplar);
         return ResponseEntity.ok(ExemplarDTO.fromEntity(exemplarAtualizado));
     }
@@ -100,4 +133,12 @@ public class ExemplarController {
         exemplarRepository.deleteById(id);
         return ResponseEntity.noContent().build();
     }
+
+    private List<ExemplarDTO> buscarPagina(String apos, int limite) {
+        return exemplarRepository
+                .findByIdExemplarGreaterThanOrderByIdExemplarAsc(apos != null ? apos : "", Limit.of(limite))
+                .stream()
+                .map(ExemplarDTO::fromEntity)
+                .collect(Collectors.toList());
+    }
 }
@@ -1,19 +1,27 @@
 package br.com.biblioimperial.controller;
 
+import br.com.biblioimperial.dto.HistoricoConsultaDTO;
+import br.com.biblioimperial.dto.MetricasIngestaoDTO;
+import br.com.biblioimperial.dto.PaginaDTO;
 import br.com.biblioimperial.model.mongodb.HistoricoConsulta;
 import br.com.biblioimperial.service.HistoricoConsultaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controller REST para operações com Histórico de Consultas (MongoDB)
+ * As listagens são paginadas por cursor (parâmetros "apos" e "limite") e só
+ * trazem os ids dos resultados com incluirResultados=true
  *
  */
 @RestController
@@ -26,30 +34,71 @@ public class HistoricoConsultaController {
     private final HistoricoConsultaService historicoService;
 
     @PostMapping
-    @Operation(summary = "Registrar nova consulta no histórico")
+    @Operation(summary = "Registrar nova consulta no histórico (gravação assíncrona)")
     public ResponseEntity<HistoricoConsulta> registrar(@RequestBody HistoricoConsulta historico) {
-        return ResponseEntity.ok(historicoService.registrarConsulta(historico));
+        return ResponseEntity.accepted().body(historicoService.registrarConsulta(historico));
+    }
+
+    @GetMapping("/metricas")
+    @Operation(summary = "Métricas da fila de gravação do histórico")
+    public ResponseEntity<MetricasIngestaoDTO> metricas() {
+        return ResponseEntity.ok(historicoService.obterMetricasIngestao());
     }
 
     @GetMapping("/usuario/{idUsuario}")
-    @Operation(summary = "Buscar histórico de consultas de um usuário")
-    public ResponseEntity<List<HistoricoConsulta>> buscarPorUsuario(@PathVariable String idUsuario) {
-        return ResponseEntity.ok(historicoService.buscarHistoricoPorUsuario(idUsuario));
+    @Operation(summary = "Buscar histórico de consultas de um usuário, das mais recentes para as mais antigas")
+    public ResponseEntity<?> buscarPorUsuario(
+        @PathVariable String idUsuario,
+        @RequestParam(required = false) String apos,
+        @RequestParam(required = false) Integer limite,
+        @RequestParam(defaultValue = "false") boolean incluirResultados
+    ) {
+        try {
+            return ResponseEntity.ok(historicoService.buscarHistoricoPorUsuario(
+                idUsuario, apos, PaginaDTO.limitar(limite), incluirResultados));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     @GetMapping("/usuario/{idUsuario}/recentes")
     @Operation(summary = "Buscar últimas 10 consultas de um usuário")
-    public ResponseEntity<List<HistoricoConsulta>> buscarRecentes(@PathVariable String idUsuario) {
+    public ResponseEntity<List<HistoricoConsultaDTO>> buscarRecentes(@PathVariable String idUsuario) {
         return ResponseEntity.ok(historicoService.buscarUltimasConsultasUsuario(idUsuario));
     }
 
     @GetMapping("/periodo")
     @Operation(summary = "Buscar consultas por período")
-    public ResponseEntity<List<HistoricoConsulta>> buscarPorPeriodo(
+    public ResponseEntity<?> buscarPorPeriodo(
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim,
+        @RequestParam(required = false) String apos,
+        @RequestParam(required = false) Integer limite,
+        @RequestParam(defaultValue = "false") boolean incluirResultados
+    ) {
+        try {
+            return ResponseEntity.ok(historicoService.buscarConsultasPorPeriodo(
+                inicio, fim, apos, PaginaDTO.limitar(limite), incluirResultados));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping(value = "/periodo/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Exportar as consultas do período em NDJSON")
+    public ResponseEntity<?> exportarPorPeriodo(
         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
-        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim,
+        @RequestParam(defaultValue = "false") boolean incluirResultados
     ) {
-        return ResponseEntity.ok(historicoService.buscarConsultasPorPeriodo(inicio, fim));
+        try {
+            StreamingResponseBody corpo = historicoService.exportarConsultasPorPeriodo(inicio, fim, incluirResultados);
+            return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(corpo);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     @GetMapping("/usuario/{idUsuario}/contagem")
@@ -59,8 +108,18 @@ public class HistoricoConsultaController {
     }
 
     @GetMapping("/tipo/{tipoConsulta}")
-    @Operation(summary = "Buscar consultas por tipo")
-    public ResponseEntity<List<HistoricoConsulta>> buscarPorTipo(@PathVariable String tipoConsulta) {
-        return ResponseEntity.ok(historicoService.buscarPorTipoConsulta(tipoConsulta));
+    @Operation(summary = "Buscar consultas por tipo, das mais recentes para as mais antigas")
+    public ResponseEntity<?> buscarPorTipo(
+        @PathVariable String tipoConsulta,
+        @RequestParam(required = false) String apos,
+        @RequestParam(required = false) Integer limite,
+        @RequestParam(defaultValue = "false") boolean incluirResultados
+    ) {
+        try {
+            return ResponseEntity.ok(historicoService.buscarPorTipoConsulta(
+                tipoConsulta, apos, PaginaDTO.limitar(limite), incluirResultados));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 }
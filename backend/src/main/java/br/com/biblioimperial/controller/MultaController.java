@@ -1,13 +1,20 @@
 package br.com.biblioimperial.controller;
 
 import br.com.biblioimperial.dto.MultaDTO;
+import br.com.biblioimperial.dto.PaginaDTO;
 import br.com.biblioimperial.model.mysql.Multa;
 import br.com.biblioimperial.repository.mysql.MultaRepository;
+import br.com.biblioimperial.service.ContadorCacheService;
+import br.com.biblioimperial.service.ExportacaoNdjsonService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -21,6 +28,12 @@ public class MultaController {
     @Autowired
     private MultaRepository multaRepository;
 
+    @Autowired
+    private ExportacaoNdjsonService exportacaoService;
+
+    @Autowired
+    private ContadorCacheService contadorCache;
+
     /**
      * Lista todas as multas
      */
@@ -33,6 +46,27 @@ public class MultaController {
         return ResponseEntity.ok(multas);
     }
 
+    /**
+     * Lista multas paginadas por cursor (id da última multa recebida)
+     */
+    @GetMapping("/pagina")
+    public ResponseEntity<PaginaDTO<MultaDTO>> listarPagina(
+            @RequestParam(required = false) String apos,
+            @RequestParam(required = false) Integer limite) {
+        int tamanho = PaginaDTO.limitar(limite);
+        return ResponseEntity.ok(PaginaDTO.of(buscarPagina(apos, tamanho), tamanho, MultaDTO::getIdMulta));
+    }
+
+    /**
+     * Exporta todas as multas em NDJSON
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportar() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(exportacaoService.exportar(this::buscarPagina, MultaDTO::getIdMulta));
+    }
+
     /**
      * Busca multas de um usuário específico
      */
@@ -88,7 +122,8 @@ public class MultaController {
      */
     @GetMapping("/pendentes/count")
     public ResponseEntity<Map<String, Long>> contarPendentes() {
-        long count = multaRepository.findByStatusMulta(Multa.StatusMulta.PENDENTE).size();
+        long count = contadorCache.obter("multas.pendentes.count", () -> multaRepository
+                .countByStatusMulta(Multa.StatusMulta.PENDENTE));
         return ResponseEntity.ok(Map.of("count", count));
     }
 
@@ -97,19 +132,38 @@ public class MultaController {
      */
     @GetMapping("/pendentes/total")
     public ResponseEntity<Map<String, BigDecimal>> calcularTotalGeralPendentes() {
-        List<Multa> multas = multaRepository.findByStatusMulta(Multa.StatusMulta.PENDENTE);
-        BigDecimal total = multas.stream()
-                .map(Multa::getValorMulta)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal total = contadorCache.obter("multas.pendentes.total", () -> multaRepository
+                .somarValorPorStatus(Multa.StatusMulta.PENDENTE));
         return ResponseEntity.ok(Map.of("total", total));
     }
 
+    /**
+     * Quantidade e valor total de multas agrupados por status
+     */
+    @GetMapping("/resumo")
+    public ResponseEntity<Map<String, Map<String, Object>>> resumirPorStatus() {
+        Map<String, Map<String, Object>> resumo = contadorCache.obter("multas.resumo", () -> {
+            Map<String, Map<String, Object>> porStatus = new LinkedHashMap<>();
+            for (Multa.StatusMulta status : Multa.StatusMulta.values()) {
+                porStatus.put(status.name(), Map.of("count", 0L, "total", BigDecimal.ZERO));
+            }
+            for (Object[] linha : multaRepository.resumirPorStatus()) {
+                if (linha[0] != null) {
+                    porStatus.put(((Multa.StatusMulta) linha[0]).name(),
+                            Map.of("count", linha[1], "total", linha[2]));
+                }
+            }
+            return porStatus;
+        });
+        return ResponseEntity.ok(resumo);
+    }
+
     /**
      * Busca uma multa por ID
      */
     @GetMapping("/{id}")
     public ResponseEntity<MultaDTO> buscarPorId(@PathVariable String id) {
-        return multaRepository.findById(id)
+        return multaRepository.findByIdMulta(id)
                 .map(MultaDTO::fromEntity)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
@@ -120,11 +174,12 @@ public class MultaController {
      */
     @PostMapping("/{id}/pagar")
     public ResponseEntity<MultaDTO> pagarMulta(@PathVariable String id) {
-        return multaRepository.findById(id)
+        return multaRepository.findByIdMulta(id)
                 .map(multa -> {
                     multa.setStatusMulta(Multa.StatusMulta.PAGA);
                     multa.setDataPagamento(java.time.LocalDateTime.now());
                     Multa multaAtualizada = multaRepository.save(multa);
+                    contadorCache.invalidar();
                     return ResponseEntity.ok(MultaDTO.fromEntity(multaAtualizada));
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -135,12 +190,21 @@ public class MultaController {
      */
     @PostMapping("/{id}/cancelar")
     public ResponseEntity<MultaDTO> cancelarMulta(@PathVariable String id) {
-        return multaRepository.findById(id)
+        return multaRepository.findByIdMulta(id)
                 .map(multa -> {
                     multa.setStatusMulta(Multa.StatusMulta.CANCELADA);
                     Multa multaAtualizada = multaRepository.save(multa);
+                    contadorCache.invalidar();
                     return ResponseEntity.ok(MultaDTO.fromEntity(multaAtualizada));
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
+
+    private List<MultaDTO> buscarPagina(String apos, int limite) {
+        return multaRepository
+                .findByIdMultaGreaterThanOrderByIdMultaAsc(apos != null ? apos : "", Limit.of(limite))
+                .stream()
+                .map(MultaDTO::fromEntity)
+                .collect(Collectors.toList());
+    }
 }
@@ -1,15 +1,21 @@
 package br.com.biblioimperial.controller;
 
 import br.com.biblioimperial.dto.ObraDTO;
+import br.com.biblioimperial.dto.PaginaDTO;
+import br.com.biblioimperial.dto.SugestaoDTO;
 import br.com.biblioimperial.model.mysql.Obra;
-import br.com.biblioimperial.repository.mysql.ExemplarRepository;
+import br.com.biblioimperial.service.ExportacaoNdjsonService;
 import br.com.biblioimperial.service.ObraService;
+import br.com.biblioimperial.service.SugestoesService;
+import br.com.biblioimperial.telemetria.RegistrarConsulta;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -22,32 +28,32 @@ import java.util.List;
 public class ObraController {
 
     private final ObraService obraService;
-    private final ExemplarRepository exemplarRepository;
+    private final ExportacaoNdjsonService exportacaoService;
+    private final SugestoesService sugestoesService;
 
     @GetMapping
     @Operation(summary = "Listar todas as obras ativas")
     public ResponseEntity<List<ObraDTO>> listarTodas() {
-        List<Obra> obras = obraService.listarTodasObrasAtivas();
-        List<ObraDTO> obrasDTO = obras.stream()
-            .map(obra -> {
-                ObraDTO dto = new ObraDTO();
-                dto.setIdObra(obra.getIdObra());
-                dto.setTitulo(obra.getTitulo());
-                dto.setSubtitulo(obra.getSubtitulo());
-                dto.setIsbn(obra.getIsbn());
-                dto.setAnoPublicacao(obra.getAnoPublicacao());
-                dto.setEditora(obra.getEditora());
-                dto.setIdioma(obra.getIdioma());
-                dto.setNumPaginas(obra.getNumPaginas());
-                dto.setSinopse(obra.getSinopse());
-                dto.setLocalizacaoFisica(obra.getLocalizacaoFisica());
-                dto.setCategoria(obra.getCategoria());
-                dto.setAutores(obra.getAutores());
-                dto.setTotalExemplares(exemplarRepository.countByObra_IdObra(obra.getIdObra()));
-                return dto;
-            })
-            .toList();
-        return ResponseEntity.ok(obrasDTO);
+        return ResponseEntity.ok(obraService.listarCatalogoAtivo());
+    }
+
+    @GetMapping("/pagina")
+    @Operation(summary = "Listar obras ativas paginadas por cursor")
+    public ResponseEntity<PaginaDTO<ObraDTO>> listarPagina(
+        @RequestParam(required = false) String apos,
+        @RequestParam(required = false) Integer limite
+    ) {
+        int tamanho = PaginaDTO.limitar(limite);
+        List<ObraDTO> obras = obraService.listarPaginaCatalogo(apos, tamanho);
+        return ResponseEntity.ok(PaginaDTO.of(obras, tamanho, ObraDTO::getIdObra));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Exportar obras ativas em NDJSON")
+    public ResponseEntity<StreamingResponseBody> exportar() {
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(exportacaoService.exportar(obraService::listarPaginaCatalogo, ObraDTO::getIdObra));
     }
 
     @GetMapping("/{id}")
@@ -59,18 +65,33 @@ public class ObraController {
     }
 
     @GetMapping("/buscar")
-    @Operation(summary = "Buscar obras por título")
-    public ResponseEntity<List<Obra>> buscarPorTitulo(@RequestParam String titulo) {
-        return ResponseEntity.ok(obraService.buscarPorTitulo(titulo));
+    @RegistrarConsulta(tipo = "OBRA")
+    @Operation(summary = "Buscar obras por título, subtítulo, sinopse, autor ou ISBN")
+    public ResponseEntity<List<Obra>> buscarPorTitulo(
+        @RequestParam String titulo,
+        @RequestParam(required = false) Integer limite
+    ) {
+        return ResponseEntity.ok(obraService.buscarPorTitulo(titulo, PaginaDTO.limitar(limite)));
+    }
+
+    @GetMapping("/sugestoes")
+    @Operation(summary = "Sugerir títulos e autores para o texto digitado, pelos mais emprestados")
+    public ResponseEntity<List<SugestaoDTO>> sugerir(
+        @RequestParam String prefixo,
+        @RequestParam(required = false) Integer limite
+    ) {
+        return ResponseEntity.ok(sugestoesService.sugerir(prefixo, limite));
     }
 
     @GetMapping("/categoria/{idCategoria}")
+    @RegistrarConsulta(tipo = "CATEGORIA")
     @Operation(summary = "Buscar obras por categoria")
     public ResponseEntity<List<Obra>> buscarPorCategoria(@PathVariable String idCategoria) {
         return ResponseEntity.ok(obraService.buscarPorCategoria(idCategoria));
     }
 
     @GetMapping("/autor/{idAutor}")
+    @RegistrarConsulta(tipo = "AUTOR")
     @Operation(summary = "Buscar obras por autor")
     public ResponseEntity<List<Obra>> buscarPorAutor(@PathVariable String idAutor) {
         return ResponseEntity.ok(obraService.buscarPorAutor(idAutor));
@@ -0,0 +1,49 @@
+package br.com.biblioimperial.controller;
+
+import br.com.biblioimperial.model.mongodb.RecomendacaoObra;
+import br.com.biblioimperial.service.RecomendacaoService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Controller REST para as recomendações personalizadas de obras (MongoDB)
+ *
+ */
+@RestController
+@RequestMapping("/api/recomendacoes")
+@RequiredArgsConstructor
+@Tag(name = "Recomendações", description = "Endpoints para recomendações de obras (MongoDB)")
+@CrossOrigin(origins = "*")
+public class RecomendacaoController {
+
+    private final RecomendacaoService recomendacaoService;
+
+    @GetMapping("/{idUsuario}")
+    @Operation(summary = "Recomendações de obras para o usuário")
+    public ResponseEntity<RecomendacaoObra> buscarPorUsuario(@PathVariable String idUsuario) {
+        return ResponseEntity.ok(recomendacaoService.buscarPorUsuario(idUsuario));
+    }
+
+    @PostMapping("/gerar")
+    @Operation(summary = "Recalcular em segundo plano as recomendações de todos os usuários")
+    public ResponseEntity<Map<String, String>> gerar() {
+        try {
+            recomendacaoService.iniciarGeracao();
+            return ResponseEntity.accepted().body(Map.of("mensagem", "Geração iniciada"));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/gerar")
+    @Operation(summary = "Informar se há uma geração de recomendações em andamento")
+    public ResponseEntity<Map<String, Boolean>> situacaoGeracao() {
+        return ResponseEntity.ok(Map.of("emAndamento", recomendacaoService.isGerando()));
+    }
+}
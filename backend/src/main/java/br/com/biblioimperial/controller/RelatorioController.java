@@ -1,14 +1,20 @@
 package br.com.biblioimperial.controller;
 
-import br.com.biblioimperial.model.mysql.Emprestimo;
-import br.com.biblioimperial.repository.mysql.*;
+import br.com.biblioimperial.dto.DashboardDTO;
+import br.com.biblioimperial.dto.EstatisticasDTO;
+import br.com.biblioimperial.model.mysql.EstatisticaObra;
+import br.com.biblioimperial.service.DashboardService;
+import br.com.biblioimperial.service.EstatisticasService;
+import br.com.biblioimperial.service.RankingObrasService;
+import br.com.biblioimperial.service.RankingUsuariosService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 /**
  * Controller REST para relatórios e estatísticas
  *
@@ -20,72 +26,52 @@ import org.springframework.web.bind.annotation.*;
 @CrossOrigin(origins = "*")
 public class RelatorioController {
 
-    private final UsuarioRepository usuarioRepository;
-    private final ObraRepository obraRepository;
-    private final EmprestimoRepository emprestimoRepository;
-    private final ExemplarRepository exemplarRepository;
-    private final CategoriaRepository categoriaRepository;
+    private final EstatisticasService estatisticasService;
+    private final RankingObrasService rankingObrasService;
+    private final RankingUsuariosService rankingUsuariosService;
+    private final DashboardService dashboardService;
 
     @GetMapping("/estatisticas")
     @Operation(summary = "Obter estatísticas gerais do sistema")
     public ResponseEntity<EstatisticasDTO> obterEstatisticas() {
-        EstatisticasDTO stats = new EstatisticasDTO();
-        
-        // Total de usuários ativos
-        long totalUsuarios = usuarioRepository.findAll().stream()
-            .filter(u -> u.getAtivo() != null && u.getAtivo())
-            .count();
-        stats.setTotalUsuarios(totalUsuarios);
-        
-        // Total de obras no acervo
-        stats.setTotalObras(obraRepository.count());
-        
-        // Total de empréstimos ativos
-        long emprestimosAtivos = emprestimoRepository.findAll().stream()
-            .filter(e -> "ATIVO".equals(e.getStatusEmprestimo()))
-            .count();
-        stats.setTotalEmprestimosAtivos(emprestimosAtivos);
-        
-        // Total de empréstimos atrasados
-        long atrasados = emprestimoRepository.findAll().stream()
-            .filter(e -> "ATRASADO".equals(e.getStatusEmprestimo()))
-            .count();
-        stats.setTotalAtrasados(atrasados);
-        
-        // Total de exemplares
-        stats.setTotalExemplares(exemplarRepository.count());
-        
-        // Total de categorias
-        stats.setTotalCategorias(categoriaRepository.count());
-        
-        return ResponseEntity.ok(stats);
+        return ResponseEntity.ok(estatisticasService.obterEstatisticas());
+    }
+
+    @GetMapping("/dashboard")
+    @Operation(summary = "Obter todos os dados do painel administrativo em uma única resposta")
+    public ResponseEntity<DashboardDTO> obterDashboard() {
+        return ResponseEntity.ok(dashboardService.montar());
     }
 
     @GetMapping("/obras/populares")
     @Operation(summary = "Obter obras mais emprestadas")
-    public ResponseEntity<?> obterObrasPopulares(@RequestParam(defaultValue = "10") int limite) {
-        return ResponseEntity.ok(obraRepository.findAll().stream().limit(limite).toList());
+    public ResponseEntity<?> obterObrasPopulares(
+        @RequestParam(defaultValue = "10") int limite,
+        @RequestParam(required = false) String periodo
+    ) {
+        try {
+            return ResponseEntity.ok(rankingObrasService.obterPopulares(periodo, limite));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
-    @GetMapping("/usuarios/ativos")
-    @Operation(summary = "Obter usuários mais ativos")
-    public ResponseEntity<?> obterUsuariosAtivos(@RequestParam(defaultValue = "10") int limite) {
-        return ResponseEntity.ok(usuarioRepository.findAll().stream()
-            .filter(u -> u.getAtivo() != null && u.getAtivo())
-            .limit(limite)
-            .toList());
+    @GetMapping("/obras/{idObra}/estatisticas")
+    @Operation(summary = "Obter contadores de empréstimos de uma obra")
+    public ResponseEntity<EstatisticaObra> obterEstatisticaObra(@PathVariable String idObra) {
+        return ResponseEntity.ok(rankingObrasService.obterEstatisticaObra(idObra));
     }
 
-    /**
-     * DTO para estatísticas gerais
-     */
-    @Data
-    public static class EstatisticasDTO {
-        private Long totalUsuarios;
-        private Long totalObras;
-        private Long totalEmprestimosAtivos;
-        private Long totalAtrasados;
-        private Long totalExemplares;
-        private Long totalCategorias;
+    @GetMapping("/usuarios/ativos")
+    @Operation(summary = "Obter usuários mais ativos")
+    public ResponseEntity<?> obterUsuariosAtivos(
+        @RequestParam(defaultValue = "10") int limite,
+        @RequestParam(defaultValue = "30") int dias
+    ) {
+        if (!RankingUsuariosService.janelaSuportada(dias)) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "Janela deve ser de 7, 30 ou 365 dias"));
+        }
+        return ResponseEntity.ok(rankingUsuariosService.obterMaisAtivos(dias, limite));
     }
 }
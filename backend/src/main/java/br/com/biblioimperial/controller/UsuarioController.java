@@ -1,13 +1,18 @@
 package br.com.biblioimperial.controller;
 
+import br.com.biblioimperial.dto.PaginaDTO;
+import br.com.biblioimperial.dto.UsuarioDTO;
 import br.com.biblioimperial.model.mysql.Usuario;
+import br.com.biblioimperial.service.ExportacaoNdjsonService;
 import br.com.biblioimperial.service.UsuarioService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -20,6 +25,7 @@ import java.util.List;
 public class UsuarioController {
 
     private final UsuarioService usuarioService;
+    private final ExportacaoNdjsonService exportacaoService;
 
     @GetMapping
     @Operation(summary = "Listar todos os usuários")
@@ -27,6 +33,33 @@ public class UsuarioController {
         return ResponseEntity.ok(usuarioService.listarTodosUsuarios());
     }
 
+    @GetMapping("/pagina")
+    @Operation(summary = "Listar usuários paginados por cursor")
+    public ResponseEntity<PaginaDTO<UsuarioDTO>> listarPagina(
+        @RequestParam(required = false) String apos,
+        @RequestParam(required = false) Integer limite
+    ) {
+        int tamanho = PaginaDTO.limitar(limite);
+        return ResponseEntity.ok(PaginaDTO.of(listarPaginaDTO(apos, tamanho), tamanho, UsuarioDTO::getIdUsuario));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Exportar usuários em NDJSON")
+    public ResponseEntity<StreamingResponseBody> exportar() {
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(exportacaoService.exportar(this::listarPaginaDTO, UsuarioDTO::getIdUsuario));
+    }
+
+    /**
+     * Página de usuários sem o hash da senha
+     */
+    private List<UsuarioDTO> listarPaginaDTO(String apos, int limite) {
+        return usuarioService.listarPaginaUsuarios(apos, limite).stream()
+            .map(UsuarioDTO::new)
+            .toList();
+    }
+
     @GetMapping("/ativos")
     @Operation(summary = "Listar usuários ativos")
     public ResponseEntity<List<Usuario>> listarAtivos() {
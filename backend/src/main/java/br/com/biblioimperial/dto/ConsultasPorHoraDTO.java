@@ -0,0 +1,21 @@
+package br.com.biblioimperial.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO para o total de consultas de uma hora
+ *
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConsultasPorHoraDTO {
+
+    private LocalDateTime hora;
+    private Long total;
+    private Long semResultado;
+}
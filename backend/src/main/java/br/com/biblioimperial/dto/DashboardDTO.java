@@ -0,0 +1,26 @@
+package br.com.biblioimperial.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO com todos os dados do painel administrativo em uma única resposta
+ * Usuários e obras vêm na primeira página da paginação por cursor
+ *
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardDTO {
+
+    private EstatisticasDTO estatisticas;
+    private PaginaDTO<UsuarioDTO> usuarios;
+    private List<AutorDTO> autores;
+    private List<CategoriaDTO> categorias;
+    private PaginaDTO<ObraDTO> obras;
+    private List<ObraPopularDTO> obrasPopulares;
+    private List<TermoConsultaDTO> termosMaisBuscados;
+}
@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 /**
  * DTO para transferência de dados de Emprestimo
@@ -54,22 +55,14 @@ public class EmprestimoDTO {
             emprestimo.getStatusEmprestimo().name() : null);
         dto.setObservacoes(emprestimo.getObservacoes());
         
-        // Calcular se está atrasado
-        if (emprestimo.getDataDevolucao() == null && 
-            emprestimo.getDataPrevistaDevolucao() != null) {
-            LocalDate hoje = LocalDate.now();
-            boolean atrasado = hoje.isAfter(emprestimo.getDataPrevistaDevolucao());
-            dto.setAtrasado(atrasado);
-            
-            if (atrasado) {
-                long dias = java.time.temporal.ChronoUnit.DAYS.between(
-                    emprestimo.getDataPrevistaDevolucao(), hoje);
-                dto.setDiasAtraso((int) dias);
-            } else {
-                dto.setDiasAtraso(0);
-            }
+        // O status ATRASADO é mantido pela varredura de atrasos; só os dias de
+        // atraso dependem da data corrente
+        boolean atrasado = emprestimo.getStatusEmprestimo() == Emprestimo.StatusEmprestimo.ATRASADO;
+        dto.setAtrasado(atrasado);
+        if (atrasado && emprestimo.getDataPrevistaDevolucao() != null) {
+            long dias = ChronoUnit.DAYS.between(emprestimo.getDataPrevistaDevolucao(), LocalDate.now());
+            dto.setDiasAtraso((int) Math.max(dias, 0));
         } else {
-            dto.setAtrasado(false);
             dto.setDiasAtraso(0);
         }
         
@@ -0,0 +1,22 @@
+package br.com.biblioimperial.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO para estatísticas gerais do sistema
+ *
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstatisticasDTO {
+    
+    private Long totalUsuarios;
+    private Long totalObras;
+    private Long totalEmprestimosAtivos;
+    private Long totalAtrasados;
+    private Long totalExemplares;
+    private Long totalCategorias;
+}
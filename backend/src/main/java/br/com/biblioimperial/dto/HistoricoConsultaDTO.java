@@ -0,0 +1,52 @@
+package br.com.biblioimperial.dto;
+
+import br.com.biblioimperial.model.mongodb.HistoricoConsulta;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO para listagem do histórico de consultas
+ * Sem e-mail, IP e user agent; os ids dos resultados só vêm quando solicitados
+ *
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HistoricoConsultaDTO {
+
+    private String id;
+    private String idUsuario;
+    private String nomeUsuario;
+    private String tipoConsulta;
+    private String termoBusca;
+    private Integer quantidadeResultados;
+    private LocalDateTime dataHoraConsulta;
+    private Long tempoResposta;
+    private String filtrosAplicados;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<String> resultadosIds;
+
+    /**
+     * Converte um documento (já projetado na consulta) para DTO
+     */
+    public static HistoricoConsultaDTO fromEntity(HistoricoConsulta historico) {
+        HistoricoConsultaDTO dto = new HistoricoConsultaDTO();
+        dto.setId(historico.getId());
+        dto.setIdUsuario(historico.getIdUsuario());
+        dto.setNomeUsuario(historico.getNomeUsuario());
+        dto.setTipoConsulta(historico.getTipoConsulta());
+        dto.setTermoBusca(historico.getTermoBusca());
+        dto.setQuantidadeResultados(historico.getQuantidadeResultados());
+        dto.setDataHoraConsulta(historico.getDataHoraConsulta());
+        dto.setTempoResposta(historico.getTempoResposta());
+        dto.setFiltrosAplicados(historico.getFiltrosAplicados());
+        dto.setResultadosIds(historico.getResultadosIds());
+        return dto;
+    }
+}
@@ -0,0 +1,31 @@
+package br.com.biblioimperial.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO com o resultado de um código de barras em uma operação em lote
+ *
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemLoteDTO {
+    
+    private String codigoBarras;
+    private Boolean sucesso;
+    private String mensagem;
+    private String idEmprestimo;
+    private BigDecimal valorMulta;
+    
+    public static ItemLoteDTO sucesso(String codigoBarras, String idEmprestimo, BigDecimal valorMulta) {
+        return new ItemLoteDTO(codigoBarras, true, null, idEmprestimo, valorMulta);
+    }
+    
+    public static ItemLoteDTO falha(String codigoBarras, String mensagem) {
+        return new ItemLoteDTO(codigoBarras, false, mensagem, null, null);
+    }
+}
@@ -0,0 +1,23 @@
+package br.com.biblioimperial.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO para o tempo de resposta das consultas de um tipo em um período
+ * Os percentis são o limite superior da faixa de tempo em que caem (em ms)
+ *
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LatenciaConsultasDTO {
+
+    private String tipoConsulta;
+    private Long total;
+    private Double mediaMs;
+    private Long p50Ms;
+    private Long p90Ms;
+    private Long p99Ms;
+}
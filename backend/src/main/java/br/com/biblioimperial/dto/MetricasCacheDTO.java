@@ -0,0 +1,35 @@
+package br.com.biblioimperial.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO com as métricas do cache de segundo nível do Hibernate
+ * comandosSql conta os comandos enviados ao MySQL desde o início da contagem
+ *
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricasCacheDTO {
+    
+    private LocalDateTime desde;
+    private Long comandosSql;
+    private List<Regiao> regioes;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Regiao {
+        private String nome;
+        private Long acertos;
+        private Long falhas;
+        private Long gravacoes;
+        private Long elementos;
+        private Double taxaAcerto;
+    }
+}
@@ -0,0 +1,24 @@
+package br.com.biblioimperial.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO com as métricas da fila de gravação do histórico de consultas
+ *
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricasIngestaoDTO {
+    
+    private Integer profundidadeFila;
+    private Integer capacidadeFila;
+    private Long recebidas;
+    private Long gravadas;
+    private Long descartadasFilaCheia;
+    private Long descartadasFalhaGravacao;
+    private Long lotesGravados;
+    private Long duracaoUltimoLoteMs;
+}
@@ -3,7 +3,7 @@ package br.com.biblioimperial.dto;
 import br.com.biblioimperial.model.mysql.Autor;
 import br.com.biblioimperial.model.mysql.Categoria;
 
-import java.util.List;
+import java.util.HashSet;
 import java.util.Set;
 
 /**
@@ -49,6 +49,17 @@ public class ObraDTO {
         this.totalExemplares = totalExemplares;
     }
     
+    /**
+     * Construtor usado pela projeção JPQL do catálogo (autores preenchidos depois)
+     */
+    public ObraDTO(String idObra, String titulo, String subtitulo, String isbn, 
+                   Integer anoPublicacao, String editora, String idioma, 
+                   Integer numPaginas, String sinopse, String localizacaoFisica,
+                   Categoria categoria, Long totalExemplares) {
+        this(idObra, titulo, subtitulo, isbn, anoPublicacao, editora, idioma,
+             numPaginas, sinopse, localizacaoFisica, categoria, new HashSet<>(), totalExemplares);
+    }
+    
     // Getters e Setters
     public String getIdObra() {
         return idObra;
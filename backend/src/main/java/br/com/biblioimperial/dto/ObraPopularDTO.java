@@ -0,0 +1,21 @@
+package br.com.biblioimperial.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO para uma posição do ranking de obras mais emprestadas
+ *
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ObraPopularDTO {
+    
+    private Integer posicao;
+    private String idObra;
+    private String titulo;
+    private String periodo;
+    private Long totalEmprestimos;
+}
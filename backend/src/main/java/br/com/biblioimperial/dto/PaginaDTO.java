@@ -0,0 +1,45 @@
+package br.com.biblioimperial.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * DTO para uma página de resultados com paginação por cursor (keyset)
+ * O cliente envia o proximoCursor recebido como parâmetro "apos" da próxima chamada
+ *
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaDTO<T> {
+
+    public static final int LIMITE_PADRAO = 50;
+    public static final int LIMITE_MAXIMO = 500;
+
+    private List<T> itens;
+    private String proximoCursor;
+
+    /**
+     * Monta a página; o cursor só é informado quando a página veio cheia
+     */
+    public static <T> PaginaDTO<T> of(List<T> itens, int limite, Function<T, String> cursorDe) {
+        String proximoCursor = itens.size() < limite || itens.isEmpty()
+            ? null
+            : cursorDe.apply(itens.get(itens.size() - 1));
+        return new PaginaDTO<>(itens, proximoCursor);
+    }
+
+    /**
+     * Mantém o limite solicitado dentro da faixa aceita pela API
+     */
+    public static int limitar(Integer limite) {
+        if (limite == null || limite <= 0) {
+            return LIMITE_PADRAO;
+        }
+        return Math.min(limite, LIMITE_MAXIMO);
+    }
+}
@@ -0,0 +1,27 @@
+package br.com.biblioimperial.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO com o resultado de um empréstimo ou devolução em lote
+ *
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoLoteDTO {
+    
+    private Integer totalProcessados;
+    private Integer totalSucesso;
+    private Integer totalFalha;
+    private List<ItemLoteDTO> itens;
+    
+    public static ResultadoLoteDTO of(List<ItemLoteDTO> itens) {
+        int sucesso = (int) itens.stream().filter(ItemLoteDTO::getSucesso).count();
+        return new ResultadoLoteDTO(itens.size(), sucesso, itens.size() - sucesso, itens);
+    }
+}
@@ -0,0 +1,20 @@
+package br.com.biblioimperial.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO para uma sugestão do autocompletar do catálogo (obra ou autor)
+ *
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SugestaoDTO {
+    
+    private String tipo;
+    private String id;
+    private String texto;
+    private Long popularidade;
+}
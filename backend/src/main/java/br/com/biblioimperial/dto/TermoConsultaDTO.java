@@ -0,0 +1,19 @@
+package br.com.biblioimperial.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO para um termo entre os mais buscados de um período
+ *
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TermoConsultaDTO {
+
+    private String termo;
+    private Long total;
+    private Long semResultado;
+}
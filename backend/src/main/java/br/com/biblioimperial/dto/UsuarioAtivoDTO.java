@@ -0,0 +1,21 @@
+package br.com.biblioimperial.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO para uma posição do ranking de usuários mais ativos
+ *
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsuarioAtivoDTO {
+    
+    private Integer posicao;
+    private String idUsuario;
+    private String nomeCompleto;
+    private Integer janelaDias;
+    private Long totalEmprestimos;
+}
@@ -0,0 +1,41 @@
+package br.com.biblioimperial.dto;
+
+import br.com.biblioimperial.model.mysql.GrupoUsuario;
+import br.com.biblioimperial.model.mysql.Usuario;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO para Usuario sem os dados de autenticação (hash da senha e
+ * tentativas de login)
+ *
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsuarioDTO {
+    
+    private String idUsuario;
+    private String nomeCompleto;
+    private String email;
+    private GrupoUsuario grupo;
+    private LocalDateTime dataCadastro;
+    private LocalDateTime ultimoAcesso;
+    private Boolean ativo;
+    
+    /**
+     * Construtor a partir de uma entidade Usuario (com o grupo já carregado)
+     */
+    public UsuarioDTO(Usuario usuario) {
+        this.idUsuario = usuario.getIdUsuario();
+        this.nomeCompleto = usuario.getNomeCompleto();
+        this.email = usuario.getEmail();
+        this.grupo = usuario.getGrupo();
+        this.dataCadastro = usuario.getDataCadastro();
+        this.ultimoAcesso = usuario.getUltimoAcesso();
+        this.ativo = usuario.getAtivo();
+    }
+}
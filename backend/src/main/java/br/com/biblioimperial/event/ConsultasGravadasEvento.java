@@ -0,0 +1,17 @@
+package br.com.biblioimperial.event;
+
+import lombok.Value;
+
+import java.util.Set;
+
+/**
+ * Evento publicado quando um lote de consultas é gravado no histórico
+ *
+ * Carrega só os usuários identificados do lote, para que os consumidores
+ * (recomendações) recalculem apenas o que foi afetado.
+ */
+@Value
+public class ConsultasGravadasEvento {
+
+    Set<String> idsUsuarios;
+}
@@ -0,0 +1,43 @@
+package br.com.biblioimperial.event;
+
+import br.com.biblioimperial.model.mysql.Emprestimo;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento publicado quando um empréstimo é criado ou muda de status
+ *
+ * Os consumidores (estatísticas, rankings, recomendações) usam a transição
+ * statusAnterior -> statusNovo para atualizar seus contadores sem consultar
+ * a tabela de empréstimos. Em um empréstimo novo, statusAnterior é nulo.
+ */
+@Value
+public class EmprestimoEvento {
+
+    String idEmprestimo;
+    String idUsuario;
+    String idObra;
+    Emprestimo.StatusEmprestimo statusAnterior;
+    Emprestimo.StatusEmprestimo statusNovo;
+    LocalDateTime dataHora;
+
+    public static EmprestimoEvento criado(Emprestimo emprestimo) {
+        return transicao(emprestimo, null);
+    }
+
+    public static EmprestimoEvento transicao(Emprestimo emprestimo, Emprestimo.StatusEmprestimo statusAnterior) {
+        return new EmprestimoEvento(
+            emprestimo.getIdEmprestimo(),
+            emprestimo.getUsuario().getIdUsuario(),
+            emprestimo.getExemplar().getObra().getIdObra(),
+            statusAnterior,
+            emprestimo.getStatusEmprestimo(),
+            LocalDateTime.now()
+        );
+    }
+
+    public boolean isCriacao() {
+        return statusAnterior == null;
+    }
+}
@@ -0,0 +1,15 @@
+package br.com.biblioimperial.event;
+
+import lombok.Value;
+
+/**
+ * Evento publicado quando uma obra é criada, alterada, inativada ou excluída
+ *
+ * Os consumidores (índice de busca, sugestões) releem a obra pelo id depois
+ * do commit, então o evento não carrega o estado da obra.
+ */
+@Value
+public class ObraEvento {
+
+    String idObra;
+}
@@ -0,0 +1,16 @@
+package br.com.biblioimperial.event;
+
+import lombok.Value;
+
+/**
+ * Evento publicado quando um usuário é criado, alterado, ativado, inativado
+ * ou excluído
+ *
+ * O cache de credenciais descarta as entradas do usuário pelo id depois do
+ * commit (o e-mail pode ter mudado na alteração).
+ */
+@Value
+public class UsuarioEvento {
+
+    String idUsuario;
+}
@@ -24,6 +24,7 @@ import java.util.List;
  * document-oriented do MongoDB, evitando sobrecarregar o banco relacional
  * com dados históricos de alta volumetria.
  *
+ * A coleção, os índices e a retenção são criados por HistoricoConsultaMongoConfig.
  */
 @Document(collection = "historico_consultas")
 @Data
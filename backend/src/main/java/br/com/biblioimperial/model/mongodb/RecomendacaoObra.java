@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -45,6 +46,8 @@ public class RecomendacaoObra {
     
     private LocalDateTime dataGeracao;
     
+    // TTL: o MongoDB remove a recomendação quando a data passa
+    @Indexed(name = "ttl_data_expiracao", expireAfterSeconds = 0)
     private LocalDateTime dataExpiracao;
     
     private String algoritmoUtilizado;
@@ -0,0 +1,45 @@
+package br.com.biblioimperial.model.mongodb;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Documento MongoDB com o resumo das consultas de uma hora ou de um dia por tipo
+ *
+ * Mantido de forma incremental a cada lote gravado no histórico, para que as
+ * análises leiam poucos documentos pequenos em vez da coleção de consultas.
+ * O id é "granularidade|início|tipo", por exemplo "HORA|2026-10-18T10:00|OBRA".
+ */
+@Document(collection = "resumos_consultas")
+@CompoundIndex(name = "idx_granularidade_inicio", def = "{'granularidade': 1, 'inicio': 1}")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumoConsultas {
+
+    @Id
+    private String id;
+
+    private String granularidade; // "HORA", "DIA"
+
+    private LocalDateTime inicio;
+
+    private String tipoConsulta;
+
+    private Long total;
+
+    private Long semResultado;
+
+    private Long somaTempoResposta; // em milissegundos
+
+    private Long comTempoResposta; // consultas com tempo de resposta informado
+
+    private Map<String, Long> faixasTempo; // "ate5", "ate10", ..., "acima" -> consultas
+}
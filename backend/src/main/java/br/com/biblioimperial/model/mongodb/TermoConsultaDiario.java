@@ -0,0 +1,36 @@
+package br.com.biblioimperial.model.mongodb;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+
+/**
+ * Documento MongoDB com quantas vezes um termo foi buscado em um dia
+ * O id é "dia|tipo|termo", com o termo normalizado (sem acento e em minúsculas)
+ *
+ */
+@Document(collection = "termos_consultas_diarios")
+@CompoundIndex(name = "idx_tipo_dia", def = "{'tipoConsulta': 1, 'dia': 1}")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TermoConsultaDiario {
+
+    @Id
+    private String id;
+
+    private LocalDate dia;
+
+    private String tipoConsulta;
+
+    private String termo;
+
+    private Long total;
+
+    private Long semResultado;
+}
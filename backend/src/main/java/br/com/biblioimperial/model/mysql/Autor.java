@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -11,9 +13,12 @@ import java.time.LocalDateTime;
 /**
  * Entidade que representa um autor de obras
  * Corresponde à tabela 'autores' no banco de dados MySQL
+ * Mantida no cache de segundo nível (região 'autores')
  *
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "autores")
 @Table(name = "autores")
 @Data
 @NoArgsConstructor
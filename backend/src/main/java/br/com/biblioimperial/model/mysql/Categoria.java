@@ -1,18 +1,26 @@
 package br.com.biblioimperial.model.mysql;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 
 /**
  * Entidade que representa uma categoria de obras
  * Corresponde à tabela 'categorias' no banco de dados MySQL
+ * Mantida no cache de segundo nível (região 'categorias')
+ * Em Obra.categoria pode chegar como proxy LAZY; os campos do proxy não vão para o JSON
  *
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "categorias")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Table(name = "categorias")
 @Data
 @NoArgsConstructor
@@ -0,0 +1,57 @@
+package br.com.biblioimperial.model.mysql;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Entidade com o ponto de parada de uma tarefa agendada processada em lotes
+ * Corresponde à tabela 'checkpoints_tarefas' no banco de dados MySQL
+ *
+ * Guarda a data de referência da execução, o status percorrido no momento e
+ * a chave (data, id) do último registro processado; após uma queda a tarefa
+ * continua desse ponto em vez de reprocessar os lotes já gravados.
+ */
+@Entity
+@Table(name = "checkpoints_tarefas")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckpointTarefa {
+
+    @Id
+    @Column(name = "nome_tarefa", length = 50)
+    private String nomeTarefa;
+
+    @Column(name = "data_referencia")
+    private LocalDate dataReferencia;
+
+    @Column(name = "cursor_status", length = 20)
+    private String cursorStatus;
+
+    @Column(name = "cursor_data")
+    private LocalDate cursorData;
+
+    @Column(name = "cursor_id", length = 30)
+    private String cursorId;
+
+    @Column(name = "concluida", nullable = false)
+    private Boolean concluida = false;
+
+    @Column(name = "data_atualizacao")
+    private LocalDateTime dataAtualizacao;
+
+    public CheckpointTarefa(String nomeTarefa) {
+        this.nomeTarefa = nomeTarefa;
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        dataAtualizacao = LocalDateTime.now();
+    }
+}
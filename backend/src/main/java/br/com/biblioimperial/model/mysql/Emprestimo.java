@@ -3,7 +3,9 @@ package br.com.biblioimperial.model.mysql;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -11,10 +13,20 @@ import java.time.LocalDateTime;
 /**
  * Entidade que representa um empréstimo de exemplar
  * Corresponde à tabela 'emprestimos' no banco de dados MySQL
+ * Associações LAZY; o grafo 'Emprestimo.resumo' traz o que o EmprestimoDTO
+ * usa (exemplar com a obra e usuário)
  *
  */
 @Entity
 @Table(name = "emprestimos")
+@NamedEntityGraph(
+    name = "Emprestimo.resumo",
+    attributeNodes = {
+        @NamedAttributeNode(value = "exemplar", subgraph = "exemplar"),
+        @NamedAttributeNode("usuario")
+    },
+    subgraphs = @NamedSubgraph(name = "exemplar", attributeNodes = @NamedAttributeNode("obra"))
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,12 +36,16 @@ public class Emprestimo {
     @Column(name = "id_emprestimo", length = 30)
     private String idEmprestimo;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_exemplar", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Exemplar exemplar;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_usuario", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Usuario usuario;
 
     @Column(name = "data_emprestimo", nullable = false, updatable = false)
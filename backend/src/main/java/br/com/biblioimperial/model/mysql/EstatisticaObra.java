@@ -0,0 +1,56 @@
+package br.com.biblioimperial.model.mysql;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Entidade com os contadores de empréstimos de uma obra em um período
+ * Corresponde à tabela 'estatisticas_obras' no banco de dados MySQL
+ *
+ * O período é "TOTAL" (todo o histórico) ou um mês no formato "AAAA-MM".
+ * Os contadores são mantidos incrementalmente a cada empréstimo, evitando
+ * agregar o histórico completo de empréstimos para montar rankings.
+ */
+@Entity
+@Table(name = "estatisticas_obras",
+       indexes = @Index(name = "idx_estatisticas_obras_ranking", columnList = "periodo, total_emprestimos"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstatisticaObra {
+
+    public static final String PERIODO_TOTAL = "TOTAL";
+
+    @EmbeddedId
+    private Chave id;
+
+    @Column(name = "total_emprestimos", nullable = false)
+    private Long totalEmprestimos = 0L;
+
+    @Column(name = "emprestimos_ativos", nullable = false)
+    private Long emprestimosAtivos = 0L;
+
+    @Column(name = "emprestimos_concluidos", nullable = false)
+    private Long emprestimosConcluidos = 0L;
+
+    @Column(name = "data_atualizacao")
+    private LocalDateTime dataAtualizacao;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Chave implements Serializable {
+
+        @Column(name = "id_obra", length = 30)
+        private String idObra;
+
+        @Column(name = "periodo", length = 10)
+        private String periodo;
+    }
+}
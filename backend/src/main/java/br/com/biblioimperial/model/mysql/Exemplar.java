@@ -3,7 +3,9 @@ package br.com.biblioimperial.model.mysql;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -12,10 +14,12 @@ import java.time.LocalDateTime;
 /**
  * Entidade que representa um exemplar físico de uma obra
  * Corresponde à tabela 'exemplares' no banco de dados MySQL
+ * A obra é LAZY; o grafo 'Exemplar.obra' a traz junto (ExemplarDTO)
  *
  */
 @Entity
 @Table(name = "exemplares")
+@NamedEntityGraph(name = "Exemplar.obra", attributeNodes = @NamedAttributeNode("obra"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -25,8 +29,10 @@ public class Exemplar {
     @Column(name = "id_exemplar", length = 30)
     private String idExemplar;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_obra", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Obra obra;
 
     @Column(name = "codigo_barras", length = 50, unique = true)
@@ -51,6 +57,10 @@ public class Exemplar {
     @Column(name = "data_cadastro", nullable = false, updatable = false)
     private LocalDateTime dataCadastro;
 
+    @Version
+    @Column(name = "versao", nullable = false)
+    private Long versao;
+
     @PrePersist
     protected void onCreate() {
         if (dataCadastro == null) {
@@ -1,18 +1,26 @@
 package br.com.biblioimperial.model.mysql;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 
 /**
  * Entidade que representa um grupo de usuários no sistema
  * Corresponde à tabela 'grupos_usuarios' no banco de dados MySQL
+ * Mantida no cache de segundo nível (região 'grupos_usuarios')
+ * Em Usuario.grupo pode chegar como proxy LAZY; os campos do proxy não vão para o JSON
  *
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "grupos_usuarios")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Table(name = "grupos_usuarios")
 @Data
 @NoArgsConstructor
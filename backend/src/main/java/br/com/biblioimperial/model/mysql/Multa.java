@@ -3,7 +3,9 @@ package br.com.biblioimperial.model.mysql;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -11,10 +13,13 @@ import java.time.LocalDateTime;
 /**
  * Entidade que representa uma multa aplicada a um usuário
  * Corresponde à tabela 'multas' no banco de dados MySQL
+ * Associações LAZY; o MultaDTO só precisa do usuário (grafo 'Multa.usuario'),
+ * do empréstimo basta o id
  *
  */
 @Entity
 @Table(name = "multas")
+@NamedEntityGraph(name = "Multa.usuario", attributeNodes = @NamedAttributeNode("usuario"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,12 +29,16 @@ public class Multa {
     @Column(name = "id_multa", length = 30)
     private String idMulta;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_emprestimo")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Emprestimo emprestimo;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_usuario", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Usuario usuario;
 
     @Enumerated(EnumType.STRING)
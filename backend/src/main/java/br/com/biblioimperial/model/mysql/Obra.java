@@ -3,7 +3,9 @@ package br.com.biblioimperial.model.mysql;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -12,10 +14,16 @@ import java.util.Set;
 /**
  * Entidade que representa uma obra catalogada
  * Corresponde à tabela 'obras' no banco de dados MySQL
+ * Categoria e autores são LAZY; o grafo 'Obra.detalhe' traz os dois quando
+ * a própria entidade é devolvida pela API
  *
  */
 @Entity
 @Table(name = "obras")
+@NamedEntityGraph(
+    name = "Obra.detalhe",
+    attributeNodes = {@NamedAttributeNode("categoria"), @NamedAttributeNode("autores")}
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -31,8 +39,10 @@ public class Obra {
     @Column(name = "subtitulo", length = 300)
     private String subtitulo;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_categoria", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Categoria categoria;
 
     @Column(name = "isbn", length = 20, unique = true)
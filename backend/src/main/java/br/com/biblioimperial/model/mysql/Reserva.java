@@ -3,7 +3,9 @@ package br.com.biblioimperial.model.mysql;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -11,10 +13,15 @@ import java.time.LocalDateTime;
 /**
  * Entidade que representa uma reserva de obra
  * Corresponde à tabela 'reservas' no banco de dados MySQL
+ * Associações LAZY; o grafo 'Reserva.resumo' traz obra e usuário
  *
  */
 @Entity
 @Table(name = "reservas")
+@NamedEntityGraph(
+    name = "Reserva.resumo",
+    attributeNodes = {@NamedAttributeNode("obra"), @NamedAttributeNode("usuario")}
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,12 +31,16 @@ public class Reserva {
     @Column(name = "id_reserva", length = 30)
     private String idReserva;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_obra", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Obra obra;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_usuario", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Usuario usuario;
 
     @Column(name = "data_reserva", nullable = false, updatable = false)
@@ -3,17 +3,22 @@ package br.com.biblioimperial.model.mysql;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 
 /**
  * Entidade que representa um usuário do sistema
  * Corresponde à tabela 'usuarios' no banco de dados MySQL
+ * O grupo é LAZY; o grafo 'Usuario.grupo' o traz quando o usuário é
+ * devolvido pela API ou usado na autenticação
  *
  */
 @Entity
 @Table(name = "usuarios")
+@NamedEntityGraph(name = "Usuario.grupo", attributeNodes = @NamedAttributeNode("grupo"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -32,8 +37,10 @@ public class Usuario {
     @Column(name = "senha_hash", length = 255, nullable = false)
     private String senhaHash;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_grupo", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private GrupoUsuario grupo;
 
     @Column(name = "data_cadastro", nullable = false, updatable = false)
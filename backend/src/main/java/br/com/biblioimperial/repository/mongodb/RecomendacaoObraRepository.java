@@ -10,6 +10,7 @@ import java.util.Optional;
 
 /**
  * Repository MongoDB para operações com RecomendacaoObra
+ * Recomendações vencidas são removidas pelo índice TTL de dataExpiracao
  *
  */
 @Repository
@@ -18,8 +19,4 @@ public interface RecomendacaoObraRepository extends MongoRepository<Recomendacao
     Optional<RecomendacaoObra> findByIdUsuario(String idUsuario);
     
     List<RecomendacaoObra> findByDataExpiracaoAfter(LocalDateTime dataAtual);
-    
-    List<RecomendacaoObra> findByDataExpiracaoBefore(LocalDateTime dataAtual);
-    
-    void deleteByDataExpiracaoBefore(LocalDateTime dataAtual);
 }
@@ -1,18 +1,29 @@
 package br.com.biblioimperial.repository.mysql;
 
 import br.com.biblioimperial.model.mysql.Autor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 /**
  * Repository para operações de banco de dados com Autor
+ * As consultas sem parâmetro livre usam o cache de consultas do Hibernate
  *
  */
 @Repository
 public interface AutorRepository extends JpaRepository<Autor, String> {
     
+    @Override
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "consultas_referencia")
+    })
+    List<Autor> findAll();
+    
     List<Autor> findByNomeAutorContainingIgnoreCase(String nomeAutor);
     
     List<Autor> findByNacionalidade(String nacionalidade);
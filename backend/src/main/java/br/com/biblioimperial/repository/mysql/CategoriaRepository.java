@@ -1,7 +1,10 @@
 package br.com.biblioimperial.repository.mysql;
 
 import br.com.biblioimperial.model.mysql.Categoria;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,14 +12,34 @@ import java.util.Optional;
 
 /**
  * Repository para operações de banco de dados com Categoria
+ * As consultas sem parâmetro livre usam o cache de consultas do Hibernate
  *
  */
 @Repository
 public interface CategoriaRepository extends JpaRepository<Categoria, String> {
     
+    @Override
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "consultas_referencia")
+    })
+    List<Categoria> findAll();
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "consultas_referencia")
+    })
     Optional<Categoria> findByNomeCategoria(String nomeCategoria);
     
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "consultas_referencia")
+    })
     List<Categoria> findByNivelRestricaoLessThanEqual(Integer nivelRestricao);
     
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "consultas_referencia")
+    })
     List<Categoria> findByNivelRestricao(Integer nivelRestricao);
 }
@@ -0,0 +1,13 @@
+package br.com.biblioimperial.repository.mysql;
+
+import br.com.biblioimperial.model.mysql.CheckpointTarefa;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository para os pontos de parada das tarefas agendadas
+ *
+ */
+@Repository
+public interface CheckpointTarefaRepository extends JpaRepository<CheckpointTarefa, String> {
+}
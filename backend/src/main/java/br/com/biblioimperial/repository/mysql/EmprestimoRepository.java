@@ -1,12 +1,17 @@
 package br.com.biblioimperial.repository.mysql;
 
 import br.com.biblioimperial.model.mysql.Emprestimo;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository para operações de banco de dados com Emprestimo
@@ -15,8 +20,10 @@ import java.util.List;
 @Repository
 public interface EmprestimoRepository extends JpaRepository<Emprestimo, String> {
     
+    @EntityGraph("Emprestimo.resumo")
     List<Emprestimo> findByUsuario_IdUsuario(String idUsuario);
     
+    @EntityGraph("Emprestimo.resumo")
     List<Emprestimo> findByStatusEmprestimo(Emprestimo.StatusEmprestimo status);
     
     List<Emprestimo> findByUsuario_IdUsuarioAndStatusEmprestimo(
@@ -24,12 +31,126 @@ public interface EmprestimoRepository extends JpaRepository<Emprestimo, String>
         Emprestimo.StatusEmprestimo status
     );
     
-    @Query("SELECT e FROM Emprestimo e WHERE e.dataPrevistaDevolucao < :data " +
-           "AND e.statusEmprestimo = 'ATIVO'")
-    List<Emprestimo> findEmprestimosAtrasados(LocalDate data);
+    /**
+     * Bloqueia (SELECT ... FOR UPDATE) os empréstimos informados até o fim da
+     * transação; serializa a devolução com a varredura de atrasos, que também
+     * altera o status e as multas do empréstimo
+     */
+    @Query(value = "SELECT id_emprestimo FROM emprestimos WHERE id_emprestimo IN (:idsEmprestimos) FOR UPDATE",
+           nativeQuery = true)
+    List<String> bloquearParaAtualizacao(Collection<String> idsEmprestimos);
+    
+    /**
+     * Bloqueia os empréstimos em aberto dos exemplares informados (devolução em lote)
+     */
+    @Query(value = "SELECT e.id_emprestimo FROM emprestimos e " +
+                   "JOIN exemplares ex ON ex.id_exemplar = e.id_exemplar " +
+                   "WHERE ex.codigo_barras IN (:codigosBarras) " +
+                   "AND e.status_emprestimo IN ('ATIVO', 'ATRASADO') FOR UPDATE",
+           nativeQuery = true)
+    List<String> bloquearEmAbertoPorCodigosBarras(Collection<String> codigosBarras);
+    
+    /**
+     * Próximo lote da varredura de atrasos: empréstimos no status informado
+     * vencidos antes de :hoje, após o cursor (data prevista, id), já bloqueados
+     * para atualização. Com um único status a leitura segue o índice
+     * (status, data prevista, id) na ordem do ORDER BY e para no limite, então
+     * só as linhas do lote ficam bloqueadas
+     */
+    @Query(value = "SELECT id_emprestimo FROM emprestimos " +
+                   "WHERE status_emprestimo = :status AND data_prevista_devolucao < :hoje " +
+                   "AND (data_prevista_devolucao > :dataPrevista " +
+                   "OR (data_prevista_devolucao = :dataPrevista AND id_emprestimo > :idEmprestimo)) " +
+                   "ORDER BY data_prevista_devolucao, id_emprestimo LIMIT :limite FOR UPDATE",
+           nativeQuery = true)
+    List<String> bloquearVencidosApos(String status, LocalDate hoje, LocalDate dataPrevista, String idEmprestimo, int limite);
+    
+    /**
+     * Carrega os empréstimos informados com todas as associações em uma única consulta
+     */
+    @Query("SELECT e FROM Emprestimo e JOIN FETCH e.exemplar ex JOIN FETCH ex.obra o " +
+           "JOIN FETCH o.categoria JOIN FETCH e.usuario u JOIN FETCH u.grupo " +
+           "WHERE e.idEmprestimo IN :idsEmprestimos ORDER BY e.dataPrevistaDevolucao, e.idEmprestimo")
+    List<Emprestimo> buscarComAssociacoes(Collection<String> idsEmprestimos);
+    
+    /**
+     * Empréstimos em aberto dos exemplares informados, carregados com todas as
+     * associações em uma única consulta (usado na devolução em lote)
+     */
+    @Query("SELECT e FROM Emprestimo e JOIN FETCH e.exemplar ex JOIN FETCH ex.obra o " +
+           "JOIN FETCH o.categoria JOIN FETCH e.usuario u JOIN FETCH u.grupo " +
+           "WHERE ex.codigoBarras IN :codigosBarras AND e.statusEmprestimo IN :status")
+    List<Emprestimo> findEmAbertoPorCodigosBarras(
+        Collection<String> codigosBarras,
+        Collection<Emprestimo.StatusEmprestimo> status
+    );
+    
+    long countByStatusEmprestimo(Emprestimo.StatusEmprestimo status);
+    
+    /**
+     * Quantidade de empréstimos por status (status, total)
+     */
+    @Query("SELECT e.statusEmprestimo, COUNT(e) FROM Emprestimo e GROUP BY e.statusEmprestimo")
+    List<Object[]> contarPorStatus();
     
     long countByUsuario_IdUsuarioAndStatusEmprestimo(
         String idUsuario, 
         Emprestimo.StatusEmprestimo status
     );
+    
+    /**
+     * Primeira página da paginação por chave (data_emprestimo, id_emprestimo)
+     */
+    @EntityGraph("Emprestimo.resumo")
+    List<Emprestimo> findAllByOrderByDataEmprestimoAscIdEmprestimoAsc(Limit limite);
+    
+    /**
+     * Próxima página: empréstimos posteriores ao cursor (data, id)
+     */
+    @EntityGraph("Emprestimo.resumo")
+    @Query("SELECT e FROM Emprestimo e WHERE e.dataEmprestimo > :dataEmprestimo " +
+           "OR (e.dataEmprestimo = :dataEmprestimo AND e.idEmprestimo > :idEmprestimo) " +
+           "ORDER BY e.dataEmprestimo, e.idEmprestimo")
+    List<Emprestimo> findPaginaApos(LocalDateTime dataEmprestimo, String idEmprestimo, Limit limite);
+    
+    /**
+     * Empréstimos por usuário e dia a partir de uma data (idUsuario, dia, total)
+     */
+    @Query(value = "SELECT id_usuario, DATE(data_emprestimo), COUNT(*) FROM emprestimos " +
+                   "WHERE data_emprestimo >= :inicio " +
+                   "GROUP BY id_usuario, DATE(data_emprestimo)",
+           nativeQuery = true)
+    List<Object[]> contarPorUsuarioEDiaDesde(LocalDateTime inicio);
+    
+    /**
+     * Quais dos empréstimos informados existem na tabela
+     */
+    @Query(value = "SELECT id_emprestimo FROM emprestimos WHERE id_emprestimo IN (:idsEmprestimos)",
+           nativeQuery = true)
+    List<String> listarExistentes(Collection<String> idsEmprestimos);
+    
+    /**
+     * Pares distintos (idUsuario, idObra) dos empréstimos não cancelados,
+     * entrada da similaridade por co-empréstimo das recomendações
+     */
+    @Query("SELECT DISTINCT e.usuario.idUsuario, ex.obra.idObra FROM Emprestimo e JOIN e.exemplar ex " +
+           "WHERE e.statusEmprestimo <> :cancelado")
+    List<Object[]> listarObrasEmprestadasPorUsuario(Emprestimo.StatusEmprestimo cancelado);
+    
+    @Query("SELECT DISTINCT e.usuario.idUsuario, ex.obra.idObra FROM Emprestimo e JOIN e.exemplar ex " +
+           "WHERE e.usuario.idUsuario IN :idsUsuarios AND e.statusEmprestimo <> :cancelado")
+    List<Object[]> listarObrasEmprestadasDosUsuarios(
+        Collection<String> idsUsuarios,
+        Emprestimo.StatusEmprestimo cancelado
+    );
+    
+    /**
+     * Empréstimo com exemplar, obra e usuário (detalhe e operações que devolvem o DTO)
+     */
+    @EntityGraph("Emprestimo.resumo")
+    Optional<Emprestimo> findByIdEmprestimo(String idEmprestimo);
+    
+    @Override
+    @EntityGraph("Emprestimo.resumo")
+    List<Emprestimo> findAll();
 }
@@ -0,0 +1,86 @@
+package br.com.biblioimperial.repository.mysql;
+
+import br.com.biblioimperial.model.mysql.EstatisticaObra;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Repository para os contadores de empréstimos por obra e período
+ *
+ */
+@Repository
+public interface EstatisticaObraRepository extends JpaRepository<EstatisticaObra, EstatisticaObra.Chave> {
+    
+    List<EstatisticaObra> findByIdPeriodoOrderByTotalEmprestimosDesc(String periodo, Limit limite);
+    
+    /**
+     * Pares (idObra, total de empréstimos) de todas as obras no período
+     */
+    @Query("SELECT e.id.idObra, e.totalEmprestimos FROM EstatisticaObra e WHERE e.id.periodo = :periodo")
+    List<Object[]> listarTotaisDoPeriodo(String periodo);
+    
+    /**
+     * Soma os deltas aos contadores da obra no período, criando a linha se necessário
+     */
+    @Modifying
+    @Transactional
+    // Sem a tabela declarada o Hibernate esvaziaria todo o cache de segundo nível
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "estatisticas_obras"))
+    @Query(value = "INSERT INTO estatisticas_obras " +
+                   "(id_obra, periodo, total_emprestimos, emprestimos_ativos, emprestimos_concluidos, data_atualizacao) " +
+                   "VALUES (:idObra, :periodo, :total, :ativos, :concluidos, NOW()) " +
+                   "ON DUPLICATE KEY UPDATE " +
+                   "total_emprestimos = total_emprestimos + VALUES(total_emprestimos), " +
+                   "emprestimos_ativos = emprestimos_ativos + VALUES(emprestimos_ativos), " +
+                   "emprestimos_concluidos = emprestimos_concluidos + VALUES(emprestimos_concluidos), " +
+                   "data_atualizacao = NOW()",
+           nativeQuery = true)
+    void acumular(String idObra, String periodo, long total, long ativos, long concluidos);
+    
+    /**
+     * Recalcula os contadores do período TOTAL a partir da tabela de empréstimos
+     */
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "estatisticas_obras"))
+    @Query(value = "INSERT INTO estatisticas_obras " +
+                   "(id_obra, periodo, total_emprestimos, emprestimos_ativos, emprestimos_concluidos, data_atualizacao) " +
+                   "SELECT ex.id_obra, 'TOTAL', COUNT(*), " +
+                   "SUM(e.status_emprestimo IN ('ATIVO', 'ATRASADO')), " +
+                   "SUM(e.status_emprestimo = 'DEVOLVIDO'), NOW() " +
+                   "FROM emprestimos e JOIN exemplares ex ON ex.id_exemplar = e.id_exemplar " +
+                   "GROUP BY ex.id_obra " +
+                   "ON DUPLICATE KEY UPDATE " +
+                   "total_emprestimos = VALUES(total_emprestimos), " +
+                   "emprestimos_ativos = VALUES(emprestimos_ativos), " +
+                   "emprestimos_concluidos = VALUES(emprestimos_concluidos), " +
+                   "data_atualizacao = NOW()",
+           nativeQuery = true)
+    int reconstruirTotais();
+    
+    /**
+     * Recalcula os contadores mensais a partir da tabela de empréstimos
+     */
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "estatisticas_obras"))
+    @Query(value = "INSERT INTO estatisticas_obras " +
+                   "(id_obra, periodo, total_emprestimos, emprestimos_ativos, emprestimos_concluidos, data_atualizacao) " +
+                   "SELECT ex.id_obra, DATE_FORMAT(e.data_emprestimo, '%Y-%m'), COUNT(*), 0, 0, NOW() " +
+                   "FROM emprestimos e JOIN exemplares ex ON ex.id_exemplar = e.id_exemplar " +
+                   "GROUP BY ex.id_obra, DATE_FORMAT(e.data_emprestimo, '%Y-%m') " +
+                   "ON DUPLICATE KEY UPDATE " +
+                   "total_emprestimos = VALUES(total_emprestimos), " +
+                   "data_atualizacao = NOW()",
+           nativeQuery = true)
+    int reconstruirMensais();
+}
@@ -0,0 +1,39 @@
+package br.com.biblioimperial.repository.mysql;
+
+import br.com.biblioimperial.dto.EstatisticasDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository para as estatísticas gerais do sistema
+ *
+ * Calcula todos os contadores em uma única ida ao banco, com uma
+ * subconsulta COUNT por tabela (cada uma resolvida pelo índice adequado).
+ */
+@Repository
+@RequiredArgsConstructor
+public class EstatisticasRepository {
+
+    private static final String SQL_ESTATISTICAS =
+        "SELECT " +
+        "(SELECT COUNT(*) FROM usuarios WHERE ativo = TRUE), " +
+        "(SELECT COUNT(*) FROM obras), " +
+        "(SELECT COUNT(*) FROM emprestimos WHERE status_emprestimo = 'ATIVO'), " +
+        "(SELECT COUNT(*) FROM emprestimos WHERE status_emprestimo = 'ATRASADO'), " +
+        "(SELECT COUNT(*) FROM exemplares), " +
+        "(SELECT COUNT(*) FROM categorias)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EstatisticasDTO calcularEstatisticas() {
+        return jdbcTemplate.queryForObject(SQL_ESTATISTICAS, (rs, linha) -> new EstatisticasDTO(
+            rs.getLong(1),
+            rs.getLong(2),
+            rs.getLong(3),
+            rs.getLong(4),
+            rs.getLong(5),
+            rs.getLong(6)
+        ));
+    }
+}
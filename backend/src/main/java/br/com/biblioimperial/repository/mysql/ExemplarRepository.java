@@ -1,9 +1,14 @@
 package br.com.biblioimperial.repository.mysql;
 
 import br.com.biblioimperial.model.mysql.Exemplar;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,13 +23,41 @@ import java.util.Optional;
 @Repository
 public interface ExemplarRepository extends JpaRepository<Exemplar, String> {
     
+    @EntityGraph("Exemplar.obra")
     List<Exemplar> findByObra_IdObra(String idObra);
     
+    @EntityGraph("Exemplar.obra")
     List<Exemplar> findByObra_IdObraAndDisponivelTrue(String idObra);
     
     Optional<Exemplar> findByCodigoBarras(String codigoBarras);
     
+    /**
+     * Resolve vários códigos de barras em uma única consulta, já com obra e categoria
+     */
+    @Query("SELECT e FROM Exemplar e JOIN FETCH e.obra o JOIN FETCH o.categoria " +
+           "WHERE e.codigoBarras IN :codigosBarras")
+    List<Exemplar> findByCodigoBarrasIn(Collection<String> codigosBarras);
+    
     long countByObra_IdObraAndDisponivelTrue(String idObra);
     
     long countByObra_IdObra(String idObra);
+    
+    @EntityGraph("Exemplar.obra")
+    List<Exemplar> findByIdExemplarGreaterThanOrderByIdExemplarAsc(String idExemplar, Limit limite);
+    
+    /**
+     * Marca o exemplar como emprestado somente se ele ainda estiver disponível
+     * Retorna 0 quando outro empréstimo chegou antes (ou o exemplar não existe)
+     */
+    @Modifying
+    @Query("UPDATE Exemplar e SET e.disponivel = false, e.versao = e.versao + 1 " +
+           "WHERE e.idExemplar = :idExemplar AND e.disponivel = true")
+    int reservarSeDisponivel(String idExemplar);
+    
+    @EntityGraph("Exemplar.obra")
+    Optional<Exemplar> findByIdExemplar(String idExemplar);
+    
+    @Override
+    @EntityGraph("Exemplar.obra")
+    List<Exemplar> findAll();
 }
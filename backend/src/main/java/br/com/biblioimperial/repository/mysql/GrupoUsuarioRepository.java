@@ -1,7 +1,10 @@
 package br.com.biblioimperial.repository.mysql;
 
 import br.com.biblioimperial.model.mysql.GrupoUsuario;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,13 +12,29 @@ import java.util.Optional;
 
 /**
  * Repository para operações de banco de dados com GrupoUsuario
+ * As consultas sem parâmetro livre usam o cache de consultas do Hibernate
  *
  */
 @Repository
 public interface GrupoUsuarioRepository extends JpaRepository<GrupoUsuario, String> {
     
+    @Override
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "consultas_referencia")
+    })
+    List<GrupoUsuario> findAll();
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "consultas_referencia")
+    })
     Optional<GrupoUsuario> findByNomeGrupo(String nomeGrupo);
     
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "consultas_referencia")
+    })
     List<GrupoUsuario> findByAtivoTrue();
     
     List<GrupoUsuario> findByNivelAcessoGreaterThanEqual(Integer nivelAcesso);
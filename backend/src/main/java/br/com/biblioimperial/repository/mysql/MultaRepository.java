@@ -1,12 +1,16 @@
 package br.com.biblioimperial.repository.mysql;
 
 import br.com.biblioimperial.model.mysql.Multa;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository para operações de banco de dados com Multa
@@ -15,10 +19,17 @@ import java.util.List;
 @Repository
 public interface MultaRepository extends JpaRepository<Multa, String> {
     
+    @EntityGraph("Multa.usuario")
     List<Multa> findByUsuario_IdUsuario(String idUsuario);
     
+    @EntityGraph("Multa.usuario")
     List<Multa> findByStatusMulta(Multa.StatusMulta status);
     
+    List<Multa> findByEmprestimo_IdEmprestimoAndTipoMulta(String idEmprestimo, Multa.TipoMulta tipo);
+    
+    List<Multa> findByEmprestimo_IdEmprestimoInAndTipoMulta(Collection<String> idsEmprestimos, Multa.TipoMulta tipo);
+    
+    @EntityGraph("Multa.usuario")
     List<Multa> findByUsuario_IdUsuarioAndStatusMulta(
         String idUsuario, 
         Multa.StatusMulta status
@@ -28,8 +39,29 @@ public interface MultaRepository extends JpaRepository<Multa, String> {
            "AND m.statusMulta = 'PENDENTE'")
     BigDecimal calcularTotalMultasPendentes(String idUsuario);
     
+    long countByStatusMulta(Multa.StatusMulta status);
+    
+    @Query("SELECT COALESCE(SUM(m.valorMulta), 0) FROM Multa m WHERE m.statusMulta = :status")
+    BigDecimal somarValorPorStatus(Multa.StatusMulta status);
+    
+    /**
+     * Quantidade e valor total de multas por status (status, total, valor)
+     */
+    @Query("SELECT m.statusMulta, COUNT(m), COALESCE(SUM(m.valorMulta), 0) FROM Multa m GROUP BY m.statusMulta")
+    List<Object[]> resumirPorStatus();
+    
     long countByUsuario_IdUsuarioAndStatusMulta(
         String idUsuario, 
         Multa.StatusMulta status
     );
+    
+    @EntityGraph("Multa.usuario")
+    List<Multa> findByIdMultaGreaterThanOrderByIdMultaAsc(String idMulta, Limit limite);
+    
+    @EntityGraph("Multa.usuario")
+    Optional<Multa> findByIdMulta(String idMulta);
+    
+    @Override
+    @EntityGraph("Multa.usuario")
+    List<Multa> findAll();
 }
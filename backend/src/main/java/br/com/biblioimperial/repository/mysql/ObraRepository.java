@@ -1,10 +1,14 @@
 package br.com.biblioimperial.repository.mysql;
 
+import br.com.biblioimperial.dto.ObraDTO;
 import br.com.biblioimperial.model.mysql.Obra;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,14 +19,18 @@ import java.util.Optional;
 @Repository
 public interface ObraRepository extends JpaRepository<Obra, String> {
     
+    @EntityGraph("Obra.detalhe")
     List<Obra> findByAtivoTrue();
     
+    @EntityGraph("Obra.detalhe")
     List<Obra> findByTituloContainingIgnoreCaseAndAtivoTrue(String titulo);
     
+    @EntityGraph("Obra.detalhe")
     List<Obra> findByCategoria_IdCategoriaAndAtivoTrue(String idCategoria);
     
     Optional<Obra> findByIsbn(String isbn);
     
+    @EntityGraph("Obra.detalhe")
     @Query("SELECT o FROM Obra o JOIN o.autores a WHERE a.idAutor = :idAutor AND o.ativo = true")
     List<Obra> findByAutorIdAndAtivoTrue(String idAutor);
     
@@ -31,4 +39,80 @@ public interface ObraRepository extends JpaRepository<Obra, String> {
     
     @Query("SELECT COUNT(o) FROM Obra o WHERE o.categoria.idCategoria = :idCategoria AND o.ativo = true")
     Long countByCategoriaId(String idCategoria);
+    
+    /**
+     * Pares (idAutor, total de obras ativas) em uma única consulta agrupada
+     */
+    @Query("SELECT a.idAutor, COUNT(o) FROM Obra o JOIN o.autores a WHERE o.ativo = true GROUP BY a.idAutor")
+    List<Object[]> contarObrasAtivasPorAutor();
+    
+    /**
+     * Pares (idCategoria, total de obras ativas) em uma única consulta agrupada
+     */
+    @Query("SELECT o.categoria.idCategoria, COUNT(o) FROM Obra o WHERE o.ativo = true " +
+           "GROUP BY o.categoria.idCategoria")
+    List<Object[]> contarObrasAtivasPorCategoria();
+    
+    /**
+     * Projeção do catálogo ativo em uma única consulta, já com a categoria
+     * e a contagem de exemplares agrupada por obra
+     */
+    @Query("SELECT new br.com.biblioimperial.dto.ObraDTO(" +
+           "o.idObra, o.titulo, o.subtitulo, o.isbn, o.anoPublicacao, o.editora, " +
+           "o.idioma, o.numPaginas, o.sinopse, o.localizacaoFisica, c, COUNT(e.idExemplar)) " +
+           "FROM Obra o JOIN o.categoria c LEFT JOIN Exemplar e ON e.obra = o " +
+           "WHERE o.ativo = true " +
+           "GROUP BY o.idObra, c.idCategoria " +
+           "ORDER BY o.idObra")
+    List<ObraDTO> listarCatalogoAtivo();
+    
+    /**
+     * Mesma projeção do catálogo, paginada por chave: obras com id maior que o cursor
+     */
+    @Query("SELECT new br.com.biblioimperial.dto.ObraDTO(" +
+           "o.idObra, o.titulo, o.subtitulo, o.isbn, o.anoPublicacao, o.editora, " +
+           "o.idioma, o.numPaginas, o.sinopse, o.localizacaoFisica, c, COUNT(e.idExemplar)) " +
+           "FROM Obra o JOIN o.categoria c LEFT JOIN Exemplar e ON e.obra = o " +
+           "WHERE o.ativo = true AND o.idObra > :apos " +
+           "GROUP BY o.idObra, c.idCategoria " +
+           "ORDER BY o.idObra")
+    List<ObraDTO> listarCatalogoAtivoApos(String apos, Limit limite);
+    
+    /**
+     * Pares (idObra, autor) de todas as obras ativas, para montar os autores
+     * do catálogo sem uma consulta por obra
+     */
+    @Query("SELECT o.idObra, a FROM Obra o JOIN o.autores a WHERE o.ativo = true")
+    List<Object[]> listarAutoresDasObrasAtivas();
+    
+    @Query("SELECT o.idObra, a FROM Obra o JOIN o.autores a WHERE o.idObra IN :idsObras")
+    List<Object[]> listarAutoresDasObras(Collection<String> idsObras);
+    
+    /**
+     * (idObra, titulo) das obras ativas, paginado por chave
+     */
+    @Query("SELECT o.idObra, o.titulo FROM Obra o WHERE o.ativo = true AND o.idObra > :apos ORDER BY o.idObra")
+    List<Object[]> listarTitulosAtivosApos(String apos, Limit limite);
+    
+    /**
+     * Trios (idAutor, nomeAutor, idObra) de todas as obras ativas
+     */
+    @Query("SELECT a.idAutor, a.nomeAutor, o.idObra FROM Obra o JOIN o.autores a WHERE o.ativo = true")
+    List<Object[]> listarAutoriasDasObrasAtivas();
+    
+    /**
+     * (idObra, titulo, idCategoria, nomeCategoria) das obras ativas
+     */
+    @Query("SELECT o.idObra, o.titulo, c.idCategoria, c.nomeCategoria FROM Obra o JOIN o.categoria c " +
+           "WHERE o.ativo = true")
+    List<Object[]> listarCategoriasDasObrasAtivas();
+    
+    /**
+     * Obra com categoria e autores, para os endpoints que devolvem a entidade
+     */
+    @EntityGraph("Obra.detalhe")
+    Optional<Obra> findByIdObra(String idObra);
+    
+    @EntityGraph("Obra.detalhe")
+    List<Obra> findByIdObraIn(Collection<String> idsObras);
 }
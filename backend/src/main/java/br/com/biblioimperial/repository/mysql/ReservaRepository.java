@@ -1,6 +1,7 @@
 package br.com.biblioimperial.repository.mysql;
 
 import br.com.biblioimperial.model.mysql.Reserva;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -13,12 +14,16 @@ import java.util.List;
 @Repository
 public interface ReservaRepository extends JpaRepository<Reserva, String> {
     
+    @EntityGraph("Reserva.resumo")
     List<Reserva> findByUsuario_IdUsuario(String idUsuario);
     
+    @EntityGraph("Reserva.resumo")
     List<Reserva> findByObra_IdObra(String idObra);
     
+    @EntityGraph("Reserva.resumo")
     List<Reserva> findByStatusReserva(Reserva.StatusReserva status);
     
+    @EntityGraph("Reserva.resumo")
     List<Reserva> findByObra_IdObraAndStatusReserva(
         String idObra, 
         Reserva.StatusReserva status
@@ -1,9 +1,13 @@
 package br.com.biblioimperial.repository.mysql;
 
 import br.com.biblioimperial.model.mysql.Usuario;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,11 +18,29 @@ import java.util.Optional;
 @Repository
 public interface UsuarioRepository extends JpaRepository<Usuario, String> {
     
+    @EntityGraph("Usuario.grupo")
     Optional<Usuario> findByEmail(String email);
     
+    @EntityGraph("Usuario.grupo")
     List<Usuario> findByAtivoTrue();
     
     List<Usuario> findByGrupo_IdGrupo(String idGrupo);
     
     boolean existsByEmail(String email);
+    
+    /**
+     * Trios (email, idUsuario, nomeCompleto) dos e-mails informados
+     */
+    @Query("SELECT u.email, u.idUsuario, u.nomeCompleto FROM Usuario u WHERE u.email IN :emails")
+    List<Object[]> listarIdentificacaoPorEmails(Collection<String> emails);
+    
+    @EntityGraph("Usuario.grupo")
+    List<Usuario> findByIdUsuarioGreaterThanOrderByIdUsuarioAsc(String idUsuario, Limit limite);
+    
+    @EntityGraph("Usuario.grupo")
+    Optional<Usuario> findByIdUsuario(String idUsuario);
+    
+    @Override
+    @EntityGraph("Usuario.grupo")
+    List<Usuario> findAll();
 }
@@ -1,16 +1,22 @@
 package br.com.biblioimperial.security;
 
+import br.com.biblioimperial.event.UsuarioEvento;
 import br.com.biblioimperial.model.mysql.Usuario;
 import br.com.biblioimperial.repository.mysql.UsuarioRepository;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Serviço customizado para autenticação de usuários
@@ -18,33 +24,111 @@ import java.util.Collections;
  * Implementa a interface UserDetailsService do Spring Security para
  * integrar a autenticação com o banco de dados MySQL.
  *
+ * As credenciais lidas do banco ficam em um cache LRU por e-mail, limitado
+ * em tamanho e com validade (biblioteca.auth.cache-ttl-ms); alterações feitas
+ * pelo UsuarioService descartam as entradas do usuário na hora, e uma
+ * leitura do banco iniciada antes da alteração não volta para o cache.
  */
 @Service
-@RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UsuarioRepository usuarioRepository;
+    private final long ttlMillis;
+    private final int maxEntradas;
+    private final Map<String, Entrada> cache;
+    // Incrementada a cada alteração de usuário, sempre com o cache bloqueado
+    private final AtomicLong versao = new AtomicLong();
+
+    public CustomUserDetailsService(
+            UsuarioRepository usuarioRepository,
+            @Value("${biblioteca.auth.cache-ttl-ms:300000}") long ttlMillis,
+            @Value("${biblioteca.auth.cache-max-entradas:10000}") int maxEntradas) {
+        this.usuarioRepository = usuarioRepository;
+        this.ttlMillis = ttlMillis;
+        this.maxEntradas = maxEntradas;
+        // LRU: cheio, descarta o e-mail lido há mais tempo
+        this.cache = Collections.synchronizedMap(
+            new LinkedHashMap<>(maxEntradas * 4 / 3 + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entrada> maisAntiga) {
+                    return size() > CustomUserDetailsService.this.maxEntradas;
+                }
+            });
+    }
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        Usuario usuario = usuarioRepository.findByEmail(email)
+        Credenciais credenciais = buscarCredenciais(email)
             .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado: " + email));
 
-        if (!usuario.getAtivo()) {
+        if (!credenciais.ativo()) {
             throw new UsernameNotFoundException("Usuário inativo: " + email);
         }
 
-        // Cria a autoridade baseada no grupo do usuário
-        String role = "ROLE_" + usuario.getGrupo().getNomeGrupo().toUpperCase().replace(" ", "_");
-        
+        // Cria a autoridade baseada no grupo do usuário. O User é montado a cada
+        // chamada: o Spring Security apaga a senha dele depois da autenticação
         return User.builder()
-            .username(usuario.getEmail())
-            .password(usuario.getSenhaHash())
-            .authorities(Collections.singletonList(new SimpleGrantedAuthority(role)))
+            .username(credenciais.email())
+            .password(credenciais.senhaHash())
+            .authorities(Collections.singletonList(new SimpleGrantedAuthority(credenciais.papel())))
             .accountExpired(false)
             .accountLocked(false)
             .credentialsExpired(false)
-            .disabled(!usuario.getAtivo())
+            .disabled(!credenciais.ativo())
             .build();
     }
+
+    /**
+     * Credenciais do usuário pelo e-mail, do cache ou do banco
+     */
+    public Optional<Credenciais> buscarCredenciais(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        long agora = System.currentTimeMillis();
+        Entrada entrada = cache.get(email);
+        if (entrada != null && entrada.expiraEm() > agora) {
+            return Optional.of(entrada.credenciais());
+        }
+
+        long versaoLida = versao.get();
+        Optional<Credenciais> credenciais = usuarioRepository.findByEmail(email).map(Credenciais::de);
+        synchronized (cache) {
+            if (credenciais.isEmpty()) {
+                cache.remove(email);
+            } else if (versao.get() == versaoLida) {
+                // Sem alteração de usuário durante a leitura: o que veio do banco não está vencido
+                cache.put(email, new Entrada(credenciais.get(), agora + ttlMillis));
+            }
+        }
+        return credenciais;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarUsuario(UsuarioEvento evento) {
+        synchronized (cache) {
+            versao.incrementAndGet();
+            cache.values().removeIf(entrada -> entrada.credenciais().idUsuario().equals(evento.getIdUsuario()));
+        }
+    }
+
+    /**
+     * O que a autenticação precisa do usuário, sem a entidade JPA
+     */
+    public record Credenciais(String idUsuario, String email, String nomeCompleto, String senhaHash,
+                              boolean ativo, String nomeGrupo, Integer nivelAcesso) {
+
+        static Credenciais de(Usuario usuario) {
+            return new Credenciais(usuario.getIdUsuario(), usuario.getEmail(), usuario.getNomeCompleto(),
+                usuario.getSenhaHash(), Boolean.TRUE.equals(usuario.getAtivo()),
+                usuario.getGrupo().getNomeGrupo(), usuario.getGrupo().getNivelAcesso());
+        }
+
+        public String papel() {
+            return "ROLE_" + nomeGrupo.toUpperCase().replace(" ", "_");
+        }
+    }
+
+    private record Entrada(Credenciais credenciais, long expiraEm) {
+    }
 }
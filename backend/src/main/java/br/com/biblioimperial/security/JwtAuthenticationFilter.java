@@ -0,0 +1,49 @@
+package br.com.biblioimperial.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Filtro que autentica a requisição pelo header "Authorization: Bearer <token>"
+ *
+ * Só confere a assinatura e a validade do token de acesso; token ausente ou
+ * inválido deixa a requisição anônima e a autorização decide o resto.
+ * Não é um @Component para não ser registrado também como filtro do servlet.
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String PREFIXO = "Bearer ";
+
+    private final JwtService jwtService;
+
+    public JwtAuthenticationFilter(JwtService jwtService) {
+        this.jwtService = jwtService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(PREFIXO)
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            jwtService.validarTokenAcesso(header.substring(PREFIXO.length()).trim()).ifPresent(usuario -> {
+                UsernamePasswordAuthenticationToken autenticacao = new UsernamePasswordAuthenticationToken(
+                    usuario, null, List.of(new SimpleGrantedAuthority(usuario.papel())));
+                autenticacao.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(autenticacao);
+            });
+        }
+        chain.doFilter(request, response);
+    }
+}
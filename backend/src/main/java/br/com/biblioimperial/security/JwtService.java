@@ -0,0 +1,156 @@
+package br.com.biblioimperial.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Emissão e verificação dos tokens JWT da API
+ *
+ * Os tokens são assinados com HMAC-SHA256 e levam o que a autorização
+ * precisa (id, grupo, papel e nível de acesso), então a verificação de cada
+ * requisição é só a conferência da assinatura, sem banco e sem BCrypt.
+ *
+ * O token de acesso vale poucos minutos; o de renovação vale dias e só serve
+ * no /api/auth/renovar. Ele leva uma impressão do hash da senha, de modo que
+ * trocar a senha invalida as renovações emitidas antes.
+ */
+@Slf4j
+@Service
+public class JwtService {
+
+    static final String TIPO_ACESSO = "acesso";
+    static final String TIPO_RENOVACAO = "renovacao";
+
+    private static final int TAMANHO_MINIMO_SEGREDO = 32;
+
+    private final SecretKey chave;
+    private final JwtParser parser;
+    private final Duration validadeAcesso;
+    private final Duration validadeRenovacao;
+
+    public JwtService(
+            @Value("${biblioteca.jwt.segredo:}") String segredo,
+            @Value("${biblioteca.jwt.validade-acesso-min:15}") long validadeAcessoMin,
+            @Value("${biblioteca.jwt.validade-renovacao-horas:168}") long validadeRenovacaoHoras) {
+        if (segredo == null || segredo.isBlank()) {
+            // Sem segredo configurado os tokens não sobrevivem a um reinício
+            // e não valem entre instâncias
+            log.warn("biblioteca.jwt.segredo não configurado; usando uma chave aleatória");
+            this.chave = Jwts.SIG.HS256.key().build();
+        } else {
+            byte[] bytes = segredo.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length < TAMANHO_MINIMO_SEGREDO) {
+                throw new IllegalStateException(
+                    "biblioteca.jwt.segredo deve ter pelo menos " + TAMANHO_MINIMO_SEGREDO + " bytes");
+            }
+            this.chave = Keys.hmacShaKeyFor(bytes);
+        }
+        this.parser = Jwts.parser().verifyWith(chave).build();
+        this.validadeAcesso = Duration.ofMinutes(validadeAcessoMin);
+        this.validadeRenovacao = Duration.ofHours(validadeRenovacaoHoras);
+    }
+
+    public String gerarTokenAcesso(CustomUserDetailsService.Credenciais credenciais) {
+        Instant agora = Instant.now();
+        return Jwts.builder()
+            .subject(credenciais.email())
+            .issuedAt(Date.from(agora))
+            .expiration(Date.from(agora.plus(validadeAcesso)))
+            .claim("typ", TIPO_ACESSO)
+            .claim("uid", credenciais.idUsuario())
+            .claim("grupo", credenciais.nomeGrupo())
+            .claim("papel", credenciais.papel())
+            .claim("nivelAcesso", credenciais.nivelAcesso())
+            .signWith(chave)
+            .compact();
+    }
+
+    public String gerarTokenRenovacao(CustomUserDetailsService.Credenciais credenciais) {
+        Instant agora = Instant.now();
+        return Jwts.builder()
+            .id(UUID.randomUUID().toString())
+            .subject(credenciais.email())
+            .issuedAt(Date.from(agora))
+            .expiration(Date.from(agora.plus(validadeRenovacao)))
+            .claim("typ", TIPO_RENOVACAO)
+            .claim("uid", credenciais.idUsuario())
+            .claim("sh", impressaoSenha(credenciais.senhaHash()))
+            .signWith(chave)
+            .compact();
+    }
+
+    /**
+     * Usuário do token de acesso, se a assinatura e a validade conferem
+     */
+    public Optional<UsuarioAutenticado> validarTokenAcesso(String token) {
+        return lerClaims(token, TIPO_ACESSO).map(claims -> new UsuarioAutenticado(
+            claims.get("uid", String.class),
+            claims.getSubject(),
+            claims.get("grupo", String.class),
+            claims.get("papel", String.class),
+            claims.get("nivelAcesso", Integer.class)));
+    }
+
+    /**
+     * E-mail do token de renovação, se a assinatura, a validade e a senha
+     * atual do usuário conferem
+     */
+    public Optional<String> validarTokenRenovacao(String token, CustomUserDetailsService.Credenciais credenciais) {
+        return lerClaims(token, TIPO_RENOVACAO)
+            .filter(claims -> credenciais.email().equals(claims.getSubject())
+                && credenciais.idUsuario().equals(claims.get("uid", String.class))
+                && impressaoSenha(credenciais.senhaHash()).equals(claims.get("sh", String.class)))
+            .map(Claims::getSubject);
+    }
+
+    /**
+     * Assunto (e-mail) de um token de renovação com assinatura válida, antes
+     * de conferir o usuário
+     */
+    public Optional<String> lerAssuntoRenovacao(String token) {
+        return lerClaims(token, TIPO_RENOVACAO).map(Claims::getSubject);
+    }
+
+    public long getValidadeAcessoSegundos() {
+        return validadeAcesso.toSeconds();
+    }
+
+    private Optional<Claims> lerClaims(String token, String tipo) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            return tipo.equals(claims.get("typ", String.class)) ? Optional.of(claims) : Optional.empty();
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static String impressaoSenha(String senhaHash) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                .digest(senhaHash.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package br.com.biblioimperial.security;
+
+import java.security.Principal;
+
+/**
+ * Usuário autenticado por token, montado só com as claims do JWT
+ */
+public record UsuarioAutenticado(String idUsuario, String email, String nomeGrupo, String papel,
+                                 Integer nivelAcesso) implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -0,0 +1,104 @@
+package br.com.biblioimperial.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Análise de texto em português para o índice de busca
+ *
+ * Remove acentos e caixa, quebra o texto em palavras, descarta as palavras
+ * vazias mais comuns e reduz plurais ao singular ("lições" -> "licao",
+ * "imperiais" -> "imperial"), para que consulta e índice usem os mesmos termos.
+ */
+public final class AnalisadorTexto {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+    private static final Pattern ISBN = Pattern.compile("[0-9]{9}[0-9x]|[0-9]{13}");
+
+    private static final Set<String> PALAVRAS_VAZIAS = Set.of(
+        "a", "o", "as", "os", "de", "da", "do", "das", "dos", "e", "em", "no", "na",
+        "nos", "nas", "um", "uma", "uns", "umas", "ao", "aos", "para", "por", "com",
+        "que", "se", "ou", "the", "of", "and"
+    );
+
+    private AnalisadorTexto() {
+    }
+
+    /**
+     * Termos indexáveis do texto, já normalizados e no singular
+     */
+    public static List<String> termos(String texto) {
+        List<String> termos = new ArrayList<>();
+        for (String palavra : palavras(texto)) {
+            if (!PALAVRAS_VAZIAS.contains(palavra)) {
+                termos.add(singular(palavra));
+            }
+        }
+        return termos;
+    }
+
+    /**
+     * Palavras do texto apenas normalizadas (sem acento e em minúsculas),
+     * usadas na busca por prefixo, em que a palavra ainda está sendo digitada
+     */
+    public static List<String> palavras(String texto) {
+        List<String> palavras = new ArrayList<>();
+        if (texto == null || texto.isBlank()) {
+            return palavras;
+        }
+        for (String palavra : SEPARADORES.split(normalizar(texto))) {
+            if (!palavra.isEmpty()) {
+                palavras.add(palavra);
+            }
+        }
+        return palavras;
+    }
+
+    /**
+     * ISBN sem hífens nem espaços, ou null se o texto não for um ISBN-10/13
+     */
+    public static String isbn(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        String compacto = normalizar(texto).replaceAll("[\\s-]", "");
+        return ISBN.matcher(compacto).matches() ? compacto : null;
+    }
+
+    public static String normalizar(String texto) {
+        String semAcentos = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return semAcentos.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Redução de plural baseada na etapa de plural do RSLP (removedor de sufixos
+     * da língua portuguesa), aplicada apenas a palavras com mais de 3 letras
+     */
+    static String singular(String palavra) {
+        int n = palavra.length();
+        if (n <= 3 || palavra.charAt(n - 1) != 's') {
+            return palavra;
+        }
+        if (palavra.endsWith("oes") || palavra.endsWith("aes")) {
+            return palavra.substring(0, n - 3) + "ao";
+        }
+        if (palavra.endsWith("ais") || palavra.endsWith("eis") || palavra.endsWith("ois")) {
+            return palavra.substring(0, n - 2) + "l";
+        }
+        if (palavra.endsWith("ns")) {
+            return palavra.substring(0, n - 2) + "m";
+        }
+        if (palavra.endsWith("res") || palavra.endsWith("zes")) {
+            return palavra.substring(0, n - 2);
+        }
+        if (palavra.endsWith("ss") || palavra.endsWith("is") || palavra.endsWith("us")) {
+            return palavra;
+        }
+        return palavra.substring(0, n - 1);
+    }
+}
@@ -0,0 +1,377 @@
+package br.com.biblioimperial.service;
+
+import br.com.biblioimperial.dto.ConsultasPorHoraDTO;
+import br.com.biblioimperial.dto.LatenciaConsultasDTO;
+import br.com.biblioimperial.dto.TermoConsultaDTO;
+import br.com.biblioimperial.model.mongodb.HistoricoConsulta;
+import br.com.biblioimperial.model.mongodb.ResumoConsultas;
+import br.com.biblioimperial.model.mongodb.TermoConsultaDiario;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.GroupOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.limit;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.project;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.sort;
+
+/**
+ * Service para as análises das buscas do catálogo (termos mais buscados,
+ * buscas sem resultado, tempo de resposta e buscas por hora)
+ *
+ * Cada lote gravado no histórico é somado, com $inc, aos resumos por hora e
+ * por dia (ResumoConsultas) e às contagens diárias de termos
+ * (TermoConsultaDiario). As análises são pipelines de agregação sobre esses
+ * resumos, que têm alguns documentos por hora, e nunca leem a coleção de
+ * consultas. Os percentis saem de um histograma por faixas de tempo.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AnaliseConsultasService {
+
+    public static final String GRANULARIDADE_HORA = "HORA";
+    public static final String GRANULARIDADE_DIA = "DIA";
+
+    private static final long[] LIMITES_FAIXAS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+    private static final String FAIXA_ACIMA = "acima";
+    private static final String TIPO_NAO_INFORMADO = "OUTRO";
+    private static final int MAX_TAMANHO_TERMO = 100;
+    private static final int LIMITE_PADRAO = 20;
+    private static final int LIMITE_MAXIMO = 100;
+    private static final long MAX_HORAS_SERIE = 24L * 92;
+    private static final int TAMANHO_LOTE_RECONSTRUCAO = 1000;
+    private static final int MAX_DIAS_RECONSTRUCAO = 92;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final AtomicBoolean reconstruindo = new AtomicBoolean();
+
+    /**
+     * Soma as consultas de um lote já gravado aos resumos e aos termos
+     */
+    public void acumular(List<HistoricoConsulta> consultas) {
+        Map<String, ResumoConsultas> resumos = new HashMap<>();
+        Map<String, TermoConsultaDiario> termos = new HashMap<>();
+        for (HistoricoConsulta consulta : consultas) {
+            if (consulta.getDataHoraConsulta() == null) {
+                continue;
+            }
+            String tipo = consulta.getTipoConsulta() != null ? consulta.getTipoConsulta() : TIPO_NAO_INFORMADO;
+            LocalDateTime hora = consulta.getDataHoraConsulta().truncatedTo(ChronoUnit.HOURS);
+            somar(resumos, GRANULARIDADE_HORA, hora, tipo, consulta);
+            somar(resumos, GRANULARIDADE_DIA, hora.truncatedTo(ChronoUnit.DAYS), tipo, consulta);
+
+            String termo = normalizarTermo(consulta.getTermoBusca());
+            if (termo != null) {
+                LocalDate dia = hora.toLocalDate();
+                TermoConsultaDiario contagem = termos.computeIfAbsent(dia + "|" + tipo + "|" + termo,
+                    id -> new TermoConsultaDiario(id, dia, tipo, termo, 0L, 0L));
+                contagem.setTotal(contagem.getTotal() + 1);
+                if (isSemResultado(consulta)) {
+                    contagem.setSemResultado(contagem.getSemResultado() + 1);
+                }
+            }
+        }
+
+        if (!resumos.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ResumoConsultas.class);
+            for (ResumoConsultas resumo : resumos.values()) {
+                Update update = new Update()
+                    .setOnInsert("granularidade", resumo.getGranularidade())
+                    .setOnInsert("inicio", resumo.getInicio())
+                    .setOnInsert("tipoConsulta", resumo.getTipoConsulta())
+                    .inc("total", resumo.getTotal())
+                    .inc("semResultado", resumo.getSemResultado())
+                    .inc("somaTempoResposta", resumo.getSomaTempoResposta())
+                    .inc("comTempoResposta", resumo.getComTempoResposta());
+                resumo.getFaixasTempo().forEach((faixa, quantidade) -> update.inc("faixasTempo." + faixa, quantidade));
+                bulk.upsert(Query.query(Criteria.where("id").is(resumo.getId())), update);
+            }
+            bulk.execute();
+        }
+
+        if (!termos.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TermoConsultaDiario.class);
+            for (TermoConsultaDiario contagem : termos.values()) {
+                bulk.upsert(Query.query(Criteria.where("id").is(contagem.getId())), new Update()
+                    .setOnInsert("dia", contagem.getDia())
+                    .setOnInsert("tipoConsulta", contagem.getTipoConsulta())
+                    .setOnInsert("termo", contagem.getTermo())
+                    .inc("total", contagem.getTotal())
+                    .inc("semResultado", contagem.getSemResultado()));
+            }
+            bulk.execute();
+        }
+    }
+
+    /**
+     * Termos mais buscados do período; com semResultado=true, os termos das
+     * buscas que não encontraram nada, pelos que mais falharam
+     */
+    public List<TermoConsultaDTO> buscarTermosMaisBuscados(LocalDate inicio, LocalDate fim, String tipoConsulta,
+                                                           boolean semResultado, Integer limite) {
+        validarPeriodo(inicio, fim);
+        String ordem = semResultado ? "semResultado" : "total";
+        Criteria filtro = Criteria.where("tipoConsulta").is(tipoConsulta).and("dia").gte(inicio).lte(fim);
+        if (semResultado) {
+            filtro = filtro.and("semResultado").gt(0);
+        }
+
+        Aggregation agregacao = newAggregation(
+            match(filtro),
+            group("termo").sum("total").as("total").sum("semResultado").as("semResultado"),
+            sort(Sort.by(Sort.Direction.DESC, ordem).and(Sort.by(Sort.Direction.ASC, "_id"))),
+            limit(limitar(limite)),
+            project("total", "semResultado").and("termo").previousOperation()
+        );
+        return mongoTemplate.aggregate(agregacao, TermoConsultaDiario.class, TermoConsultaDTO.class)
+            .getMappedResults();
+    }
+
+    /**
+     * Tempo de resposta por tipo de consulta nos dias do período
+     */
+    public List<LatenciaConsultasDTO> buscarLatenciaPorTipo(LocalDate inicio, LocalDate fim) {
+        validarPeriodo(inicio, fim);
+        GroupOperation grupo = group("tipoConsulta")
+            .sum("total").as("total")
+            .sum("somaTempoResposta").as("somaTempoResposta")
+            .sum("comTempoResposta").as("comTempoResposta");
+        for (String faixa : faixas()) {
+            grupo = grupo.sum("faixasTempo." + faixa).as(faixa);
+        }
+
+        Aggregation agregacao = newAggregation(
+            match(Criteria.where("granularidade").is(GRANULARIDADE_DIA)
+                .and("inicio").gte(inicio.atStartOfDay()).lte(fim.atStartOfDay())),
+            grupo,
+            sort(Sort.by(Sort.Direction.ASC, "_id"))
+        );
+
+        List<LatenciaConsultasDTO> latencias = new ArrayList<>();
+        for (Document tipo : mongoTemplate.aggregate(agregacao, ResumoConsultas.class, Document.class)) {
+            long comTempo = numero(tipo, "comTempoResposta");
+            latencias.add(new LatenciaConsultasDTO(
+                tipo.getString("_id"),
+                numero(tipo, "total"),
+                comTempo > 0 ? (double) numero(tipo, "somaTempoResposta") / comTempo : null,
+                percentil(tipo, comTempo, 0.50),
+                percentil(tipo, comTempo, 0.90),
+                percentil(tipo, comTempo, 0.99)
+            ));
+        }
+        return latencias;
+    }
+
+    /**
+     * Consultas por hora em [inicio, fim), de todos os tipos ou só de um
+     */
+    public List<ConsultasPorHoraDTO> buscarConsultasPorHora(LocalDateTime inicio, LocalDateTime fim,
+                                                            String tipoConsulta) {
+        if (!inicio.isBefore(fim)) {
+            throw new IllegalArgumentException("O início do período deve ser anterior ao fim");
+        }
+        if (ChronoUnit.HOURS.between(inicio, fim) > MAX_HORAS_SERIE) {
+            throw new IllegalArgumentException("O período deve ter no máximo " + MAX_HORAS_SERIE / 24 + " dias");
+        }
+        Criteria filtro = Criteria.where("granularidade").is(GRANULARIDADE_HORA)
+            .and("inicio").gte(inicio.truncatedTo(ChronoUnit.HOURS)).lt(fim);
+        if (tipoConsulta != null && !tipoConsulta.isBlank()) {
+            filtro = filtro.and("tipoConsulta").is(tipoConsulta);
+        }
+
+        Aggregation agregacao = newAggregation(
+            match(filtro),
+            group("inicio").sum("total").as("total").sum("semResultado").as("semResultado"),
+            sort(Sort.by(Sort.Direction.ASC, "_id")),
+            project("total", "semResultado").and("hora").previousOperation()
+        );
+        return mongoTemplate.aggregate(agregacao, ResumoConsultas.class, ConsultasPorHoraDTO.class)
+            .getMappedResults();
+    }
+
+    /**
+     * Inicia em segundo plano a reconstrução dos dias informados. O período
+     * é validado antes de iniciar e só roda uma reconstrução por vez.
+     */
+    public void iniciarReconstrucao(LocalDate inicio, LocalDate fim) {
+        validarReconstrucao(inicio, fim);
+        if (!reconstruindo.compareAndSet(false, true)) {
+            throw new IllegalStateException("Já existe uma reconstrução em andamento");
+        }
+        try {
+            Thread.ofPlatform().daemon(true).name("reconstrucao-resumos").start(() -> {
+                try {
+                    long lidas = reconstruir(inicio, fim);
+                    log.info("Resumos de {} a {} reconstruídos ({} consultas lidas)", inicio, fim, lidas);
+                } catch (RuntimeException e) {
+                    log.error("Falha ao reconstruir os resumos de {} a {}", inicio, fim, e);
+                } finally {
+                    reconstruindo.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            reconstruindo.set(false);
+            throw e;
+        }
+    }
+
+    public boolean isReconstruindo() {
+        return reconstruindo.get();
+    }
+
+    /**
+     * Refaz os resumos e os termos dos dias informados a partir do histórico
+     * (carga inicial ou correção). Só aceita dias encerrados, que não recebem
+     * mais somas da gravação em lote, e no máximo MAX_DIAS_RECONSTRUCAO dias.
+     *
+     * @return quantidade de consultas lidas
+     */
+    public long reconstruir(LocalDate inicio, LocalDate fim) {
+        validarReconstrucao(inicio, fim);
+
+        long lidas = 0;
+        for (LocalDate dia = inicio; !dia.isAfter(fim); dia = dia.plusDays(1)) {
+            LocalDateTime inicioDia = dia.atStartOfDay();
+            LocalDateTime fimDia = dia.plusDays(1).atStartOfDay();
+            mongoTemplate.remove(Query.query(Criteria.where("inicio").gte(inicioDia).lt(fimDia)),
+                ResumoConsultas.class);
+            mongoTemplate.remove(Query.query(Criteria.where("dia").is(dia)), TermoConsultaDiario.class);
+
+            Query query = Query.query(Criteria.where("dataHoraConsulta").gte(inicioDia).lt(fimDia))
+                .cursorBatchSize(TAMANHO_LOTE_RECONSTRUCAO);
+            query.fields().include("tipoConsulta", "termoBusca", "quantidadeResultados", "tempoResposta",
+                "dataHoraConsulta");
+            try (Stream<HistoricoConsulta> consultas = mongoTemplate.stream(query, HistoricoConsulta.class)) {
+                List<HistoricoConsulta> lote = new ArrayList<>(TAMANHO_LOTE_RECONSTRUCAO);
+                Iterator<HistoricoConsulta> iterador = consultas.iterator();
+                while (iterador.hasNext()) {
+                    lote.add(iterador.next());
+                    if (lote.size() == TAMANHO_LOTE_RECONSTRUCAO || !iterador.hasNext()) {
+                        acumular(lote);
+                        lidas += lote.size();
+                        lote.clear();
+                    }
+                }
+            }
+        }
+        return lidas;
+    }
+
+    private void somar(Map<String, ResumoConsultas> resumos, String granularidade, LocalDateTime inicio,
+                       String tipo, HistoricoConsulta consulta) {
+        ResumoConsultas resumo = resumos.computeIfAbsent(granularidade + "|" + inicio + "|" + tipo,
+            id -> new ResumoConsultas(id, granularidade, inicio, tipo, 0L, 0L, 0L, 0L, new HashMap<>()));
+        resumo.setTotal(resumo.getTotal() + 1);
+        if (isSemResultado(consulta)) {
+            resumo.setSemResultado(resumo.getSemResultado() + 1);
+        }
+        Long tempo = consulta.getTempoResposta();
+        if (tempo != null) {
+            resumo.setSomaTempoResposta(resumo.getSomaTempoResposta() + tempo);
+            resumo.setComTempoResposta(resumo.getComTempoResposta() + 1);
+            resumo.getFaixasTempo().merge(faixaDe(tempo), 1L, Long::sum);
+        }
+    }
+
+    private static boolean isSemResultado(HistoricoConsulta consulta) {
+        return consulta.getQuantidadeResultados() != null && consulta.getQuantidadeResultados() == 0;
+    }
+
+    private static String normalizarTermo(String termoBusca) {
+        String termo = String.join(" ", AnalisadorTexto.palavras(termoBusca));
+        if (termo.isEmpty()) {
+            return null;
+        }
+        return termo.length() > MAX_TAMANHO_TERMO ? termo.substring(0, MAX_TAMANHO_TERMO) : termo;
+    }
+
+    private static String faixaDe(long tempoMs) {
+        for (long limite : LIMITES_FAIXAS) {
+            if (tempoMs <= limite) {
+                return "ate" + limite;
+            }
+        }
+        return FAIXA_ACIMA;
+    }
+
+    private static List<String> faixas() {
+        List<String> faixas = new ArrayList<>();
+        for (long limite : LIMITES_FAIXAS) {
+            faixas.add("ate" + limite);
+        }
+        faixas.add(FAIXA_ACIMA);
+        return faixas;
+    }
+
+    /**
+     * Limite superior da faixa que contém o percentil; acima da última faixa
+     * devolve o maior limite
+     */
+    private static Long percentil(Document tipo, long quantidade, double fracao) {
+        if (quantidade == 0) {
+            return null;
+        }
+        long alvo = (long) Math.ceil(quantidade * fracao);
+        long acumulado = 0;
+        for (long limite : LIMITES_FAIXAS) {
+            acumulado += numero(tipo, "ate" + limite);
+            if (acumulado >= alvo) {
+                return limite;
+            }
+        }
+        return LIMITES_FAIXAS[LIMITES_FAIXAS.length - 1];
+    }
+
+    private static long numero(Document documento, String campo) {
+        Object valor = documento.get(campo);
+        return valor instanceof Number numero ? numero.longValue() : 0L;
+    }
+
+    private static void validarReconstrucao(LocalDate inicio, LocalDate fim) {
+        validarPeriodo(inicio, fim);
+        if (!fim.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("Só é possível reconstruir dias anteriores a hoje");
+        }
+        if (ChronoUnit.DAYS.between(inicio, fim) >= MAX_DIAS_RECONSTRUCAO) {
+            throw new IllegalArgumentException(
+                "A reconstrução aceita no máximo " + MAX_DIAS_RECONSTRUCAO + " dias por vez");
+        }
+    }
+
+    private static void validarPeriodo(LocalDate inicio, LocalDate fim) {
+        if (inicio.isAfter(fim)) {
+            throw new IllegalArgumentException("O início do período deve ser anterior ao fim");
+        }
+    }
+
+    private static int limitar(Integer limite) {
+        if (limite == null || limite <= 0) {
+            return LIMITE_PADRAO;
+        }
+        return Math.min(limite, LIMITE_MAXIMO);
+    }
+}
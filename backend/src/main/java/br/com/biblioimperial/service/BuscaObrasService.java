@@ -0,0 +1,174 @@
+package br.com.biblioimperial.service;
+
+import br.com.biblioimperial.dto.ObraDTO;
+import br.com.biblioimperial.event.ObraEvento;
+import br.com.biblioimperial.model.mysql.Autor;
+import br.com.biblioimperial.model.mysql.Obra;
+import br.com.biblioimperial.repository.mysql.ObraRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Service de busca textual de obras
+ *
+ * Mantém um índice invertido em memória sobre título, subtítulo, sinopse,
+ * nomes dos autores e ISBN das obras ativas. O índice é montado na
+ * inicialização, atualizado a cada obra salva ou inativada e reconstruído
+ * de madrugada, o que também descarta os documentos substituídos.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BuscaObrasService {
+
+    private static final int PESO_TITULO = 3;
+    private static final int PESO_SUBTITULO = 2;
+    private static final int PESO_AUTOR = 2;
+    private static final int PESO_ISBN = 3;
+    private static final int PESO_SINOPSE = 1;
+    private static final int TAMANHO_LOTE = 1000;
+
+    private final ObraRepository obraRepository;
+
+    private final Set<String> alteradasDuranteReconstrucao = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile IndiceInvertido indice;
+    private volatile boolean reconstruindo;
+
+    /**
+     * Falso até a primeira construção do índice terminar
+     */
+    public boolean isDisponivel() {
+        return indice != null;
+    }
+
+    /**
+     * Ids das obras ativas mais relevantes para a consulta, da mais relevante para a menos
+     */
+    public List<String> buscar(String consulta, int limite) {
+        IndiceInvertido atual = indice;
+        if (atual == null || consulta == null || consulta.isBlank()) {
+            return List.of();
+        }
+        return atual.buscar(consulta, limite).stream()
+            .map(IndiceInvertido.Resultado::chave)
+            .toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        reconstruir();
+    }
+
+    /**
+     * Monta um índice novo a partir do catálogo e o troca pelo atual
+     */
+    @Scheduled(cron = "${biblioteca.busca.reconstrucao-cron:0 45 3 * * *}")
+    public void reconstruir() {
+        lock.lock();
+        try {
+            long inicio = System.currentTimeMillis();
+            alteradasDuranteReconstrucao.clear();
+            reconstruindo = true;
+
+            IndiceInvertido novo = new IndiceInvertido();
+            String cursor = "";
+            List<ObraDTO> lote;
+            do {
+                lote = obraRepository.listarCatalogoAtivoApos(cursor, Limit.of(TAMANHO_LOTE));
+                if (lote.isEmpty()) {
+                    break;
+                }
+                Map<String, List<Autor>> autores = autoresDasObras(lote.stream().map(ObraDTO::getIdObra).toList());
+                for (ObraDTO obra : lote) {
+                    novo.adicionar(obra.getIdObra(), frequencias(obra.getTitulo(), obra.getSubtitulo(),
+                        obra.getSinopse(), obra.getIsbn(), autores.getOrDefault(obra.getIdObra(), List.of())));
+                }
+                cursor = lote.get(lote.size() - 1).getIdObra();
+            } while (lote.size() == TAMANHO_LOTE);
+
+            indice = novo;
+            reconstruindo = false;
+            // Obras salvas enquanto o catálogo era lido podem ter entrado com o estado antigo
+            for (String idObra : alteradasDuranteReconstrucao) {
+                reindexar(novo, idObra);
+            }
+            log.info("Índice de busca de obras construído: {} obra(s), {} termo(s) em {} ms",
+                novo.getDocumentos(), novo.getTermos(), System.currentTimeMillis() - inicio);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarObra(ObraEvento evento) {
+        if (reconstruindo) {
+            alteradasDuranteReconstrucao.add(evento.getIdObra());
+        }
+        IndiceInvertido atual = indice;
+        if (atual != null) {
+            reindexar(atual, evento.getIdObra());
+        }
+    }
+
+    private void reindexar(IndiceInvertido alvo, String idObra) {
+        Optional<Obra> obra = obraRepository.findById(idObra);
+        if (obra.isEmpty() || !Boolean.TRUE.equals(obra.get().getAtivo())) {
+            alvo.remover(idObra);
+            return;
+        }
+        Obra atual = obra.get();
+        List<Autor> autores = autoresDasObras(List.of(idObra)).getOrDefault(idObra, List.of());
+        alvo.adicionar(idObra, frequencias(atual.getTitulo(), atual.getSubtitulo(),
+            atual.getSinopse(), atual.getIsbn(), autores));
+    }
+
+    private Map<String, List<Autor>> autoresDasObras(Collection<String> idsObras) {
+        Map<String, List<Autor>> autores = new HashMap<>();
+        for (Object[] linha : obraRepository.listarAutoresDasObras(idsObras)) {
+            autores.computeIfAbsent((String) linha[0], id -> new ArrayList<>()).add((Autor) linha[1]);
+        }
+        return autores;
+    }
+
+    /**
+     * Frequência de cada termo na obra, ponderada pelo campo em que aparece
+     */
+    static Map<String, Integer> frequencias(String titulo, String subtitulo, String sinopse,
+                                            String isbn, List<Autor> autores) {
+        Map<String, Integer> frequencias = new HashMap<>();
+        somar(frequencias, AnalisadorTexto.termos(titulo), PESO_TITULO);
+        somar(frequencias, AnalisadorTexto.termos(subtitulo), PESO_SUBTITULO);
+        somar(frequencias, AnalisadorTexto.termos(sinopse), PESO_SINOPSE);
+        for (Autor autor : autores) {
+            somar(frequencias, AnalisadorTexto.termos(autor.getNomeAutor()), PESO_AUTOR);
+        }
+        String isbnCompacto = AnalisadorTexto.isbn(isbn);
+        if (isbnCompacto != null) {
+            somar(frequencias, List.of(isbnCompacto), PESO_ISBN);
+        }
+        return frequencias;
+    }
+
+    private static void somar(Map<String, Integer> frequencias, List<String> termos, int peso) {
+        for (String termo : termos) {
+            frequencias.merge(termo, peso, Integer::sum);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package br.com.biblioimperial.service;
+
+import br.com.biblioimperial.dto.MetricasCacheDTO;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service do cache de segundo nível das tabelas de referência
+ *
+ * As gravações feitas pelo Hibernate já atualizam as regiões; invalidar()
+ * serve para descartar o que foi alterado por fora (scripts SQL) e para as
+ * escritas dos controllers, que limpam também as consultas em cache.
+ */
+@Service
+@RequiredArgsConstructor
+public class CacheReferenciaService {
+
+    public static final String REGIAO_CONSULTAS = "consultas_referencia";
+    private static final List<String> REGIOES_ENTIDADES = List.of("categorias", "autores", "grupos_usuarios");
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public void invalidar(Class<?> entidade) {
+        entityManagerFactory.getCache().evict(entidade);
+        sessionFactory().getCache().evictQueryRegion(REGIAO_CONSULTAS);
+    }
+
+    public void invalidarTudo() {
+        REGIOES_ENTIDADES.forEach(sessionFactory().getCache()::evictRegion);
+        sessionFactory().getCache().evictQueryRegion(REGIAO_CONSULTAS);
+    }
+
+    public MetricasCacheDTO obterMetricas() {
+        Statistics estatisticas = sessionFactory().getStatistics();
+        List<MetricasCacheDTO.Regiao> regioes = new ArrayList<>();
+        for (String nome : REGIOES_ENTIDADES) {
+            regioes.add(regiao(nome, estatisticas.getDomainDataRegionStatistics(nome)));
+        }
+        regioes.add(regiao(REGIAO_CONSULTAS, estatisticas.getQueryRegionStatistics(REGIAO_CONSULTAS)));
+        return new MetricasCacheDTO(
+            LocalDateTime.ofInstant(estatisticas.getStart(), ZoneId.systemDefault()),
+            estatisticas.getPrepareStatementCount(),
+            regioes
+        );
+    }
+
+    /**
+     * Zera as estatísticas, para medir uma sequência de requisições isolada
+     */
+    public void zerarMetricas() {
+        sessionFactory().getStatistics().clear();
+    }
+
+    private MetricasCacheDTO.Regiao regiao(String nome, CacheRegionStatistics estatisticas) {
+        if (estatisticas == null) {
+            // Região ainda não usada desde a inicialização
+            return new MetricasCacheDTO.Regiao(nome, 0L, 0L, 0L, 0L, null);
+        }
+        long acertos = estatisticas.getHitCount();
+        long falhas = estatisticas.getMissCount();
+        // O provedor JCache não informa a contagem de elementos (valor negativo)
+        long elementos = estatisticas.getElementCountInMemory();
+        return new MetricasCacheDTO.Regiao(nome, acertos, falhas, estatisticas.getPutCount(),
+            elementos < 0 ? null : elementos,
+            acertos + falhas == 0 ? null : (double) acertos / (acertos + falhas));
+    }
+
+    private SessionFactory sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+}
@@ -0,0 +1,52 @@
+package br.com.biblioimperial.service;
+
+import br.com.biblioimperial.event.EmprestimoEvento;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Cache de curta duração para os contadores consultados pelo dashboard
+ *
+ * Cada valor vale por alguns segundos (biblioteca.contadores.ttl-ms); as
+ * alterações de empréstimos e multas invalidam o cache imediatamente, então
+ * o TTL só limita quanto tempo uma alteração feita fora da API fica invisível.
+ */
+@Service
+public class ContadorCacheService {
+
+    private final long ttlMillis;
+    private final Map<String, Entrada> entradas = new ConcurrentHashMap<>();
+
+    public ContadorCacheService(@Value("${biblioteca.contadores.ttl-ms:5000}") long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T obter(String chave, Supplier<T> calcular) {
+        long agora = System.currentTimeMillis();
+        Entrada entrada = entradas.get(chave);
+        if (entrada != null && entrada.expiraEm() > agora) {
+            return (T) entrada.valor();
+        }
+        T valor = calcular.get();
+        entradas.put(chave, new Entrada(valor, agora + ttlMillis));
+        return valor;
+    }
+
+    public void invalidar() {
+        entradas.clear();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarEmprestimo(EmprestimoEvento evento) {
+        invalidar();
+    }
+
+    private record Entrada(Object valor, long expiraEm) {
+    }
+}
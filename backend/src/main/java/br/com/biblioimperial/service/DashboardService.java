@@ -0,0 +1,161 @@
+package br.com.biblioimperial.service;
+
+import br.com.biblioimperial.dto.AutorDTO;
+import br.com.biblioimperial.dto.CategoriaDTO;
+import br.com.biblioimperial.dto.DashboardDTO;
+import br.com.biblioimperial.dto.EstatisticasDTO;
+import br.com.biblioimperial.dto.ObraDTO;
+import br.com.biblioimperial.dto.ObraPopularDTO;
+import br.com.biblioimperial.dto.PaginaDTO;
+import br.com.biblioimperial.dto.TermoConsultaDTO;
+import br.com.biblioimperial.dto.UsuarioDTO;
+import br.com.biblioimperial.repository.mysql.AutorRepository;
+import br.com.biblioimperial.repository.mysql.CategoriaRepository;
+import br.com.biblioimperial.repository.mysql.ObraRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Service que monta os dados do painel administrativo
+ *
+ * As consultas (MySQL e MongoDB) são independentes e rodam ao mesmo tempo,
+ * cada uma em uma thread virtual, então o tempo do painel é o da consulta
+ * mais lenta e não a soma de todas. O executor vive só durante a montagem:
+ * a primeira consulta que falha encerra a espera, as demais são canceladas
+ * e interrompidas e o erro é repassado sem aguardar o término delas.
+ * Cada tarefa usa a própria transação e devolve dados já carregados.
+ * Usuários e obras vêm só na primeira página; as tabs buscam as seguintes
+ * em /usuarios/pagina e /obras/pagina com o cursor recebido.
+ */
+@Service
+@RequiredArgsConstructor
+public class DashboardService {
+
+    private static final int LIMITE_RANKINGS = 10;
+    private static final int DIAS_ANALISE_BUSCAS = 30;
+    private static final String TIPO_BUSCA_OBRAS = "OBRA";
+
+    private final EstatisticasService estatisticasService;
+    private final UsuarioService usuarioService;
+    private final ObraService obraService;
+    private final RankingObrasService rankingObrasService;
+    private final AnaliseConsultasService analiseConsultasService;
+    private final AutorRepository autorRepository;
+    private final CategoriaRepository categoriaRepository;
+    private final ObraRepository obraRepository;
+
+    public DashboardDTO montar() {
+        LocalDate fim = LocalDate.now();
+        LocalDate inicio = fim.minusDays(DIAS_ANALISE_BUSCAS - 1);
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            CompletableFuture<EstatisticasDTO> estatisticas =
+                CompletableFuture.supplyAsync(estatisticasService::obterEstatisticas, executor);
+            CompletableFuture<PaginaDTO<UsuarioDTO>> usuarios =
+                CompletableFuture.supplyAsync(this::primeiraPaginaUsuarios, executor);
+            CompletableFuture<List<AutorDTO>> autores =
+                CompletableFuture.supplyAsync(this::listarAutores, executor);
+            CompletableFuture<List<CategoriaDTO>> categorias =
+                CompletableFuture.supplyAsync(this::listarCategorias, executor);
+            CompletableFuture<PaginaDTO<ObraDTO>> obras =
+                CompletableFuture.supplyAsync(this::primeiraPaginaObras, executor);
+            CompletableFuture<List<ObraPopularDTO>> obrasPopulares = CompletableFuture.supplyAsync(() ->
+                rankingObrasService.obterPopulares(null, LIMITE_RANKINGS), executor);
+            CompletableFuture<List<TermoConsultaDTO>> termosMaisBuscados = CompletableFuture.supplyAsync(() ->
+                analiseConsultasService.buscarTermosMaisBuscados(inicio, fim, TIPO_BUSCA_OBRAS, false,
+                    LIMITE_RANKINGS), executor);
+
+            aguardarTodas(estatisticas, usuarios, autores, categorias, obras, obrasPopulares, termosMaisBuscados);
+
+            return new DashboardDTO(
+                estatisticas.join(),
+                usuarios.join(),
+                autores.join(),
+                categorias.join(),
+                obras.join(),
+                obrasPopulares.join(),
+                termosMaisBuscados.join()
+            );
+        } finally {
+            // Não espera o término: após uma falha as tarefas restantes são
+            // interrompidas e a resposta não fica presa a elas
+            executor.shutdownNow();
+        }
+    }
+
+    private PaginaDTO<UsuarioDTO> primeiraPaginaUsuarios() {
+        List<UsuarioDTO> usuarios = usuarioService.listarPaginaUsuarios(null, PaginaDTO.LIMITE_PADRAO).stream()
+            .map(UsuarioDTO::new)
+            .toList();
+        return PaginaDTO.of(usuarios, PaginaDTO.LIMITE_PADRAO, UsuarioDTO::getIdUsuario);
+    }
+
+    private PaginaDTO<ObraDTO> primeiraPaginaObras() {
+        return PaginaDTO.of(obraService.listarPaginaCatalogo(null, PaginaDTO.LIMITE_PADRAO),
+            PaginaDTO.LIMITE_PADRAO, ObraDTO::getIdObra);
+    }
+
+    private List<AutorDTO> listarAutores() {
+        Map<String, Long> totais = totaisPorId(obraRepository.contarObrasAtivasPorAutor());
+        return autorRepository.findAll().stream()
+            .map(autor -> new AutorDTO(autor, totais.getOrDefault(autor.getIdAutor(), 0L)))
+            .toList();
+    }
+
+    private List<CategoriaDTO> listarCategorias() {
+        Map<String, Long> totais = totaisPorId(obraRepository.contarObrasAtivasPorCategoria());
+        return categoriaRepository.findAll().stream()
+            .map(categoria -> new CategoriaDTO(categoria, totais.getOrDefault(categoria.getIdCategoria(), 0L)))
+            .toList();
+    }
+
+    private static Map<String, Long> totaisPorId(List<Object[]> linhas) {
+        Map<String, Long> totais = new HashMap<>(linhas.size() * 2);
+        for (Object[] linha : linhas) {
+            totais.put((String) linha[0], (Long) linha[1]);
+        }
+        return totais;
+    }
+
+    /**
+     * Espera todas as tarefas, mas retorna na primeira falha, cancelando as demais
+     */
+    private static void aguardarTodas(CompletableFuture<?>... tarefas) {
+        CompletableFuture<Void> todas = CompletableFuture.allOf(tarefas);
+        for (CompletableFuture<?> tarefa : tarefas) {
+            tarefa.whenComplete((valor, erro) -> {
+                if (erro != null) {
+                    todas.completeExceptionally(erro);
+                }
+            });
+        }
+        try {
+            todas.get();
+        } catch (ExecutionException e) {
+            for (CompletableFuture<?> tarefa : tarefas) {
+                tarefa.cancel(true);
+            }
+            Throwable causa = e.getCause() instanceof CompletionException && e.getCause().getCause() != null
+                ? e.getCause().getCause()
+                : e.getCause();
+            if (causa instanceof RuntimeException excecao) {
+                throw excecao;
+            }
+            throw new IllegalStateException("Falha ao montar o painel", causa);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Montagem do painel interrompida", e);
+        }
+    }
+}
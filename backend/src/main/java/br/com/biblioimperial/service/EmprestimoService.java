@@ -1,5 +1,8 @@
 package br.com.biblioimperial.service;
 
+import br.com.biblioimperial.dto.ItemLoteDTO;
+import br.com.biblioimperial.dto.ResultadoLoteDTO;
+import br.com.biblioimperial.event.EmprestimoEvento;
 import br.com.biblioimperial.model.mysql.Emprestimo;
 import br.com.biblioimperial.model.mysql.Exemplar;
 import br.com.biblioimperial.model.mysql.Multa;
@@ -8,17 +11,30 @@ import br.com.biblioimperial.repository.mysql.EmprestimoRepository;
 import br.com.biblioimperial.repository.mysql.ExemplarRepository;
 import br.com.biblioimperial.repository.mysql.MultaRepository;
 import br.com.biblioimperial.repository.mysql.UsuarioRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * Service para lógica de negócio relacionada a Empréstimos
@@ -28,38 +44,41 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class EmprestimoService {
 
+    private static final int MAX_TENTATIVAS = 5;
+    private static final long ESPERA_INICIAL_MS = 20;
+    private static final int MAX_ITENS_LOTE = 200;
+    private static final BigDecimal VALOR_DIARIA_ATRASO = new BigDecimal("2.00");
+
     private final EmprestimoRepository emprestimoRepository;
     private final ExemplarRepository exemplarRepository;
     private final UsuarioRepository usuarioRepository;
     private final MultaRepository multaRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
 
-    @Transactional
+    /**
+     * Realiza o empréstimo, repetindo a transação com espera exponencial
+     * quando ela falha por concorrência (lock, deadlock ou versão desatualizada)
+     */
     public Emprestimo realizarEmprestimo(String idExemplar, String idUsuario, int diasEmprestimo) {
-        // Busca o exemplar
-        Exemplar exemplar = exemplarRepository.findById(idExemplar)
-            .orElseThrow(() -> new RuntimeException("Exemplar não encontrado"));
-
-        // Verifica disponibilidade
-        if (!exemplar.getDisponivel()) {
-            throw new RuntimeException("Exemplar não disponível para empréstimo");
-        }
+        return comRetentativa(() -> transactionTemplate.execute(status ->
+            efetuarEmprestimo(idExemplar, idUsuario, diasEmprestimo)));
+    }
 
-        // Busca o usuário
-        Usuario usuario = usuarioRepository.findById(idUsuario)
-            .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
+    private Emprestimo efetuarEmprestimo(String idExemplar, String idUsuario, int diasEmprestimo) {
+        Usuario usuario = buscarUsuarioApto(idUsuario);
 
-        // Verifica se o usuário está ativo
-        if (!usuario.getAtivo()) {
-            throw new RuntimeException("Usuário inativo");
-        }
-
-        // Verifica se há multas pendentes
-        long multasPendentes = multaRepository.countByUsuario_IdUsuarioAndStatusMulta(
-            idUsuario, Multa.StatusMulta.PENDENTE
-        );
-        if (multasPendentes > 0) {
-            throw new RuntimeException("Usuário possui multas pendentes");
+        // Marca o exemplar como indisponível de forma atômica: entre empréstimos
+        // simultâneos do mesmo exemplar, apenas um consegue alterar a linha
+        if (exemplarRepository.reservarSeDisponivel(idExemplar) == 0) {
+            if (!exemplarRepository.existsById(idExemplar)) {
+                throw new RuntimeException("Exemplar não encontrado");
+            }
+            throw new ExemplarIndisponivelException("Exemplar não disponível para empréstimo");
         }
+        Exemplar exemplar = exemplarRepository.findByIdExemplar(idExemplar)
+            .orElseThrow(() -> new RuntimeException("Exemplar não encontrado"));
 
         // Cria o empréstimo
         Emprestimo emprestimo = new Emprestimo();
@@ -70,45 +89,159 @@ public class EmprestimoService {
         emprestimo.setDataPrevistaDevolucao(LocalDate.now().plusDays(diasEmprestimo));
         emprestimo.setStatusEmprestimo(Emprestimo.StatusEmprestimo.ATIVO);
 
-        // Marca o exemplar como indisponível
-        exemplar.setDisponivel(false);
-        exemplarRepository.save(exemplar);
+        Emprestimo salvo = emprestimoRepository.save(emprestimo);
+        eventPublisher.publishEvent(EmprestimoEvento.criado(salvo));
+        return salvo;
+    }
 
-        return emprestimoRepository.save(emprestimo);
+    /**
+     * Empréstimo de vários exemplares para o mesmo usuário (balcão de circulação)
+     * Os códigos são resolvidos em uma única consulta e tudo é gravado em uma só
+     * transação; códigos inexistentes ou indisponíveis são reportados por item
+     */
+    public ResultadoLoteDTO realizarEmprestimosEmLote(String idUsuario, List<String> codigosBarras, int diasEmprestimo) {
+        validarLote(codigosBarras);
+        return comRetentativa(() -> transactionTemplate.execute(status ->
+            efetuarEmprestimosEmLote(idUsuario, codigosBarras, diasEmprestimo)));
+    }
+
+    private ResultadoLoteDTO efetuarEmprestimosEmLote(String idUsuario, List<String> codigosBarras, int diasEmprestimo) {
+        Usuario usuario = buscarUsuarioApto(idUsuario);
+
+        Map<String, Exemplar> exemplares = exemplarRepository.findByCodigoBarrasIn(new HashSet<>(codigosBarras))
+            .stream()
+            .collect(Collectors.toMap(Exemplar::getCodigoBarras, Function.identity()));
+
+        LocalDateTime agora = LocalDateTime.now();
+        LocalDate dataPrevista = LocalDate.now().plusDays(diasEmprestimo);
+        List<ItemLoteDTO> itens = new ArrayList<>();
+        List<Emprestimo> criados = new ArrayList<>();
+        Set<String> processados = new HashSet<>();
+
+        for (String codigo : codigosBarras) {
+            if (!processados.add(codigo)) {
+                itens.add(ItemLoteDTO.falha(codigo, "Código repetido no lote"));
+                continue;
+            }
+            Exemplar exemplar = exemplares.get(codigo);
+            if (exemplar == null) {
+                itens.add(ItemLoteDTO.falha(codigo, "Exemplar não encontrado"));
+                continue;
+            }
+            if (!Boolean.TRUE.equals(exemplar.getDisponivel())) {
+                itens.add(ItemLoteDTO.falha(codigo, "Exemplar não disponível para empréstimo"));
+                continue;
+            }
+
+            // A alteração é verificada pela versão do exemplar no flush: se outro
+            // empréstimo chegou antes, a transação inteira é repetida
+            exemplar.setDisponivel(false);
+
+            Emprestimo emprestimo = new Emprestimo();
+            emprestimo.setIdEmprestimo(gerarIdEmprestimo());
+            emprestimo.setExemplar(exemplar);
+            emprestimo.setUsuario(usuario);
+            emprestimo.setDataEmprestimo(agora);
+            emprestimo.setDataPrevistaDevolucao(dataPrevista);
+            emprestimo.setStatusEmprestimo(Emprestimo.StatusEmprestimo.ATIVO);
+            // persist direto: save() faria um SELECT por item (id atribuído) e
+            // impediria o agrupamento dos INSERTs em lotes JDBC
+            entityManager.persist(emprestimo);
+
+            criados.add(emprestimo);
+            itens.add(ItemLoteDTO.sucesso(codigo, emprestimo.getIdEmprestimo(), null));
+        }
+
+        criados.forEach(emprestimo -> eventPublisher.publishEvent(EmprestimoEvento.criado(emprestimo)));
+        return ResultadoLoteDTO.of(itens);
+    }
+
+    /**
+     * Devolução de vários exemplares de uma vez, pelos códigos de barras
+     * Multas de atraso são geradas na mesma transação
+     */
+    public ResultadoLoteDTO realizarDevolucoesEmLote(List<String> codigosBarras) {
+        validarLote(codigosBarras);
+        return comRetentativa(() -> transactionTemplate.execute(status ->
+            efetuarDevolucoesEmLote(codigosBarras)));
+    }
+
+    private ResultadoLoteDTO efetuarDevolucoesEmLote(List<String> codigosBarras) {
+        Set<String> codigos = new HashSet<>(codigosBarras);
+        emprestimoRepository.bloquearEmAbertoPorCodigosBarras(codigos);
+        Map<String, Emprestimo> emAberto = emprestimoRepository.findEmAbertoPorCodigosBarras(
+                codigos,
+                List.of(Emprestimo.StatusEmprestimo.ATIVO, Emprestimo.StatusEmprestimo.ATRASADO))
+            .stream()
+            .collect(Collectors.toMap(e -> e.getExemplar().getCodigoBarras(), Function.identity(),
+                (primeiro, segundo) -> primeiro));
+        Map<String, List<Multa>> multasAtraso = buscarMultasAtraso(
+            emAberto.values().stream().map(Emprestimo::getIdEmprestimo).collect(Collectors.toList()));
+
+        LocalDate hoje = LocalDate.now();
+        LocalDateTime agora = LocalDateTime.now();
+        List<ItemLoteDTO> itens = new ArrayList<>();
+        List<EmprestimoEvento> eventos = new ArrayList<>();
+        Set<String> processados = new HashSet<>();
+
+        for (String codigo : codigosBarras) {
+            if (!processados.add(codigo)) {
+                itens.add(ItemLoteDTO.falha(codigo, "Código repetido no lote"));
+                continue;
+            }
+            Emprestimo emprestimo = emAberto.get(codigo);
+            if (emprestimo == null) {
+                itens.add(ItemLoteDTO.falha(codigo, "Nenhum empréstimo em aberto para o exemplar"));
+                continue;
+            }
+
+            List<Multa> multasDoEmprestimo = multasAtraso.getOrDefault(emprestimo.getIdEmprestimo(), List.of());
+            Multa multaNova = acumularMultaAtraso(emprestimo, multasDoEmprestimo, hoje);
+            if (multaNova != null) {
+                entityManager.persist(multaNova);
+            }
+            BigDecimal valorMulta = multaNova != null ? multaNova.getValorMulta() : valorPendente(multasDoEmprestimo);
+
+            Emprestimo.StatusEmprestimo statusAnterior = emprestimo.getStatusEmprestimo();
+            emprestimo.setDataDevolucao(agora);
+            emprestimo.setStatusEmprestimo(Emprestimo.StatusEmprestimo.DEVOLVIDO);
+            emprestimo.getExemplar().setDisponivel(true);
+
+            eventos.add(EmprestimoEvento.transicao(emprestimo, statusAnterior));
+            itens.add(ItemLoteDTO.sucesso(codigo, emprestimo.getIdEmprestimo(), valorMulta));
+        }
+
+        eventos.forEach(eventPublisher::publishEvent);
+        return ResultadoLoteDTO.of(itens);
     }
 
-    @Transactional
     public Emprestimo realizarDevolucao(String idEmprestimo) {
-        Emprestimo emprestimo = emprestimoRepository.findById(idEmprestimo)
+        return comRetentativa(() -> transactionTemplate.execute(status ->
+            efetuarDevolucao(idEmprestimo)));
+    }
+
+    private Emprestimo efetuarDevolucao(String idEmprestimo) {
+        emprestimoRepository.bloquearParaAtualizacao(List.of(idEmprestimo));
+        Emprestimo emprestimo = emprestimoRepository.findByIdEmprestimo(idEmprestimo)
             .orElseThrow(() -> new RuntimeException("Empréstimo não encontrado"));
 
         if (emprestimo.getStatusEmprestimo() == Emprestimo.StatusEmprestimo.DEVOLVIDO) {
-            throw new RuntimeException("Empréstimo já foi devolvido");
+            throw new IllegalStateException("Empréstimo já foi devolvido");
+        }
+        if (emprestimo.getStatusEmprestimo() == Emprestimo.StatusEmprestimo.CANCELADO) {
+            throw new IllegalStateException("Empréstimo foi cancelado");
         }
 
-        // Calcula dias de atraso
-        long diasAtraso = ChronoUnit.DAYS.between(
-            emprestimo.getDataPrevistaDevolucao(), 
-            LocalDate.now()
-        );
-
-        // Se houver atraso, gera multa
-        if (diasAtraso > 0) {
-            BigDecimal valorMulta = BigDecimal.valueOf(diasAtraso * 2.00);
-            
-            Multa multa = new Multa();
-            multa.setIdMulta(gerarIdMulta());
-            multa.setEmprestimo(emprestimo);
-            multa.setUsuario(emprestimo.getUsuario());
-            multa.setTipoMulta(Multa.TipoMulta.ATRASO);
-            multa.setValorMulta(valorMulta);
-            multa.setStatusMulta(Multa.StatusMulta.PENDENTE);
-            multa.setDescricao("Multa por atraso de " + diasAtraso + " dia(s)");
-            
+        // Se houver atraso, fecha a multa acumulada pela varredura (ou gera uma nova)
+        Multa multa = acumularMultaAtraso(emprestimo,
+            multaRepository.findByEmprestimo_IdEmprestimoAndTipoMulta(idEmprestimo, Multa.TipoMulta.ATRASO),
+            LocalDate.now());
+        if (multa != null) {
             multaRepository.save(multa);
         }
 
         // Atualiza o empréstimo
+        Emprestimo.StatusEmprestimo statusAnterior = emprestimo.getStatusEmprestimo();
         emprestimo.setDataDevolucao(LocalDateTime.now());
         emprestimo.setStatusEmprestimo(Emprestimo.StatusEmprestimo.DEVOLVIDO);
 
@@ -117,7 +250,9 @@ public class EmprestimoService {
         exemplar.setDisponivel(true);
         exemplarRepository.save(exemplar);
 
-        return emprestimoRepository.save(emprestimo);
+        Emprestimo salvo = emprestimoRepository.save(emprestimo);
+        eventPublisher.publishEvent(EmprestimoEvento.transicao(salvo, statusAnterior));
+        return salvo;
     }
 
     @Transactional
@@ -151,16 +286,141 @@ public class EmprestimoService {
         return emprestimoRepository.findByStatusEmprestimo(Emprestimo.StatusEmprestimo.ATIVO);
     }
 
+    /**
+     * O status ATRASADO é mantido pela VarreduraAtrasosService
+     */
     @Transactional(readOnly = true)
     public List<Emprestimo> listarEmprestimosAtrasados() {
-        return emprestimoRepository.findEmprestimosAtrasados(LocalDate.now());
+        return emprestimoRepository.findByStatusEmprestimo(Emprestimo.StatusEmprestimo.ATRASADO);
+    }
+
+    /**
+     * Atualiza a multa de atraso do empréstimo para o valor devido até :hoje
+     * (R$ 2,00 por dia). Multas de atraso já pagas ou canceladas são descontadas
+     * e o saldo fica na multa pendente, que é criada quando ainda não existe.
+     * Retorna a multa nova, que ainda precisa ser gravada, ou null
+     */
+    Multa acumularMultaAtraso(Emprestimo emprestimo, List<Multa> multasAtraso, LocalDate hoje) {
+        long diasAtraso = ChronoUnit.DAYS.between(emprestimo.getDataPrevistaDevolucao(), hoje);
+        if (diasAtraso <= 0) {
+            return null;
+        }
+
+        BigDecimal saldo = VALOR_DIARIA_ATRASO.multiply(BigDecimal.valueOf(diasAtraso));
+        Multa pendente = null;
+        for (Multa existente : multasAtraso) {
+            if (pendente == null && existente.getStatusMulta() == Multa.StatusMulta.PENDENTE) {
+                pendente = existente;
+            } else {
+                saldo = saldo.subtract(existente.getValorMulta());
+            }
+        }
+        String descricao = "Multa por atraso de " + diasAtraso + " dia(s)";
+
+        if (pendente != null) {
+            BigDecimal valor = saldo.max(BigDecimal.ZERO);
+            if (pendente.getValorMulta().compareTo(valor) != 0) {
+                pendente.setValorMulta(valor);
+                pendente.setDescricao(descricao);
+            }
+            return null;
+        }
+        if (saldo.signum() <= 0) {
+            return null;
+        }
+
+        Multa multa = new Multa();
+        multa.setIdMulta(gerarIdMulta());
+        multa.setEmprestimo(emprestimo);
+        multa.setUsuario(emprestimo.getUsuario());
+        multa.setTipoMulta(Multa.TipoMulta.ATRASO);
+        multa.setValorMulta(saldo);
+        multa.setStatusMulta(Multa.StatusMulta.PENDENTE);
+        multa.setDescricao(descricao);
+        return multa;
+    }
+
+    /**
+     * Multas de atraso dos empréstimos informados, agrupadas por empréstimo
+     */
+    Map<String, List<Multa>> buscarMultasAtraso(Collection<String> idsEmprestimos) {
+        if (idsEmprestimos.isEmpty()) {
+            return Map.of();
+        }
+        return multaRepository.findByEmprestimo_IdEmprestimoInAndTipoMulta(idsEmprestimos, Multa.TipoMulta.ATRASO)
+            .stream()
+            .collect(Collectors.groupingBy(multa -> multa.getEmprestimo().getIdEmprestimo()));
+    }
+
+    /**
+     * Busca o usuário e verifica se ele pode realizar empréstimos
+     */
+    private Usuario buscarUsuarioApto(String idUsuario) {
+        Usuario usuario = usuarioRepository.findById(idUsuario)
+            .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
+
+        // Verifica se o usuário está ativo
+        if (!usuario.getAtivo()) {
+            throw new RuntimeException("Usuário inativo");
+        }
+
+        // Verifica se há multas pendentes
+        long multasPendentes = multaRepository.countByUsuario_IdUsuarioAndStatusMulta(
+            idUsuario, Multa.StatusMulta.PENDENTE
+        );
+        if (multasPendentes > 0) {
+            throw new RuntimeException("Usuário possui multas pendentes");
+        }
+        return usuario;
+    }
+
+    private BigDecimal valorPendente(List<Multa> multasAtraso) {
+        return multasAtraso.stream()
+            .filter(multa -> multa.getStatusMulta() == Multa.StatusMulta.PENDENTE)
+            .map(Multa::getValorMulta)
+            .findFirst()
+            .orElse(null);
+    }
+
+    private void validarLote(List<String> codigosBarras) {
+        if (codigosBarras == null || codigosBarras.isEmpty()) {
+            throw new IllegalArgumentException("Informe ao menos um código de barras");
+        }
+        if (codigosBarras.size() > MAX_ITENS_LOTE) {
+            throw new IllegalArgumentException("Máximo de " + MAX_ITENS_LOTE + " códigos por lote");
+        }
+        if (codigosBarras.contains(null)) {
+            throw new IllegalArgumentException("Código de barras inválido no lote");
+        }
+    }
+
+    private <T> T comRetentativa(Supplier<T> operacao) {
+        long espera = ESPERA_INICIAL_MS;
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                return operacao.get();
+            } catch (ConcurrencyFailureException e) {
+                if (tentativa >= MAX_TENTATIVAS) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(espera + ThreadLocalRandom.current().nextLong(espera));
+                } catch (InterruptedException interrompido) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+                espera *= 2;
+            }
+        }
     }
 
-    private String gerarIdEmprestimo() {
-        return "EMP-" + System.currentTimeMillis() + "-" + UUID.randomUUID().toString().substring(0, 3);
+    static String gerarIdEmprestimo() {
+        // 8 caracteres aleatórios: com 3, empréstimos no mesmo milissegundo colidiam
+        return "EMP-" + System.currentTimeMillis() + "-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
     }
 
     private String gerarIdMulta() {
-        return "MLT-" + System.currentTimeMillis() + "-" + UUID.randomUUID().toString().substring(0, 3);
+        // Devoluções em lote geram várias multas no mesmo milissegundo
+        return "MLT-" + System.currentTimeMillis() + "-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
     }
 }
@@ -0,0 +1,105 @@
+package br.com.biblioimperial.service;
+
+import br.com.biblioimperial.dto.EstatisticasDTO;
+import br.com.biblioimperial.event.EmprestimoEvento;
+import br.com.biblioimperial.model.mysql.Emprestimo;
+import br.com.biblioimperial.repository.mysql.EstatisticasRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Service que mantém em memória as estatísticas gerais do sistema
+ *
+ * Os contadores são carregados do banco em uma única consulta e, a partir daí,
+ * ajustados a cada evento de empréstimo. Uma reconciliação periódica corrige
+ * qualquer desvio (alterações feitas direto no banco, cadastros etc.).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EstatisticasService {
+
+    private final EstatisticasRepository estatisticasRepository;
+
+    private final AtomicLong totalUsuarios = new AtomicLong();
+    private final AtomicLong totalObras = new AtomicLong();
+    private final AtomicLong totalEmprestimosAtivos = new AtomicLong();
+    private final AtomicLong totalAtrasados = new AtomicLong();
+    private final AtomicLong totalExemplares = new AtomicLong();
+    private final AtomicLong totalCategorias = new AtomicLong();
+
+    private volatile boolean carregado = false;
+    // A primeira leitura pode vir das threads virtuais do painel, e um
+    // monitor ocupado durante a consulta prenderia a thread à portadora
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public EstatisticasDTO obterEstatisticas() {
+        if (!carregado) {
+            recarregar();
+        }
+        return new EstatisticasDTO(
+            totalUsuarios.get(),
+            totalObras.get(),
+            totalEmprestimosAtivos.get(),
+            totalAtrasados.get(),
+            totalExemplares.get(),
+            totalCategorias.get()
+        );
+    }
+
+    /**
+     * Recalcula todos os contadores a partir do banco
+     */
+    @Scheduled(fixedDelayString = "${biblioteca.estatisticas.reconciliacao-ms:300000}",
+               initialDelayString = "${biblioteca.estatisticas.reconciliacao-ms:300000}")
+    public void recarregar() {
+        lock.lock();
+        try {
+            EstatisticasDTO atual = estatisticasRepository.calcularEstatisticas();
+            totalUsuarios.set(atual.getTotalUsuarios());
+            totalObras.set(atual.getTotalObras());
+            totalEmprestimosAtivos.set(atual.getTotalEmprestimosAtivos());
+            totalAtrasados.set(atual.getTotalAtrasados());
+            totalExemplares.set(atual.getTotalExemplares());
+            totalCategorias.set(atual.getTotalCategorias());
+            carregado = true;
+            log.debug("Estatísticas recarregadas: {}", atual);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ajusta os contadores de empréstimos após o commit da transação
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarEmprestimo(EmprestimoEvento evento) {
+        if (!carregado) {
+            return;
+        }
+        AtomicLong anterior = contadorDoStatus(evento.getStatusAnterior());
+        if (anterior != null) {
+            anterior.decrementAndGet();
+        }
+        AtomicLong novo = contadorDoStatus(evento.getStatusNovo());
+        if (novo != null) {
+            novo.incrementAndGet();
+        }
+    }
+
+    private AtomicLong contadorDoStatus(Emprestimo.StatusEmprestimo status) {
+        if (status == Emprestimo.StatusEmprestimo.ATIVO) {
+            return totalEmprestimosAtivos;
+        }
+        if (status == Emprestimo.StatusEmprestimo.ATRASADO) {
+            return totalAtrasados;
+        }
+        return null;
+    }
+}
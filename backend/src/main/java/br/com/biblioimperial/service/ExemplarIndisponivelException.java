@@ -0,0 +1,12 @@
+package br.com.biblioimperial.service;
+
+/**
+ * Lançada quando o exemplar já está emprestado no momento do empréstimo
+ *
+ */
+public class ExemplarIndisponivelException extends RuntimeException {
+
+    public ExemplarIndisponivelException(String mensagem) {
+        super(mensagem);
+    }
+}
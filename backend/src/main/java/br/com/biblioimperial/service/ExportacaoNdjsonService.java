@@ -0,0 +1,73 @@
+package br.com.biblioimperial.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Service para exportação de listagens em NDJSON (um objeto JSON por linha)
+ *
+ * Percorre a tabela em lotes pela chave (keyset), cada lote em sua própria
+ * transação somente leitura, escrevendo as linhas na resposta à medida que
+ * chegam. O contexto de persistência é limpo a cada lote, então o uso de
+ * memória não depende do tamanho da tabela.
+ *
+ * Não usamos um ResultSet em streaming do MySQL porque ele bloqueia a conexão
+ * para qualquer consulta secundária. As associações são LAZY: as consultas de
+ * cada lote precisam trazer (entity graph) tudo que o item serializado usa,
+ * porque a escrita acontece fora da transação.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExportacaoNdjsonService {
+
+    public static final int TAMANHO_LOTE = 500;
+
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final EntityManager entityManager;
+
+    /**
+     * @param buscarLote recebe (cursor, limite) e devolve o próximo lote já convertido
+     * @param cursorDe   extrai o cursor do último item de um lote
+     */
+    public <T> StreamingResponseBody exportar(BiFunction<String, Integer, List<T>> buscarLote,
+                                              Function<T, String> cursorDe) {
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        transacao.setReadOnly(true);
+
+        return saida -> {
+            String cursor = null;
+            while (true) {
+                final String apos = cursor;
+                List<T> lote = transacao.execute(status -> {
+                    List<T> itens = buscarLote.apply(apos, TAMANHO_LOTE);
+                    entityManager.clear();
+                    return itens;
+                });
+                if (lote == null || lote.isEmpty()) {
+                    break;
+                }
+
+                for (T item : lote) {
+                    saida.write(objectMapper.writeValueAsBytes(item));
+                    saida.write('\n');
+                }
+                saida.flush();
+
+                if (lote.size() < TAMANHO_LOTE) {
+                    break;
+                }
+                cursor = cursorDe.apply(lote.get(lote.size() - 1));
+            }
+        };
+    }
+}
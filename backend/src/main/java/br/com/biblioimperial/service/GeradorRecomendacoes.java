@@ -0,0 +1,458 @@
+package br.com.biblioimperial.service;
+
+import br.com.biblioimperial.model.mongodb.RecomendacaoObra;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Cálculo das recomendações de obras de todos os usuários em memória
+ *
+ * Primeiro é carregado o catálogo (obras ativas, categorias, autores e
+ * popularidade) e depois os sinais de cada usuário: obras emprestadas e
+ * categorias, autores e obras que ele buscou. preparar() calcula a
+ * similaridade item-item por co-empréstimo (SimilaridadeObras) e as obras
+ * mais populares de cada categoria e de cada autor.
+ *
+ * A pontuação de uma obra para o usuário soma a similaridade com cada obra
+ * que ele emprestou e um bônus pela afinidade com a categoria e os autores
+ * da obra, proporcional à preferência mais forte do usuário. Obras já
+ * emprestadas ficam de fora. Os usuários são divididos entre as threads do
+ * ForkJoinPool; cada tarefa folha pega um rascunho livre (ou cria um, se
+ * todos estiverem em uso) e o devolve ao terminar, então os vetores de
+ * trabalho são alocados uma vez por thread e reaproveitados entre chamadas
+ * de gerar().
+ *
+ * Depois de preparado, o gerador serve de modelo para recalcular poucos
+ * usuários: descartarUsuarios() esquece os perfis, os sinais dos usuários
+ * alterados são registrados de novo e gerar() calcula só esses.
+ */
+public class GeradorRecomendacoes {
+
+    public static final String ALGORITMO = "COEMPRESTIMO_ITEM_ITEM+AFINIDADE";
+
+    private static final int PESO_EMPRESTIMO = 3;
+    private static final int PESO_CONSULTA = 1;
+    private static final double PESO_CATEGORIA = 0.5;
+    private static final double PESO_AUTOR = 0.8;
+    private static final int MAX_PREFERENCIAS = 5;
+    private static final int OBRAS_POR_PREFERENCIA = 30;
+    private static final int MAX_TAGS = 3;
+    private static final int USUARIOS_POR_TAREFA = 128;
+    // Sinais (empréstimos + consultas / 5) para confiança máxima
+    private static final double SINAIS_CONFIANCA_TOTAL = 10.0;
+
+    private static final byte ORIGEM_OBRA = 1;
+    private static final byte ORIGEM_CATEGORIA = 2;
+    private static final byte ORIGEM_AUTOR = 3;
+
+    private final ForkJoinPool pool;
+    private final int maxRecomendacoes;
+
+    // Catálogo
+    private final Map<String, Integer> numeroObra = new HashMap<>();
+    private final List<String> idsObras = new ArrayList<>();
+    private final List<String> titulos = new ArrayList<>();
+    private final List<Integer> categoriaDaObra = new ArrayList<>();
+    private final List<List<Integer>> autoresDaObra = new ArrayList<>();
+    private final Map<String, Integer> numeroCategoria = new HashMap<>();
+    private final List<String> idsCategorias = new ArrayList<>();
+    private final List<String> nomesCategorias = new ArrayList<>();
+    private final Map<String, Integer> numeroAutor = new HashMap<>();
+    private final List<String> idsAutores = new ArrayList<>();
+    private final List<String> nomesAutores = new ArrayList<>();
+    private final Map<Integer, Long> popularidade = new HashMap<>();
+
+    // Usuários
+    private final Map<String, Integer> numeroUsuario = new HashMap<>();
+    private final List<String> idsUsuarios = new ArrayList<>();
+    private final List<Perfil> perfis = new ArrayList<>();
+
+    // Montados em preparar()
+    private SimilaridadeObras similaridade;
+    private int[][] obrasPorCategoria;
+    private int[][] obrasPorAutor;
+    private final Queue<Rascunho> rascunhos = new ConcurrentLinkedQueue<>();
+
+    public GeradorRecomendacoes(ForkJoinPool pool, int maxRecomendacoes) {
+        this.pool = pool;
+        this.maxRecomendacoes = maxRecomendacoes;
+    }
+
+    public void adicionarObra(String idObra, String titulo, String idCategoria, String nomeCategoria) {
+        int categoria = numeroCategoria.computeIfAbsent(idCategoria, id -> {
+            idsCategorias.add(id);
+            nomesCategorias.add(nomeCategoria);
+            return idsCategorias.size() - 1;
+        });
+        numeroObra.put(idObra, idsObras.size());
+        idsObras.add(idObra);
+        titulos.add(titulo);
+        categoriaDaObra.add(categoria);
+        autoresDaObra.add(new ArrayList<>(2));
+    }
+
+    public void adicionarAutor(String idObra, String idAutor, String nomeAutor) {
+        Integer obra = numeroObra.get(idObra);
+        if (obra == null) {
+            return;
+        }
+        int autor = numeroAutor.computeIfAbsent(idAutor, id -> {
+            idsAutores.add(id);
+            nomesAutores.add(nomeAutor);
+            return idsAutores.size() - 1;
+        });
+        autoresDaObra.get(obra).add(autor);
+    }
+
+    public void definirPopularidade(String idObra, long totalEmprestimos) {
+        Integer obra = numeroObra.get(idObra);
+        if (obra != null) {
+            popularidade.put(obra, totalEmprestimos);
+        }
+    }
+
+    /**
+     * Empréstimo do usuário; também soma afinidade à categoria e aos autores da obra
+     */
+    public void registrarEmprestimo(String idUsuario, String idObra) {
+        Integer obra = numeroObra.get(idObra);
+        if (obra == null) {
+            return;
+        }
+        Perfil perfil = perfil(idUsuario);
+        perfil.adicionarObra(obra);
+        perfil.sinais += 1;
+        somarAfinidadeObra(perfil, obra, PESO_EMPRESTIMO);
+    }
+
+    public void registrarConsultaCategoria(String idUsuario, String idCategoria, int vezes) {
+        Integer categoria = numeroCategoria.get(idCategoria);
+        if (categoria != null) {
+            Perfil perfil = perfil(idUsuario);
+            perfil.categorias.merge(categoria, vezes * PESO_CONSULTA, Integer::sum);
+            perfil.sinais += vezes / 5.0;
+        }
+    }
+
+    public void registrarConsultaAutor(String idUsuario, String idAutor, int vezes) {
+        Integer autor = numeroAutor.get(idAutor);
+        if (autor != null) {
+            Perfil perfil = perfil(idUsuario);
+            perfil.autores.merge(autor, vezes * PESO_CONSULTA, Integer::sum);
+            perfil.sinais += vezes / 5.0;
+        }
+    }
+
+    /**
+     * Obra entre os primeiros resultados de uma busca do usuário
+     */
+    public void registrarResultadoConsulta(String idUsuario, String idObra, int vezes) {
+        Integer obra = numeroObra.get(idObra);
+        if (obra != null) {
+            Perfil perfil = perfil(idUsuario);
+            perfil.sinais += vezes / 5.0;
+            somarAfinidadeObra(perfil, obra, vezes * PESO_CONSULTA);
+        }
+    }
+
+    /**
+     * Calcula a similaridade entre as obras e as obras populares de cada
+     * categoria e autor; chamado depois de carregar catálogo e usuários
+     */
+    public void preparar(int maxVizinhos) {
+        int[][] obrasPorUsuario = new int[perfis.size()][];
+        for (int usuario = 0; usuario < perfis.size(); usuario++) {
+            obrasPorUsuario[usuario] = perfis.get(usuario).fecharObras();
+        }
+        similaridade = SimilaridadeObras.calcular(obrasPorUsuario, idsObras.size(), maxVizinhos, pool);
+
+        List<List<Integer>> porCategoria = new ArrayList<>();
+        idsCategorias.forEach(id -> porCategoria.add(new ArrayList<>()));
+        List<List<Integer>> porAutor = new ArrayList<>();
+        idsAutores.forEach(id -> porAutor.add(new ArrayList<>()));
+        for (int obra = 0; obra < idsObras.size(); obra++) {
+            porCategoria.get(categoriaDaObra.get(obra)).add(obra);
+            for (int autor : autoresDaObra.get(obra)) {
+                porAutor.get(autor).add(obra);
+            }
+        }
+        obrasPorCategoria = maisPopulares(porCategoria);
+        obrasPorAutor = maisPopulares(porAutor);
+    }
+
+    /**
+     * Esquece os perfis carregados, mantendo catálogo e similaridade
+     */
+    public void descartarUsuarios() {
+        numeroUsuario.clear();
+        idsUsuarios.clear();
+        perfis.clear();
+    }
+
+    public int getTotalUsuarios() {
+        return idsUsuarios.size();
+    }
+
+    public int getTotalObras() {
+        return idsObras.size();
+    }
+
+    /**
+     * Recomendações dos usuários de número [inicio, fim); usuários sem
+     * nenhuma obra a recomendar ficam de fora da lista
+     */
+    public List<RecomendacaoObra> gerar(int inicio, int fim, LocalDateTime dataGeracao,
+                                        LocalDateTime dataExpiracao) {
+        return pool.invoke(new Geracao(inicio, fim, dataGeracao, dataExpiracao));
+    }
+
+    private Perfil perfil(String idUsuario) {
+        int numero = numeroUsuario.computeIfAbsent(idUsuario, id -> {
+            idsUsuarios.add(id);
+            perfis.add(new Perfil());
+            return idsUsuarios.size() - 1;
+        });
+        return perfis.get(numero);
+    }
+
+    private void somarAfinidadeObra(Perfil perfil, int obra, int peso) {
+        perfil.categorias.merge(categoriaDaObra.get(obra), peso, Integer::sum);
+        for (int autor : autoresDaObra.get(obra)) {
+            perfil.autores.merge(autor, peso, Integer::sum);
+        }
+    }
+
+    private int[][] maisPopulares(List<List<Integer>> grupos) {
+        int[][] resultado = new int[grupos.size()][];
+        Comparator<Integer> porPopularidade = Comparator
+            .comparingLong((Integer obra) -> popularidade.getOrDefault(obra, 0L)).reversed();
+        for (int grupo = 0; grupo < grupos.size(); grupo++) {
+            List<Integer> obras = grupos.get(grupo);
+            obras.sort(porPopularidade);
+            resultado[grupo] = obras.subList(0, Math.min(obras.size(), OBRAS_POR_PREFERENCIA)).stream()
+                .mapToInt(Integer::intValue)
+                .toArray();
+        }
+        return resultado;
+    }
+
+    private RecomendacaoObra recomendar(int usuario, Rascunho rascunho, LocalDateTime dataGeracao,
+                                        LocalDateTime dataExpiracao) {
+        Perfil perfil = perfis.get(usuario);
+        int[] emprestadas = perfil.fecharObras();
+
+        for (int obra : emprestadas) {
+            int[] vizinhos = similaridade.vizinhos(obra);
+            float[] pesos = similaridade.pesos(obra);
+            for (int k = 0; k < vizinhos.length; k++) {
+                rascunho.somar(vizinhos[k], pesos[k], ORIGEM_OBRA, obra);
+            }
+        }
+
+        List<Map.Entry<Integer, Integer>> categorias = preferidas(perfil.categorias);
+        List<Map.Entry<Integer, Integer>> autores = preferidas(perfil.autores);
+        somarPreferencias(rascunho, categorias, obrasPorCategoria, PESO_CATEGORIA, ORIGEM_CATEGORIA);
+        somarPreferencias(rascunho, autores, obrasPorAutor, PESO_AUTOR, ORIGEM_AUTOR);
+
+        List<Integer> candidatas = new ArrayList<>();
+        for (int k = 0; k < rascunho.quantidade; k++) {
+            int obra = rascunho.tocadas[k];
+            if (Arrays.binarySearch(emprestadas, obra) < 0) {
+                candidatas.add(obra);
+            }
+        }
+        candidatas.sort((a, b) -> Double.compare(rascunho.pontos[b], rascunho.pontos[a]));
+
+        List<RecomendacaoObra.ObraRecomendada> obras = new ArrayList<>();
+        for (int obra : candidatas.subList(0, Math.min(candidatas.size(), maxRecomendacoes))) {
+            obras.add(new RecomendacaoObra.ObraRecomendada(
+                idsObras.get(obra),
+                titulos.get(obra),
+                nomesCategorias.get(categoriaDaObra.get(obra)),
+                Math.round(rascunho.pontos[obra] * 10000) / 10000.0,
+                motivo(rascunho.origemTipo[obra], rascunho.origem[obra]),
+                autoresDaObra.get(obra).stream().limit(MAX_TAGS).map(nomesAutores::get).toList()
+            ));
+        }
+        rascunho.limpar();
+        if (obras.isEmpty()) {
+            return null;
+        }
+
+        RecomendacaoObra recomendacao = new RecomendacaoObra();
+        recomendacao.setId(idsUsuarios.get(usuario));
+        recomendacao.setIdUsuario(idsUsuarios.get(usuario));
+        recomendacao.setObrasRecomendadas(obras);
+        recomendacao.setCategoriasPreferidas(porId(categorias, idsCategorias));
+        recomendacao.setAutoresPreferidos(porId(autores, idsAutores));
+        recomendacao.setDataGeracao(dataGeracao);
+        recomendacao.setDataExpiracao(dataExpiracao);
+        recomendacao.setAlgoritmoUtilizado(ALGORITMO);
+        recomendacao.setScoreConfianca(Math.round(Math.min(1.0, perfil.sinais / SINAIS_CONFIANCA_TOTAL) * 100) / 100.0);
+        return recomendacao;
+    }
+
+    private static List<Map.Entry<Integer, Integer>> preferidas(Map<Integer, Integer> afinidades) {
+        return afinidades.entrySet().stream()
+            .sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed())
+            .limit(MAX_PREFERENCIAS)
+            .toList();
+    }
+
+    private static void somarPreferencias(Rascunho rascunho, List<Map.Entry<Integer, Integer>> preferidas,
+                                          int[][] obrasPorGrupo, double peso, byte origem) {
+        if (preferidas.isEmpty()) {
+            return;
+        }
+        double maior = preferidas.get(0).getValue();
+        for (Map.Entry<Integer, Integer> preferida : preferidas) {
+            double bonus = peso * preferida.getValue() / maior;
+            for (int obra : obrasPorGrupo[preferida.getKey()]) {
+                rascunho.somar(obra, bonus, origem, preferida.getKey());
+            }
+        }
+    }
+
+    private static Map<String, Integer> porId(List<Map.Entry<Integer, Integer>> preferidas, List<String> ids) {
+        Map<String, Integer> resultado = new LinkedHashMap<>();
+        preferidas.forEach(preferida -> resultado.put(ids.get(preferida.getKey()), preferida.getValue()));
+        return resultado;
+    }
+
+    private String motivo(byte origemTipo, int origem) {
+        return switch (origemTipo) {
+            case ORIGEM_OBRA -> "Quem emprestou \"" + titulos.get(origem) + "\" também emprestou esta obra";
+            case ORIGEM_CATEGORIA -> "Popular em " + nomesCategorias.get(origem) + ", categoria que você procura";
+            default -> "De " + nomesAutores.get(origem) + ", autor que você procura";
+        };
+    }
+
+    private static final class Perfil {
+
+        private int[] obras = new int[4];
+        private int totalObras;
+        private final Map<Integer, Integer> categorias = new HashMap<>();
+        private final Map<Integer, Integer> autores = new HashMap<>();
+        private double sinais;
+
+        void adicionarObra(int obra) {
+            if (totalObras == obras.length) {
+                obras = Arrays.copyOf(obras, totalObras * 2);
+            }
+            obras[totalObras++] = obra;
+        }
+
+        /**
+         * Obras emprestadas ordenadas e sem repetição
+         */
+        int[] fecharObras() {
+            int[] ordenadas = Arrays.copyOf(obras, totalObras);
+            Arrays.sort(ordenadas);
+            int distintas = 0;
+            for (int k = 0; k < ordenadas.length; k++) {
+                if (k == 0 || ordenadas[k] != ordenadas[k - 1]) {
+                    ordenadas[distintas++] = ordenadas[k];
+                }
+            }
+            return Arrays.copyOf(ordenadas, distintas);
+        }
+    }
+
+    /**
+     * Vetores de trabalho de uma thread: pontuação por obra, a contribuição
+     * que mais pesou (para o motivo) e as obras tocadas, limpas a cada usuário
+     */
+    private static final class Rascunho {
+
+        private final double[] pontos;
+        private final double[] maiorContribuicao;
+        private final byte[] origemTipo;
+        private final int[] origem;
+        private final int[] tocadas;
+        private int quantidade;
+
+        Rascunho(int totalObras) {
+            pontos = new double[totalObras];
+            maiorContribuicao = new double[totalObras];
+            origemTipo = new byte[totalObras];
+            origem = new int[totalObras];
+            tocadas = new int[totalObras];
+        }
+
+        void somar(int obra, double valor, byte tipo, int de) {
+            if (origemTipo[obra] == 0) {
+                tocadas[quantidade++] = obra;
+            }
+            pontos[obra] += valor;
+            if (valor > maiorContribuicao[obra]) {
+                maiorContribuicao[obra] = valor;
+                origemTipo[obra] = tipo;
+                origem[obra] = de;
+            }
+        }
+
+        void limpar() {
+            for (int k = 0; k < quantidade; k++) {
+                int obra = tocadas[k];
+                pontos[obra] = 0;
+                maiorContribuicao[obra] = 0;
+                origemTipo[obra] = 0;
+            }
+            quantidade = 0;
+        }
+    }
+
+    private final class Geracao extends RecursiveTask<List<RecomendacaoObra>> {
+
+        private final int inicio;
+        private final int fim;
+        private final LocalDateTime dataGeracao;
+        private final LocalDateTime dataExpiracao;
+
+        Geracao(int inicio, int fim, LocalDateTime dataGeracao, LocalDateTime dataExpiracao) {
+            this.inicio = inicio;
+            this.fim = fim;
+            this.dataGeracao = dataGeracao;
+            this.dataExpiracao = dataExpiracao;
+        }
+
+        @Override
+        protected List<RecomendacaoObra> compute() {
+            if (fim - inicio > USUARIOS_POR_TAREFA) {
+                int meio = (inicio + fim) >>> 1;
+                Geracao esquerda = new Geracao(inicio, meio, dataGeracao, dataExpiracao);
+                esquerda.fork();
+                List<RecomendacaoObra> resultado = new ArrayList<>(
+                    new Geracao(meio, fim, dataGeracao, dataExpiracao).compute());
+                resultado.addAll(0, esquerda.join());
+                return resultado;
+            }
+
+            Rascunho rascunho = rascunhos.poll();
+            if (rascunho == null) {
+                rascunho = new Rascunho(idsObras.size());
+            }
+            List<RecomendacaoObra> resultado = new ArrayList<>(fim - inicio);
+            for (int usuario = inicio; usuario < fim; usuario++) {
+                RecomendacaoObra recomendacao = recomendar(usuario, rascunho, dataGeracao, dataExpiracao);
+                if (recomendacao != null) {
+                    resultado.add(recomendacao);
+                }
+            }
+            // Só volta para a fila se terminou limpo (sem exceção no meio de um usuário)
+            rascunhos.offer(rascunho);
+            return resultado;
+        }
+    }
+}
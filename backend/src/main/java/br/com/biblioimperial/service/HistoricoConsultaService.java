@@ -1,44 +1,176 @@
 package br.com.biblioimperial.service;
 
+import br.com.biblioimperial.dto.HistoricoConsultaDTO;
+import br.com.biblioimperial.dto.MetricasIngestaoDTO;
+import br.com.biblioimperial.dto.PaginaDTO;
 import br.com.biblioimperial.model.mongodb.HistoricoConsulta;
 import br.com.biblioimperial.repository.mongodb.HistoricoConsultaRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Service para lógica de negócio relacionada ao Histórico de Consultas (MongoDB)
  *
+ * As listagens são paginadas por cursor "dataHoraConsulta~id" e só trazem os
+ * campos do HistoricoConsultaDTO; o vetor resultadosIds, o maior do documento,
+ * só é lido quando solicitado.
  */
 @Service
 @RequiredArgsConstructor
 public class HistoricoConsultaService {
 
+    private static final String CAMPO_DATA = "dataHoraConsulta";
+    private static final int CONSULTAS_RECENTES = 10;
+    private static final int TAMANHO_LOTE_CURSOR = 500;
+
     private final HistoricoConsultaRepository historicoRepository;
+    private final IngestaoHistoricoService ingestaoHistorico;
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
 
+    /**
+     * Enfileira a consulta para gravação em lote; a gravação no MongoDB
+     * acontece depois, fora da thread da requisição
+     */
     public HistoricoConsulta registrarConsulta(HistoricoConsulta historico) {
-        return historicoRepository.save(historico);
+        ingestaoHistorico.registrar(historico);
+        return historico;
+    }
+
+    public MetricasIngestaoDTO obterMetricasIngestao() {
+        return ingestaoHistorico.obterMetricas();
     }
 
-    public List<HistoricoConsulta> buscarHistoricoPorUsuario(String idUsuario) {
-        return historicoRepository.findByIdUsuarioOrderByDataHoraConsultaDesc(idUsuario);
+    /**
+     * Histórico do usuário, da consulta mais recente para a mais antiga
+     */
+    public PaginaDTO<HistoricoConsultaDTO> buscarHistoricoPorUsuario(String idUsuario, String apos, int limite,
+                                                                    boolean incluirResultados) {
+        return buscarPagina(Criteria.where("idUsuario").is(idUsuario), Sort.Direction.DESC, apos, limite,
+            incluirResultados);
     }
 
-    public List<HistoricoConsulta> buscarUltimasConsultasUsuario(String idUsuario) {
-        return historicoRepository.findTop10ByIdUsuarioOrderByDataHoraConsultaDesc(idUsuario);
+    public List<HistoricoConsultaDTO> buscarUltimasConsultasUsuario(String idUsuario) {
+        return buscarHistoricoPorUsuario(idUsuario, null, CONSULTAS_RECENTES, false).getItens();
     }
 
-    public List<HistoricoConsulta> buscarConsultasPorPeriodo(LocalDateTime inicio, LocalDateTime fim) {
-        return historicoRepository.findByDataHoraConsultaBetween(inicio, fim);
+    /**
+     * Consultas do período, da mais antiga para a mais recente
+     */
+    public PaginaDTO<HistoricoConsultaDTO> buscarConsultasPorPeriodo(LocalDateTime inicio, LocalDateTime fim,
+                                                                    String apos, int limite,
+                                                                    boolean incluirResultados) {
+        return buscarPagina(periodo(inicio, fim), Sort.Direction.ASC, apos, limite, incluirResultados);
+    }
+
+    /**
+     * Exporta as consultas do período em NDJSON lendo de um cursor do MongoDB,
+     * sem carregar o período inteiro em memória
+     */
+    public StreamingResponseBody exportarConsultasPorPeriodo(LocalDateTime inicio, LocalDateTime fim,
+                                                            boolean incluirResultados) {
+        Query query = projetar(new Query(periodo(inicio, fim)), incluirResultados)
+            .with(Sort.by(Sort.Direction.ASC, CAMPO_DATA))
+            .cursorBatchSize(TAMANHO_LOTE_CURSOR);
+
+        return saida -> {
+            try (Stream<HistoricoConsulta> consultas = mongoTemplate.stream(query, HistoricoConsulta.class)) {
+                Iterator<HistoricoConsulta> iterador = consultas.iterator();
+                int escritas = 0;
+                while (iterador.hasNext()) {
+                    saida.write(objectMapper.writeValueAsBytes(HistoricoConsultaDTO.fromEntity(iterador.next())));
+                    saida.write('\n');
+                    if (++escritas % TAMANHO_LOTE_CURSOR == 0) {
+                        saida.flush();
+                    }
+                }
+            }
+            saida.flush();
+        };
     }
 
     public long contarConsultasUsuario(String idUsuario) {
         return historicoRepository.countByIdUsuario(idUsuario);
     }
 
-    public List<HistoricoConsulta> buscarPorTipoConsulta(String tipoConsulta) {
-        return historicoRepository.findByTipoConsulta(tipoConsulta);
+    /**
+     * Consultas do tipo, da mais recente para a mais antiga
+     */
+    public PaginaDTO<HistoricoConsultaDTO> buscarPorTipoConsulta(String tipoConsulta, String apos, int limite,
+                                                                boolean incluirResultados) {
+        return buscarPagina(Criteria.where("tipoConsulta").is(tipoConsulta), Sort.Direction.DESC, apos, limite,
+            incluirResultados);
+    }
+
+    private PaginaDTO<HistoricoConsultaDTO> buscarPagina(Criteria filtro, Sort.Direction direcao, String apos,
+                                                        int limite, boolean incluirResultados) {
+        Query query = new Query(apos == null || apos.isBlank()
+            ? filtro
+            : new Criteria().andOperator(filtro, aposCursor(apos, direcao)));
+        projetar(query, incluirResultados)
+            .with(Sort.by(direcao, CAMPO_DATA, "id"))
+            .limit(limite);
+
+        List<HistoricoConsultaDTO> itens = mongoTemplate.find(query, HistoricoConsulta.class).stream()
+            .map(HistoricoConsultaDTO::fromEntity)
+            .toList();
+        return PaginaDTO.of(itens, limite, this::cursorDe);
+    }
+
+    private Query projetar(Query query, boolean incluirResultados) {
+        query.fields().include("idUsuario", "nomeUsuario", "tipoConsulta", "termoBusca", "quantidadeResultados",
+            CAMPO_DATA, "tempoResposta", "filtrosAplicados");
+        if (incluirResultados) {
+            query.fields().include("resultadosIds");
+        }
+        return query;
+    }
+
+    private Criteria periodo(LocalDateTime inicio, LocalDateTime fim) {
+        if (inicio.isAfter(fim)) {
+            throw new IllegalArgumentException("O início do período deve ser anterior ao fim");
+        }
+        return Criteria.where(CAMPO_DATA).gte(inicio).lte(fim);
+    }
+
+    /**
+     * Consultas depois do cursor na ordem da listagem (data e, no empate, id)
+     */
+    private Criteria aposCursor(String apos, Sort.Direction direcao) {
+        int separador = apos.indexOf('~');
+        if (separador < 0) {
+            throw new IllegalArgumentException("Cursor inválido: " + apos);
+        }
+        LocalDateTime data;
+        try {
+            data = LocalDateTime.parse(apos.substring(0, separador));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + apos);
+        }
+        String id = apos.substring(separador + 1);
+        if (direcao == Sort.Direction.ASC) {
+            return new Criteria().orOperator(
+                Criteria.where(CAMPO_DATA).gt(data),
+                Criteria.where(CAMPO_DATA).is(data).and("id").gt(id));
+        }
+        return new Criteria().orOperator(
+            Criteria.where(CAMPO_DATA).lt(data),
+            Criteria.where(CAMPO_DATA).is(data).and("id").lt(id));
+    }
+
+    private String cursorDe(HistoricoConsultaDTO historico) {
+        return historico.getDataHoraConsulta() + "~" + historico.getId();
     }
 }
@@ -0,0 +1,481 @@
+package br.com.biblioimperial.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido em memória com ranqueamento BM25
+ *
+ * Cada documento recebe um número interno sequencial e cada termo guarda a
+ * lista (documento, frequência) em vetores de int. Alterar um documento marca
+ * o número antigo como removido e indexa de novo com um número novo, então as
+ * listas só crescem; os removidos são descartados quando o índice é
+ * reconstruído. As palavras da consulta são combinadas com E; cada palavra
+ * casa com o termo exato, com termos que começam por ela (a última palavra,
+ * ainda em digitação) e, se o termo não existir, com termos a até 1 ou 2
+ * edições de distância.
+ *
+ * A pontuação começa pela palavra com menos postagens e as seguintes só
+ * somam nos documentos que já casaram com todas as anteriores, procurando
+ * cada um na lista quando eles são poucos. As expansões por prefixo e
+ * aproximadas têm um teto de postagens, senão um prefixo curto de palavras
+ * comuns percorreria boa parte do índice. As pontuações vão para vetores
+ * indexados pelo documento, reaproveitados entre buscas: são limpos só nas
+ * posições tocadas e há no máximo um por busca simultânea.
+ */
+public class IndiceInvertido {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private static final int MAX_PALAVRAS_CONSULTA = 8;
+    private static final int MIN_PREFIXO = 3;
+    private static final int MAX_VARRIDOS_PREFIXO = 256;
+    private static final int MAX_EXPANSOES_PREFIXO = 16;
+    private static final int MAX_EXPANSOES_APROXIMADAS = 8;
+    private static final int MAX_POSTAGENS_EXPANSOES = 25_000;
+    // Abaixo desta razão entre postagens e candidatos compensa a busca binária
+    private static final int RAZAO_BUSCA_BINARIA = 32;
+    private static final float PESO_PREFIXO = 0.8f;
+    private static final float PESO_UMA_EDICAO = 0.6f;
+    private static final float PESO_DUAS_EDICOES = 0.4f;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postagens> termos = new TreeMap<>();
+    // Termos agrupados por primeira letra e tamanho, para a busca aproximada
+    private final Map<String, List<String>> termosPorInicioETamanho = new HashMap<>();
+    private final Map<String, Integer> documentoPorChave = new HashMap<>();
+    private final BitSet removidos = new BitSet();
+    private final Queue<Acumulador> acumuladoresLivres = new ConcurrentLinkedQueue<>();
+    private String[] chaves = new String[1024];
+    private int[] comprimentos = new int[1024];
+    private int proximoDocumento;
+    private int documentosVivos;
+    private long somaComprimentos;
+
+    /**
+     * Indexa (ou reindexa) um documento a partir das frequências ponderadas de seus termos
+     */
+    public void adicionar(String chave, Map<String, Integer> frequencias) {
+        lock.writeLock().lock();
+        try {
+            removerSemLock(chave);
+            if (frequencias.isEmpty()) {
+                return;
+            }
+            int documento = proximoDocumento++;
+            if (documento == chaves.length) {
+                chaves = Arrays.copyOf(chaves, documento * 2);
+                comprimentos = Arrays.copyOf(comprimentos, documento * 2);
+            }
+
+            int comprimento = 0;
+            for (Map.Entry<String, Integer> entrada : frequencias.entrySet()) {
+                termos.computeIfAbsent(entrada.getKey(), this::novoTermo).adicionar(documento, entrada.getValue());
+                comprimento += entrada.getValue();
+            }
+            chaves[documento] = chave;
+            comprimentos[documento] = comprimento;
+            documentoPorChave.put(chave, documento);
+            documentosVivos++;
+            somaComprimentos += comprimento;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remover(String chave) {
+        lock.writeLock().lock();
+        try {
+            removerSemLock(chave);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int getDocumentos() {
+        return documentosVivos;
+    }
+
+    public int getTermos() {
+        lock.readLock().lock();
+        try {
+            return termos.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Os documentos mais relevantes para a consulta, em ordem decrescente de pontuação
+     */
+    public List<Resultado> buscar(String consulta, int limite) {
+        List<String> palavras = palavrasDaConsulta(consulta);
+        if (palavras.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+        boolean ultimaCompleta = Character.isWhitespace(consulta.charAt(consulta.length() - 1));
+
+        Acumulador acumulador = null;
+        lock.readLock().lock();
+        try {
+            if (documentosVivos == 0) {
+                return List.of();
+            }
+            float mediaComprimento = (float) somaComprimentos / documentosVivos;
+
+            List<PalavraExpandida> expandidas = new ArrayList<>(palavras.size());
+            for (int i = 0; i < palavras.size(); i++) {
+                boolean prefixo = i == palavras.size() - 1 && !ultimaCompleta;
+                Map<Postagens, Float> expansoes = expandir(palavras.get(i), prefixo);
+                // Palavra sem nenhum termo parecido não restringe o resultado
+                if (!expansoes.isEmpty()) {
+                    expandidas.add(new PalavraExpandida(1 << i, expansoes));
+                }
+            }
+            if (expandidas.isEmpty()) {
+                return List.of();
+            }
+            expandidas.sort(Comparator.comparingLong(PalavraExpandida::postagens));
+
+            acumulador = reservarAcumulador();
+            int exigida = 0;
+            for (PalavraExpandida palavra : expandidas) {
+                for (Map.Entry<Postagens, Float> expansao : palavra.expansoes().entrySet()) {
+                    pontuar(expansao.getKey(), expansao.getValue(), palavra.bit(), exigida, mediaComprimento,
+                        acumulador);
+                }
+                exigida |= palavra.bit();
+            }
+            return melhores(acumulador, exigida, limite);
+        } finally {
+            lock.readLock().unlock();
+            if (acumulador != null) {
+                acumulador.limpar();
+                acumuladoresLivres.offer(acumulador);
+            }
+        }
+    }
+
+    private List<String> palavrasDaConsulta(String consulta) {
+        String isbn = AnalisadorTexto.isbn(consulta);
+        if (isbn != null) {
+            return List.of(isbn);
+        }
+        List<String> palavras = AnalisadorTexto.palavras(consulta);
+        if (palavras.size() > 1) {
+            // Palavras vazias só contam quando são a consulta inteira
+            List<String> significativas = new ArrayList<>(palavras);
+            significativas.removeIf(palavra -> AnalisadorTexto.termos(palavra).isEmpty());
+            if (!significativas.isEmpty()) {
+                palavras = significativas;
+            }
+        }
+        return palavras.size() > MAX_PALAVRAS_CONSULTA ? palavras.subList(0, MAX_PALAVRAS_CONSULTA) : palavras;
+    }
+
+    /**
+     * Termos do índice que casam com a palavra, com o peso de cada forma de casamento
+     */
+    private Map<Postagens, Float> expandir(String palavra, boolean prefixo) {
+        Map<Postagens, Float> expansoes = new HashMap<>();
+        String termo = AnalisadorTexto.singular(palavra);
+        Postagens exato = termos.get(termo);
+        if (exato != null) {
+            expansoes.put(exato, 1f);
+        }
+
+        if (prefixo && palavra.length() >= MIN_PREFIXO) {
+            List<Postagens> candidatos = new ArrayList<>();
+            for (Postagens postagens : termos.subMap(palavra, true, palavra + Character.MAX_VALUE, true).values()) {
+                if (postagens != exato) {
+                    candidatos.add(postagens);
+                }
+                if (candidatos.size() == MAX_VARRIDOS_PREFIXO) {
+                    break;
+                }
+            }
+            candidatos.sort((a, b) -> Integer.compare(b.tamanho, a.tamanho));
+            long total = exato != null ? exato.tamanho : 0;
+            for (Postagens postagens : candidatos) {
+                if (expansoes.size() == MAX_EXPANSOES_PREFIXO
+                        || (!expansoes.isEmpty() && total + postagens.tamanho > MAX_POSTAGENS_EXPANSOES)) {
+                    continue;
+                }
+                expansoes.put(postagens, PESO_PREFIXO);
+                total += postagens.tamanho;
+            }
+        }
+
+        if (exato == null && expansoes.isEmpty() && termo.length() >= 4) {
+            expandirAproximado(termo, expansoes);
+        }
+        return expansoes;
+    }
+
+    private void expandirAproximado(String termo, Map<Postagens, Float> expansoes) {
+        int maximo = termo.length() >= 8 ? 2 : 1;
+        List<Postagens> umaEdicao = new ArrayList<>();
+        List<Postagens> duasEdicoes = new ArrayList<>();
+        for (int tamanho = termo.length() - maximo; tamanho <= termo.length() + maximo; tamanho++) {
+            List<String> candidatos = termosPorInicioETamanho.get(chaveAproximada(termo.charAt(0), tamanho));
+            if (candidatos == null) {
+                continue;
+            }
+            for (String candidato : candidatos) {
+                int distancia = distancia(termo, candidato, maximo);
+                if (distancia == 1) {
+                    umaEdicao.add(termos.get(candidato));
+                } else if (distancia == 2) {
+                    duasEdicoes.add(termos.get(candidato));
+                }
+            }
+        }
+        umaEdicao.sort((a, b) -> Integer.compare(b.tamanho, a.tamanho));
+        duasEdicoes.sort((a, b) -> Integer.compare(b.tamanho, a.tamanho));
+        long total = 0;
+        for (Postagens postagens : umaEdicao) {
+            total = adicionarAproximada(expansoes, postagens, PESO_UMA_EDICAO, total);
+        }
+        for (Postagens postagens : duasEdicoes) {
+            total = adicionarAproximada(expansoes, postagens, PESO_DUAS_EDICOES, total);
+        }
+    }
+
+    private static long adicionarAproximada(Map<Postagens, Float> expansoes, Postagens postagens, float peso,
+                                            long total) {
+        if (expansoes.size() == MAX_EXPANSOES_APROXIMADAS
+                || (!expansoes.isEmpty() && total + postagens.tamanho > MAX_POSTAGENS_EXPANSOES)) {
+            return total;
+        }
+        expansoes.put(postagens, peso);
+        return total + postagens.tamanho;
+    }
+
+    /**
+     * Soma a pontuação BM25 do termo nos documentos; com palavras anteriores
+     * já pontuadas, só nos que casaram com todas elas
+     */
+    private void pontuar(Postagens postagens, float peso, int bit, int anteriores, float mediaComprimento,
+                         Acumulador acumulador) {
+        float idf = (float) Math.log(1 + (documentosVivos - postagens.tamanho + 0.5) / (postagens.tamanho + 0.5));
+        if (idf <= 0) {
+            idf = 0.01f;
+        }
+        float fator = peso * idf * (K1 + 1);
+        if (anteriores == 0) {
+            for (int i = 0; i < postagens.tamanho; i++) {
+                int documento = postagens.documentos[i];
+                if (!removidos.get(documento)) {
+                    acumulador.somar(documento, fator * bm25(postagens.frequencias[i], documento, mediaComprimento),
+                        bit);
+                }
+            }
+        } else if ((long) acumulador.quantidade * RAZAO_BUSCA_BINARIA < postagens.tamanho) {
+            // Poucos candidatos: procura cada um na lista em vez de percorrê-la
+            for (int c = 0; c < acumulador.quantidade; c++) {
+                int documento = acumulador.tocados[c];
+                if ((acumulador.mascaras[documento] & anteriores) != anteriores) {
+                    continue;
+                }
+                int i = Arrays.binarySearch(postagens.documentos, 0, postagens.tamanho, documento);
+                if (i >= 0) {
+                    acumulador.somar(documento, fator * bm25(postagens.frequencias[i], documento, mediaComprimento),
+                        bit);
+                }
+            }
+        } else {
+            for (int i = 0; i < postagens.tamanho; i++) {
+                int documento = postagens.documentos[i];
+                if ((acumulador.mascaras[documento] & anteriores) == anteriores) {
+                    acumulador.somar(documento, fator * bm25(postagens.frequencias[i], documento, mediaComprimento),
+                        bit);
+                }
+            }
+        }
+    }
+
+    /**
+     * Parte da pontuação BM25 que depende do documento: tf / (tf + k1 * (1 - b + b * |d| / média))
+     */
+    private float bm25(int frequencia, int documento, float mediaComprimento) {
+        return frequencia / (frequencia + K1 * (1 - B + B * comprimentos[documento] / mediaComprimento));
+    }
+
+    private List<Resultado> melhores(Acumulador acumulador, int exigida, int limite) {
+        PriorityQueue<Resultado> fila = new PriorityQueue<>(limite + 1,
+            (a, b) -> Float.compare(a.pontuacao(), b.pontuacao()));
+        for (int c = 0; c < acumulador.quantidade; c++) {
+            int documento = acumulador.tocados[c];
+            if (acumulador.mascaras[documento] != exigida) {
+                continue;
+            }
+            float pontuacao = acumulador.pontos[documento];
+            if (fila.size() < limite) {
+                fila.add(new Resultado(chaves[documento], pontuacao));
+            } else if (pontuacao > fila.peek().pontuacao()) {
+                fila.poll();
+                fila.add(new Resultado(chaves[documento], pontuacao));
+            }
+        }
+        List<Resultado> resultado = new ArrayList<>(fila);
+        resultado.sort((a, b) -> Float.compare(b.pontuacao(), a.pontuacao()));
+        return resultado;
+    }
+
+    /**
+     * Um acumulador livre (ou novo) com espaço para todos os documentos; chamado com o lock de leitura
+     */
+    private Acumulador reservarAcumulador() {
+        Acumulador acumulador = acumuladoresLivres.poll();
+        if (acumulador == null) {
+            acumulador = new Acumulador();
+        }
+        acumulador.garantirCapacidade(proximoDocumento);
+        return acumulador;
+    }
+
+    private Postagens novoTermo(String termo) {
+        termosPorInicioETamanho
+            .computeIfAbsent(chaveAproximada(termo.charAt(0), termo.length()), chave -> new ArrayList<>())
+            .add(termo);
+        return new Postagens();
+    }
+
+    private void removerSemLock(String chave) {
+        Integer documento = documentoPorChave.remove(chave);
+        if (documento != null) {
+            removidos.set(documento);
+            documentosVivos--;
+            somaComprimentos -= comprimentos[documento];
+            chaves[documento] = null;
+        }
+    }
+
+    private static String chaveAproximada(char inicio, int tamanho) {
+        return inicio + ":" + tamanho;
+    }
+
+    /**
+     * Distância de edição (Damerau-Levenshtein restrita); devolve maximo + 1
+     * assim que a distância certamente passa do máximo
+     */
+    static int distancia(String a, String b, int maximo) {
+        if (Math.abs(a.length() - b.length()) > maximo) {
+            return maximo + 1;
+        }
+        int[] anterior2 = new int[b.length() + 1];
+        int[] anterior = new int[b.length() + 1];
+        int[] atual = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            anterior[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            atual[0] = i;
+            int menorDaLinha = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int custo = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int valor = Math.min(Math.min(anterior[j] + 1, atual[j - 1] + 1), anterior[j - 1] + custo);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    valor = Math.min(valor, anterior2[j - 2] + 1);
+                }
+                atual[j] = valor;
+                menorDaLinha = Math.min(menorDaLinha, valor);
+            }
+            if (menorDaLinha > maximo) {
+                return maximo + 1;
+            }
+            int[] descartado = anterior2;
+            anterior2 = anterior;
+            anterior = atual;
+            atual = descartado;
+        }
+        return anterior[b.length()];
+    }
+
+    public record Resultado(String chave, float pontuacao) {
+    }
+
+    /**
+     * Lista de postagens de um termo: documentos em ordem crescente e a
+     * frequência ponderada do termo em cada um
+     */
+    private static final class Postagens {
+
+        private int[] documentos = new int[4];
+        private int[] frequencias = new int[4];
+        private int tamanho;
+
+        void adicionar(int documento, int frequencia) {
+            if (tamanho == documentos.length) {
+                documentos = Arrays.copyOf(documentos, tamanho * 2);
+                frequencias = Arrays.copyOf(frequencias, tamanho * 2);
+            }
+            documentos[tamanho] = documento;
+            frequencias[tamanho] = frequencia;
+            tamanho++;
+        }
+    }
+
+    private record PalavraExpandida(int bit, Map<Postagens, Float> expansoes) {
+
+        long postagens() {
+            long total = 0;
+            for (Postagens postagens : expansoes.keySet()) {
+                total += postagens.tamanho;
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Pontuação e palavras casadas por documento, em vetores indexados pelo
+     * número do documento; os documentos tocados ficam listados para a
+     * seleção dos melhores e para a limpeza
+     */
+    private static final class Acumulador {
+
+        private float[] pontos = new float[0];
+        private int[] mascaras = new int[0];
+        private int[] tocados = new int[256];
+        private int quantidade;
+
+        void garantirCapacidade(int documentos) {
+            if (pontos.length < documentos) {
+                int capacidade = Math.max(documentos, pontos.length * 2);
+                pontos = new float[capacidade];
+                mascaras = new int[capacidade];
+            }
+        }
+
+        void somar(int documento, float valor, int bit) {
+            if (mascaras[documento] == 0) {
+                if (quantidade == tocados.length) {
+                    tocados = Arrays.copyOf(tocados, quantidade * 2);
+                }
+                tocados[quantidade++] = documento;
+            }
+            pontos[documento] += valor;
+            mascaras[documento] |= bit;
+        }
+
+        void limpar() {
+            for (int c = 0; c < quantidade; c++) {
+                pontos[tocados[c]] = 0;
+                mascaras[tocados[c]] = 0;
+            }
+            quantidade = 0;
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package br.com.biblioimperial.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice de autocompletar por prefixo, ponderado por popularidade
+ *
+ * Cada sugestão (título de obra ou nome de autor) é indexada pelo texto
+ * normalizado a partir de cada palavra ("o senhor dos aneis", "senhor dos
+ * aneis", "aneis"). As chaves ficam em um vetor ordenado, em que um prefixo
+ * corresponde a um intervalo contínuo, e uma árvore de segmentos sobre os
+ * pesos devolve a chave de maior peso de qualquer intervalo em O(log n): as K
+ * melhores saem em O(K log n), sem percorrer as chaves do prefixo.
+ *
+ * O vetor é montado de uma vez; sugestões incluídas depois ficam em um mapa
+ * ordenado à parte até a próxima reconstrução. Alterar o peso de uma
+ * sugestão atualiza a árvore na hora.
+ */
+public class IndiceSugestoes {
+
+    private static final int MAX_PALAVRAS_INDEXADAS = 6;
+    private static final int FATOR_DESCARTE = 8;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Sugestões: chave "TIPO:id" -> número interno
+    private final Map<String, Integer> sugestaoPorChave = new HashMap<>();
+    private final List<Sugestao> sugestoes = new ArrayList<>();
+    private long[] pesos = new long[1024];
+    private final BitSet removidas = new BitSet();
+
+    // Vetor ordenado montado na construção
+    private final String[] chaves;
+    private final int[] sugestaoDaChave;
+    private final int[] arvore;
+    private final int folhas;
+    private final Map<Integer, int[]> posicoesDaSugestao = new HashMap<>();
+
+    // Sugestões incluídas após a construção
+    private final TreeMap<String, List<Integer>> recentes = new TreeMap<>();
+
+    public IndiceSugestoes(List<Sugestao> iniciais) {
+        List<String> todasChaves = new ArrayList<>();
+        List<Integer> donos = new ArrayList<>();
+        for (Sugestao sugestao : iniciais) {
+            int numero = registrar(sugestao);
+            for (String chave : chavesDe(sugestao.texto())) {
+                todasChaves.add(chave);
+                donos.add(numero);
+            }
+        }
+
+        Integer[] ordem = new Integer[todasChaves.size()];
+        for (int i = 0; i < ordem.length; i++) {
+            ordem[i] = i;
+        }
+        Arrays.sort(ordem, Comparator.comparing(todasChaves::get));
+
+        chaves = new String[ordem.length];
+        sugestaoDaChave = new int[ordem.length];
+        Map<Integer, List<Integer>> posicoes = new HashMap<>();
+        for (int posicao = 0; posicao < ordem.length; posicao++) {
+            chaves[posicao] = todasChaves.get(ordem[posicao]);
+            sugestaoDaChave[posicao] = donos.get(ordem[posicao]);
+            posicoes.computeIfAbsent(sugestaoDaChave[posicao], numero -> new ArrayList<>()).add(posicao);
+        }
+        posicoes.forEach((numero, lista) ->
+            posicoesDaSugestao.put(numero, lista.stream().mapToInt(Integer::intValue).toArray()));
+
+        int tamanho = 1;
+        while (tamanho < Math.max(chaves.length, 1)) {
+            tamanho <<= 1;
+        }
+        folhas = tamanho;
+        arvore = new int[2 * folhas];
+        Arrays.fill(arvore, -1);
+        for (int posicao = 0; posicao < chaves.length; posicao++) {
+            arvore[folhas + posicao] = posicao;
+        }
+        for (int no = folhas - 1; no >= 1; no--) {
+            arvore[no] = maior(arvore[2 * no], arvore[2 * no + 1]);
+        }
+    }
+
+    /**
+     * Inclui ou substitui uma sugestão (usada nas alterações após a construção)
+     */
+    public void adicionar(Sugestao sugestao) {
+        lock.writeLock().lock();
+        try {
+            removerSemLock(sugestao.tipo(), sugestao.id());
+            int numero = registrar(sugestao);
+            for (String chave : chavesDe(sugestao.texto())) {
+                recentes.computeIfAbsent(chave, k -> new ArrayList<>()).add(numero);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remover(String tipo, String id) {
+        lock.writeLock().lock();
+        try {
+            removerSemLock(tipo, id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sugestão vigente com esse tipo e id, ou null
+     */
+    public Sugestao buscar(String tipo, String id) {
+        lock.readLock().lock();
+        try {
+            Integer numero = sugestaoPorChave.get(tipo + ":" + id);
+            return numero != null ? comPesoAtual(numero) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void somarPeso(String tipo, String id, long delta) {
+        lock.writeLock().lock();
+        try {
+            Integer numero = sugestaoPorChave.get(tipo + ":" + id);
+            if (numero == null) {
+                return;
+            }
+            pesos[numero] += delta;
+            for (int posicao : posicoesDaSugestao.getOrDefault(numero, new int[0])) {
+                for (int no = (folhas + posicao) >> 1; no >= 1; no >>= 1) {
+                    arvore[no] = maior(arvore[2 * no], arvore[2 * no + 1]);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int getSugestoes() {
+        lock.readLock().lock();
+        try {
+            return sugestaoPorChave.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * As sugestões de maior peso cujo texto tem alguma palavra começando pelo prefixo
+     */
+    public List<Sugestao> sugerir(String prefixo, int limite) {
+        String normalizado = normalizarPrefixo(prefixo);
+        if (normalizado.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Set<Integer> vistas = new HashSet<>();
+            List<Integer> candidatas = new ArrayList<>();
+
+            int inicio = primeiraChaveMaiorOuIgual(normalizado);
+            int fim = primeiraChaveMaiorOuIgual(normalizado + Character.MAX_VALUE);
+            PriorityQueue<int[]> intervalos = new PriorityQueue<>(
+                (a, b) -> Long.compare(pesoDaPosicao(b[2]), pesoDaPosicao(a[2])));
+            empilhar(intervalos, inicio, fim);
+            int extraidas = 0;
+            while (!intervalos.isEmpty() && candidatas.size() < limite && extraidas < limite * FATOR_DESCARTE) {
+                int[] intervalo = intervalos.poll();
+                int posicao = intervalo[2];
+                int numero = sugestaoDaChave[posicao];
+                if (!removidas.get(numero) && vistas.add(numero)) {
+                    candidatas.add(numero);
+                }
+                extraidas++;
+                empilhar(intervalos, intervalo[0], posicao);
+                empilhar(intervalos, posicao + 1, intervalo[1]);
+            }
+
+            for (List<Integer> numeros : recentes.subMap(normalizado, true, normalizado + Character.MAX_VALUE, true).values()) {
+                for (int numero : numeros) {
+                    if (!removidas.get(numero) && vistas.add(numero)) {
+                        candidatas.add(numero);
+                    }
+                }
+            }
+
+            candidatas.sort((a, b) -> Long.compare(pesos[b], pesos[a]));
+            List<Sugestao> resultado = new ArrayList<>(Math.min(limite, candidatas.size()));
+            for (int numero : candidatas.subList(0, Math.min(limite, candidatas.size()))) {
+                resultado.add(comPesoAtual(numero));
+            }
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int registrar(Sugestao sugestao) {
+        int numero = sugestoes.size();
+        sugestoes.add(sugestao);
+        if (numero == pesos.length) {
+            pesos = Arrays.copyOf(pesos, numero * 2);
+        }
+        pesos[numero] = sugestao.peso();
+        sugestaoPorChave.put(sugestao.tipo() + ":" + sugestao.id(), numero);
+        return numero;
+    }
+
+    private void removerSemLock(String tipo, String id) {
+        Integer numero = sugestaoPorChave.remove(tipo + ":" + id);
+        if (numero != null) {
+            removidas.set(numero);
+        }
+    }
+
+    private Sugestao comPesoAtual(int numero) {
+        Sugestao sugestao = sugestoes.get(numero);
+        return new Sugestao(sugestao.tipo(), sugestao.id(), sugestao.texto(), pesos[numero]);
+    }
+
+    private void empilhar(PriorityQueue<int[]> intervalos, int inicio, int fim) {
+        if (inicio < fim) {
+            intervalos.add(new int[] {inicio, fim, maiorNoIntervalo(inicio, fim)});
+        }
+    }
+
+    /**
+     * Posição de maior peso em [inicio, fim)
+     */
+    private int maiorNoIntervalo(int inicio, int fim) {
+        int melhor = -1;
+        for (int esquerda = inicio + folhas, direita = fim + folhas; esquerda < direita; esquerda >>= 1, direita >>= 1) {
+            if ((esquerda & 1) == 1) {
+                melhor = maior(melhor, arvore[esquerda++]);
+            }
+            if ((direita & 1) == 1) {
+                melhor = maior(melhor, arvore[--direita]);
+            }
+        }
+        return melhor;
+    }
+
+    private int maior(int posicaoA, int posicaoB) {
+        if (posicaoA < 0) {
+            return posicaoB;
+        }
+        if (posicaoB < 0) {
+            return posicaoA;
+        }
+        return pesoDaPosicao(posicaoB) > pesoDaPosicao(posicaoA) ? posicaoB : posicaoA;
+    }
+
+    private long pesoDaPosicao(int posicao) {
+        return pesos[sugestaoDaChave[posicao]];
+    }
+
+    private int primeiraChaveMaiorOuIgual(String chave) {
+        int inicio = 0;
+        int fim = chaves.length;
+        while (inicio < fim) {
+            int meio = (inicio + fim) >>> 1;
+            if (chaves[meio].compareTo(chave) < 0) {
+                inicio = meio + 1;
+            } else {
+                fim = meio;
+            }
+        }
+        return inicio;
+    }
+
+    /**
+     * O texto normalizado a partir de cada uma das primeiras palavras,
+     * ignorando as que começam por palavra vazia ("dos aneis")
+     */
+    private static List<String> chavesDe(String texto) {
+        List<String> palavras = AnalisadorTexto.palavras(texto);
+        List<String> chaves = new ArrayList<>();
+        for (int i = 0; i < palavras.size() && i < MAX_PALAVRAS_INDEXADAS; i++) {
+            if (i == 0 || !AnalisadorTexto.termos(palavras.get(i)).isEmpty()) {
+                chaves.add(String.join(" ", palavras.subList(i, palavras.size())));
+            }
+        }
+        return chaves;
+    }
+
+    private static String normalizarPrefixo(String prefixo) {
+        if (prefixo == null) {
+            return "";
+        }
+        String normalizado = String.join(" ", AnalisadorTexto.palavras(prefixo));
+        boolean terminaEmEspaco = !prefixo.isEmpty() && Character.isWhitespace(prefixo.charAt(prefixo.length() - 1));
+        return terminaEmEspaco && !normalizado.isEmpty() ? normalizado + " " : normalizado;
+    }
+
+    public record Sugestao(String tipo, String id, String texto, long peso) {
+    }
+}
@@ -0,0 +1,368 @@
+package br.com.biblioimperial.service;
+
+import br.com.biblioimperial.dto.MetricasIngestaoDTO;
+import br.com.biblioimperial.event.ConsultasGravadasEvento;
+import br.com.biblioimperial.model.mongodb.HistoricoConsulta;
+import br.com.biblioimperial.repository.mysql.UsuarioRepository;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gravação assíncrona e em lotes do histórico de consultas (MongoDB)
+ *
+ * As consultas entram em uma fila circular de capacidade fixa e uma thread
+ * dedicada as grava com insertMany quando o lote enche ou quando o intervalo
+ * máximo passa. Quem registra nunca espera o MongoDB: com a fila cheia (Mongo
+ * lento ou fora do ar) a consulta nova é descartada e contada nas métricas.
+ * Um lote que falha é tentado de novo algumas vezes, só com as consultas que
+ * ainda não foram gravadas, antes de ser descartado.
+ * Consultas registradas só com o e-mail (telemetria do servidor) têm o id e
+ * o nome do usuário completados com uma única consulta por lote. Cada lote
+ * gravado também é somado aos resumos das análises (AnaliseConsultasService).
+ */
+@Slf4j
+@Service
+public class IngestaoHistoricoService {
+
+    private static final int MAX_TENTATIVAS = 3;
+    private static final long ESPERA_INICIAL_MS = 200;
+    private static final long ESPERA_ENCERRAMENTO_MS = 5000;
+    private static final int CODIGO_CHAVE_DUPLICADA = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final UsuarioRepository usuarioRepository;
+    private final AnaliseConsultasService analiseConsultas;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BlockingQueue<HistoricoConsulta> fila;
+    private final int capacidade;
+    private final int tamanhoLote;
+    private final long intervaloMs;
+    private final boolean threadVirtual;
+
+    private final AtomicLong recebidas = new AtomicLong();
+    private final AtomicLong gravadas = new AtomicLong();
+    private final AtomicLong descartadasFilaCheia = new AtomicLong();
+    private final AtomicLong descartadasFalhaGravacao = new AtomicLong();
+    private final AtomicLong lotesGravados = new AtomicLong();
+    private final AtomicLong duracaoUltimoLoteMs = new AtomicLong();
+
+    private volatile boolean ativo;
+    private Thread gravadora;
+
+    public IngestaoHistoricoService(
+            MongoTemplate mongoTemplate,
+            UsuarioRepository usuarioRepository,
+            AnaliseConsultasService analiseConsultas,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${biblioteca.historico.fila-capacidade:10000}") int capacidade,
+            @Value("${biblioteca.historico.tamanho-lote:500}") int tamanhoLote,
+            @Value("${biblioteca.historico.intervalo-ms:1000}") long intervaloMs,
+            @Value("${spring.threads.virtual.enabled:false}") boolean threadVirtual) {
+        this.mongoTemplate = mongoTemplate;
+        this.usuarioRepository = usuarioRepository;
+        this.analiseConsultas = analiseConsultas;
+        this.eventPublisher = eventPublisher;
+        this.capacidade = capacidade;
+        this.tamanhoLote = tamanhoLote;
+        this.intervaloMs = intervaloMs;
+        this.threadVirtual = threadVirtual;
+        this.fila = new ArrayBlockingQueue<>(capacidade);
+    }
+
+    /**
+     * Enfileira a consulta para gravação; devolve false se ela foi descartada
+     */
+    public boolean registrar(HistoricoConsulta historico) {
+        recebidas.incrementAndGet();
+        if (historico.getId() == null) {
+            historico.setId(new ObjectId().toHexString());
+        }
+        if (historico.getDataHoraConsulta() == null) {
+            historico.setDataHoraConsulta(LocalDateTime.now());
+        }
+        if (historico.getQuantidadeResultados() == null && historico.getResultadosIds() != null) {
+            historico.setQuantidadeResultados(historico.getResultadosIds().size());
+        }
+        if (!fila.offer(historico)) {
+            long total = descartadasFilaCheia.incrementAndGet();
+            if (total % 1000 == 1) {
+                log.warn("Fila do histórico de consultas cheia ({}): {} consulta(s) descartada(s) até agora",
+                    capacidade, total);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    public MetricasIngestaoDTO obterMetricas() {
+        return new MetricasIngestaoDTO(
+            fila.size(),
+            capacidade,
+            recebidas.get(),
+            gravadas.get(),
+            descartadasFilaCheia.get(),
+            descartadasFalhaGravacao.get(),
+            lotesGravados.get(),
+            duracaoUltimoLoteMs.get()
+        );
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        ativo = true;
+        // No modo de threads virtuais a gravadora também é virtual: ela passa
+        // quase todo o tempo esperando a fila ou o MongoDB
+        Thread.Builder construtor = threadVirtual ? Thread.ofVirtual() : Thread.ofPlatform().daemon(true);
+        gravadora = construtor.name("historico-consultas-gravadora").start(this::executar);
+    }
+
+    /**
+     * Para a thread e grava o que ainda estiver na fila
+     */
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        ativo = false;
+        gravadora.interrupt();
+        gravadora.join(ESPERA_ENCERRAMENTO_MS);
+        List<HistoricoConsulta> restantes = new ArrayList<>();
+        fila.drainTo(restantes);
+        if (!restantes.isEmpty()) {
+            gravar(restantes);
+        }
+    }
+
+    private void executar() {
+        List<HistoricoConsulta> lote = new ArrayList<>(tamanhoLote);
+        while (ativo) {
+            try {
+                HistoricoConsulta primeira = fila.poll(intervaloMs, TimeUnit.MILLISECONDS);
+                if (primeira == null) {
+                    continue;
+                }
+                lote.add(primeira);
+                long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(intervaloMs);
+                while (lote.size() < tamanhoLote) {
+                    fila.drainTo(lote, tamanhoLote - lote.size());
+                    long restante = limite - System.nanoTime();
+                    if (lote.size() >= tamanhoLote || restante <= 0) {
+                        break;
+                    }
+                    HistoricoConsulta proxima = fila.poll(restante, TimeUnit.NANOSECONDS);
+                    if (proxima == null) {
+                        break;
+                    }
+                    lote.add(proxima);
+                }
+                gravar(lote);
+                lote.clear();
+            } catch (InterruptedException e) {
+                // Encerramento: o lote em montagem volta para ser gravado por encerrar()
+                fila.addAll(lote.subList(0, Math.min(lote.size(), fila.remainingCapacity())));
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void acumularResumos(List<HistoricoConsulta> lote) {
+        try {
+            analiseConsultas.acumular(lote);
+        } catch (RuntimeException e) {
+            // O lote já está no histórico; os resumos do período podem ser refeitos depois
+            log.warn("Não foi possível somar o lote do histórico aos resumos das análises", e);
+        }
+    }
+
+    private void publicarUsuarios(List<HistoricoConsulta> lote) {
+        Set<String> idsUsuarios = new HashSet<>();
+        for (HistoricoConsulta historico : lote) {
+            if (historico.getIdUsuario() != null) {
+                idsUsuarios.add(historico.getIdUsuario());
+            }
+        }
+        if (idsUsuarios.isEmpty()) {
+            return;
+        }
+        try {
+            eventPublisher.publishEvent(new ConsultasGravadasEvento(idsUsuarios));
+        } catch (RuntimeException e) {
+            // O lote já está no histórico; as recomendações desses usuários
+            // são refeitas na próxima geração completa
+            log.warn("Não foi possível avisar a gravação do lote do histórico", e);
+        }
+    }
+
+    private void completarUsuarios(List<HistoricoConsulta> lote) {
+        Set<String> emails = new HashSet<>();
+        for (HistoricoConsulta historico : lote) {
+            if (historico.getIdUsuario() == null && historico.getEmailUsuario() != null) {
+                emails.add(historico.getEmailUsuario());
+            }
+        }
+        if (emails.isEmpty()) {
+            return;
+        }
+        try {
+            Map<String, Object[]> porEmail = new HashMap<>();
+            for (Object[] linha : usuarioRepository.listarIdentificacaoPorEmails(emails)) {
+                porEmail.put((String) linha[0], linha);
+            }
+            for (HistoricoConsulta historico : lote) {
+                Object[] usuario = historico.getIdUsuario() == null ? porEmail.get(historico.getEmailUsuario()) : null;
+                if (usuario != null) {
+                    historico.setIdUsuario((String) usuario[1]);
+                    historico.setNomeUsuario((String) usuario[2]);
+                }
+            }
+        } catch (RuntimeException e) {
+            // Sem o MySQL a consulta ainda é gravada, identificada só pelo e-mail
+            log.warn("Não foi possível identificar os usuários do lote do histórico", e);
+        }
+    }
+
+    /**
+     * insertMany não ordenado; devolve as consultas do lote que não foram
+     * gravadas. Chave duplicada (coleção comum) quer dizer que a consulta já
+     * estava gravada e não conta como falha
+     */
+    private List<HistoricoConsulta> inserir(List<HistoricoConsulta> pendentes) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, HistoricoConsulta.class)
+                .insert(pendentes)
+                .execute();
+            return List.of();
+        } catch (BulkOperationException e) {
+            Set<Integer> comErro = new HashSet<>();
+            for (BulkWriteError erro : e.getErrors()) {
+                if (erro.getCode() != CODIGO_CHAVE_DUPLICADA) {
+                    comErro.add(erro.getIndex());
+                }
+            }
+            List<HistoricoConsulta> restantes = new ArrayList<>(comErro.size());
+            for (int i = 0; i < pendentes.size(); i++) {
+                if (comErro.contains(i)) {
+                    restantes.add(pendentes.get(i));
+                }
+            }
+            return restantes;
+        }
+    }
+
+    /**
+     * Consultas ainda não gravadas, depois de uma falha sem resultado conhecido
+     * (rede, timeout). O filtro pelo intervalo de datas do lote limita a busca
+     * pelos ids aos buckets desse intervalo na série temporal
+     */
+    private List<HistoricoConsulta> naoGravadas(List<HistoricoConsulta> pendentes) {
+        LocalDateTime menor = null;
+        LocalDateTime maior = null;
+        List<String> ids = new ArrayList<>(pendentes.size());
+        for (HistoricoConsulta historico : pendentes) {
+            LocalDateTime data = historico.getDataHoraConsulta();
+            menor = menor == null || data.isBefore(menor) ? data : menor;
+            maior = maior == null || data.isAfter(maior) ? data : maior;
+            ids.add(historico.getId());
+        }
+        Query consulta = new Query(Criteria.where("dataHoraConsulta").gte(menor).lte(maior).and("_id").in(ids));
+        consulta.fields().include("_id");
+        Set<String> gravados = new HashSet<>();
+        for (HistoricoConsulta gravado : mongoTemplate.find(consulta, HistoricoConsulta.class)) {
+            gravados.add(gravado.getId());
+        }
+        List<HistoricoConsulta> restantes = new ArrayList<>(pendentes.size() - gravados.size());
+        for (HistoricoConsulta historico : pendentes) {
+            if (!gravados.contains(historico.getId())) {
+                restantes.add(historico);
+            }
+        }
+        return restantes;
+    }
+
+    /**
+     * Grava o lote com algumas tentativas. Em série temporal o _id não é
+     * único, então uma repetição nunca reenvia o que já foi gravado: depois
+     * de um erro do bulk só voltam as consultas recusadas e, depois de uma
+     * falha sem resultado conhecido, as já gravadas são conferidas e retiradas
+     */
+    private void gravar(List<HistoricoConsulta> lote) {
+        completarUsuarios(lote);
+        List<HistoricoConsulta> pendentes = lote;
+        boolean conferir = false;
+        long espera = ESPERA_INICIAL_MS;
+        for (int tentativa = 1; ; tentativa++) {
+            long inicio = System.currentTimeMillis();
+            RuntimeException falha = null;
+            try {
+                if (conferir) {
+                    pendentes = naoGravadas(pendentes);
+                    conferir = false;
+                }
+                if (!pendentes.isEmpty()) {
+                    pendentes = inserir(pendentes);
+                }
+            } catch (RuntimeException e) {
+                falha = e;
+                conferir = true;
+            }
+            if (pendentes.isEmpty()) {
+                duracaoUltimoLoteMs.set(System.currentTimeMillis() - inicio);
+                break;
+            }
+            if (tentativa >= MAX_TENTATIVAS || !ativo) {
+                log.error("{} de {} consulta(s) do lote do histórico descartada(s) após {} tentativa(s)",
+                    pendentes.size(), lote.size(), tentativa, falha);
+                break;
+            }
+            try {
+                Thread.sleep(espera);
+            } catch (InterruptedException interrompido) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            espera *= 2;
+        }
+
+        // Fora da repetição: uma falha daqui em diante não pode gravar o lote de novo.
+        // Com uma falha sem resultado conhecido no fim, as pendentes podem ter sido
+        // gravadas; ficam contadas como descartadas e fora dos resumos
+        List<HistoricoConsulta> gravadasLote = lote;
+        if (!pendentes.isEmpty()) {
+            descartadasFalhaGravacao.addAndGet(pendentes.size());
+            Set<HistoricoConsulta> descartadas = Collections.newSetFromMap(new IdentityHashMap<>());
+            descartadas.addAll(pendentes);
+            gravadasLote = lote.stream().filter(historico -> !descartadas.contains(historico)).toList();
+            if (gravadasLote.isEmpty()) {
+                return;
+            }
+        }
+        gravadas.addAndGet(gravadasLote.size());
+        lotesGravados.incrementAndGet();
+        acumularResumos(gravadasLote);
+        publicarUsuarios(gravadasLote);
+    }
+}
@@ -1,13 +1,22 @@
 package br.com.biblioimperial.service;
 
+import br.com.biblioimperial.dto.ObraDTO;
+import br.com.biblioimperial.event.ObraEvento;
+import br.com.biblioimperial.model.mysql.Autor;
 import br.com.biblioimperial.model.mysql.Obra;
 import br.com.biblioimperial.repository.mysql.ObraRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service para lógica de negócio relacionada a Obras
@@ -18,20 +27,60 @@ import java.util.Optional;
 public class ObraService {
 
     private final ObraRepository obraRepository;
+    private final BuscaObrasService buscaObrasService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public List<Obra> listarTodasObrasAtivas() {
         return obraRepository.findByAtivoTrue();
     }
 
+    /**
+     * Monta o catálogo de obras ativas com duas consultas fixas:
+     * a projeção com a contagem de exemplares e os autores em lote
+     */
+    @Transactional(readOnly = true)
+    public List<ObraDTO> listarCatalogoAtivo() {
+        List<ObraDTO> catalogo = obraRepository.listarCatalogoAtivo();
+        anexarAutores(catalogo, obraRepository.listarAutoresDasObrasAtivas());
+        return catalogo;
+    }
+
+    /**
+     * Página do catálogo a partir do cursor (id da última obra recebida)
+     */
+    @Transactional(readOnly = true)
+    public List<ObraDTO> listarPaginaCatalogo(String apos, int limite) {
+        List<ObraDTO> pagina = obraRepository.listarCatalogoAtivoApos(
+            apos != null ? apos : "", Limit.of(limite));
+        if (!pagina.isEmpty()) {
+            List<String> ids = pagina.stream().map(ObraDTO::getIdObra).toList();
+            anexarAutores(pagina, obraRepository.listarAutoresDasObras(ids));
+        }
+        return pagina;
+    }
+
     @Transactional(readOnly = true)
     public Optional<Obra> buscarPorId(String idObra) {
-        return obraRepository.findById(idObra);
+        return obraRepository.findByIdObra(idObra);
     }
 
+    /**
+     * Busca textual (título, subtítulo, sinopse, autores e ISBN) ordenada por
+     * relevância; até o índice ficar pronto, usa a busca por trecho do título
+     */
     @Transactional(readOnly = true)
-    public List<Obra> buscarPorTitulo(String titulo) {
-        return obraRepository.findByTituloContainingIgnoreCaseAndAtivoTrue(titulo);
+    public List<Obra> buscarPorTitulo(String titulo, int limite) {
+        if (!buscaObrasService.isDisponivel()) {
+            return obraRepository.findByTituloContainingIgnoreCaseAndAtivoTrue(titulo);
+        }
+        List<String> ids = buscaObrasService.buscar(titulo, limite);
+        Map<String, Obra> obras = obraRepository.findByIdObraIn(ids).stream()
+            .collect(Collectors.toMap(Obra::getIdObra, Function.identity()));
+        return ids.stream()
+            .map(obras::get)
+            .filter(obra -> obra != null && Boolean.TRUE.equals(obra.getAtivo()))
+            .toList();
     }
 
     @Transactional(readOnly = true)
@@ -46,12 +95,15 @@ public class ObraService {
 
     @Transactional
     public Obra salvar(Obra obra) {
-        return obraRepository.save(obra);
+        Obra salva = obraRepository.save(obra);
+        eventPublisher.publishEvent(new ObraEvento(salva.getIdObra()));
+        return salva;
     }
 
     @Transactional
     public void deletar(String idObra) {
         obraRepository.deleteById(idObra);
+        eventPublisher.publishEvent(new ObraEvento(idObra));
     }
 
     @Transactional
@@ -60,8 +112,24 @@ public class ObraService {
         if (obraOpt.isPresent()) {
             Obra obra = obraOpt.get();
             obra.setAtivo(false);
-            return obraRepository.save(obra);
+            Obra inativada = obraRepository.save(obra);
+            eventPublisher.publishEvent(new ObraEvento(idObra));
+            return inativada;
         }
         throw new RuntimeException("Obra não encontrada");
     }
+
+    static void anexarAutores(List<ObraDTO> obras, List<Object[]> autoresPorObra) {
+        Map<String, ObraDTO> porId = new HashMap<>(obras.size() * 2);
+        for (ObraDTO dto : obras) {
+            porId.put(dto.getIdObra(), dto);
+        }
+
+        for (Object[] linha : autoresPorObra) {
+            ObraDTO dto = porId.get((String) linha[0]);
+            if (dto != null) {
+                dto.getAutores().add((Autor) linha[1]);
+            }
+        }
+    }
 }
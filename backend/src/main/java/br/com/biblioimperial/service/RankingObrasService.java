@@ -0,0 +1,184 @@
+package br.com.biblioimperial.service;
+
+import br.com.biblioimperial.dto.ObraPopularDTO;
+import br.com.biblioimperial.event.EmprestimoEvento;
+import br.com.biblioimperial.model.mysql.Emprestimo;
+import br.com.biblioimperial.model.mysql.EstatisticaObra;
+import br.com.biblioimperial.model.mysql.Obra;
+import br.com.biblioimperial.repository.mysql.EstatisticaObraRepository;
+import br.com.biblioimperial.repository.mysql.ObraRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service para o ranking de obras mais emprestadas
+ *
+ * Os contadores por obra e período ficam na tabela estatisticas_obras e são
+ * atualizados logo após o commit do empréstimo. Os rankings do período TOTAL
+ * e dos meses consultados ficam em memória (top-K), então a leitura não
+ * agrega a tabela de empréstimos.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RankingObrasService {
+
+    private static final int CAPACIDADE_RANKING = 100;
+    private static final int MAX_PERIODOS_EM_MEMORIA = 13;
+
+    private final EstatisticaObraRepository estatisticaObraRepository;
+    private final ObraRepository obraRepository;
+
+    private final Map<String, RankingTopK<String>> rankings = new ConcurrentHashMap<>();
+
+    /**
+     * Atualiza os contadores depois do commit do empréstimo, em transação
+     * própria: um empréstimo desfeito não conta e uma falha aqui não desfaz
+     * o empréstimo (a reconciliação diária corrige a diferença)
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void aoAlterarEmprestimo(EmprestimoEvento evento) {
+        String idObra = evento.getIdObra();
+
+        if (evento.isCriacao()) {
+            String mes = periodoDoMes(evento.getDataHora());
+            estatisticaObraRepository.acumular(idObra, EstatisticaObra.PERIODO_TOTAL, 1, 1, 0);
+            estatisticaObraRepository.acumular(idObra, mes, 1, 0, 0);
+            atualizarRanking(idObra, EstatisticaObra.PERIODO_TOTAL);
+            atualizarRanking(idObra, mes);
+            return;
+        }
+
+        if (estaEmAberto(evento.getStatusAnterior()) && !estaEmAberto(evento.getStatusNovo())) {
+            long concluido = evento.getStatusNovo() == Emprestimo.StatusEmprestimo.DEVOLVIDO ? 1 : 0;
+            estatisticaObraRepository.acumular(idObra, EstatisticaObra.PERIODO_TOTAL, 0, -1, concluido);
+        }
+    }
+
+    /**
+     * Obras mais emprestadas no período ("TOTAL" ou "AAAA-MM")
+     */
+    public List<ObraPopularDTO> obterPopulares(String periodo, int limite) {
+        if (limite < 1) {
+            throw new IllegalArgumentException("Limite deve ser maior que zero");
+        }
+        String chavePeriodo = periodo == null || periodo.isBlank()
+                || EstatisticaObra.PERIODO_TOTAL.equalsIgnoreCase(periodo)
+            ? EstatisticaObra.PERIODO_TOTAL
+            : lerMes(periodo);
+
+        List<RankingTopK.Item<String>> topo = rankingDoPeriodo(chavePeriodo)
+            .topo(Math.min(limite, CAPACIDADE_RANKING));
+
+        Map<String, Obra> obras = obraRepository
+            .findAllById(topo.stream().map(RankingTopK.Item::chave).toList())
+            .stream()
+            .collect(Collectors.toMap(Obra::getIdObra, Function.identity()));
+
+        List<ObraPopularDTO> resultado = new ArrayList<>(topo.size());
+        for (RankingTopK.Item<String> item : topo) {
+            Obra obra = obras.get(item.chave());
+            resultado.add(new ObraPopularDTO(
+                resultado.size() + 1,
+                item.chave(),
+                obra != null ? obra.getTitulo() : null,
+                chavePeriodo,
+                item.valor()
+            ));
+        }
+        return resultado;
+    }
+
+    private static String lerMes(String periodo) {
+        try {
+            return YearMonth.parse(periodo).toString();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Período deve ser TOTAL ou AAAA-MM: " + periodo);
+        }
+    }
+
+    /**
+     * Contadores de uma obra no período TOTAL (consulta pela chave primária)
+     */
+    public EstatisticaObra obterEstatisticaObra(String idObra) {
+        return estatisticaObraRepository
+            .findById(new EstatisticaObra.Chave(idObra, EstatisticaObra.PERIODO_TOTAL))
+            .orElseGet(() -> new EstatisticaObra(
+                new EstatisticaObra.Chave(idObra, EstatisticaObra.PERIODO_TOTAL), 0L, 0L, 0L, null));
+    }
+
+    /**
+     * Popula a tabela de contadores na primeira execução
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        if (estatisticaObraRepository.count() == 0) {
+            reconstruir();
+        }
+    }
+
+    /**
+     * Reconciliação periódica com a tabela de empréstimos
+     */
+    @Scheduled(cron = "${biblioteca.ranking.reconciliacao-cron:0 30 3 * * *}")
+    public void reconstruir() {
+        int totais = estatisticaObraRepository.reconstruirTotais();
+        int mensais = estatisticaObraRepository.reconstruirMensais();
+        rankings.clear();
+        log.info("Contadores de empréstimos por obra reconstruídos ({} totais, {} mensais)", totais, mensais);
+    }
+
+    private void atualizarRanking(String idObra, String periodo) {
+        RankingTopK<String> ranking = rankings.get(periodo);
+        if (ranking == null) {
+            return;
+        }
+        estatisticaObraRepository.findById(new EstatisticaObra.Chave(idObra, periodo))
+            .ifPresent(estatistica -> ranking.atualizar(idObra, estatistica.getTotalEmprestimos()));
+    }
+
+    private RankingTopK<String> rankingDoPeriodo(String periodo) {
+        RankingTopK<String> ranking = rankings.get(periodo);
+        if (ranking != null) {
+            return ranking;
+        }
+
+        if (rankings.size() >= MAX_PERIODOS_EM_MEMORIA) {
+            rankings.keySet().removeIf(chave -> !EstatisticaObra.PERIODO_TOTAL.equals(chave));
+        }
+        RankingTopK<String> novo = new RankingTopK<>(CAPACIDADE_RANKING);
+        estatisticaObraRepository
+            .findByIdPeriodoOrderByTotalEmprestimosDesc(periodo, Limit.of(CAPACIDADE_RANKING))
+            .forEach(e -> novo.atualizar(e.getId().getIdObra(), e.getTotalEmprestimos()));
+        RankingTopK<String> existente = rankings.putIfAbsent(periodo, novo);
+        return existente != null ? existente : novo;
+    }
+
+    private boolean estaEmAberto(Emprestimo.StatusEmprestimo status) {
+        return status == Emprestimo.StatusEmprestimo.ATIVO
+            || status == Emprestimo.StatusEmprestimo.ATRASADO;
+    }
+
+    private String periodoDoMes(LocalDateTime dataHora) {
+        return YearMonth.from(dataHora).toString();
+    }
+}
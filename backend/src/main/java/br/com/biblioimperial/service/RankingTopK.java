@@ -0,0 +1,89 @@
+package br.com.biblioimperial.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Ranking em memória com capacidade limitada (top-K)
+ *
+ * Mantém apenas as K chaves de maior valor. Cada atualização custa O(log K)
+ * e a leitura do topo não depende do tamanho do conjunto original.
+ * Uma chave que cai abaixo do menor valor do ranking é descartada; como as
+ * atualizações sempre informam o valor absoluto (e não um incremento), ela
+ * volta ao ranking corretamente quando voltar a crescer.
+ */
+public class RankingTopK<K extends Comparable<K>> {
+
+    private final int capacidade;
+    private final Map<K, Long> valores = new HashMap<>();
+    private final TreeSet<Item<K>> ordem = new TreeSet<>();
+
+    public RankingTopK(int capacidade) {
+        if (capacidade <= 0) {
+            throw new IllegalArgumentException("Capacidade do ranking deve ser positiva");
+        }
+        this.capacidade = capacidade;
+    }
+
+    /**
+     * Informa o valor atual de uma chave; valores <= 0 retiram a chave do ranking
+     */
+    public synchronized void atualizar(K chave, long valor) {
+        Long atual = valores.remove(chave);
+        if (atual != null) {
+            ordem.remove(new Item<>(chave, atual));
+        }
+        if (valor <= 0) {
+            return;
+        }
+
+        Item<K> novo = new Item<>(chave, valor);
+        if (valores.size() >= capacidade) {
+            Item<K> menor = ordem.last();
+            if (novo.compareTo(menor) >= 0) {
+                return;
+            }
+            ordem.pollLast();
+            valores.remove(menor.chave());
+        }
+        valores.put(chave, valor);
+        ordem.add(novo);
+    }
+
+    /**
+     * As n primeiras posições, da maior para a menor
+     */
+    public synchronized List<Item<K>> topo(int n) {
+        List<Item<K>> resultado = new ArrayList<>(Math.min(n, ordem.size()));
+        Iterator<Item<K>> it = ordem.iterator();
+        while (it.hasNext() && resultado.size() < n) {
+            resultado.add(it.next());
+        }
+        return resultado;
+    }
+
+    public synchronized void limpar() {
+        valores.clear();
+        ordem.clear();
+    }
+
+    public int getCapacidade() {
+        return capacidade;
+    }
+
+    /**
+     * Posição do ranking: ordenada por valor decrescente e, no empate, pela chave
+     */
+    public record Item<K extends Comparable<K>>(K chave, long valor) implements Comparable<Item<K>> {
+
+        @Override
+        public int compareTo(Item<K> outro) {
+            int porValor = Long.compare(outro.valor, valor);
+            return porValor != 0 ? porValor : chave.compareTo(outro.chave);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package br.com.biblioimperial.service;
+
+import br.com.biblioimperial.dto.UsuarioAtivoDTO;
+import br.com.biblioimperial.event.EmprestimoEvento;
+import br.com.biblioimperial.model.mysql.Usuario;
+import br.com.biblioimperial.repository.mysql.EmprestimoRepository;
+import br.com.biblioimperial.repository.mysql.UsuarioRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service para o ranking de usuários mais ativos (por volume de empréstimos)
+ *
+ * Mantém em memória baldes diários de empréstimos por usuário dos últimos
+ * 365 dias e, para cada janela (7, 30 e 365 dias), o total por usuário e um
+ * ranking top-K. Cada empréstimo novo atualiza os totais; na virada do dia o
+ * balde que sai de cada janela é subtraído. A leitura do ranking nunca
+ * consulta a tabela de empréstimos, que só é lida na reconciliação periódica.
+ *
+ * Os empréstimos criados durante a reconciliação ficam guardados e, antes da
+ * troca dos baldes, entram nos novos os que a foto lida da tabela não contou.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RankingUsuariosService {
+
+    public static final int[] JANELAS_DIAS = {7, 30, 365};
+
+    private static final int CAPACIDADE_RANKING = 100;
+    private static final int MAIOR_JANELA = 365;
+
+    private final EmprestimoRepository emprestimoRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final TreeMap<LocalDate, Map<String, Integer>> baldesDiarios = new TreeMap<>();
+    private final Map<Integer, Map<String, Long>> totaisPorJanela = new HashMap<>();
+    private final Map<Integer, RankingTopK<String>> rankingPorJanela = new HashMap<>();
+    private LocalDate diaAtual = LocalDate.now();
+    private boolean reconciliando;
+    private final Map<String, Registro> recebidosDuranteReconciliacao = new HashMap<>();
+
+    public static boolean janelaSuportada(int dias) {
+        for (int janela : JANELAS_DIAS) {
+            if (janela == dias) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarEmprestimo(EmprestimoEvento evento) {
+        if (evento.isCriacao()) {
+            registrar(evento.getIdEmprestimo(), evento.getIdUsuario(), evento.getDataHora().toLocalDate());
+        }
+    }
+
+    /**
+     * Usuários com mais empréstimos na janela informada (7, 30 ou 365 dias)
+     */
+    public List<UsuarioAtivoDTO> obterMaisAtivos(int janelaDias, int limite) {
+        if (!janelaSuportada(janelaDias)) {
+            throw new IllegalArgumentException("Janela não suportada: " + janelaDias + " dias");
+        }
+
+        List<RankingTopK.Item<String>> topo;
+        synchronized (this) {
+            avancarAte(LocalDate.now());
+            topo = rankingPorJanela.get(janelaDias).topo(Math.min(limite, CAPACIDADE_RANKING));
+        }
+
+        Map<String, Usuario> usuarios = usuarioRepository
+            .findAllById(topo.stream().map(RankingTopK.Item::chave).toList())
+            .stream()
+            .collect(Collectors.toMap(Usuario::getIdUsuario, Function.identity()));
+
+        List<UsuarioAtivoDTO> resultado = new ArrayList<>(topo.size());
+        for (RankingTopK.Item<String> item : topo) {
+            Usuario usuario = usuarios.get(item.chave());
+            resultado.add(new UsuarioAtivoDTO(
+                resultado.size() + 1,
+                item.chave(),
+                usuario != null ? usuario.getNomeCompleto() : null,
+                janelaDias,
+                item.valor()
+            ));
+        }
+        return resultado;
+    }
+
+    /**
+     * Reconstrói baldes, totais e rankings a partir da tabela de empréstimos
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${biblioteca.ranking-usuarios.reconciliacao-cron:0 15 4 * * *}")
+    public void reconciliar() {
+        synchronized (this) {
+            if (reconciliando) {
+                return;
+            }
+            reconciliando = true;
+            recebidosDuranteReconciliacao.clear();
+        }
+
+        LocalDate hoje = LocalDate.now();
+        LocalDate inicio = hoje.minusDays(MAIOR_JANELA - 1);
+        // Em REPEATABLE READ todas as consultas da transação leem a mesma foto da tabela
+        TransactionTemplate leitura = new TransactionTemplate(transactionManager);
+        leitura.setReadOnly(true);
+        leitura.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        try {
+            Integer dias = leitura.execute(status -> {
+                List<Object[]> linhas = emprestimoRepository.contarPorUsuarioEDiaDesde(inicio.atStartOfDay());
+                TreeMap<LocalDate, Map<String, Integer>> baldes = new TreeMap<>();
+                for (Object[] linha : linhas) {
+                    baldes.computeIfAbsent(paraLocalDate(linha[1]), d -> new HashMap<>())
+                        .merge((String) linha[0], ((Number) linha[2]).intValue(), Integer::sum);
+                }
+
+                while (true) {
+                    Map<String, Registro> pendentes;
+                    synchronized (this) {
+                        if (recebidosDuranteReconciliacao.isEmpty()) {
+                            substituirBaldes(baldes, hoje);
+                            reconciliando = false;
+                            return linhas.size();
+                        }
+                        pendentes = new HashMap<>(recebidosDuranteReconciliacao);
+                        recebidosDuranteReconciliacao.clear();
+                    }
+                    // Os que já estão na foto foram contados pela consulta agregada
+                    emprestimoRepository.listarExistentes(pendentes.keySet()).forEach(pendentes::remove);
+                    for (Registro registro : pendentes.values()) {
+                        if (!registro.dia().isBefore(inicio)) {
+                            baldes.computeIfAbsent(registro.dia(), d -> new HashMap<>())
+                                .merge(registro.idUsuario(), 1, Integer::sum);
+                        }
+                    }
+                }
+            });
+            log.info("Ranking de usuários reconciliado ({} dias com empréstimos)", dias);
+        } finally {
+            synchronized (this) {
+                if (reconciliando) {
+                    // Falhou: os baldes atuais continuam valendo e recebem o que chegou
+                    reconciliando = false;
+                    recebidosDuranteReconciliacao.values().forEach(r -> somar(r.idUsuario(), r.dia()));
+                    recebidosDuranteReconciliacao.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Virada do dia: retira das janelas os baldes que expiraram
+     */
+    @Scheduled(cron = "0 0 0 * * *")
+    public synchronized void virarDia() {
+        avancarAte(LocalDate.now());
+    }
+
+    private synchronized void registrar(String idEmprestimo, String idUsuario, LocalDate dia) {
+        if (reconciliando) {
+            recebidosDuranteReconciliacao.put(idEmprestimo, new Registro(idUsuario, dia));
+            return;
+        }
+        somar(idUsuario, dia);
+    }
+
+    private void somar(String idUsuario, LocalDate dia) {
+        avancarAte(LocalDate.now());
+        if (dia.isBefore(diaAtual.minusDays(MAIOR_JANELA - 1))) {
+            return;
+        }
+
+        baldesDiarios.computeIfAbsent(dia, d -> new HashMap<>()).merge(idUsuario, 1, Integer::sum);
+        for (int janela : JANELAS_DIAS) {
+            if (!dia.isBefore(diaAtual.minusDays(janela - 1))) {
+                long total = totaisPorJanela.computeIfAbsent(janela, j -> new HashMap<>())
+                    .merge(idUsuario, 1L, Long::sum);
+                rankingPorJanela.computeIfAbsent(janela, j -> new RankingTopK<>(CAPACIDADE_RANKING))
+                    .atualizar(idUsuario, total);
+            }
+        }
+    }
+
+    private void avancarAte(LocalDate hoje) {
+        if (rankingPorJanela.isEmpty()) {
+            for (int janela : JANELAS_DIAS) {
+                totaisPorJanela.computeIfAbsent(janela, j -> new HashMap<>());
+                rankingPorJanela.put(janela, new RankingTopK<>(CAPACIDADE_RANKING));
+            }
+        }
+
+        while (diaAtual.isBefore(hoje)) {
+            diaAtual = diaAtual.plusDays(1);
+            for (int janela : JANELAS_DIAS) {
+                Map<String, Integer> expirado = baldesDiarios.get(diaAtual.minusDays(janela));
+                if (expirado == null) {
+                    continue;
+                }
+                Map<String, Long> totais = totaisPorJanela.get(janela);
+                expirado.forEach((usuario, n) -> {
+                    long restante = totais.merge(usuario, -(long) n, Long::sum);
+                    if (restante <= 0) {
+                        totais.remove(usuario);
+                    }
+                });
+                // quem caiu pode ceder lugar a quem estava fora do top-K
+                reconstruirRanking(janela);
+            }
+            baldesDiarios.headMap(diaAtual.minusDays(MAIOR_JANELA - 1)).clear();
+        }
+    }
+
+    private void substituirBaldes(TreeMap<LocalDate, Map<String, Integer>> baldes, LocalDate hoje) {
+        baldesDiarios.clear();
+        baldesDiarios.putAll(baldes);
+        diaAtual = hoje;
+        for (int janela : JANELAS_DIAS) {
+            Map<String, Long> totais = new HashMap<>();
+            baldesDiarios.tailMap(hoje.minusDays(janela - 1), true).values()
+                .forEach(balde -> balde.forEach((usuario, n) -> totais.merge(usuario, (long) n, Long::sum)));
+            totaisPorJanela.put(janela, totais);
+            reconstruirRanking(janela);
+        }
+    }
+
+    private void reconstruirRanking(int janela) {
+        RankingTopK<String> ranking = new RankingTopK<>(CAPACIDADE_RANKING);
+        totaisPorJanela.get(janela).forEach(ranking::atualizar);
+        rankingPorJanela.put(janela, ranking);
+    }
+
+    private LocalDate paraLocalDate(Object valor) {
+        if (valor instanceof LocalDate data) {
+            return data;
+        }
+        return ((java.sql.Date) valor).toLocalDate();
+    }
+
+    private record Registro(String idUsuario, LocalDate dia) {
+    }
+}
@@ -0,0 +1,428 @@
+package br.com.biblioimperial.service;
+
+import br.com.biblioimperial.dto.ObraPopularDTO;
+import br.com.biblioimperial.event.ConsultasGravadasEvento;
+import br.com.biblioimperial.event.EmprestimoEvento;
+import br.com.biblioimperial.model.mongodb.HistoricoConsulta;
+import br.com.biblioimperial.model.mongodb.RecomendacaoObra;
+import br.com.biblioimperial.model.mysql.Emprestimo;
+import br.com.biblioimperial.model.mysql.EstatisticaObra;
+import br.com.biblioimperial.repository.mongodb.RecomendacaoObraRepository;
+import br.com.biblioimperial.repository.mysql.EmprestimoRepository;
+import br.com.biblioimperial.repository.mysql.EstatisticaObraRepository;
+import br.com.biblioimperial.repository.mysql.ObraRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.project;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.unwind;
+
+/**
+ * Service das recomendações personalizadas de obras (MongoDB)
+ *
+ * De madrugada (e na inicialização, se ainda não houver nenhuma) as
+ * recomendações de todos os usuários são recalculadas pelo
+ * GeradorRecomendacoes a partir dos empréstimos (MySQL) e das buscas dos
+ * últimos dias (historico_consultas) e gravadas uma por usuário, com o id do
+ * usuário como _id. A leitura passa por um cache LRU em memória; usuários sem
+ * recomendação (ou com ela vencida) recebem as obras mais emprestadas.
+ *
+ * Entre as execuções completas, empréstimos novos e buscas gravadas marcam o
+ * usuário como alterado; a cada poucos segundos os alterados acumulados são
+ * recalculados em um lote, reaproveitando a similaridade da última execução
+ * completa. Recomendações vencidas são removidas pelo índice TTL de
+ * dataExpiracao.
+ */
+@Slf4j
+@Service
+public class RecomendacaoService {
+
+    public static final String ALGORITMO_POPULARIDADE = "POPULARIDADE";
+
+    private static final int MAX_VIZINHOS = 50;
+    private static final int MAX_RECOMENDACOES = 20;
+    private static final int USUARIOS_POR_LOTE = 1000;
+    private static final int RESULTADOS_CONSULTA_CONSIDERADOS = 3;
+    private static final int MAX_ENTRADAS_CACHE = 10_000;
+    private static final int MAX_ALTERADOS_POR_LOTE = 500;
+
+    private final RecomendacaoObraRepository recomendacaoRepository;
+    private final EmprestimoRepository emprestimoRepository;
+    private final ObraRepository obraRepository;
+    private final EstatisticaObraRepository estatisticaObraRepository;
+    private final RankingObrasService rankingObrasService;
+    private final MongoTemplate mongoTemplate;
+    private final Duration validade;
+    private final int diasHistorico;
+    private final long cacheTtlMillis;
+
+    // LRU: cheio, descarta o usuário lido há mais tempo
+    private final Map<String, Entrada> cache = Collections.synchronizedMap(
+        new LinkedHashMap<>(MAX_ENTRADAS_CACHE * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> maisAntiga) {
+                return size() > MAX_ENTRADAS_CACHE;
+            }
+        });
+    private final Set<String> alterados = ConcurrentHashMap.newKeySet();
+    private final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    private final AtomicBoolean gerando = new AtomicBoolean();
+    // Serializa a geração completa, a montagem do modelo e os lotes de alterados
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Catálogo e similaridade da última execução completa, sem os perfis
+    private volatile GeradorRecomendacoes modelo;
+
+    public RecomendacaoService(
+            RecomendacaoObraRepository recomendacaoRepository,
+            EmprestimoRepository emprestimoRepository,
+            ObraRepository obraRepository,
+            EstatisticaObraRepository estatisticaObraRepository,
+            RankingObrasService rankingObrasService,
+            MongoTemplate mongoTemplate,
+            @Value("${biblioteca.recomendacoes.validade-horas:48}") long validadeHoras,
+            @Value("${biblioteca.recomendacoes.dias-historico:180}") int diasHistorico,
+            @Value("${biblioteca.recomendacoes.cache-ttl-ms:600000}") long cacheTtlMillis) {
+        this.recomendacaoRepository = recomendacaoRepository;
+        this.emprestimoRepository = emprestimoRepository;
+        this.obraRepository = obraRepository;
+        this.estatisticaObraRepository = estatisticaObraRepository;
+        this.rankingObrasService = rankingObrasService;
+        this.mongoTemplate = mongoTemplate;
+        this.validade = Duration.ofHours(validadeHoras);
+        this.diasHistorico = diasHistorico;
+        this.cacheTtlMillis = cacheTtlMillis;
+    }
+
+    /**
+     * Recomendações do usuário; sem recomendação calculada, as obras mais emprestadas
+     */
+    public RecomendacaoObra buscarPorUsuario(String idUsuario) {
+        long agora = System.currentTimeMillis();
+        Entrada entrada = cache.get(idUsuario);
+        if (entrada != null && entrada.expiraEm() > agora) {
+            return entrada.recomendacao();
+        }
+
+        RecomendacaoObra recomendacao = recomendacaoRepository.findById(idUsuario).orElse(null);
+        long expiraEm = agora + cacheTtlMillis;
+        if (recomendacao != null && recomendacao.getDataExpiracao() != null) {
+            long vencimento = recomendacao.getDataExpiracao().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            if (vencimento <= agora) {
+                // Vencida, mas o TTL do MongoDB ainda não a removeu
+                alterados.add(idUsuario);
+                recomendacao = null;
+            } else {
+                expiraEm = Math.min(expiraEm, vencimento);
+            }
+        }
+        if (recomendacao == null) {
+            recomendacao = recomendarPopulares(idUsuario);
+        }
+        cache.put(idUsuario, new Entrada(recomendacao, expiraEm));
+        return recomendacao;
+    }
+
+    /**
+     * Na inicialização gera tudo se ainda não houver recomendações; senão
+     * só monta o modelo usado nas atualizações incrementais. Roda em segundo
+     * plano para não atrasar a aplicação: até terminar, os usuários recebem
+     * as obras mais emprestadas e os alterados ficam acumulados.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        Thread.ofPlatform().daemon(true).name("recomendacoes-inicializacao").start(() -> {
+            try {
+                if (recomendacaoRepository.count() == 0) {
+                    gerarTodas();
+                } else {
+                    montarModelo();
+                }
+            } catch (RuntimeException e) {
+                log.warn("Não foi possível preparar as recomendações na inicialização", e);
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarEmprestimo(EmprestimoEvento evento) {
+        if (evento.isCriacao() || evento.getStatusNovo() == Emprestimo.StatusEmprestimo.CANCELADO) {
+            alterados.add(evento.getIdUsuario());
+        }
+    }
+
+    @EventListener
+    public void aoGravarConsultas(ConsultasGravadasEvento evento) {
+        alterados.addAll(evento.getIdsUsuarios());
+    }
+
+    /**
+     * Recalcula os usuários marcados como alterados desde o último lote;
+     * vários eventos do mesmo usuário viram um único recálculo
+     */
+    @Scheduled(fixedDelayString = "${biblioteca.recomendacoes.atualizacao-ms:15000}")
+    public void atualizarAlterados() {
+        lock.lock();
+        try {
+            GeradorRecomendacoes atual = modelo;
+            if (atual == null || alterados.isEmpty()) {
+                return;
+            }
+
+            List<String> lote = new ArrayList<>(MAX_ALTERADOS_POR_LOTE);
+            Iterator<String> iterador = alterados.iterator();
+            while (iterador.hasNext() && lote.size() < MAX_ALTERADOS_POR_LOTE) {
+                lote.add(iterador.next());
+                iterador.remove();
+            }
+
+            LocalDateTime dataGeracao = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+            try {
+                for (Object[] linha : emprestimoRepository.listarObrasEmprestadasDosUsuarios(
+                        lote, Emprestimo.StatusEmprestimo.CANCELADO)) {
+                    atual.registrarEmprestimo((String) linha[0], (String) linha[1]);
+                }
+                carregarConsultas(atual, dataGeracao.minusDays(diasHistorico), lote);
+                List<RecomendacaoObra> recomendacoes = atual.gerar(0, atual.getTotalUsuarios(), dataGeracao,
+                    dataGeracao.plus(validade));
+                gravar(recomendacoes);
+                lote.forEach(cache::remove);
+                log.debug("Recomendações atualizadas: {} de {} usuário(s) alterado(s)",
+                    recomendacoes.size(), lote.size());
+            } catch (RuntimeException e) {
+                alterados.addAll(lote);
+                log.warn("Falha ao atualizar as recomendações de {} usuário(s); nova tentativa no próximo lote",
+                    lote.size(), e);
+            } finally {
+                atual.descartarUsuarios();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Recalcula e grava as recomendações de todos os usuários
+     *
+     * @return quantidade de usuários com recomendação gravada
+     */
+    @Scheduled(cron = "${biblioteca.recomendacoes.geracao-cron:0 0 4 * * *}")
+    public long gerarTodas() {
+        lock.lock();
+        try {
+            long inicio = System.currentTimeMillis();
+            LocalDateTime dataGeracao = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+            // Os alterados até aqui entram na carga completa
+            alterados.clear();
+
+            GeradorRecomendacoes gerador = new GeradorRecomendacoes(pool, MAX_RECOMENDACOES);
+            carregarCatalogo(gerador);
+            carregarEmprestimos(gerador);
+            carregarConsultas(gerador, dataGeracao.minusDays(diasHistorico), null);
+            gerador.preparar(MAX_VIZINHOS);
+
+            long gravadas = 0;
+            int totalUsuarios = gerador.getTotalUsuarios();
+            for (int usuario = 0; usuario < totalUsuarios; usuario += USUARIOS_POR_LOTE) {
+                List<RecomendacaoObra> lote = gerador.gerar(usuario,
+                    Math.min(totalUsuarios, usuario + USUARIOS_POR_LOTE), dataGeracao, dataGeracao.plus(validade));
+                gravar(lote);
+                gravadas += lote.size();
+            }
+
+            gerador.descartarUsuarios();
+            modelo = gerador;
+            cache.clear();
+            log.info("Recomendações geradas: {} usuário(s), {} obra(s) em {} ms",
+                gravadas, gerador.getTotalObras(), System.currentTimeMillis() - inicio);
+            return gravadas;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Inicia em segundo plano a geração completa pedida pela API; só roda
+     * uma geração pedida por vez
+     */
+    public void iniciarGeracao() {
+        if (!gerando.compareAndSet(false, true)) {
+            throw new IllegalStateException("Já existe uma geração de recomendações em andamento");
+        }
+        try {
+            Thread.ofPlatform().daemon(true).name("recomendacoes-geracao").start(() -> {
+                try {
+                    gerarTodas();
+                } catch (RuntimeException e) {
+                    log.error("Falha ao gerar as recomendações", e);
+                } finally {
+                    gerando.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            gerando.set(false);
+            throw e;
+        }
+    }
+
+    public boolean isGerando() {
+        return gerando.get();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        pool.shutdown();
+    }
+
+    /**
+     * Catálogo e similaridade sem gravar recomendações (as buscas só
+     * influenciam os perfis, então não são carregadas)
+     */
+    private void montarModelo() {
+        lock.lock();
+        try {
+            GeradorRecomendacoes gerador = new GeradorRecomendacoes(pool, MAX_RECOMENDACOES);
+            carregarCatalogo(gerador);
+            carregarEmprestimos(gerador);
+            gerador.preparar(MAX_VIZINHOS);
+            gerador.descartarUsuarios();
+            modelo = gerador;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void carregarCatalogo(GeradorRecomendacoes gerador) {
+        for (Object[] linha : obraRepository.listarCategoriasDasObrasAtivas()) {
+            gerador.adicionarObra((String) linha[0], (String) linha[1], (String) linha[2], (String) linha[3]);
+        }
+        for (Object[] linha : obraRepository.listarAutoriasDasObrasAtivas()) {
+            gerador.adicionarAutor((String) linha[2], (String) linha[0], (String) linha[1]);
+        }
+        for (Object[] linha : estatisticaObraRepository.listarTotaisDoPeriodo(EstatisticaObra.PERIODO_TOTAL)) {
+            gerador.definirPopularidade((String) linha[0], (Long) linha[1]);
+        }
+    }
+
+    private void carregarEmprestimos(GeradorRecomendacoes gerador) {
+        for (Object[] linha : emprestimoRepository.listarObrasEmprestadasPorUsuario(
+                Emprestimo.StatusEmprestimo.CANCELADO)) {
+            gerador.registrarEmprestimo((String) linha[0], (String) linha[1]);
+        }
+    }
+
+    /**
+     * Buscas por categoria e por autor contadas por usuário e termo (o id
+     * buscado), e os primeiros resultados das buscas por título; com
+     * idsUsuarios, só as desses usuários
+     */
+    private void carregarConsultas(GeradorRecomendacoes gerador, LocalDateTime desde, Collection<String> idsUsuarios) {
+        AggregationOptions opcoes = AggregationOptions.builder().allowDiskUse(true).build();
+        Criteria doUsuario = idsUsuarios == null
+            ? Criteria.where("dataHoraConsulta").gte(desde).and("idUsuario").ne(null)
+            : Criteria.where("dataHoraConsulta").gte(desde).and("idUsuario").in(idsUsuarios);
+
+        Aggregation porTermo = newAggregation(
+            match(new Criteria().andOperator(doUsuario, Criteria.where("tipoConsulta").in("CATEGORIA", "AUTOR"))),
+            group("idUsuario", "tipoConsulta", "termoBusca").count().as("total")
+        ).withOptions(opcoes);
+        try (Stream<Document> linhas = mongoTemplate.aggregateStream(porTermo, HistoricoConsulta.class, Document.class)) {
+            linhas.forEach(linha -> {
+                Document chave = linha.get("_id", Document.class);
+                int vezes = ((Number) linha.get("total")).intValue();
+                if ("CATEGORIA".equals(chave.getString("tipoConsulta"))) {
+                    gerador.registrarConsultaCategoria(chave.getString("idUsuario"), chave.getString("termoBusca"), vezes);
+                } else {
+                    gerador.registrarConsultaAutor(chave.getString("idUsuario"), chave.getString("termoBusca"), vezes);
+                }
+            });
+        }
+
+        Aggregation porResultado = newAggregation(
+            match(new Criteria().andOperator(doUsuario,
+                Criteria.where("tipoConsulta").is("OBRA").and("quantidadeResultados").gt(0))),
+            project("idUsuario")
+                .and(ArrayOperators.Slice.sliceArrayOf("resultadosIds").itemCount(RESULTADOS_CONSULTA_CONSIDERADOS))
+                .as("resultadosIds"),
+            unwind("resultadosIds"),
+            group("idUsuario", "resultadosIds").count().as("total")
+        ).withOptions(opcoes);
+        try (Stream<Document> linhas = mongoTemplate.aggregateStream(porResultado, HistoricoConsulta.class, Document.class)) {
+            linhas.forEach(linha -> {
+                Document chave = linha.get("_id", Document.class);
+                gerador.registrarResultadoConsulta(chave.getString("idUsuario"), chave.getString("resultadosIds"),
+                    ((Number) linha.get("total")).intValue());
+            });
+        }
+    }
+
+    private void gravar(List<RecomendacaoObra> recomendacoes) {
+        if (recomendacoes.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, RecomendacaoObra.class);
+        for (RecomendacaoObra recomendacao : recomendacoes) {
+            bulk.replaceOne(Query.query(Criteria.where("id").is(recomendacao.getId())), recomendacao,
+                FindAndReplaceOptions.options().upsert());
+        }
+        bulk.execute();
+    }
+
+    private RecomendacaoObra recomendarPopulares(String idUsuario) {
+        List<RecomendacaoObra.ObraRecomendada> obras = new ArrayList<>();
+        for (ObraPopularDTO popular : rankingObrasService.obterPopulares(EstatisticaObra.PERIODO_TOTAL,
+                MAX_RECOMENDACOES)) {
+            obras.add(new RecomendacaoObra.ObraRecomendada(popular.getIdObra(), popular.getTitulo(), null,
+                popular.getTotalEmprestimos().doubleValue(), "Entre as obras mais emprestadas da biblioteca",
+                List.of()));
+        }
+        RecomendacaoObra recomendacao = new RecomendacaoObra();
+        recomendacao.setIdUsuario(idUsuario);
+        recomendacao.setObrasRecomendadas(obras);
+        recomendacao.setCategoriasPreferidas(Map.of());
+        recomendacao.setAutoresPreferidos(Map.of());
+        recomendacao.setDataGeracao(LocalDateTime.now());
+        recomendacao.setAlgoritmoUtilizado(ALGORITMO_POPULARIDADE);
+        recomendacao.setScoreConfianca(0.0);
+        return recomendacao;
+    }
+
+    private record Entrada(RecomendacaoObra recomendacao, long expiraEm) {
+    }
+}
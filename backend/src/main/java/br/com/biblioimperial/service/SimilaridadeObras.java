@@ -0,0 +1,246 @@
+package br.com.biblioimperial.service;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Similaridade item-item entre obras pelo co-empréstimo
+ *
+ * As obras e os usuários são números internos (0..n-1) e a matriz
+ * usuário x obra fica em linhas de int[] ordenadas. Para cada obra i, as
+ * obras j emprestadas pelos mesmos usuários são contadas em um vetor denso
+ * reaproveitado e a similaridade é o cosseno co(i, j) / sqrt(n(i) * n(j)).
+ * Só as maxVizinhos maiores de cada obra são guardadas, então a matriz de
+ * saída é esparsa (uma linha de int[] e float[] por obra).
+ *
+ * As obras são divididas entre as threads de um ForkJoinPool e cada tarefa
+ * folha escreve só nas suas linhas. Os vetores de trabalho são
+ * reaproveitados: a folha pega um conjunto livre (ou cria um, se todos
+ * estiverem em uso) e o devolve ao terminar, então há no máximo um conjunto
+ * por thread em execução e não um por folha.
+ */
+public final class SimilaridadeObras {
+
+    private static final int OBRAS_POR_TAREFA = 64;
+    // Usuários com mais empréstimos que isso (contas de teste, acervo interno)
+    // dominariam as contagens e custam O(n²); ficam fora da similaridade
+    private static final int MAX_OBRAS_POR_USUARIO = 1000;
+
+    private final int[][] vizinhos;
+    private final float[][] pesos;
+
+    private SimilaridadeObras(int[][] vizinhos, float[][] pesos) {
+        this.vizinhos = vizinhos;
+        this.pesos = pesos;
+    }
+
+    /**
+     * @param obrasPorUsuario para cada usuário, as obras emprestadas (sem repetição)
+     * @param totalObras      quantidade de obras (números de 0 a totalObras - 1)
+     */
+    public static SimilaridadeObras calcular(int[][] obrasPorUsuario, int totalObras, int maxVizinhos,
+                                             ForkJoinPool pool) {
+        int[][] usuariosPorObra = transpor(obrasPorUsuario, totalObras);
+        int[][] vizinhos = new int[totalObras][];
+        float[][] pesos = new float[totalObras][];
+        pool.invoke(new Calculo(obrasPorUsuario, usuariosPorObra, vizinhos, pesos, maxVizinhos,
+            new ConcurrentLinkedQueue<>(), 0, totalObras));
+        return new SimilaridadeObras(vizinhos, pesos);
+    }
+
+    public int getTotalObras() {
+        return vizinhos.length;
+    }
+
+    /**
+     * Obras mais parecidas com a obra, da mais para a menos parecida
+     */
+    public int[] vizinhos(int obra) {
+        return vizinhos[obra];
+    }
+
+    /**
+     * Similaridades na mesma ordem de vizinhos(obra)
+     */
+    public float[] pesos(int obra) {
+        return pesos[obra];
+    }
+
+    private static int[][] transpor(int[][] obrasPorUsuario, int totalObras) {
+        int[] tamanhos = new int[totalObras];
+        for (int[] obras : obrasPorUsuario) {
+            if (obras.length <= MAX_OBRAS_POR_USUARIO) {
+                for (int obra : obras) {
+                    tamanhos[obra]++;
+                }
+            }
+        }
+        int[][] usuariosPorObra = new int[totalObras][];
+        for (int obra = 0; obra < totalObras; obra++) {
+            usuariosPorObra[obra] = new int[tamanhos[obra]];
+            tamanhos[obra] = 0;
+        }
+        for (int usuario = 0; usuario < obrasPorUsuario.length; usuario++) {
+            if (obrasPorUsuario[usuario].length <= MAX_OBRAS_POR_USUARIO) {
+                for (int obra : obrasPorUsuario[usuario]) {
+                    usuariosPorObra[obra][tamanhos[obra]++] = usuario;
+                }
+            }
+        }
+        return usuariosPorObra;
+    }
+
+    /**
+     * Vetores de trabalho de uma folha, indexados pelo número da obra
+     */
+    private static final class Vetores {
+
+        private final int[] coocorrencias;
+        private final int[] tocadas;
+        private final float[] similaridades;
+
+        Vetores(int totalObras) {
+            coocorrencias = new int[totalObras];
+            tocadas = new int[totalObras];
+            similaridades = new float[totalObras];
+        }
+    }
+
+    private static final class Calculo extends RecursiveAction {
+
+        private final int[][] obrasPorUsuario;
+        private final int[][] usuariosPorObra;
+        private final int[][] vizinhos;
+        private final float[][] pesos;
+        private final int maxVizinhos;
+        private final Queue<Vetores> livres;
+        private final int inicio;
+        private final int fim;
+
+        Calculo(int[][] obrasPorUsuario, int[][] usuariosPorObra, int[][] vizinhos, float[][] pesos,
+                int maxVizinhos, Queue<Vetores> livres, int inicio, int fim) {
+            this.obrasPorUsuario = obrasPorUsuario;
+            this.usuariosPorObra = usuariosPorObra;
+            this.vizinhos = vizinhos;
+            this.pesos = pesos;
+            this.maxVizinhos = maxVizinhos;
+            this.livres = livres;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        protected void compute() {
+            if (fim - inicio > OBRAS_POR_TAREFA) {
+                int meio = (inicio + fim) >>> 1;
+                invokeAll(
+                    new Calculo(obrasPorUsuario, usuariosPorObra, vizinhos, pesos, maxVizinhos, livres,
+                        inicio, meio),
+                    new Calculo(obrasPorUsuario, usuariosPorObra, vizinhos, pesos, maxVizinhos, livres,
+                        meio, fim));
+                return;
+            }
+
+            Vetores vetores = livres.poll();
+            if (vetores == null) {
+                vetores = new Vetores(usuariosPorObra.length);
+            }
+            int[] coocorrencias = vetores.coocorrencias;
+            int[] tocadas = vetores.tocadas;
+            float[] similaridades = vetores.similaridades;
+            for (int obra = inicio; obra < fim; obra++) {
+                int quantidade = 0;
+                for (int usuario : usuariosPorObra[obra]) {
+                    for (int outra : obrasPorUsuario[usuario]) {
+                        if (outra != obra && coocorrencias[outra]++ == 0) {
+                            tocadas[quantidade++] = outra;
+                        }
+                    }
+                }
+
+                double emprestimosObra = usuariosPorObra[obra].length;
+                for (int k = 0; k < quantidade; k++) {
+                    int outra = tocadas[k];
+                    similaridades[outra] = (float) (coocorrencias[outra]
+                        / Math.sqrt(emprestimosObra * usuariosPorObra[outra].length));
+                    coocorrencias[outra] = 0;
+                }
+                selecionarMaiores(obra, tocadas, quantidade, similaridades);
+            }
+            // As coocorrências já voltaram a zero; similaridades e tocadas são
+            // sempre escritas antes de lidas
+            livres.offer(vetores);
+        }
+
+        /**
+         * Guarda as maxVizinhos obras de maior similaridade, usando um heap
+         * mínimo de tamanho fixo sobre as obras tocadas
+         */
+        private void selecionarMaiores(int obra, int[] tocadas, int quantidade, float[] similaridades) {
+            int tamanho = Math.min(quantidade, maxVizinhos);
+            int[] heap = new int[tamanho];
+            int ocupados = 0;
+            for (int k = 0; k < quantidade; k++) {
+                int outra = tocadas[k];
+                if (ocupados < tamanho) {
+                    heap[ocupados] = outra;
+                    subir(heap, ocupados++, similaridades);
+                } else if (similaridades[outra] > similaridades[heap[0]]) {
+                    heap[0] = outra;
+                    descer(heap, ocupados, similaridades);
+                }
+            }
+
+            // Esvazia o heap do menor para o maior, preenchendo do fim para o começo
+            int[] linha = new int[ocupados];
+            float[] linhaPesos = new float[ocupados];
+            for (int posicao = ocupados - 1; posicao >= 0; posicao--) {
+                linha[posicao] = heap[0];
+                linhaPesos[posicao] = similaridades[heap[0]];
+                heap[0] = heap[posicao];
+                descer(heap, posicao, similaridades);
+            }
+            vizinhos[obra] = linha;
+            pesos[obra] = linhaPesos;
+        }
+
+        private static void subir(int[] heap, int posicao, float[] chaves) {
+            while (posicao > 0) {
+                int pai = (posicao - 1) >>> 1;
+                if (chaves[heap[posicao]] >= chaves[heap[pai]]) {
+                    return;
+                }
+                trocar(heap, posicao, pai);
+                posicao = pai;
+            }
+        }
+
+        private static void descer(int[] heap, int ocupados, float[] chaves) {
+            int posicao = 0;
+            while (true) {
+                int menor = posicao;
+                int esquerda = 2 * posicao + 1;
+                int direita = esquerda + 1;
+                if (esquerda < ocupados && chaves[heap[esquerda]] < chaves[heap[menor]]) {
+                    menor = esquerda;
+                }
+                if (direita < ocupados && chaves[heap[direita]] < chaves[heap[menor]]) {
+                    menor = direita;
+                }
+                if (menor == posicao) {
+                    return;
+                }
+                trocar(heap, posicao, menor);
+                posicao = menor;
+            }
+        }
+
+        private static void trocar(int[] heap, int a, int b) {
+            int temporario = heap[a];
+            heap[a] = heap[b];
+            heap[b] = temporario;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package br.com.biblioimperial.service;
+
+import br.com.biblioimperial.dto.SugestaoDTO;
+import br.com.biblioimperial.event.EmprestimoEvento;
+import br.com.biblioimperial.event.ObraEvento;
+import br.com.biblioimperial.model.mysql.Autor;
+import br.com.biblioimperial.model.mysql.EstatisticaObra;
+import br.com.biblioimperial.model.mysql.Obra;
+import br.com.biblioimperial.repository.mysql.EstatisticaObraRepository;
+import br.com.biblioimperial.repository.mysql.ObraRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Service do autocompletar do catálogo (títulos de obras e nomes de autores)
+ *
+ * O peso de uma obra é o total de empréstimos dela (estatisticas_obras) e o
+ * de um autor é a soma dos pesos das suas obras ativas. O índice é montado
+ * na inicialização e de madrugada; obras salvas entram na hora e cada
+ * empréstimo novo soma 1 ao peso da obra.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SugestoesService {
+
+    public static final String TIPO_OBRA = "OBRA";
+    public static final String TIPO_AUTOR = "AUTOR";
+    public static final int LIMITE_PADRAO = 10;
+    public static final int LIMITE_MAXIMO = 20;
+
+    private static final int TAMANHO_LOTE = 5000;
+
+    private final ObraRepository obraRepository;
+    private final EstatisticaObraRepository estatisticaObraRepository;
+
+    private final Set<String> alteradasDuranteReconstrucao = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile IndiceSugestoes indice;
+    private volatile boolean reconstruindo;
+
+    public List<SugestaoDTO> sugerir(String prefixo, Integer limite) {
+        IndiceSugestoes atual = indice;
+        if (atual == null) {
+            return List.of();
+        }
+        int tamanho = limite == null || limite <= 0 ? LIMITE_PADRAO : Math.min(limite, LIMITE_MAXIMO);
+        return atual.sugerir(prefixo, tamanho).stream()
+            .map(s -> new SugestaoDTO(s.tipo(), s.id(), s.texto(), s.peso()))
+            .toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        reconstruir();
+    }
+
+    @Scheduled(cron = "${biblioteca.sugestoes.reconstrucao-cron:0 50 3 * * *}")
+    public void reconstruir() {
+        lock.lock();
+        try {
+            long inicio = System.currentTimeMillis();
+            alteradasDuranteReconstrucao.clear();
+            reconstruindo = true;
+
+            Map<String, Long> popularidade = new HashMap<>();
+            for (Object[] linha : estatisticaObraRepository.listarTotaisDoPeriodo(EstatisticaObra.PERIODO_TOTAL)) {
+                popularidade.put((String) linha[0], (Long) linha[1]);
+            }
+
+            List<IndiceSugestoes.Sugestao> sugestoes = new ArrayList<>();
+            String cursor = "";
+            List<Object[]> lote;
+            do {
+                lote = obraRepository.listarTitulosAtivosApos(cursor, Limit.of(TAMANHO_LOTE));
+                for (Object[] linha : lote) {
+                    String idObra = (String) linha[0];
+                    sugestoes.add(new IndiceSugestoes.Sugestao(
+                        TIPO_OBRA, idObra, (String) linha[1], popularidade.getOrDefault(idObra, 0L)));
+                    cursor = idObra;
+                }
+            } while (lote.size() == TAMANHO_LOTE);
+
+            Map<String, String> nomesAutores = new HashMap<>();
+            Map<String, Long> pesosAutores = new HashMap<>();
+            for (Object[] linha : obraRepository.listarAutoriasDasObrasAtivas()) {
+                String idAutor = (String) linha[0];
+                nomesAutores.put(idAutor, (String) linha[1]);
+                pesosAutores.merge(idAutor, popularidade.getOrDefault((String) linha[2], 0L), Long::sum);
+            }
+            nomesAutores.forEach((idAutor, nome) -> sugestoes.add(
+                new IndiceSugestoes.Sugestao(TIPO_AUTOR, idAutor, nome, pesosAutores.get(idAutor))));
+
+            IndiceSugestoes novo = new IndiceSugestoes(sugestoes);
+            indice = novo;
+            reconstruindo = false;
+            for (String idObra : alteradasDuranteReconstrucao) {
+                reindexar(novo, idObra);
+            }
+            log.info("Índice de sugestões construído: {} sugestão(ões) em {} ms",
+                novo.getSugestoes(), System.currentTimeMillis() - inicio);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarObra(ObraEvento evento) {
+        if (reconstruindo) {
+            alteradasDuranteReconstrucao.add(evento.getIdObra());
+        }
+        IndiceSugestoes atual = indice;
+        if (atual != null) {
+            reindexar(atual, evento.getIdObra());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarEmprestimo(EmprestimoEvento evento) {
+        IndiceSugestoes atual = indice;
+        if (atual != null && evento.isCriacao()) {
+            atual.somarPeso(TIPO_OBRA, evento.getIdObra(), 1);
+        }
+    }
+
+    private void reindexar(IndiceSugestoes alvo, String idObra) {
+        Optional<Obra> obra = obraRepository.findById(idObra);
+        if (obra.isEmpty() || !Boolean.TRUE.equals(obra.get().getAtivo())) {
+            alvo.remover(TIPO_OBRA, idObra);
+            return;
+        }
+
+        String titulo = obra.get().getTitulo();
+        IndiceSugestoes.Sugestao existente = alvo.buscar(TIPO_OBRA, idObra);
+        if (existente == null || !existente.texto().equals(titulo)) {
+            long peso = existente != null
+                ? existente.peso()
+                : estatisticaObraRepository
+                    .findById(new EstatisticaObra.Chave(idObra, EstatisticaObra.PERIODO_TOTAL))
+                    .map(EstatisticaObra::getTotalEmprestimos)
+                    .orElse(0L);
+            alvo.adicionar(new IndiceSugestoes.Sugestao(TIPO_OBRA, idObra, titulo, peso));
+        }
+
+        // Autores novos entram na hora; o peso deles é recalculado na reconstrução
+        for (Object[] linha : obraRepository.listarAutoresDasObras(List.of(idObra))) {
+            Autor autor = (Autor) linha[1];
+            IndiceSugestoes.Sugestao sugestaoAutor = alvo.buscar(TIPO_AUTOR, autor.getIdAutor());
+            if (sugestaoAutor == null || !sugestaoAutor.texto().equals(autor.getNomeAutor())) {
+                alvo.adicionar(new IndiceSugestoes.Sugestao(TIPO_AUTOR, autor.getIdAutor(), autor.getNomeAutor(),
+                    sugestaoAutor != null ? sugestaoAutor.peso() : 0L));
+            }
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package br.com.biblioimperial.service;
 
+import br.com.biblioimperial.event.UsuarioEvento;
 import br.com.biblioimperial.model.mysql.Usuario;
 import br.com.biblioimperial.repository.mysql.UsuarioRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,6 +24,7 @@ public class UsuarioService {
 
     private final UsuarioRepository usuarioRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public List<Usuario> listarTodosUsuarios() {
@@ -32,9 +36,18 @@ public class UsuarioService {
         return usuarioRepository.findByAtivoTrue();
     }
 
+    /**
+     * Página de usuários a partir do cursor (id do último usuário recebido)
+     */
+    @Transactional(readOnly = true)
+    public List<Usuario> listarPaginaUsuarios(String apos, int limite) {
+        return usuarioRepository.findByIdUsuarioGreaterThanOrderByIdUsuarioAsc(
+            apos != null ? apos : "", Limit.of(limite));
+    }
+
     @Transactional(readOnly = true)
     public Optional<Usuario> buscarPorId(String idUsuario) {
-        return usuarioRepository.findById(idUsuario);
+        return usuarioRepository.findByIdUsuario(idUsuario);
     }
 
     @Transactional(readOnly = true)
@@ -54,28 +67,35 @@ public class UsuarioService {
             usuario.setSenhaHash(passwordEncoder.encode(usuario.getSenhaHash()));
         }
         
-        return usuarioRepository.save(usuario);
+        Usuario salvo = usuarioRepository.save(usuario);
+        eventPublisher.publishEvent(new UsuarioEvento(salvo.getIdUsuario()));
+        return salvo;
     }
 
     @Transactional
     public void deletar(String idUsuario) {
         usuarioRepository.deleteById(idUsuario);
+        eventPublisher.publishEvent(new UsuarioEvento(idUsuario));
     }
 
     @Transactional
     public Usuario inativar(String idUsuario) {
-        Usuario usuario = usuarioRepository.findById(idUsuario)
+        Usuario usuario = usuarioRepository.findByIdUsuario(idUsuario)
             .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
         usuario.setAtivo(false);
-        return usuarioRepository.save(usuario);
+        Usuario inativado = usuarioRepository.save(usuario);
+        eventPublisher.publishEvent(new UsuarioEvento(idUsuario));
+        return inativado;
     }
 
     @Transactional
     public Usuario ativar(String idUsuario) {
-        Usuario usuario = usuarioRepository.findById(idUsuario)
+        Usuario usuario = usuarioRepository.findByIdUsuario(idUsuario)
             .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
         usuario.setAtivo(true);
-        return usuarioRepository.save(usuario);
+        Usuario ativado = usuarioRepository.save(usuario);
+        eventPublisher.publishEvent(new UsuarioEvento(idUsuario));
+        return ativado;
     }
 
     /**
@@ -92,7 +112,7 @@ public class UsuarioService {
         return passwordEncoder.encode(senhaRaw);
     }
 
-    private String gerarIdUsuario() {
+    static String gerarIdUsuario() {
         return "USR-" + System.currentTimeMillis() + "-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
     }
 }
@@ -0,0 +1,172 @@
+package br.com.biblioimperial.service;
+
+import br.com.biblioimperial.event.EmprestimoEvento;
+import br.com.biblioimperial.model.mysql.CheckpointTarefa;
+import br.com.biblioimperial.model.mysql.Emprestimo;
+import br.com.biblioimperial.model.mysql.Multa;
+import br.com.biblioimperial.repository.mysql.CheckpointTarefaRepository;
+import br.com.biblioimperial.repository.mysql.EmprestimoRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Service da varredura de empréstimos vencidos
+ *
+ * Percorre, em lotes ordenados por (data prevista, id), os empréstimos em
+ * aberto com devolução prevista antes de hoje: marca como ATRASADO os que
+ * ainda estão ATIVO e acumula a multa de atraso até o dia corrente. Cada
+ * status é percorrido separadamente, primeiro ATRASADO e depois ATIVO, para
+ * que os marcados na segunda fase não voltem a ser lidos. Cada lote é uma
+ * transação que grava também o checkpoint da execução, então uma varredura
+ * interrompida continua do último lote gravado e uma varredura já concluída
+ * no dia não relê a tabela.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VarreduraAtrasosService {
+
+    static final String NOME_TAREFA = "varredura-atrasos";
+
+    private static final int TAMANHO_LOTE = 500;
+    private static final LocalDate INICIO_CURSOR = LocalDate.of(1970, 1, 1);
+    private static final List<Emprestimo.StatusEmprestimo> FASES =
+        List.of(Emprestimo.StatusEmprestimo.ATRASADO, Emprestimo.StatusEmprestimo.ATIVO);
+
+    private final EmprestimoRepository emprestimoRepository;
+    private final CheckpointTarefaRepository checkpointRepository;
+    private final EmprestimoService emprestimoService;
+    private final ContadorCacheService contadorCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    // Uma varredura por vez; as chamadas concorrentes esperam e encontram o dia concluído
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Varredura pendente do dia, em uma thread própria para não atrasar os
+     * demais listeners de ApplicationReadyEvent
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void aoIniciar() {
+        Thread.ofPlatform().daemon(true).name("varredura-atrasos-inicializacao").start(() -> {
+            try {
+                varrer();
+            } catch (RuntimeException e) {
+                log.error("Falha na varredura de atrasos da inicialização", e);
+            }
+        });
+    }
+
+    @Scheduled(cron = "${biblioteca.atrasos.varredura-cron:0 5 * * * *}")
+    public void varrer() {
+        lock.lock();
+        try {
+            LocalDate hoje = LocalDate.now();
+            CheckpointTarefa checkpoint = checkpointRepository.findById(NOME_TAREFA)
+                .orElseGet(() -> new CheckpointTarefa(NOME_TAREFA));
+
+            if (!hoje.equals(checkpoint.getDataReferencia())) {
+                checkpoint.setDataReferencia(hoje);
+                reiniciarCursor(checkpoint, FASES.get(0));
+                checkpoint.setConcluida(false);
+            } else if (checkpoint.getConcluida()) {
+                return;
+            }
+
+            int lotes = 0;
+            int processados = 0;
+            int lidos;
+            do {
+                lidos = transactionTemplate.execute(status -> processarLote(checkpoint));
+                processados += lidos;
+                lotes++;
+            } while (!checkpoint.getConcluida());
+
+            contadorCache.invalidar();
+            log.info("Varredura de atrasos de {} concluída: {} empréstimo(s) vencido(s) em {} lote(s)",
+                hoje, processados, lotes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Processa um lote a partir do cursor do checkpoint e grava o novo cursor
+     * na mesma transação
+     */
+    private int processarLote(CheckpointTarefa checkpoint) {
+        LocalDate hoje = checkpoint.getDataReferencia();
+        Emprestimo.StatusEmprestimo fase = faseAtual(checkpoint);
+        // O bloqueio é a primeira leitura da transação: as leituras seguintes já
+        // enxergam o estado mais recente dos empréstimos bloqueados
+        List<String> ids = emprestimoRepository.bloquearVencidosApos(
+            fase.name(), hoje, checkpoint.getCursorData(), checkpoint.getCursorId(), TAMANHO_LOTE);
+
+        List<EmprestimoEvento> eventos = new ArrayList<>();
+        if (!ids.isEmpty()) {
+            List<Emprestimo> lote = emprestimoRepository.buscarComAssociacoes(ids);
+            Map<String, List<Multa>> multasAtraso = emprestimoService.buscarMultasAtraso(ids);
+
+            for (Emprestimo emprestimo : lote) {
+                if (emprestimo.getStatusEmprestimo() == Emprestimo.StatusEmprestimo.ATIVO) {
+                    emprestimo.setStatusEmprestimo(Emprestimo.StatusEmprestimo.ATRASADO);
+                    eventos.add(EmprestimoEvento.transicao(emprestimo, Emprestimo.StatusEmprestimo.ATIVO));
+                }
+                Multa multaNova = emprestimoService.acumularMultaAtraso(emprestimo,
+                    multasAtraso.getOrDefault(emprestimo.getIdEmprestimo(), List.of()), hoje);
+                if (multaNova != null) {
+                    entityManager.persist(multaNova);
+                }
+            }
+
+            Emprestimo ultimo = lote.get(lote.size() - 1);
+            checkpoint.setCursorData(ultimo.getDataPrevistaDevolucao());
+            checkpoint.setCursorId(ultimo.getIdEmprestimo());
+        }
+        if (ids.size() < TAMANHO_LOTE) {
+            int proxima = FASES.indexOf(fase) + 1;
+            if (proxima < FASES.size()) {
+                reiniciarCursor(checkpoint, FASES.get(proxima));
+            } else {
+                checkpoint.setConcluida(true);
+            }
+        }
+        // merge: o checkpoint vive fora da transação e é regravado a cada lote
+        entityManager.merge(checkpoint);
+
+        eventos.forEach(eventPublisher::publishEvent);
+        return ids.size();
+    }
+
+    /**
+     * Status percorrido pelo checkpoint; um checkpoint gravado antes da
+     * separação por status recomeça da primeira fase
+     */
+    private Emprestimo.StatusEmprestimo faseAtual(CheckpointTarefa checkpoint) {
+        if (checkpoint.getCursorStatus() == null) {
+            reiniciarCursor(checkpoint, FASES.get(0));
+        }
+        return Emprestimo.StatusEmprestimo.valueOf(checkpoint.getCursorStatus());
+    }
+
+    private void reiniciarCursor(CheckpointTarefa checkpoint, Emprestimo.StatusEmprestimo fase) {
+        checkpoint.setCursorStatus(fase.name());
+        checkpoint.setCursorData(INICIO_CURSOR);
+        checkpoint.setCursorId("");
+    }
+}
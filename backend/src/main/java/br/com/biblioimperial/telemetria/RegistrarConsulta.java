@@ -0,0 +1,21 @@
+package br.com.biblioimperial.telemetria;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca um endpoint de busca cujas chamadas são gravadas no histórico de
+ * consultas pelo TelemetriaBuscaAspect. O primeiro parâmetro do método é o
+ * termo buscado e o corpo da resposta deve ser a lista de resultados.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RegistrarConsulta {
+
+    /**
+     * Tipo gravado em HistoricoConsulta.tipoConsulta ("OBRA", "AUTOR", "CATEGORIA")
+     */
+    String tipo();
+}
@@ -0,0 +1,96 @@
+package br.com.biblioimperial.telemetria;
+
+import br.com.biblioimperial.model.mongodb.HistoricoConsulta;
+import br.com.biblioimperial.model.mysql.Obra;
+import br.com.biblioimperial.service.IngestaoHistoricoService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Grava no histórico de consultas cada chamada aos endpoints marcados com
+ * {@link RegistrarConsulta}, com o tempo de resposta medido no servidor e
+ * os ids dos resultados
+ *
+ * O registro só enfileira a consulta (IngestaoHistoricoService); o usuário
+ * é identificado pelo e-mail autenticado e o id e o nome são completados na
+ * gravação do lote. Falhas da telemetria nunca afetam a resposta.
+ */
+@Slf4j
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class TelemetriaBuscaAspect {
+
+    private final IngestaoHistoricoService ingestaoHistorico;
+
+    @Around("@annotation(registrarConsulta)")
+    public Object registrar(ProceedingJoinPoint chamada, RegistrarConsulta registrarConsulta) throws Throwable {
+        long inicio = System.nanoTime();
+        Object resposta = chamada.proceed();
+        long tempoResposta = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+        try {
+            Object[] argumentos = chamada.getArgs();
+            String termo = argumentos.length > 0 && argumentos[0] != null ? argumentos[0].toString() : null;
+            ingestaoHistorico.registrar(montar(registrarConsulta.tipo(), termo, resposta, tempoResposta));
+        } catch (RuntimeException e) {
+            log.warn("Não foi possível registrar a consulta no histórico", e);
+        }
+        return resposta;
+    }
+
+    private HistoricoConsulta montar(String tipo, String termo, Object resposta, long tempoResposta) {
+        HistoricoConsulta historico = new HistoricoConsulta();
+        historico.setTipoConsulta(tipo);
+        historico.setTermoBusca(termo);
+        historico.setDataHoraConsulta(LocalDateTime.now());
+        historico.setTempoResposta(tempoResposta);
+
+        List<String> resultadosIds = idsDosResultados(resposta);
+        historico.setResultadosIds(resultadosIds);
+        historico.setQuantidadeResultados(resultadosIds.size());
+
+        Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+        if (autenticacao != null && autenticacao.isAuthenticated()
+                && !(autenticacao instanceof AnonymousAuthenticationToken)) {
+            historico.setEmailUsuario(autenticacao.getName());
+        }
+
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes atributos) {
+            HttpServletRequest requisicao = atributos.getRequest();
+            historico.setIpOrigem(requisicao.getRemoteAddr());
+            historico.setUserAgent(requisicao.getHeader("User-Agent"));
+            historico.setFiltrosAplicados(requisicao.getQueryString());
+        }
+        return historico;
+    }
+
+    private List<String> idsDosResultados(Object resposta) {
+        Object corpo = resposta instanceof ResponseEntity<?> entidade ? entidade.getBody() : resposta;
+        List<String> ids = new ArrayList<>();
+        if (corpo instanceof List<?> resultados) {
+            for (Object resultado : resultados) {
+                if (resultado instanceof Obra obra) {
+                    ids.add(obra.getIdObra());
+                }
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,33 @@
+package br.com.biblioimperial;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Conta os comandos SQL enviados ao banco pelas estatísticas do Hibernate
+ * (hibernate.generate_statistics, ligado em application-test.properties)
+ */
+public class ContadorSql {
+
+    private final Statistics estatisticas;
+
+    public ContadorSql(EntityManagerFactory entityManagerFactory) {
+        this.estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public void zerar() {
+        estatisticas.clear();
+    }
+
+    /**
+     * Comandos preparados desde o último zerar()
+     */
+    public long comandos() {
+        return estatisticas.getPrepareStatementCount();
+    }
+
+    public Statistics getEstatisticas() {
+        return estatisticas;
+    }
+}
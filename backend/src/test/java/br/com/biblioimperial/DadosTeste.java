@@ -0,0 +1,117 @@
+package br.com.biblioimperial;
+
+import br.com.biblioimperial.model.mysql.Autor;
+import br.com.biblioimperial.model.mysql.Categoria;
+import br.com.biblioimperial.model.mysql.Emprestimo;
+import br.com.biblioimperial.model.mysql.Exemplar;
+import br.com.biblioimperial.model.mysql.GrupoUsuario;
+import br.com.biblioimperial.model.mysql.Multa;
+import br.com.biblioimperial.model.mysql.Obra;
+import br.com.biblioimperial.model.mysql.Usuario;
+import jakarta.persistence.EntityManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Monta e grava as entidades usadas nos testes, com só os campos obrigatórios
+ */
+public class DadosTeste {
+
+    private final EntityManager entityManager;
+
+    public DadosTeste(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public Categoria categoria(String id) {
+        Categoria categoria = new Categoria();
+        categoria.setIdCategoria(id);
+        categoria.setNomeCategoria("Categoria " + id);
+        entityManager.persist(categoria);
+        return categoria;
+    }
+
+    public Autor autor(String id) {
+        Autor autor = new Autor();
+        autor.setIdAutor(id);
+        autor.setNomeAutor("Autor " + id);
+        entityManager.persist(autor);
+        return autor;
+    }
+
+    public Obra obra(String id, Categoria categoria, Autor... autores) {
+        Obra obra = new Obra();
+        obra.setIdObra(id);
+        obra.setTitulo("Obra " + id);
+        obra.setCategoria(categoria);
+        obra.setAutores(new HashSet<>(Set.of(autores)));
+        entityManager.persist(obra);
+        return obra;
+    }
+
+    public Exemplar exemplar(String id, Obra obra) {
+        Exemplar exemplar = new Exemplar();
+        exemplar.setIdExemplar(id);
+        exemplar.setObra(obra);
+        exemplar.setCodigoBarras("CB-" + id);
+        entityManager.persist(exemplar);
+        return exemplar;
+    }
+
+    public GrupoUsuario grupo(String id, int nivelAcesso) {
+        GrupoUsuario grupo = new GrupoUsuario();
+        grupo.setIdGrupo(id);
+        grupo.setNomeGrupo("Grupo " + id);
+        grupo.setNivelAcesso(nivelAcesso);
+        entityManager.persist(grupo);
+        return grupo;
+    }
+
+    public Usuario usuario(String id, GrupoUsuario grupo) {
+        Usuario usuario = new Usuario();
+        usuario.setIdUsuario(id);
+        usuario.setNomeCompleto("Usuário " + id);
+        usuario.setEmail(id.toLowerCase() + "@biblioimp.org");
+        usuario.setSenhaHash("$2a$10$hash-de-teste");
+        usuario.setGrupo(grupo);
+        entityManager.persist(usuario);
+        return usuario;
+    }
+
+    public Emprestimo emprestimo(String id, Exemplar exemplar, Usuario usuario) {
+        Emprestimo emprestimo = new Emprestimo();
+        emprestimo.setIdEmprestimo(id);
+        emprestimo.setExemplar(exemplar);
+        emprestimo.setUsuario(usuario);
+        emprestimo.setDataEmprestimo(LocalDateTime.now());
+        emprestimo.setDataPrevistaDevolucao(LocalDate.now().plusDays(14));
+        emprestimo.setStatusEmprestimo(Emprestimo.StatusEmprestimo.ATIVO);
+        exemplar.setDisponivel(false);
+        entityManager.persist(emprestimo);
+        return emprestimo;
+    }
+
+    public Multa multa(String id, Emprestimo emprestimo) {
+        Multa multa = new Multa();
+        multa.setIdMulta(id);
+        multa.setEmprestimo(emprestimo);
+        multa.setUsuario(emprestimo.getUsuario());
+        multa.setTipoMulta(Multa.TipoMulta.ATRASO);
+        multa.setValorMulta(new BigDecimal("2.50"));
+        entityManager.persist(multa);
+        return multa;
+    }
+
+    /**
+     * Grava o que está pendente e esvazia o contexto de persistência, para
+     * que as leituras seguintes venham do banco
+     */
+    public void gravar() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,57 @@
+package br.com.biblioimperial;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestContext;
+import org.springframework.test.context.TestExecutionListener;
+import org.springframework.test.context.TestExecutionListeners;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Teste com JPA sobre o H2 do perfil "test" (modo MySQL)
+ *
+ * Usa uma configuração própria no lugar de BibliotecaImperialApplication,
+ * que também habilita os repositórios do MongoDB. Os serviços testados
+ * entram com @Import na classe de teste.
+ *
+ * O cache de segundo nível é esvaziado antes de cada teste: o rollback não
+ * desfaz o que uma leitura guardou nele, e o Hibernate trataria como
+ * destacada uma entidade nova com o mesmo id de outro teste do contexto.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@DataJpaTest(showSql = false)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@ContextConfiguration(classes = TesteJpa.Configuracao.class)
+@TestExecutionListeners(
+    listeners = TesteJpa.EsvaziarCacheSegundoNivel.class,
+    mergeMode = TestExecutionListeners.MergeMode.MERGE_WITH_DEFAULTS)
+public @interface TesteJpa {
+
+    @Configuration
+    @EntityScan("br.com.biblioimperial.model.mysql")
+    @EnableJpaRepositories("br.com.biblioimperial.repository.mysql")
+    class Configuracao {
+    }
+
+    class EsvaziarCacheSegundoNivel implements TestExecutionListener {
+
+        @Override
+        public void beforeTestMethod(TestContext testContext) {
+            testContext.getApplicationContext().getBean(EntityManagerFactory.class)
+                .unwrap(SessionFactory.class).getCache().evictAllRegions();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package br.com.biblioimperial.controller;
+
+import br.com.biblioimperial.ContadorSql;
+import br.com.biblioimperial.DadosTeste;
+import br.com.biblioimperial.TesteJpa;
+import br.com.biblioimperial.dto.EmprestimoDTO;
+import br.com.biblioimperial.model.mysql.Categoria;
+import br.com.biblioimperial.model.mysql.Exemplar;
+import br.com.biblioimperial.model.mysql.GrupoUsuario;
+import br.com.biblioimperial.model.mysql.Obra;
+import br.com.biblioimperial.model.mysql.Usuario;
+import br.com.biblioimperial.repository.mysql.AutorRepository;
+import br.com.biblioimperial.repository.mysql.CategoriaRepository;
+import br.com.biblioimperial.repository.mysql.EmprestimoRepository;
+import br.com.biblioimperial.repository.mysql.ObraRepository;
+import br.com.biblioimperial.repository.mysql.UsuarioRepository;
+import br.com.biblioimperial.service.CacheReferenciaService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Idas ao banco com as regiões das tabelas de referência (categorias,
+ * autores, grupos_usuarios) vazias, como após a inicialização, e já
+ * preenchidas
+ *
+ * Quando Usuario.grupo ou Obra.categoria ficam fora do grafo da consulta,
+ * o lote que os inicializa deixa de ir ao banco com o cache preenchido. A
+ * listagem de empréstimos já sai em uma consulta pelo grafo
+ * Emprestimo.resumo, que não lê categorias nem grupos, e continua nela.
+ * Os dados são gravados em transações próprias:
+ * com a transação do teste aberta, o Hibernate não guardaria nada no cache.
+ * Como o banco é o mesmo dos outros testes do contexto, eles são apagados
+ * no fim.
+ */
+@TesteJpa
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Import(CacheReferenciaService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CacheSegundoNivelTest {
+
+    private static final int OBRAS = 50;
+    private static final int EMPRESTIMOS = 20;
+    private static final int CATEGORIAS = 2;
+    private static final int GRUPOS = 2;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CacheReferenciaService cacheReferencia;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    @Autowired
+    private ObraRepository obraRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private EmprestimoRepository emprestimoRepository;
+
+    private ContadorSql contador;
+    private CategoriaController categoriaController;
+    private EmprestimoController emprestimoController;
+
+    @BeforeEach
+    void preparar() {
+        contador = new ContadorSql(entityManagerFactory);
+        categoriaController = new CategoriaController(categoriaRepository, obraRepository, cacheReferencia);
+        emprestimoController = new EmprestimoController();
+        ReflectionTestUtils.setField(emprestimoController, "emprestimoRepository", emprestimoRepository);
+    }
+
+    @Test
+    void gruposDosUsuariosSaemDoCache() {
+        long semCache = comandos(this::gruposDosUsuarios);
+        long comCache = comandos(this::gruposDosUsuarios);
+
+        assertThat(semCache).isEqualTo(2);
+        assertThat(comCache).isEqualTo(1);
+        assertThat(acertos("grupos_usuarios")).isEqualTo(GRUPOS);
+    }
+
+    @Test
+    void categoriasDasObrasSaemDoCache() {
+        long semCache = comandos(this::categoriasDasObras);
+        long comCache = comandos(this::categoriasDasObras);
+
+        assertThat(semCache).isEqualTo(2);
+        assertThat(comCache).isEqualTo(1);
+        assertThat(acertos("categorias")).isEqualTo(CATEGORIAS);
+    }
+
+    @Test
+    void consultasDeReferenciaNaoVaoAoBancoComOCachePreenchido() {
+        assertThat(comandos(autorRepository::findAll)).isEqualTo(1);
+        assertThat(comandos(autorRepository::findAll)).isZero();
+        assertThat(contador.getEstatisticas().getQueryRegionStatistics(CacheReferenciaService.REGIAO_CONSULTAS)
+            .getHitCount()).isEqualTo(1);
+
+        assertThat(comandos(() -> categoriaController.buscarPorId("CAT-1"))).isEqualTo(1);
+        assertThat(comandos(() -> categoriaController.buscarPorId("CAT-1"))).isZero();
+    }
+
+    @Test
+    void gravacaoPeloControllerInvalidaAsConsultas() {
+        assertThat(comandos(categoriaRepository::findAll)).isEqualTo(1);
+        assertThat(comandos(categoriaRepository::findAll)).isZero();
+
+        Categoria alterada = new Categoria();
+        alterada.setNomeCategoria("Categoria renomeada");
+        categoriaController.atualizar("CAT-2", alterada);
+
+        assertThat(comandos(categoriaRepository::findAll)).isEqualTo(1);
+        assertThat(categoriaRepository.findAll()).extracting(Categoria::getNomeCategoria)
+            .contains("Categoria renomeada");
+    }
+
+    @Test
+    void emprestimosSaemEmUmaConsultaComOuSemCache() {
+        assertThat(comandos(this::emprestimos)).isEqualTo(1);
+        assertThat(comandos(this::emprestimos)).isEqualTo(1);
+    }
+
+    /**
+     * Usuários lidos sem o grafo Usuario.grupo; o grupo de cada um é
+     * inicializado depois, em lote
+     */
+    private List<String> gruposDosUsuarios() {
+        return transactionTemplate.execute(status -> usuarioRepository.findAll(Sort.by("idUsuario")).stream()
+            .map(usuario -> usuario.getGrupo().getNomeGrupo())
+            .toList());
+    }
+
+    private List<String> categoriasDasObras() {
+        return transactionTemplate.execute(status -> obraRepository.findAll().stream()
+            .map(obra -> obra.getCategoria().getNomeCategoria())
+            .toList());
+    }
+
+    private List<EmprestimoDTO> emprestimos() {
+        List<EmprestimoDTO> emprestimos = emprestimoController.listarTodos().getBody();
+        assertThat(emprestimos).hasSize(EMPRESTIMOS);
+        assertThat(emprestimos).allSatisfy(emprestimo -> {
+            assertThat(emprestimo.getNomeUsuario()).isNotNull();
+            assertThat(emprestimo.getTituloObra()).isNotNull();
+        });
+        return emprestimos;
+    }
+
+    private long comandos(Supplier<?> chamada) {
+        contador.zerar();
+        chamada.get();
+        return contador.comandos();
+    }
+
+    private long acertos(String regiao) {
+        return contador.getEstatisticas().getDomainDataRegionStatistics(regiao).getHitCount();
+    }
+
+    /**
+     * Acervo com duas categorias e um autor por obra; os empréstimos são de
+     * usuários de dois grupos
+     */
+    @BeforeAll
+    void cadastrar() {
+        transactionTemplate.executeWithoutResult(status -> {
+            DadosTeste dados = new DadosTeste(entityManager);
+            List<Categoria> categorias = List.of(dados.categoria("CAT-1"), dados.categoria("CAT-2"));
+            List<GrupoUsuario> grupos = List.of(dados.grupo("GRP-1", 1), dados.grupo("GRP-2", 2));
+            for (int i = 0; i < OBRAS; i++) {
+                Obra obra = dados.obra(String.format("OBR-%05d", i), categorias.get(i % CATEGORIAS),
+                    dados.autor("AUT-" + i));
+                Exemplar exemplar = dados.exemplar(String.format("EXE-%05d", i), obra);
+                if (i < EMPRESTIMOS) {
+                    Usuario usuario = dados.usuario(String.format("USR-%05d", i), grupos.get(i % GRUPOS));
+                    dados.emprestimo(String.format("EMP-%05d", i), exemplar, usuario);
+                }
+            }
+        });
+    }
+
+    @AfterAll
+    void apagar() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (String tabela : List.of("emprestimos", "exemplares", "obras_autores", "obras", "autores",
+                    "categorias", "usuarios", "grupos_usuarios")) {
+                entityManager.createNativeQuery("DELETE FROM " + tabela).executeUpdate();
+            }
+        });
+    }
+}
@@ -0,0 +1,124 @@
+package br.com.biblioimperial.controller;
+
+import br.com.biblioimperial.ContadorSql;
+import br.com.biblioimperial.DadosTeste;
+import br.com.biblioimperial.TesteJpa;
+import br.com.biblioimperial.dto.EmprestimoDTO;
+import br.com.biblioimperial.dto.PaginaDTO;
+import br.com.biblioimperial.model.mysql.Obra;
+import br.com.biblioimperial.model.mysql.Usuario;
+import br.com.biblioimperial.repository.mysql.EmprestimoRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comandos SQL por endpoint de /api/emprestimos: o grafo Emprestimo.resumo
+ * traz exemplar, obra e usuário na mesma consulta, então listas e detalhe
+ * saem em um comando, sem uma ida ao banco por empréstimo
+ */
+@TesteJpa
+class EmprestimoControllerTest {
+
+    private static final int EMPRESTIMOS = 10;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EmprestimoRepository emprestimoRepository;
+
+    private ContadorSql contador;
+    private EmprestimoController controller;
+
+    @BeforeEach
+    void preparar() {
+        contador = new ContadorSql(entityManagerFactory);
+        controller = new EmprestimoController();
+        ReflectionTestUtils.setField(controller, "emprestimoRepository", emprestimoRepository);
+        cadastrar();
+    }
+
+    @Test
+    void listagemSaiEmUmComando() {
+        assertThat(comandos(() -> {
+            List<EmprestimoDTO> emprestimos = controller.listarTodos().getBody();
+            assertThat(emprestimos).hasSize(EMPRESTIMOS).allSatisfy(this::completo);
+            return emprestimos;
+        })).isEqualTo(1);
+    }
+
+    @Test
+    void paginaSaiEmUmComando() {
+        assertThat(comandos(() -> {
+            PaginaDTO<?> pagina = (PaginaDTO<?>) controller.listarPagina(null, EMPRESTIMOS / 2).getBody();
+            assertThat(pagina.getItens()).hasSize(EMPRESTIMOS / 2);
+            return pagina;
+        })).isEqualTo(1);
+    }
+
+    @Test
+    void ativosSaemEmUmComando() {
+        assertThat(comandos(() -> {
+            List<EmprestimoDTO> emprestimos = controller.listarAtivos().getBody();
+            assertThat(emprestimos).hasSize(EMPRESTIMOS).allSatisfy(this::completo);
+            return emprestimos;
+        })).isEqualTo(1);
+    }
+
+    @Test
+    void emprestimosDoUsuarioSaemEmUmComando() {
+        assertThat(comandos(() -> {
+            List<EmprestimoDTO> emprestimos = controller.listarPorUsuario("USR-00003").getBody();
+            assertThat(emprestimos).hasSize(1).allSatisfy(this::completo);
+            return emprestimos;
+        })).isEqualTo(1);
+    }
+
+    @Test
+    void detalheSaiEmUmComando() {
+        assertThat(comandos(() -> {
+            EmprestimoDTO emprestimo = controller.buscarPorId("EMP-00003").getBody();
+            completo(emprestimo);
+            return emprestimo;
+        })).isEqualTo(1);
+    }
+
+    private void completo(EmprestimoDTO emprestimo) {
+        assertThat(emprestimo.getTituloObra()).isNotNull();
+        assertThat(emprestimo.getNomeUsuario()).isNotNull();
+    }
+
+    private long comandos(Supplier<?> chamada) {
+        contador.zerar();
+        chamada.get();
+        return contador.comandos();
+    }
+
+    /**
+     * Cada empréstimo com obra, categoria, usuário e grupo próprios, para
+     * que uma carga por associação apareça na contagem
+     */
+    private void cadastrar() {
+        DadosTeste dados = new DadosTeste(entityManager);
+        for (int i = 0; i < EMPRESTIMOS; i++) {
+            Obra obra = dados.obra(String.format("OBR-%05d", i),
+                dados.categoria("CAT-" + i), dados.autor("AUT-" + i));
+            Usuario usuario = dados.usuario(String.format("USR-%05d", i), dados.grupo("GRP-" + i, 1));
+            dados.emprestimo(String.format("EMP-%05d", i),
+                dados.exemplar(String.format("EXE-%05d", i), obra), usuario);
+        }
+        dados.gravar();
+    }
+}
@@ -0,0 +1,108 @@
+package br.com.biblioimperial.controller;
+
+import br.com.biblioimperial.ContadorSql;
+import br.com.biblioimperial.DadosTeste;
+import br.com.biblioimperial.TesteJpa;
+import br.com.biblioimperial.dto.ExemplarDTO;
+import br.com.biblioimperial.dto.PaginaDTO;
+import br.com.biblioimperial.model.mysql.Obra;
+import br.com.biblioimperial.repository.mysql.ExemplarRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comandos SQL por endpoint de /api/exemplares: o grafo Exemplar.obra traz
+ * a obra junto, e a categoria, que o ExemplarDTO não usa, fica de fora
+ */
+@TesteJpa
+class ExemplarControllerTest {
+
+    private static final int OBRAS = 5;
+    private static final int EXEMPLARES_POR_OBRA = 2;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ExemplarRepository exemplarRepository;
+
+    private ContadorSql contador;
+    private ExemplarController controller;
+
+    @BeforeEach
+    void preparar() {
+        contador = new ContadorSql(entityManagerFactory);
+        controller = new ExemplarController();
+        ReflectionTestUtils.setField(controller, "exemplarRepository", exemplarRepository);
+        cadastrar();
+    }
+
+    @Test
+    void listagemSaiEmUmComando() {
+        assertThat(comandos(() -> {
+            List<ExemplarDTO> exemplares = controller.listarTodos().getBody();
+            assertThat(exemplares).hasSize(OBRAS * EXEMPLARES_POR_OBRA)
+                .allSatisfy(exemplar -> assertThat(exemplar.getTituloObra()).isNotNull());
+            return exemplares;
+        })).isEqualTo(1);
+    }
+
+    @Test
+    void paginaSaiEmUmComando() {
+        assertThat(comandos(() -> {
+            PaginaDTO<ExemplarDTO> pagina = controller.listarPagina(null, OBRAS).getBody();
+            assertThat(pagina.getItens()).hasSize(OBRAS);
+            return pagina;
+        })).isEqualTo(1);
+    }
+
+    @Test
+    void exemplaresDaObraSaemEmUmComando() {
+        assertThat(comandos(() -> {
+            List<ExemplarDTO> exemplares = controller.listarPorObra("OBR-00002").getBody();
+            assertThat(exemplares).hasSize(EXEMPLARES_POR_OBRA);
+            return exemplares;
+        })).isEqualTo(1);
+
+        assertThat(comandos(() -> controller.listarDisponiveisPorObra("OBR-00002").getBody())).isEqualTo(1);
+    }
+
+    @Test
+    void detalheSaiEmUmComando() {
+        assertThat(comandos(() -> {
+            ExemplarDTO exemplar = controller.buscarPorId("EXE-00002-1").getBody();
+            assertThat(exemplar.getTituloObra()).isEqualTo("Obra OBR-00002");
+            return exemplar;
+        })).isEqualTo(1);
+    }
+
+    private long comandos(Supplier<?> chamada) {
+        contador.zerar();
+        chamada.get();
+        return contador.comandos();
+    }
+
+    private void cadastrar() {
+        DadosTeste dados = new DadosTeste(entityManager);
+        for (int i = 0; i < OBRAS; i++) {
+            Obra obra = dados.obra(String.format("OBR-%05d", i),
+                dados.categoria("CAT-" + i), dados.autor("AUT-" + i));
+            for (int e = 0; e < EXEMPLARES_POR_OBRA; e++) {
+                dados.exemplar(obra.getIdObra().replace("OBR", "EXE") + "-" + e, obra);
+            }
+        }
+        dados.gravar();
+    }
+}
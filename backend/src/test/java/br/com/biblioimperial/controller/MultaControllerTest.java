@@ -0,0 +1,126 @@
+package br.com.biblioimperial.controller;
+
+import br.com.biblioimperial.ContadorSql;
+import br.com.biblioimperial.DadosTeste;
+import br.com.biblioimperial.TesteJpa;
+import br.com.biblioimperial.dto.MultaDTO;
+import br.com.biblioimperial.dto.PaginaDTO;
+import br.com.biblioimperial.model.mysql.Obra;
+import br.com.biblioimperial.model.mysql.Usuario;
+import br.com.biblioimperial.repository.mysql.MultaRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comandos SQL por endpoint de /api/multas: o grafo Multa.usuario traz o
+ * usuário, e do empréstimo o MultaDTO só lê o id, sem carregar a cadeia
+ * empréstimo, exemplar, obra e categoria
+ */
+@TesteJpa
+class MultaControllerTest {
+
+    private static final int MULTAS = 10;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MultaRepository multaRepository;
+
+    private ContadorSql contador;
+    private MultaController controller;
+
+    @BeforeEach
+    void preparar() {
+        contador = new ContadorSql(entityManagerFactory);
+        controller = new MultaController();
+        ReflectionTestUtils.setField(controller, "multaRepository", multaRepository);
+        cadastrar();
+    }
+
+    @Test
+    void listagemSaiEmUmComando() {
+        assertThat(comandos(() -> {
+            List<MultaDTO> multas = controller.listarTodas().getBody();
+            assertThat(multas).hasSize(MULTAS).allSatisfy(this::completa);
+            return multas;
+        })).isEqualTo(1);
+    }
+
+    @Test
+    void paginaSaiEmUmComando() {
+        assertThat(comandos(() -> {
+            PaginaDTO<MultaDTO> pagina = controller.listarPagina(null, MULTAS / 2).getBody();
+            assertThat(pagina.getItens()).hasSize(MULTAS / 2);
+            return pagina;
+        })).isEqualTo(1);
+    }
+
+    @Test
+    void pendentesSaemEmUmComando() {
+        assertThat(comandos(() -> {
+            List<MultaDTO> multas = controller.listarPendentes().getBody();
+            assertThat(multas).hasSize(MULTAS).allSatisfy(this::completa);
+            return multas;
+        })).isEqualTo(1);
+    }
+
+    @Test
+    void multasDoUsuarioSaemEmUmComando() {
+        assertThat(comandos(() -> {
+            List<MultaDTO> multas = controller.listarPorUsuario("USR-00003").getBody();
+            assertThat(multas).hasSize(1).allSatisfy(this::completa);
+            return multas;
+        })).isEqualTo(1);
+
+        assertThat(comandos(() -> controller.listarPendentesPorUsuario("USR-00003").getBody())).isEqualTo(1);
+    }
+
+    @Test
+    void detalheSaiEmUmComando() {
+        assertThat(comandos(() -> {
+            MultaDTO multa = controller.buscarPorId("MUL-00003").getBody();
+            completa(multa);
+            assertThat(multa.getIdEmprestimo()).isEqualTo("EMP-00003");
+            return multa;
+        })).isEqualTo(1);
+    }
+
+    private void completa(MultaDTO multa) {
+        assertThat(multa.getNomeUsuario()).isNotNull();
+        assertThat(multa.getIdEmprestimo()).isNotNull();
+    }
+
+    private long comandos(Supplier<?> chamada) {
+        contador.zerar();
+        chamada.get();
+        return contador.comandos();
+    }
+
+    /**
+     * Uma multa por empréstimo, cada um com obra, usuário e grupo próprios
+     */
+    private void cadastrar() {
+        DadosTeste dados = new DadosTeste(entityManager);
+        for (int i = 0; i < MULTAS; i++) {
+            Obra obra = dados.obra(String.format("OBR-%05d", i),
+                dados.categoria("CAT-" + i), dados.autor("AUT-" + i));
+            Usuario usuario = dados.usuario(String.format("USR-%05d", i), dados.grupo("GRP-" + i, 1));
+            dados.multa(String.format("MUL-%05d", i), dados.emprestimo(String.format("EMP-%05d", i),
+                dados.exemplar(String.format("EXE-%05d", i), obra), usuario));
+        }
+        dados.gravar();
+    }
+}
@@ -0,0 +1,116 @@
+package br.com.biblioimperial.controller;
+
+import br.com.biblioimperial.ContadorSql;
+import br.com.biblioimperial.DadosTeste;
+import br.com.biblioimperial.TesteJpa;
+import br.com.biblioimperial.dto.ObraDTO;
+import br.com.biblioimperial.model.mysql.Autor;
+import br.com.biblioimperial.model.mysql.Categoria;
+import br.com.biblioimperial.model.mysql.Obra;
+import br.com.biblioimperial.service.BuscaObrasService;
+import br.com.biblioimperial.service.ObraService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * O catálogo (GET /api/obras) deve sair com um número fixo de consultas,
+ * qualquer que seja o tamanho do acervo; o detalhe (GET /api/obras/{id})
+ * sai em um comando, com categoria e autores pelo grafo Obra.detalhe
+ */
+@TesteJpa
+@Import(ObraService.class)
+class ObraControllerTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObraService obraService;
+
+    @MockBean
+    private BuscaObrasService buscaObrasService;
+
+    private DadosTeste dados;
+    private ContadorSql contador;
+    private ObraController controller;
+
+    @BeforeEach
+    void preparar() {
+        dados = new DadosTeste(entityManager);
+        contador = new ContadorSql(entityManagerFactory);
+        controller = new ObraController(obraService, null, null);
+    }
+
+    @Test
+    void catalogoUsaDuasConsultasComPoucasOuMuitasObras() {
+        cadastrarAcervo(0, 5);
+        assertThat(consultasDoCatalogo()).isEqualTo(2);
+
+        cadastrarAcervo(5, 200);
+        assertThat(consultasDoCatalogo()).isEqualTo(2);
+    }
+
+    @Test
+    void catalogoTrazContagemDeExemplaresEAutores() {
+        cadastrarAcervo(0, 10);
+
+        List<ObraDTO> catalogo = controller.listarTodas().getBody();
+
+        assertThat(catalogo).hasSize(10);
+        assertThat(catalogo).allSatisfy(obra -> {
+            assertThat(obra.getTotalExemplares()).isEqualTo(3);
+            assertThat(obra.getAutores()).hasSize(2);
+            assertThat(obra.getCategoria().getIdCategoria()).isEqualTo("CAT-1");
+        });
+    }
+
+    @Test
+    void detalheSaiEmUmComandoContandoOJson() throws Exception {
+        cadastrarAcervo(0, 3);
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+        contador.zerar();
+        String json = objectMapper.writeValueAsString(controller.buscarPorId("OBR-00001").getBody());
+
+        assertThat(contador.comandos()).isEqualTo(1);
+        assertThat(json).contains("\"nomeCategoria\"", "AUT-1", "AUT-C1");
+    }
+
+    private long consultasDoCatalogo() {
+        contador.zerar();
+        List<ObraDTO> catalogo = controller.listarTodas().getBody();
+        assertThat(catalogo).isNotEmpty();
+        return contador.comandos();
+    }
+
+    /**
+     * Obras [inicio, fim), cada uma com dois autores e três exemplares
+     */
+    private void cadastrarAcervo(int inicio, int fim) {
+        Categoria categoria = inicio == 0
+            ? dados.categoria("CAT-1")
+            : entityManager.find(Categoria.class, "CAT-1");
+        for (int i = inicio; i < fim; i++) {
+            Autor principal = dados.autor("AUT-" + i);
+            Autor coautor = dados.autor("AUT-C" + i);
+            Obra obra = dados.obra(String.format("OBR-%05d", i), categoria, principal, coautor);
+            for (int e = 0; e < 3; e++) {
+                dados.exemplar(obra.getIdObra() + "-" + e, obra);
+            }
+        }
+        dados.gravar();
+    }
+}
@@ -0,0 +1,121 @@
+package br.com.biblioimperial.controller;
+
+import br.com.biblioimperial.ContadorSql;
+import br.com.biblioimperial.DadosTeste;
+import br.com.biblioimperial.TesteJpa;
+import br.com.biblioimperial.repository.mysql.UsuarioRepository;
+import br.com.biblioimperial.service.ExportacaoNdjsonService;
+import br.com.biblioimperial.service.UsuarioService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comandos SQL por endpoint de /api/usuarios, contando a serialização da
+ * resposta: o grupo vem junto pelo grafo Usuario.grupo em vez de uma carga
+ * por usuário durante o JSON. A página e a exportação devolvem UsuarioDTO,
+ * sem o hash da senha
+ */
+@TesteJpa
+class UsuarioControllerTest {
+
+    private static final int USUARIOS = 10;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private ContadorSql contador;
+    private UsuarioController controller;
+
+    @BeforeEach
+    void preparar() {
+        contador = new ContadorSql(entityManagerFactory);
+        // Só leituras: o codificador de senhas e os eventos não são usados
+        controller = new UsuarioController(new UsuarioService(usuarioRepository, null, null),
+            new ExportacaoNdjsonService(objectMapper, transactionManager, entityManager));
+        cadastrar();
+    }
+
+    @Test
+    void listagemSaiEmUmComando() {
+        assertThat(comandos(() -> json(controller.listarTodos()))).isEqualTo(1);
+    }
+
+    @Test
+    void paginaSaiEmUmComando() {
+        assertThat(comandos(() -> json(controller.listarPagina(null, USUARIOS / 2)))).isEqualTo(1);
+    }
+
+    @Test
+    void paginaEExportacaoNaoLevamOHashDaSenha() throws IOException {
+        assertThat(json(controller.listarPagina(null, USUARIOS))).doesNotContain("senhaHash");
+
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        controller.exportar().getBody().writeTo(saida);
+        String ndjson = saida.toString(StandardCharsets.UTF_8);
+        assertThat(ndjson.lines()).hasSize(USUARIOS);
+        assertThat(ndjson).contains("\"nomeGrupo\"").doesNotContain("senhaHash");
+    }
+
+    @Test
+    void ativosSaemEmUmComando() {
+        assertThat(comandos(() -> json(controller.listarAtivos()))).isEqualTo(1);
+    }
+
+    @Test
+    void detalheSaiEmUmComando() {
+        assertThat(comandos(() -> json(controller.buscarPorId("USR-00003")))).isEqualTo(1);
+        assertThat(comandos(() -> json(controller.buscarPorEmail("usr-00003@biblioimp.org")))).isEqualTo(1);
+    }
+
+    /**
+     * Corpo da resposta em JSON, que precisa trazer o grupo do usuário
+     */
+    private String json(ResponseEntity<?> resposta) {
+        try {
+            String json = objectMapper.writeValueAsString(resposta.getBody());
+            assertThat(json).contains("\"nomeGrupo\"");
+            return json;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long comandos(Supplier<?> chamada) {
+        contador.zerar();
+        chamada.get();
+        return contador.comandos();
+    }
+
+    private void cadastrar() {
+        DadosTeste dados = new DadosTeste(entityManager);
+        for (int i = 0; i < USUARIOS; i++) {
+            dados.usuario(String.format("USR-%05d", i), dados.grupo("GRP-" + i, 1));
+        }
+        dados.gravar();
+    }
+}
@@ -0,0 +1,128 @@
+package br.com.biblioimperial.security;
+
+import br.com.biblioimperial.ContadorSql;
+import br.com.biblioimperial.DadosTeste;
+import br.com.biblioimperial.TesteJpa;
+import br.com.biblioimperial.event.UsuarioEvento;
+import br.com.biblioimperial.model.mysql.GrupoUsuario;
+import br.com.biblioimperial.model.mysql.Usuario;
+import br.com.biblioimperial.repository.mysql.UsuarioRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cache de credenciais por e-mail: a segunda autenticação do mesmo usuário
+ * não vai ao banco, um UsuarioEvento descarta a entrada, inclusive a de uma
+ * leitura em andamento, e o cache cheio descarta o e-mail usado há mais tempo
+ */
+@TesteJpa
+@Import(CustomUserDetailsService.class)
+class CustomUserDetailsServiceTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private CustomUserDetailsService service;
+
+    private ContadorSql contador;
+    private DadosTeste dados;
+    private GrupoUsuario grupo;
+    private Usuario usuario;
+
+    @BeforeEach
+    void preparar() {
+        contador = new ContadorSql(entityManagerFactory);
+        dados = new DadosTeste(entityManager);
+        grupo = dados.grupo("GRP-1", 1);
+        usuario = dados.usuario("USR-00001", grupo);
+        dados.gravar();
+        service.aoAlterarUsuario(new UsuarioEvento(usuario.getIdUsuario()));
+    }
+
+    @Test
+    void segundaAutenticacaoNaoVaiAoBanco() {
+        contador.zerar();
+        service.loadUserByUsername(usuario.getEmail());
+        assertThat(contador.comandos()).isEqualTo(1);
+
+        contador.zerar();
+        assertThat(service.loadUserByUsername(usuario.getEmail()).getPassword()).isEqualTo(usuario.getSenhaHash());
+        assertThat(contador.comandos()).isZero();
+    }
+
+    @Test
+    void alteracaoDoUsuarioDescartaAsCredenciais() {
+        service.loadUserByUsername(usuario.getEmail());
+
+        entityManager.find(Usuario.class, usuario.getIdUsuario()).setAtivo(false);
+        entityManager.flush();
+        service.aoAlterarUsuario(new UsuarioEvento(usuario.getIdUsuario()));
+
+        assertThatThrownBy(() -> service.loadUserByUsername(usuario.getEmail()))
+            .isInstanceOf(UsernameNotFoundException.class)
+            .hasMessageContaining("inativo");
+    }
+
+    @Test
+    void alteracaoDuranteALeituraNaoDeixaCredenciaisVencidasNoCache() {
+        UsuarioRepository repositorio = mock(UsuarioRepository.class);
+        CustomUserDetailsService servico = new CustomUserDetailsService(repositorio, 300_000, 10);
+        AtomicBoolean primeira = new AtomicBoolean(true);
+        when(repositorio.findByEmail(anyString())).thenAnswer(chamada -> {
+            // O UsuarioService confirma uma alteração enquanto a consulta ainda está no banco
+            if (primeira.getAndSet(false)) {
+                servico.aoAlterarUsuario(new UsuarioEvento(usuario.getIdUsuario()));
+            }
+            return usuarioRepository.findByEmail(chamada.getArgument(0));
+        });
+
+        servico.loadUserByUsername(usuario.getEmail());
+        servico.loadUserByUsername(usuario.getEmail());
+        servico.loadUserByUsername(usuario.getEmail());
+
+        verify(repositorio, times(2)).findByEmail(usuario.getEmail());
+    }
+
+    @Test
+    void cacheCheioDescartaOEmailUsadoHaMaisTempo() {
+        Usuario segundo = dados.usuario("USR-00002", grupo);
+        Usuario terceiro = dados.usuario("USR-00003", grupo);
+        dados.gravar();
+        CustomUserDetailsService servico = new CustomUserDetailsService(usuarioRepository, 300_000, 2);
+
+        servico.loadUserByUsername(usuario.getEmail());
+        servico.loadUserByUsername(segundo.getEmail());
+        servico.loadUserByUsername(usuario.getEmail());
+        servico.loadUserByUsername(terceiro.getEmail());
+
+        contador.zerar();
+        servico.loadUserByUsername(usuario.getEmail());
+        servico.loadUserByUsername(terceiro.getEmail());
+        assertThat(contador.comandos()).isZero();
+
+        servico.loadUserByUsername(segundo.getEmail());
+        assertThat(contador.comandos()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,76 @@
+package br.com.biblioimperial.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Emissão e verificação dos tokens, sem contexto Spring: a verificação só
+ * confere a assinatura, a validade e o tipo do token
+ */
+class JwtServiceTest {
+
+    private static final String SEGREDO = "segredo-de-teste-com-pelo-menos-32-bytes";
+
+    private final JwtService jwtService = new JwtService(SEGREDO, 15, 168);
+
+    private final CustomUserDetailsService.Credenciais credenciais = new CustomUserDetailsService.Credenciais(
+        "USR-00001", "usr-00001@biblioimp.org", "Usuário USR-00001", "$2a$10$hash-de-teste",
+        true, "Bibliotecário", 2);
+
+    @Test
+    void tokenDeAcessoLevaGrupoENivel() {
+        UsuarioAutenticado usuario = jwtService.validarTokenAcesso(jwtService.gerarTokenAcesso(credenciais))
+            .orElseThrow();
+
+        assertThat(usuario.idUsuario()).isEqualTo("USR-00001");
+        assertThat(usuario.email()).isEqualTo("usr-00001@biblioimp.org");
+        assertThat(usuario.papel()).isEqualTo("ROLE_BIBLIOTECÁRIO");
+        assertThat(usuario.nivelAcesso()).isEqualTo(2);
+    }
+
+    @Test
+    void tokenDeOutraChaveOuAlteradoNaoVale() {
+        String token = jwtService.gerarTokenAcesso(credenciais);
+        JwtService outraChave = new JwtService("outro-segredo-de-teste-com-32-bytes-ou-mais", 15, 168);
+
+        // Claims com nível de acesso maior e a assinatura do token original
+        CustomUserDetailsService.Credenciais administrador = new CustomUserDetailsService.Credenciais(
+            credenciais.idUsuario(), credenciais.email(), credenciais.nomeCompleto(), credenciais.senhaHash(),
+            true, "Administrador", 5);
+        String[] partes = token.split("\\.");
+        String alterado = partes[0] + "." + outraChave.gerarTokenAcesso(administrador).split("\\.")[1]
+            + "." + partes[2];
+
+        assertThat(outraChave.validarTokenAcesso(token)).isEmpty();
+        assertThat(jwtService.validarTokenAcesso(alterado)).isEmpty();
+        assertThat(jwtService.validarTokenAcesso("")).isEmpty();
+    }
+
+    @Test
+    void tokensNaoServemUmNoLugarDoOutro() {
+        String acesso = jwtService.gerarTokenAcesso(credenciais);
+        String renovacao = jwtService.gerarTokenRenovacao(credenciais);
+
+        assertThat(jwtService.validarTokenAcesso(renovacao)).isEmpty();
+        assertThat(jwtService.validarTokenRenovacao(acesso, credenciais)).isEmpty();
+        assertThat(jwtService.validarTokenRenovacao(renovacao, credenciais)).contains(credenciais.email());
+    }
+
+    @Test
+    void trocaDeSenhaInvalidaARenovacao() {
+        String renovacao = jwtService.gerarTokenRenovacao(credenciais);
+        CustomUserDetailsService.Credenciais senhaNova = new CustomUserDetailsService.Credenciais(
+            credenciais.idUsuario(), credenciais.email(), credenciais.nomeCompleto(), "$2a$10$outro-hash",
+            true, credenciais.nomeGrupo(), credenciais.nivelAcesso());
+
+        assertThat(jwtService.validarTokenRenovacao(renovacao, senhaNova)).isEmpty();
+    }
+
+    @Test
+    void segredoCurtoEhRecusado() {
+        assertThatThrownBy(() -> new JwtService("curto", 15, 168))
+            .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,51 @@
+package br.com.biblioimperial.service;
+
+import br.com.biblioimperial.dto.PaginaDTO;
+import br.com.biblioimperial.repository.mysql.AutorRepository;
+import br.com.biblioimperial.repository.mysql.CategoriaRepository;
+import br.com.biblioimperial.repository.mysql.ObraRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A montagem do painel deve falhar assim que uma consulta falha, sem esperar
+ * as consultas lentas
+ */
+class DashboardServiceTest {
+
+    @Test
+    void repassaAPrimeiraFalhaSemEsperarAsDemaisConsultas() throws Exception {
+        CountDownLatch interrompida = new CountDownLatch(1);
+        EstatisticasService estatisticas = mock(EstatisticasService.class);
+        when(estatisticas.obterEstatisticas()).thenAnswer(invocacao -> {
+            try {
+                Thread.sleep(Duration.ofSeconds(30));
+            } catch (InterruptedException e) {
+                interrompida.countDown();
+                throw e;
+            }
+            return null;
+        });
+        ObraService obras = mock(ObraService.class);
+        when(obras.listarPaginaCatalogo(null, PaginaDTO.LIMITE_PADRAO)).thenThrow(new IllegalStateException("banco fora do ar"));
+
+        DashboardService service = new DashboardService(estatisticas, mock(UsuarioService.class), obras,
+            mock(RankingObrasService.class), mock(AnaliseConsultasService.class), mock(AutorRepository.class),
+            mock(CategoriaRepository.class), mock(ObraRepository.class));
+
+        long inicio = System.nanoTime();
+        assertThatThrownBy(service::montar)
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("banco fora do ar");
+        assertThat(Duration.ofNanos(System.nanoTime() - inicio)).isLessThan(Duration.ofSeconds(5));
+        assertThat(interrompida.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+}
@@ -0,0 +1,132 @@
+package br.com.biblioimperial.service;
+
+import br.com.biblioimperial.DadosTeste;
+import br.com.biblioimperial.TesteJpa;
+import br.com.biblioimperial.model.mysql.Categoria;
+import br.com.biblioimperial.model.mysql.Exemplar;
+import br.com.biblioimperial.model.mysql.GrupoUsuario;
+import br.com.biblioimperial.model.mysql.Obra;
+import br.com.biblioimperial.repository.mysql.EmprestimoRepository;
+import br.com.biblioimperial.repository.mysql.ExemplarRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Teste de estresse do empréstimo: pedidos simultâneos disputando os mesmos
+ * exemplares (dez pedidos por exemplar) nunca emprestam um exemplar duas
+ * vezes, e os pedidos recusados recebem ExemplarIndisponivelException
+ */
+@TesteJpa
+@Import(EmprestimoService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EmprestimoServiceConcorrenciaTest {
+
+    private static final int EXEMPLARES = 50;
+    private static final int PEDIDOS = 500;
+    private static final int USUARIOS = 50;
+
+    @Autowired
+    private EmprestimoService emprestimoService;
+
+    @Autowired
+    private EmprestimoRepository emprestimoRepository;
+
+    @Autowired
+    private ExemplarRepository exemplarRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void emprestimosSimultaneosNuncaEmprestamOMesmoExemplarDuasVezes() throws Exception {
+        cadastrar();
+
+        AtomicInteger realizados = new AtomicInteger();
+        AtomicInteger indisponiveis = new AtomicInteger();
+        Map<String, Integer> outrasFalhas = new ConcurrentHashMap<>();
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<?>> pedidos = new ArrayList<>(PEDIDOS);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < PEDIDOS; i++) {
+                String idExemplar = idExemplar(i % EXEMPLARES);
+                String idUsuario = idUsuario(i % USUARIOS);
+                pedidos.add(executor.submit(() -> {
+                    largada.await();
+                    try {
+                        emprestimoService.realizarEmprestimo(idExemplar, idUsuario, 14);
+                        realizados.incrementAndGet();
+                    } catch (ExemplarIndisponivelException e) {
+                        indisponiveis.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        outrasFalhas.merge(e.getClass().getSimpleName() + ": " + e.getMessage(), 1, Integer::sum);
+                    }
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> pedido : pedidos) {
+                pedido.get();
+            }
+        }
+
+        assertThat(outrasFalhas).isEmpty();
+        assertThat(realizados.get()).isEqualTo(EXEMPLARES);
+        assertThat(indisponiveis.get()).isEqualTo(PEDIDOS - EXEMPLARES);
+
+        // Um empréstimo por exemplar no banco e nenhum exemplar ainda disponível
+        Map<String, Long> emprestimosPorExemplar = transactionTemplate.execute(status ->
+            emprestimoRepository.findAll().stream()
+                .collect(Collectors.groupingBy(e -> e.getExemplar().getIdExemplar(), Collectors.counting())));
+        assertThat(emprestimosPorExemplar).hasSize(EXEMPLARES);
+        assertThat(emprestimosPorExemplar.values()).containsOnly(1L);
+        assertThat(exemplarRepository.findAll()).extracting(Exemplar::getDisponivel).containsOnly(false);
+    }
+
+    private void cadastrar() {
+        transactionTemplate.executeWithoutResult(status -> {
+            DadosTeste dados = new DadosTeste(entityManager);
+            GrupoUsuario grupo = dados.grupo("GRP-1", 1);
+            for (int i = 0; i < USUARIOS; i++) {
+                dados.usuario(idUsuario(i), grupo);
+            }
+            Categoria categoria = dados.categoria("CAT-1");
+            Obra obra = null;
+            for (int i = 0; i < EXEMPLARES; i++) {
+                if (i % 10 == 0) {
+                    obra = dados.obra(String.format("OBR-%05d", i / 10), categoria, dados.autor("AUT-" + i));
+                }
+                dados.exemplar(idExemplar(i), obra);
+            }
+        });
+    }
+
+    private static String idExemplar(int i) {
+        return String.format("EXE-%05d", i);
+    }
+
+    private static String idUsuario(int i) {
+        return String.format("USR-%05d", i);
+    }
+}
@@ -0,0 +1,54 @@
+package br.com.biblioimperial.service;
+
+import br.com.biblioimperial.dto.UsuarioAtivoDTO;
+import br.com.biblioimperial.event.EmprestimoEvento;
+import br.com.biblioimperial.model.mysql.Emprestimo;
+import br.com.biblioimperial.repository.mysql.EmprestimoRepository;
+import br.com.biblioimperial.repository.mysql.UsuarioRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Empréstimos criados enquanto a reconciliação lê a tabela entram no
+ * ranking uma vez só: os que a foto já contou não são somados de novo, e os
+ * que ela não viu não se perdem na troca dos baldes
+ */
+class RankingUsuariosServiceTest {
+
+    @Test
+    void emprestimosCriadosDuranteAReconciliacaoNaoSePerdemNemContamDuasVezes() {
+        EmprestimoRepository emprestimoRepository = mock(EmprestimoRepository.class);
+        RankingUsuariosService service = new RankingUsuariosService(emprestimoRepository,
+            mock(UsuarioRepository.class), mock(PlatformTransactionManager.class));
+        when(emprestimoRepository.contarPorUsuarioEDiaDesde(any())).thenAnswer(invocacao -> {
+            // EMP-1 entrou na foto, mas o evento chega depois; EMP-2 foi confirmado após a leitura
+            service.aoAlterarEmprestimo(criado("EMP-1", "USR-1"));
+            service.aoAlterarEmprestimo(criado("EMP-2", "USR-2"));
+            return List.<Object[]>of(new Object[] {"USR-1", java.sql.Date.valueOf(LocalDate.now()), 1L});
+        });
+        when(emprestimoRepository.listarExistentes(any())).thenReturn(List.of("EMP-1"));
+
+        service.reconciliar();
+
+        assertThat(service.obterMaisAtivos(7, 10))
+            .extracting(UsuarioAtivoDTO::getIdUsuario, UsuarioAtivoDTO::getTotalEmprestimos)
+            .containsExactlyInAnyOrder(
+                tuple("USR-1", 1L),
+                tuple("USR-2", 1L));
+    }
+
+    private EmprestimoEvento criado(String idEmprestimo, String idUsuario) {
+        return new EmprestimoEvento(idEmprestimo, idUsuario, "OBR-1", null,
+            Emprestimo.StatusEmprestimo.ATIVO, LocalDateTime.now());
+    }
+}
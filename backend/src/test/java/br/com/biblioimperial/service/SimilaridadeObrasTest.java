@@ -0,0 +1,43 @@
+package br.com.biblioimperial.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Com os vetores de trabalho reaproveitados entre as folhas, o resultado em
+ * paralelo deve ser o mesmo do cálculo em uma só thread
+ */
+class SimilaridadeObrasTest {
+
+    @Test
+    void calculoParaleloIgualAoSequencial() {
+        int totalObras = 2_000;
+        int[][] obrasPorUsuario = new int[5_000][];
+        Random aleatorio = new Random(42);
+        for (int usuario = 0; usuario < obrasPorUsuario.length; usuario++) {
+            obrasPorUsuario[usuario] = aleatorio.ints(0, totalObras)
+                .distinct()
+                .limit(1 + aleatorio.nextInt(20))
+                .sorted()
+                .toArray();
+        }
+
+        ForkJoinPool sequencial = new ForkJoinPool(1);
+        ForkJoinPool paralelo = new ForkJoinPool(8);
+        try {
+            SimilaridadeObras esperado = SimilaridadeObras.calcular(obrasPorUsuario, totalObras, 20, sequencial);
+            SimilaridadeObras obtido = SimilaridadeObras.calcular(obrasPorUsuario, totalObras, 20, paralelo);
+            for (int obra = 0; obra < totalObras; obra++) {
+                assertThat(obtido.pesos(obra)).as("obra %d", obra).containsExactly(esperado.pesos(obra));
+                assertThat(obtido.vizinhos(obra)).as("obra %d", obra).hasSameSizeAs(esperado.vizinhos(obra));
+            }
+        } finally {
+            sequencial.shutdown();
+            paralelo.shutdown();
+        }
+    }
+}
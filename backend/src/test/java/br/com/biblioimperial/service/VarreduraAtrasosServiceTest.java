@@ -0,0 +1,106 @@
+package br.com.biblioimperial.service;
+
+import br.com.biblioimperial.DadosTeste;
+import br.com.biblioimperial.TesteJpa;
+import br.com.biblioimperial.model.mysql.CheckpointTarefa;
+import br.com.biblioimperial.model.mysql.Emprestimo;
+import br.com.biblioimperial.model.mysql.Exemplar;
+import br.com.biblioimperial.model.mysql.GrupoUsuario;
+import br.com.biblioimperial.model.mysql.Obra;
+import br.com.biblioimperial.model.mysql.Usuario;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Varredura de atrasos percorrendo ATRASADO e depois ATIVO: os empréstimos
+ * vencidos terminam ATRASADO com uma multa pendente cada, os não vencidos
+ * ficam como estavam e o checkpoint do dia termina concluído
+ */
+@TesteJpa
+@Import({VarreduraAtrasosService.class, EmprestimoService.class, ContadorCacheService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class VarreduraAtrasosServiceTest {
+
+    private static final int VENCIDOS_POR_STATUS = 3;
+
+    @Autowired
+    private VarreduraAtrasosService varreduraService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void varreduraMarcaOsVencidosEGeraUmaMultaPorEmprestimo() {
+        // Espera a varredura da inicialização, que roda em outra thread e
+        // conclui o dia com o banco vazio
+        varreduraService.varrer();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            DadosTeste dados = new DadosTeste(entityManager);
+            Obra obra = dados.obra("OBR-1", dados.categoria("CAT-1"), dados.autor("AUT-1"));
+            GrupoUsuario grupo = dados.grupo("GRP-1", 1);
+            int i = 0;
+            for (Emprestimo.StatusEmprestimo situacao : List.of(Emprestimo.StatusEmprestimo.ATIVO,
+                    Emprestimo.StatusEmprestimo.ATRASADO)) {
+                for (int n = 0; n < VENCIDOS_POR_STATUS; n++, i++) {
+                    emprestimo(dados, i, obra, grupo, situacao, LocalDate.now().minusDays(1 + n));
+                }
+            }
+            emprestimo(dados, i, obra, grupo, Emprestimo.StatusEmprestimo.ATIVO, LocalDate.now().plusDays(7));
+            entityManager.createNativeQuery("DELETE FROM checkpoints_tarefas").executeUpdate();
+        });
+
+        varreduraService.varrer();
+        varreduraService.varrer();
+
+        List<Object[]> situacao = transactionTemplate.execute(status -> entityManager.createQuery(
+                "SELECT e.statusEmprestimo, COUNT(e) FROM Emprestimo e GROUP BY e.statusEmprestimo", Object[].class)
+            .getResultList());
+        assertThat(situacao).containsExactlyInAnyOrder(
+            new Object[] {Emprestimo.StatusEmprestimo.ATRASADO, 2L * VENCIDOS_POR_STATUS},
+            new Object[] {Emprestimo.StatusEmprestimo.ATIVO, 1L});
+
+        Long multas = transactionTemplate.execute(status -> entityManager.createQuery(
+            "SELECT COUNT(DISTINCT m.emprestimo) FROM Multa m", Long.class).getSingleResult());
+        assertThat(multas).isEqualTo(2L * VENCIDOS_POR_STATUS);
+
+        CheckpointTarefa checkpoint = transactionTemplate.execute(status ->
+            entityManager.find(CheckpointTarefa.class, VarreduraAtrasosService.NOME_TAREFA));
+        assertThat(checkpoint.getDataReferencia()).isEqualTo(LocalDate.now());
+        assertThat(checkpoint.getCursorStatus()).isEqualTo(Emprestimo.StatusEmprestimo.ATIVO.name());
+        assertThat(checkpoint.getConcluida()).isTrue();
+    }
+
+    private void emprestimo(DadosTeste dados, int i, Obra obra, GrupoUsuario grupo,
+                            Emprestimo.StatusEmprestimo situacao, LocalDate prevista) {
+        Exemplar exemplar = dados.exemplar(String.format("EXE-%05d", i), obra);
+        Usuario usuario = dados.usuario(String.format("USR-%05d", i), grupo);
+        Emprestimo emprestimo = dados.emprestimo(String.format("EMP-%05d", i), exemplar, usuario);
+        emprestimo.setStatusEmprestimo(situacao);
+        emprestimo.setDataPrevistaDevolucao(prevista);
+    }
+
+    @AfterEach
+    void apagar() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (String tabela : List.of("multas", "emprestimos", "exemplares", "obras_autores", "obras",
+                    "autores", "categorias", "usuarios", "grupos_usuarios", "checkpoints_tarefas")) {
+                entityManager.createNativeQuery("DELETE FROM " + tabela).executeUpdate();
+            }
+        });
+    }
+}
@@ -0,0 +1,71 @@
+-- ============================================================================
+-- CONTADORES DE EMPRÉSTIMOS POR OBRA (TABELA DE RESUMO)
+-- ============================================================================
+-- O ranking de obras populares e a view vw_estatisticas_obras passam a ler
+-- contadores mantidos incrementalmente pelo backend a cada empréstimo, em vez
+-- de agregar todo o histórico de empréstimos a cada consulta.
+-- O período 'TOTAL' guarda o histórico completo; os demais são meses 'AAAA-MM'.
+
+USE biblioteca_imperial;
+
+CREATE TABLE IF NOT EXISTS estatisticas_obras (
+    id_obra VARCHAR(30) NOT NULL COMMENT 'Obra contabilizada',
+    periodo VARCHAR(10) NOT NULL COMMENT 'TOTAL ou mês no formato AAAA-MM',
+    total_emprestimos BIGINT NOT NULL DEFAULT 0 COMMENT 'Empréstimos realizados no período',
+    emprestimos_ativos BIGINT NOT NULL DEFAULT 0 COMMENT 'Empréstimos em aberto (apenas TOTAL)',
+    emprestimos_concluidos BIGINT NOT NULL DEFAULT 0 COMMENT 'Empréstimos devolvidos (apenas TOTAL)',
+    data_atualizacao TIMESTAMP NULL COMMENT 'Última atualização dos contadores',
+    PRIMARY KEY (id_obra, periodo)
+) COMMENT='Contadores de empréstimos por obra e período';
+
+CREATE INDEX idx_estatisticas_obras_ranking ON estatisticas_obras(periodo, total_emprestimos);
+-- Justificativa: O ranking lê os N maiores contadores de um período direto do índice.
+
+-- Carga inicial a partir do histórico (o backend também faz isso se a tabela estiver vazia)
+INSERT INTO estatisticas_obras
+    (id_obra, periodo, total_emprestimos, emprestimos_ativos, emprestimos_concluidos, data_atualizacao)
+SELECT ex.id_obra, 'TOTAL', COUNT(*),
+       SUM(e.status_emprestimo IN ('ATIVO', 'ATRASADO')),
+       SUM(e.status_emprestimo = 'DEVOLVIDO'), NOW()
+FROM emprestimos e
+JOIN exemplares ex ON ex.id_exemplar = e.id_exemplar
+GROUP BY ex.id_obra
+ON DUPLICATE KEY UPDATE
+    total_emprestimos = VALUES(total_emprestimos),
+    emprestimos_ativos = VALUES(emprestimos_ativos),
+    emprestimos_concluidos = VALUES(emprestimos_concluidos),
+    data_atualizacao = NOW();
+
+INSERT INTO estatisticas_obras
+    (id_obra, periodo, total_emprestimos, emprestimos_ativos, emprestimos_concluidos, data_atualizacao)
+SELECT ex.id_obra, DATE_FORMAT(e.data_emprestimo, '%Y-%m'), COUNT(*), 0, 0, NOW()
+FROM emprestimos e
+JOIN exemplares ex ON ex.id_exemplar = e.id_exemplar
+GROUP BY ex.id_obra, DATE_FORMAT(e.data_emprestimo, '%Y-%m')
+ON DUPLICATE KEY UPDATE
+    total_emprestimos = VALUES(total_emprestimos),
+    data_atualizacao = NOW();
+
+-- ----------------------------------------------------------------------------
+-- View: vw_estatisticas_obras (redefinida)
+-- Descrição: Mesmas colunas da versão original, mas os contadores de empréstimos
+--            vêm da tabela de resumo. Filtrar por id_obra resolve tudo pela
+--            chave primária, sem o JOIN com o histórico de empréstimos.
+-- ----------------------------------------------------------------------------
+CREATE OR REPLACE VIEW vw_estatisticas_obras AS
+SELECT 
+    o.id_obra,
+    o.titulo,
+    c.nome_categoria,
+    (SELECT COUNT(*) FROM exemplares ex WHERE ex.id_obra = o.id_obra) AS total_exemplares,
+    COALESCE(s.total_emprestimos, 0) AS total_emprestimos,
+    COALESCE(s.emprestimos_ativos, 0) AS emprestimos_ativos,
+    COALESCE(s.emprestimos_concluidos, 0) AS emprestimos_concluidos,
+    (SELECT GROUP_CONCAT(a.nome_autor SEPARATOR ', ')
+       FROM obras_autores oa
+       JOIN autores a ON a.id_autor = oa.id_autor
+      WHERE oa.id_obra = o.id_obra) AS autores
+FROM obras o
+INNER JOIN categorias c ON o.id_categoria = c.id_categoria
+LEFT JOIN estatisticas_obras s ON s.id_obra = o.id_obra AND s.periodo = 'TOTAL'
+WHERE o.ativo = TRUE;
@@ -0,0 +1,55 @@
+// ============================================================================
+// HISTÓRICO DE CONSULTAS COMO SÉRIE TEMPORAL (MongoDB 6+)
+// ============================================================================
+// O backend cria historico_consultas como série temporal apenas quando a
+// coleção ainda não existe (HistoricoConsultaMongoConfig). Este script converte
+// uma coleção comum já existente: renomeia a atual, cria a série temporal e
+// copia as consultas dentro do prazo de retenção em lotes.
+// Executar com o backend parado:
+//   mongosh biblioteca_imperial_nosql HISTORICO_CONSULTAS_SERIE_TEMPORAL.js
+
+const RETENCAO_DIAS = 365; // mesmo valor de biblioteca.historico.retencao-dias
+const TAMANHO_LOTE = 5000;
+
+const info = db.getCollectionInfos({ name: 'historico_consultas' })[0];
+if (!info) {
+    print('historico_consultas não existe; o backend a cria como série temporal');
+    quit();
+}
+if (info.type === 'timeseries') {
+    print('historico_consultas já é série temporal');
+    quit();
+}
+
+db.historico_consultas.renameCollection('historico_consultas_legado');
+
+// idUsuario como metaField: as consultas de cada usuário ficam nos mesmos buckets
+db.createCollection('historico_consultas', {
+    timeseries: { timeField: 'dataHoraConsulta', metaField: 'idUsuario', granularity: 'hours' },
+    expireAfterSeconds: RETENCAO_DIAS * 24 * 60 * 60
+});
+
+const limite = new Date(Date.now() - RETENCAO_DIAS * 24 * 60 * 60 * 1000);
+let lote = [];
+let copiadas = 0;
+db.historico_consultas_legado
+    .find({ dataHoraConsulta: { $gte: limite } })
+    .sort({ dataHoraConsulta: 1 })
+    .forEach(consulta => {
+        lote.push(consulta);
+        if (lote.length === TAMANHO_LOTE) {
+            db.historico_consultas.insertMany(lote, { ordered: false });
+            copiadas += lote.length;
+            lote = [];
+        }
+    });
+if (lote.length > 0) {
+    db.historico_consultas.insertMany(lote, { ordered: false });
+    copiadas += lote.length;
+}
+
+db.historico_consultas.createIndex({ idUsuario: 1, dataHoraConsulta: -1, _id: -1 }, { name: 'idx_usuario_data_id' });
+db.historico_consultas.createIndex({ tipoConsulta: 1, dataHoraConsulta: -1, _id: -1 }, { name: 'idx_tipo_data_id' });
+db.historico_consultas.createIndex({ dataHoraConsulta: 1, _id: 1 }, { name: 'idx_data_id' });
+
+print(`${copiadas} consulta(s) copiada(s); conferir e remover historico_consultas_legado`);
@@ -0,0 +1,13 @@
+-- ============================================================================
+-- ÍNDICES PARA PAGINAÇÃO POR CURSOR (KEYSET)
+-- ============================================================================
+-- As listagens paginadas (/pagina e /stream) buscam "a partir da última chave
+-- recebida" em vez de usar OFFSET. Obras, exemplares, multas e usuários usam a
+-- própria chave primária; empréstimos são ordenados por data, com o id como
+-- desempate, e precisam de um índice composto para o seek.
+
+USE biblioteca_imperial;
+
+CREATE INDEX idx_emprestimos_data_id ON emprestimos(data_emprestimo, id_emprestimo);
+-- Justificativa: Permite que "WHERE (data, id) > (?, ?) ORDER BY data, id LIMIT n"
+-- leia apenas as n linhas da página, independentemente da posição na tabela.
@@ -0,0 +1,32 @@
+-- ============================================================================
+-- VARREDURA DE EMPRÉSTIMOS ATRASADOS
+-- ============================================================================
+-- O status ATRASADO e as multas de atraso passam a ser mantidos por uma tarefa
+-- agendada do backend (VarreduraAtrasosService), que percorre em lotes os
+-- empréstimos vencidos e grava o ponto de parada em checkpoints_tarefas.
+-- A trigger trg_atualizar_status_emprestimo_atrasado só disparava em UPDATE
+-- (e comparava com 'Ativo', valor que o backend não grava mais), então é
+-- removida para não competir com a varredura.
+
+USE biblioteca_imperial;
+
+DROP TRIGGER IF EXISTS trg_atualizar_status_emprestimo_atrasado;
+
+CREATE TABLE IF NOT EXISTS checkpoints_tarefas (
+    nome_tarefa VARCHAR(50) PRIMARY KEY COMMENT 'Identificador da tarefa agendada',
+    data_referencia DATE NULL COMMENT 'Dia a que se refere a execução atual',
+    cursor_status VARCHAR(20) NULL COMMENT 'Status percorrido pela execução atual',
+    cursor_data DATE NULL COMMENT 'Data prevista do último empréstimo processado',
+    cursor_id VARCHAR(30) NULL COMMENT 'Id do último empréstimo processado',
+    concluida BOOLEAN NOT NULL DEFAULT FALSE COMMENT 'Execução do dia concluída',
+    data_atualizacao DATETIME NULL
+);
+-- Tabela criada por uma versão anterior deste script:
+-- ALTER TABLE checkpoints_tarefas ADD COLUMN cursor_status VARCHAR(20) NULL AFTER data_referencia;
+
+CREATE INDEX idx_emprestimos_status_prevista_id
+    ON emprestimos(status_emprestimo, data_prevista_devolucao, id_emprestimo);
+-- Justificativa: a varredura lê "um status em aberto, vencidos, após
+-- (data, id)" em ordem de (data, id), primeiro ATRASADO e depois ATIVO, e
+-- cada lote para no limite sem ordenar nem bloquear o restante; o mesmo
+-- índice atende a listagem /atrasados, que agora é apenas uma busca por status.
@@ -0,0 +1,13 @@
+-- ============================================================================
+-- CONTROLE DE CONCORRÊNCIA NOS EXEMPLARES
+-- ============================================================================
+-- Coluna de versão usada pelo bloqueio otimista (@Version) da entidade
+-- Exemplar. Toda alteração de um exemplar incrementa a versão, e uma
+-- atualização feita sobre uma versão antiga é rejeitada pelo backend.
+-- O empréstimo usa ainda um UPDATE condicional (disponivel = TRUE) para que
+-- dois balcões nunca emprestem o mesmo exemplar ao mesmo tempo.
+
+USE biblioteca_imperial;
+
+ALTER TABLE exemplares
+    ADD COLUMN versao BIGINT NOT NULL DEFAULT 0 COMMENT 'Versão do registro (bloqueio otimista)';
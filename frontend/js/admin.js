@@ -44,6 +44,9 @@ document.addEventListener('DOMContentLoaded', async () => {
     // Carregar dados iniciais
     await carregarDadosIniciais();
     
+    // Carregar os dados de todas as tabs em uma única requisição
+    await carregarDashboard();
+    
     // Carregar usuários na tab ativa
     await carregarUsuarios();
 });
@@ -115,6 +118,46 @@ async function carregarDadosIniciais() {
     }
 }
 
+// ============================================================================
+// DADOS DO PAINEL
+// ============================================================================
+
+// Resposta de /relatorios/dashboard; cada tab usa a sua parte uma vez e, nas
+// recargas seguintes (após editar, por exemplo), busca no próprio endpoint
+let dadosDashboard = null;
+
+async function carregarDashboard() {
+    try {
+        dadosDashboard = await api.get('/relatorios/dashboard');
+    } catch (error) {
+        console.error('Erro ao carregar o painel:', error);
+        dadosDashboard = null;
+    }
+}
+
+function consumirDashboard(chave) {
+    if (!dadosDashboard || dadosDashboard[chave] === undefined) {
+        return null;
+    }
+    const dados = dadosDashboard[chave];
+    delete dadosDashboard[chave];
+    return dados;
+}
+
+// Usuários e obras chegam paginados por cursor: o painel traz a primeira
+// página e "Carregar mais" busca a seguinte em /<recurso>/pagina
+const cursores = { usuarios: null, obras: null };
+
+async function buscarPagina(recurso, apos = null) {
+    const cursor = apos ? `?apos=${encodeURIComponent(apos)}` : '';
+    return api.get(`/${recurso}/pagina${cursor}`);
+}
+
+function atualizarCarregarMais(recurso, pagina) {
+    cursores[recurso] = pagina.proximoCursor;
+    document.getElementById(`${recurso}CarregarMais`).hidden = !pagina.proximoCursor;
+}
+
 // ============================================================================
 // GESTÃO DE USUÁRIOS
 // ============================================================================
@@ -124,14 +167,35 @@ async function carregarUsuarios() {
     tbody.innerHTML = '<tr><td colspan="6" class="loading">Carregando...</td></tr>';
     
     try {
-        const usuarios = await api.get('/usuarios');
+        const pagina = consumirDashboard('usuarios') || await buscarPagina('usuarios');
+        atualizarCarregarMais('usuarios', pagina);
         
-        if (usuarios.length === 0) {
+        if (pagina.itens.length === 0) {
             tbody.innerHTML = '<tr><td colspan="6" class="empty">Nenhum usuário encontrado</td></tr>';
             return;
         }
         
-        tbody.innerHTML = usuarios.map(user => `
+        tbody.innerHTML = pagina.itens.map(linhaUsuario).join('');
+    } catch (error) {
+        console.error('Erro ao carregar usuários:', error);
+        tbody.innerHTML = '<tr><td colspan="6" class="error">Erro ao carregar usuários</td></tr>';
+    }
+}
+
+async function carregarMaisUsuarios() {
+    try {
+        const pagina = await buscarPagina('usuarios', cursores.usuarios);
+        document.getElementById('usuariosTableBody')
+            .insertAdjacentHTML('beforeend', pagina.itens.map(linhaUsuario).join(''));
+        atualizarCarregarMais('usuarios', pagina);
+    } catch (error) {
+        console.error('Erro ao carregar usuários:', error);
+        mostrarErro('Erro ao carregar mais usuários');
+    }
+}
+
+function linhaUsuario(user) {
+    return `
             <tr>
                 <td>${user.nomeCompleto}</td>
                 <td>${user.email}</td>
@@ -155,11 +219,7 @@ async function carregarUsuarios() {
                     </button>
                 </td>
             </tr>
-        `).join('');
-    } catch (error) {
-        console.error('Erro ao carregar usuários:', error);
-        tbody.innerHTML = '<tr><td colspan="6" class="error">Erro ao carregar usuários</td></tr>';
-    }
+        `;
 }
 
 function showAddUserModal() {
@@ -246,7 +306,7 @@ async function carregarAutores() {
     tbody.innerHTML = '<tr><td colspan="4" class="loading">Carregando...</td></tr>';
     
     try {
-        const autores = await api.get('/autores');
+        const autores = consumirDashboard('autores') || await api.get('/autores');
         
         if (autores.length === 0) {
             tbody.innerHTML = '<tr><td colspan="4" class="empty">Nenhum autor encontrado</td></tr>';
@@ -350,7 +410,7 @@ async function carregarCategorias() {
     tbody.innerHTML = '<tr><td colspan="5" class="loading">Carregando...</td></tr>';
     
     try {
-        const categorias = await api.get('/categorias');
+        const categorias = consumirDashboard('categorias') || await api.get('/categorias');
         
         if (categorias.length === 0) {
             tbody.innerHTML = '<tr><td colspan="5" class="empty">Nenhuma categoria encontrada</td></tr>';
@@ -456,13 +516,38 @@ async function excluirCategoria(idCategoria) {
 
 async function carregarRelatorios() {
     try {
-        // Carregar estatísticas
-        const stats = await api.get('/relatorios/estatisticas');
+        // Estatísticas e rankings vêm do painel; já usados, o painel é buscado de novo
+        if (!dadosDashboard || !dadosDashboard.estatisticas) {
+            await carregarDashboard();
+        }
+        const stats = consumirDashboard('estatisticas') || await api.get('/relatorios/estatisticas');
         
         document.getElementById('totalUsuarios').textContent = stats.totalUsuarios || 0;
         document.getElementById('totalObras').textContent = stats.totalObras || 0;
         document.getElementById('totalEmprestimos').textContent = stats.totalEmprestimosAtivos || 0;
         document.getElementById('totalAtrasados').textContent = stats.totalAtrasados || 0;
+        
+        const populares = consumirDashboard('obrasPopulares') || [];
+        document.getElementById('obrasPopularesTableBody').innerHTML = populares.length === 0
+            ? '<tr><td colspan="3" class="empty">Nenhum empréstimo registrado</td></tr>'
+            : populares.map(obra => `
+                <tr>
+                    <td>${obra.posicao}</td>
+                    <td>${obra.titulo || obra.idObra}</td>
+                    <td>${obra.totalEmprestimos}</td>
+                </tr>
+            `).join('');
+        
+        const termos = consumirDashboard('termosMaisBuscados') || [];
+        document.getElementById('termosTableBody').innerHTML = termos.length === 0
+            ? '<tr><td colspan="3" class="empty">Nenhuma busca no período</td></tr>'
+            : termos.map(termo => `
+                <tr>
+                    <td>${termo.termo}</td>
+                    <td>${termo.total}</td>
+                    <td>${termo.semResultado || 0}</td>
+                </tr>
+            `).join('');
     } catch (error) {
         console.error('Erro ao carregar relatórios:', error);
         mostrarErro('Erro ao carregar estatísticas');
@@ -500,15 +585,41 @@ window.onclick = function(event) {
  */
 async function carregarObras() {
     try {
-        const obras = await api.get('/obras');
+        const pagina = consumirDashboard('obras') || await buscarPagina('obras');
         const tbody = document.getElementById('obrasTableBody');
+        atualizarCarregarMais('obras', pagina);
         
-        if (!obras || obras.length === 0) {
+        if (pagina.itens.length === 0) {
             tbody.innerHTML = '<tr><td colspan="7" class="empty">Nenhuma obra cadastrada</td></tr>';
             return;
         }
         
-        tbody.innerHTML = obras.map(obra => `
+        tbody.innerHTML = pagina.itens.map(linhaObra).join('');
+        
+    } catch (error) {
+        console.error('Erro ao carregar obras:', error);
+        document.getElementById('obrasTableBody').innerHTML = 
+            '<tr><td colspan="7" class="error">Erro ao carregar obras</td></tr>';
+    }
+}
+
+/**
+ * Carregar a próxima página de obras
+ */
+async function carregarMaisObras() {
+    try {
+        const pagina = await buscarPagina('obras', cursores.obras);
+        document.getElementById('obrasTableBody')
+            .insertAdjacentHTML('beforeend', pagina.itens.map(linhaObra).join(''));
+        atualizarCarregarMais('obras', pagina);
+    } catch (error) {
+        console.error('Erro ao carregar obras:', error);
+        mostrarErro('Erro ao carregar mais obras');
+    }
+}
+
+function linhaObra(obra) {
+    return `
             <tr>
                 <td><strong>${obra.titulo}</strong>${obra.subtitulo ? `<br><small>${obra.subtitulo}</small>` : ''}</td>
                 <td>${obra.autores?.map(a => a.nomeAutor).join(', ') || '-'}</td>
@@ -525,13 +636,7 @@ async function carregarObras() {
                     </button>
                 </td>
             </tr>
-        `).join('');
-        
-    } catch (error) {
-        console.error('Erro ao carregar obras:', error);
-        document.getElementById('obrasTableBody').innerHTML = 
-            '<tr><td colspan="7" class="error">Erro ao carregar obras</td></tr>';
-    }
+        `;
 }
 
 /**
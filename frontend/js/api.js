@@ -23,10 +23,10 @@ class BibliotecaAPI {
     /**
      * Realiza requisição HTTP genérica
      */
-    async request(endpoint, options = {}) {
+    async request(endpoint, options = {}, renovarSeExpirado = true) {
         const url = `${this.baseUrl}${endpoint}`;
         
-        // Obter credenciais do usuário logado
+        // Obter o token do usuário logado
         const usuario = obterUsuarioLogado();
         
         const defaultOptions = {
@@ -35,19 +35,22 @@ class BibliotecaAPI {
             },
         };
         
-        // Adicionar Basic Auth se usuário estiver logado
-        if (usuario && usuario.email && usuario.senha) {
-            // Para Basic Auth, precisamos de email:senha em base64
-            // ATENÇÃO: Salvar senha no localStorage é APENAS para fins acadêmicos!
-            // Em produção, isso seria um JWT ou OAuth token
-            const credentials = btoa(`${usuario.email}:${usuario.senha}`);
-            defaultOptions.headers['Authorization'] = `Basic ${credentials}`;
+        // Adicionar o token de acesso (JWT) se o usuário estiver logado
+        if (usuario && usuario.tokenAcesso) {
+            defaultOptions.headers['Authorization'] = `Bearer ${usuario.tokenAcesso}`;
         }
 
         const config = { ...defaultOptions, ...options };
 
         try {
             const response = await fetch(url, config);
+
+            // Token de acesso vencido: renova uma vez e repete a requisição
+            if (response.status === 401 && renovarSeExpirado && usuario && usuario.tokenRenovacao) {
+                if (await this.renovarTokens()) {
+                    return this.request(endpoint, options, false);
+                }
+            }
             
             if (!response.ok) {
                 const errorData = await response.json().catch(() => ({}));
@@ -66,6 +69,40 @@ class BibliotecaAPI {
         }
     }
 
+    /**
+     * Troca o token de renovação por novos tokens; sem sucesso, encerra a sessão
+     */
+    async renovarTokens() {
+        const usuario = obterUsuarioLogado();
+        if (!usuario || !usuario.tokenRenovacao) {
+            return false;
+        }
+        if (!this.renovacaoEmAndamento) {
+            this.renovacaoEmAndamento = fetch(`${this.baseUrl}/auth/renovar`, {
+                method: 'POST',
+                headers: { 'Content-Type': 'application/json' },
+                body: JSON.stringify({ tokenRenovacao: usuario.tokenRenovacao }),
+            })
+                .then(response => (response.ok ? response.json() : null))
+                .catch(() => null)
+                .finally(() => {
+                    this.renovacaoEmAndamento = null;
+                });
+        }
+
+        const tokens = await this.renovacaoEmAndamento;
+        if (!tokens) {
+            limparSessao();
+            return false;
+        }
+        salvarUsuarioLogado({
+            ...(obterUsuarioLogado() || usuario),
+            tokenAcesso: tokens.tokenAcesso,
+            tokenRenovacao: tokens.tokenRenovacao,
+        });
+        return true;
+    }
+
     /**
      * GET request
      */
@@ -107,11 +144,10 @@ class BibliotecaAPI {
     async login(email, senha) {
         const response = await this.post('/auth/login', { email, senha });
         
-        // Salvar a senha no localStorage para usar em Basic Auth
-        // ATENÇÃO: Isso é APENAS para fins acadêmicos!
-        // Em produção, NUNCA salve senhas no localStorage!
+        // Guarda os tokens junto do usuário; a senha não fica salva
         if (response && response.usuario) {
-            response.usuario.senha = senha;
+            response.usuario.tokenAcesso = response.tokenAcesso;
+            response.usuario.tokenRenovacao = response.tokenRenovacao;
         }
         
         return response;
@@ -137,6 +173,10 @@ class BibliotecaAPI {
         return this.get(`/obras/buscar?titulo=${encodeURIComponent(titulo)}`);
     }
 
+    async sugerirObras(prefixo, limite = 10) {
+        return this.get(`/obras/sugestoes?prefixo=${encodeURIComponent(prefixo)}&limite=${limite}`);
+    }
+
     async buscarObrasPorCategoria(idCategoria) {
         return this.get(`/obras/categoria/${idCategoria}`);
     }
@@ -201,13 +241,18 @@ class BibliotecaAPI {
         return this.post('/historico-consultas', historico);
     }
 
-    async buscarHistoricoUsuario(idUsuario) {
-        return this.get(`/historico-consultas/usuario/${idUsuario}`);
+    async buscarHistoricoUsuario(idUsuario, apos = null, limite = 50) {
+        const cursor = apos ? `&apos=${encodeURIComponent(apos)}` : '';
+        return this.get(`/historico-consultas/usuario/${idUsuario}?limite=${limite}${cursor}`);
     }
 
     async buscarConsultasRecentes(idUsuario) {
         return this.get(`/historico-consultas/usuario/${idUsuario}/recentes`);
     }
+
+    async buscarRecomendacoes(idUsuario) {
+        return this.get(`/recomendacoes/${idUsuario}`);
+    }
 }
 
 // Instância global da API
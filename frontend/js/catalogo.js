@@ -97,28 +97,9 @@ async function buscarObras() {
     ocultarErro();
 
     try {
-        const usuario = obterUsuarioLogado();
-        
-        // Busca as obras
+        // Busca as obras (o servidor registra a busca no histórico)
         const obras = await api.buscarObrasPorTitulo(termo);
         renderizarObras(obras);
-
-        // Registra a busca no histórico (MongoDB)
-        if (usuario) {
-            try {
-                await api.registrarConsulta({
-                    idUsuario: usuario.id,
-                    nomeUsuario: usuario.nome,
-                    emailUsuario: usuario.email,
-                    tipoConsulta: 'OBRA',
-                    termoBusca: termo,
-                    resultadosIds: obras.map(o => o.idObra),
-                    ipOrigem: 'frontend',
-                });
-            } catch (err) {
-                console.warn('Erro ao registrar consulta:', err);
-            }
-        }
     } catch (error) {
         console.error('Erro ao buscar obras:', error);
         mostrarErro('Erro ao buscar obras. Tente novamente.');